@@ -0,0 +1,126 @@
+package io.github.ebingbo.ilicense.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.ebingbo.ilicense.core.LicenseInfo;
+import io.github.ebingbo.ilicense.core.LicenseKeyRing;
+import io.github.ebingbo.ilicense.core.LicensePayloadCipher;
+import io.github.ebingbo.ilicense.core.LicenseValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uncached activation code validation with a plain signed payload versus an encrypted one, plus the cost of
+ * opening the sealed payload alone. The validation cache is off so every call verifies the RSA-2048 signature.
+ * <p>
+ * {@code openSealed} re-opens the same payload, so the wrapped key comes from the cipher's last-key slot; the
+ * difference between {@code validateEncrypted} and {@code validatePlain} is what decryption adds to a check.
+ * The {@code Shared} variants run the same work on four threads against one validator and cipher, which shows
+ * contention on the last-key slot and the per-thread ciphers; they need at least four CPUs to mean anything.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LicenseValidationBenchmark {
+
+    private LicenseValidator validator;
+    private LicensePayloadCipher cipher;
+    private String plainCode;
+    private String encryptedCode;
+    private byte[] sealed;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair issuer = generator.generateKeyPair();
+        KeyPair client = generator.generateKeyPair();
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.findAndRegisterModules();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("license_code", "LIC-BENCH");
+        payload.put("customer_name", "Benchmark Customer");
+        payload.put("product_name", "Benchmark Product");
+        payload.put("issue_at", OffsetDateTime.now().minusDays(1));
+        payload.put("expire_at", OffsetDateTime.now().plusDays(365));
+        payload.put("modules", "base,advanced,report,export");
+        payload.put("max_instances", 10);
+        byte[] json = mapper.writeValueAsBytes(payload);
+
+        sealed = LicensePayloadCipher.seal(client.getPublic(), json);
+        plainCode = encode(json, sign(json, issuer.getPrivate()), null);
+        encryptedCode = encode(sealed, sign(sealed, issuer.getPrivate()),
+                mapper.writeValueAsBytes(Map.of("enc", LicensePayloadCipher.ALGORITHM)));
+
+        cipher = new LicensePayloadCipher(client.getPrivate());
+        String publicKey = Base64.getEncoder().encodeToString(issuer.getPublic().getEncoded());
+        validator = new LicenseValidator(LicenseKeyRing.of(publicKey), 0, null, null, cipher);
+    }
+
+    @Benchmark
+    public LicenseInfo validatePlain() {
+        return validator.validate(plainCode);
+    }
+
+    @Benchmark
+    public LicenseInfo validateEncrypted() {
+        return validator.validate(encryptedCode);
+    }
+
+    @Benchmark
+    public byte[] openSealed() {
+        return cipher.open(sealed);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public LicenseInfo validateEncryptedShared() {
+        return validator.validate(encryptedCode);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] openSealedShared() {
+        return cipher.open(sealed);
+    }
+
+    private static byte[] sign(byte[] data, PrivateKey privateKey) throws Exception {
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(privateKey);
+        signature.update(data);
+        return signature.sign();
+    }
+
+    private static String encode(byte[] data, byte[] signature, byte[] header) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + data.length + 4 + signature.length
+                + (header == null ? 0 : 4 + header.length));
+        buffer.putInt(data.length).put(data).putInt(signature.length).put(signature);
+        if (header != null) {
+            buffer.putInt(header.length).put(header);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.ebingbo.ilicense.benchmark;
+
+import io.github.ebingbo.ilicense.route.RouteModuleTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route-to-module resolution: compiled trie versus a linear scan over precompiled {@link PathPattern}s.
+ * <p>
+ * Rules look like {@code /api/svc{i}/res{j}/**}, {@code /api/svc{i}/res{j}/{id}/export} and
+ * {@code /api/svc{i}/res{j}/items/*}; the lookup paths hit a rule near the end of the list and miss entirely.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteModuleTrieBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    int rules;
+
+    private RouteModuleTrie trie;
+    private PathPattern[] patterns;
+    private String[] modules;
+
+    private String hitPath;
+    private PathContainer hitContainer;
+    private String missPath;
+    private PathContainer missContainer;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> config = new LinkedHashMap<>();
+        for (int i = 0; config.size() < rules; i++) {
+            String prefix = "/api/svc" + (i / 10) + "/res" + (i % 10);
+            config.put(prefix + "/**", "module" + i);
+            config.put(prefix + "/{id}/export", "module" + i + ".export");
+            config.put(prefix + "/items/*", "module" + i + ".items");
+        }
+        trie = RouteModuleTrie.compile(config);
+
+        PathPatternParser parser = new PathPatternParser();
+        patterns = new PathPattern[config.size()];
+        modules = new String[config.size()];
+        int index = 0;
+        for (Map.Entry<String, String> rule : config.entrySet()) {
+            patterns[index] = parser.parse(rule.getKey());
+            modules[index] = rule.getValue();
+            index++;
+        }
+
+        int last = rules / 3 - 1;
+        hitPath = "/api/svc" + (last / 10) + "/res" + (last % 10) + "/42/export";
+        hitContainer = PathContainer.parsePath(hitPath);
+        missPath = "/static/assets/app.js";
+        missContainer = PathContainer.parsePath(missPath);
+    }
+
+    @Benchmark
+    public String trieHit() {
+        return trie.resolve(hitPath);
+    }
+
+    @Benchmark
+    public String trieMiss() {
+        return trie.resolve(missPath);
+    }
+
+    @Benchmark
+    public String linearHit() {
+        return linear(hitContainer);
+    }
+
+    @Benchmark
+    public String linearMiss() {
+        return linear(missContainer);
+    }
+
+    private String linear(PathContainer path) {
+        PathPattern best = null;
+        String module = null;
+        for (int i = 0; i < patterns.length; i++) {
+            if (patterns[i].matches(path)
+                    && (best == null || PathPattern.SPECIFICITY_COMPARATOR.compare(patterns[i], best) < 0)) {
+                best = patterns[i];
+                module = modules[i];
+            }
+        }
+        return module;
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.ebingbo.ilicense.cli;
+
+import io.github.ebingbo.ilicense.policy.ExpiryPolicy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Command line of {@link LicenseCli}; {@link #parse(String[])} throws {@link IllegalArgumentException} on
+ * usage errors.
+ */
+final class CliOptions {
+
+    static final String STDIN = "-";
+
+    static final String USAGE = """
+            usage: java -jar ilicense-cli.jar --public-key <file|dir> [options] [--code <code>]... [<file|dir|->]...
+
+            Verifies activation codes offline and writes one JSON object per code (JSON Lines). Inputs are
+            license files, directory trees (searched for --name) or '-' for codes on standard input, one per line.
+
+              -k, --public-key <path>           issuer public key (PEM), or a directory of *.pem / *.pub named by key ID
+                  --payload-private-key <path>  client private key (PKCS#8 PEM) for codes with an encrypted payload
+                  --revocation-list <file>      signed revocation list (CRL); revoked codes are reported as not valid
+              -c, --code <code>                 inspect a code given on the command line, repeatable
+              -l, --lines                       every non-blank line of an input file is one code (archives)
+              -n, --name <glob>                 file names to pick up in directories (default: license.dat)
+              -t, --threads <n>                 worker threads (default: available processors)
+              -p, --payload                     include the decoded payload
+                  --at <date-time>              reference time for phases and forecasts (ISO-8601, default: now)
+                  --warning-days <n>            expiry warning window (default: 30)
+                  --grace-days <n>              grace period after expiry (default: 0)
+                  --degraded-days <n>           degraded period after grace (default: 0)
+              -o, --output <file>               write JSON Lines to a file instead of standard output
+              -q, --quiet                       no summary on standard error
+              -h, --help                        show this help
+
+            Exit status: 0 when every code is usable, 1 when any is not, 2 on usage errors.
+            """;
+
+    String publicKey;
+    Path payloadPrivateKey;
+    Path revocationList;
+    final List<String> codes = new ArrayList<>();
+    final List<String> inputs = new ArrayList<>();
+    boolean lines;
+    String name = "license.dat";
+    int threads = Runtime.getRuntime().availableProcessors();
+    boolean payload;
+    Instant at;
+    long warningDays = 30;
+    long graceDays;
+    long degradedDays;
+    Path output;
+    boolean quiet;
+    boolean help;
+
+    private CliOptions() {
+    }
+
+    static CliOptions parse(String[] args) {
+        CliOptions options = new CliOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-k", "--public-key" -> options.publicKey = value(args, ++i, arg);
+                case "--payload-private-key" -> options.payloadPrivateKey = Path.of(value(args, ++i, arg));
+                case "--revocation-list" -> options.revocationList = Path.of(value(args, ++i, arg));
+                case "-c", "--code" -> options.codes.add(value(args, ++i, arg));
+                case "-l", "--lines" -> options.lines = true;
+                case "-n", "--name" -> options.name = value(args, ++i, arg);
+                case "-t", "--threads" -> options.threads = positive(value(args, ++i, arg), arg);
+                case "-p", "--payload" -> options.payload = true;
+                case "--at" -> options.at = instant(value(args, ++i, arg));
+                case "--warning-days" -> options.warningDays = days(value(args, ++i, arg), arg);
+                case "--grace-days" -> options.graceDays = days(value(args, ++i, arg), arg);
+                case "--degraded-days" -> options.degradedDays = days(value(args, ++i, arg), arg);
+                case "-o", "--output" -> options.output = Path.of(value(args, ++i, arg));
+                case "-q", "--quiet" -> options.quiet = true;
+                case "-h", "--help" -> options.help = true;
+                default -> {
+                    if (arg.startsWith("-") && !arg.equals(STDIN)) {
+                        throw new IllegalArgumentException("unknown option: " + arg);
+                    }
+                    options.inputs.add(arg);
+                }
+            }
+        }
+        if (options.help) {
+            return options;
+        }
+        if (options.publicKey == null) {
+            throw new IllegalArgumentException("--public-key is required");
+        }
+        if (options.codes.isEmpty() && options.inputs.isEmpty()) {
+            throw new IllegalArgumentException("nothing to inspect, pass --code, files, directories or -");
+        }
+        return options;
+    }
+
+    ExpiryPolicy expiryPolicy() {
+        return new ExpiryPolicy(Duration.ofDays(warningDays), Duration.ofDays(graceDays),
+                Duration.ofDays(degradedDays), Set.of(), true);
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " requires a value");
+        }
+        return args[index];
+    }
+
+    private static int positive(String value, String option) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException(option + " must be a positive number: " + value);
+    }
+
+    private static long days(String value, String option) {
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException(option + " must be a number of days: " + value);
+    }
+
+    private static Instant instant(String value) {
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException ignored) {
+            // try a plain date next
+        }
+        try {
+            return LocalDate.parse(value).atStartOfDay().toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("--at must be an ISO-8601 date or date-time: " + value);
+        }
+    }
+}
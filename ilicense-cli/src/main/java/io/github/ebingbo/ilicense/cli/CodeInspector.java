@@ -0,0 +1,132 @@
+package io.github.ebingbo.ilicense.cli;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.ebingbo.ilicense.core.LicenseInfo;
+import io.github.ebingbo.ilicense.core.LicensePhase;
+import io.github.ebingbo.ilicense.core.LicenseState;
+import io.github.ebingbo.ilicense.core.LicenseValidator;
+import io.github.ebingbo.ilicense.policy.ExpiryPolicy;
+import io.github.ebingbo.ilicense.revocation.RevocationList;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Verifies one activation code and renders it as a JSON line: the verdict, the phase and the dates of the
+ * coming phase changes under the given expiry policy, the time spent, and optionally the decoded payload.
+ * Thread-safe; the validator runs without a cache so every code is verified.
+ * <p>
+ * Revocation is only checked against a revocation list given on the command line; without one the line has
+ * no {@code revoked} field and {@code valid} covers the signature and the phase only.
+ */
+final class CodeInspector {
+
+    private final LicenseValidator validator;
+    private final RevocationList revocations;
+    private final ObjectMapper objectMapper;
+    private final ExpiryPolicy policy;
+    private final Instant at;
+    private final boolean includePayload;
+
+    CodeInspector(LicenseValidator validator, RevocationList revocations, ExpiryPolicy policy, Instant at,
+                  boolean includePayload) {
+        this.validator = validator;
+        this.revocations = revocations;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.findAndRegisterModules();
+        this.policy = policy;
+        this.at = at;
+        this.includePayload = includePayload;
+    }
+
+    Result inspect(String source, String code) {
+        long start = System.nanoTime();
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("source", source);
+        try {
+            byte[] payload = validator.verifySignedData(code);
+            long verified = System.nanoTime();
+            JsonNode tree = objectMapper.readTree(payload);
+            LicenseInfo info = objectMapper.treeToValue(tree, LicenseInfo.class);
+            long parsed = System.nanoTime();
+
+            LicenseState state = LicenseState.forecast(info, policy);
+            LicensePhase phase = state.phaseAt(at.toEpochMilli());
+            boolean revoked = revocations != null && revocations.isRevoked(info.getLicenseCode());
+            boolean valid = phase.isUsable() && !revoked;
+            line.put("valid", valid);
+            if (revocations != null) {
+                line.put("revoked", revoked);
+            }
+            line.put("phase", phase.name());
+            line.put("license_code", info.getLicenseCode());
+            line.put("customer_name", info.getCustomerName());
+            line.put("product_code", info.getProductCode());
+            line.put("expire_at", instant(state.getExpireAt()));
+            if (info.getExpireAt() != null) {
+                line.put("days_left", ChronoUnit.DAYS.between(at, info.getExpireAt().toInstant()));
+            }
+            ObjectNode forecast = line.putObject("forecast");
+            forecast.put("warning_at", instant(state.getWarningAt()));
+            forecast.put("grace_ends_at", instant(state.getGraceEndsAt()));
+            forecast.put("blocked_at", instant(state.getBlockedAt()));
+            if (includePayload) {
+                line.set("payload", tree);
+            }
+            timing(line, start, verified, parsed);
+            return render(line, valid);
+        } catch (Exception e) {
+            return failure(line, e, start);
+        }
+    }
+
+    /**
+     * A source that could not be read at all.
+     */
+    Result unreadable(String source, Exception e) {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("source", source);
+        return failure(line, e, System.nanoTime());
+    }
+
+    private Result failure(ObjectNode line, Exception e, long start) {
+        line.put("valid", false);
+        line.put("error", e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        timing(line, start, 0L, 0L);
+        return render(line, false);
+    }
+
+    private static void timing(ObjectNode line, long start, long verified, long parsed) {
+        long end = System.nanoTime();
+        ObjectNode timing = line.putObject("timing_us");
+        if (verified != 0L) {
+            timing.put("verify", micros(verified - start));
+            timing.put("parse", micros(parsed - verified));
+        }
+        timing.put("total", micros(end - start));
+    }
+
+    private Result render(ObjectNode line, boolean valid) {
+        try {
+            return new Result(objectMapper.writeValueAsString(line), valid);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double micros(long nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+
+    private static String instant(Instant instant) {
+        return instant == null || instant.equals(Instant.MAX) || instant.equals(Instant.MIN)
+                ? null
+                : instant.toString();
+    }
+
+    record Result(String json, boolean valid) {
+    }
+}
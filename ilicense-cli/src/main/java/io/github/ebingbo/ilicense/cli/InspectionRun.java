@@ -0,0 +1,258 @@
+package io.github.ebingbo.ilicense.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feeds codes to a fixed pool of workers in batches and writes their JSON lines as each batch completes.
+ * <p>
+ * The calling thread only walks directories and splits archives into lines; license files found in a walk
+ * are read by the workers. Archives are memory-mapped window by window. At most two batches per worker are
+ * outstanding, so a run over millions of codes holds a bounded number of them in memory. Output lines are
+ * in completion order, not input order.
+ */
+final class InspectionRun implements AutoCloseable {
+
+    static final int BATCH_SIZE = 256;
+    private static final long MAP_WINDOW = 64L << 20;
+
+    private final CodeInspector inspector;
+    private final Writer out;
+    private final ExecutorService workers;
+    private final Semaphore outstanding;
+    private final LongAdder inspected = new LongAdder();
+    private final LongAdder usable = new LongAdder();
+
+    private List<Item> batch = new ArrayList<>(BATCH_SIZE);
+    private IOException writeFailure;
+
+    InspectionRun(CodeInspector inspector, Writer out, int threads) {
+        this.inspector = inspector;
+        this.out = out;
+        this.outstanding = new Semaphore(threads * 2);
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ilicense-cli-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void code(String source, String code) throws InterruptedException {
+        add(new Item(source, code, null));
+    }
+
+    /**
+     * A file or a directory tree; {@code lines} splits every file into one code per non-blank line.
+     */
+    void path(Path input, String name, boolean lines) throws IOException, InterruptedException {
+        if (!Files.isDirectory(input)) {
+            file(input, lines);
+            return;
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + name);
+        Files.walkFileTree(input, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (!attributes.isRegularFile() || !matcher.matches(file.getFileName())) {
+                    return FileVisitResult.CONTINUE;
+                }
+                try {
+                    try {
+                        file(file, lines);
+                    } catch (IOException e) {
+                        add(new Item(file.toString(), null, e));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return FileVisitResult.TERMINATE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                try {
+                    add(new Item(file.toString(), null, e));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return FileVisitResult.TERMINATE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    void stdin(InputStream in) throws IOException, InterruptedException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII), 1 << 16);
+        String line;
+        long number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (!line.isBlank()) {
+                code("stdin:" + number, line.strip());
+            }
+        }
+    }
+
+    /**
+     * Waits for all codes and flushes the output; returns the number of codes inspected.
+     */
+    long finish() throws IOException, InterruptedException {
+        submit();
+        workers.shutdown();
+        while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+            // keep waiting, a million codes take a while on few cores
+        }
+        synchronized (out) {
+            if (writeFailure != null) {
+                throw writeFailure;
+            }
+            out.flush();
+        }
+        return inspected.sum();
+    }
+
+    long getInspected() {
+        return inspected.sum();
+    }
+
+    long getUsable() {
+        return usable.sum();
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    private void file(Path file, boolean lines) throws IOException, InterruptedException {
+        if (!lines) {
+            add(new Item(file.toString(), null, null));
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            String prefix = file + ":";
+            long size = channel.size();
+            long number = 1;
+            byte[] line = new byte[1024];
+            int length = 0;
+            for (long position = 0; position < size; position += MAP_WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW, size - position));
+                while (window.hasRemaining()) {
+                    byte b = window.get();
+                    if (b == '\n') {
+                        emit(prefix, number++, line, length);
+                        length = 0;
+                    } else if (b != '\r') {
+                        if (length == line.length) {
+                            line = Arrays.copyOf(line, length * 2);
+                        }
+                        line[length++] = b;
+                    }
+                }
+            }
+            emit(prefix, number, line, length);
+        }
+    }
+
+    private void emit(String prefix, long number, byte[] line, int length) throws InterruptedException {
+        String code = new String(line, 0, length, StandardCharsets.ISO_8859_1).strip();
+        if (!code.isEmpty()) {
+            code(prefix + number, code);
+        }
+    }
+
+    private void add(Item item) throws InterruptedException {
+        batch.add(item);
+        if (batch.size() == BATCH_SIZE) {
+            submit();
+        }
+    }
+
+    private void submit() throws InterruptedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Item> items = batch;
+        batch = new ArrayList<>(BATCH_SIZE);
+        outstanding.acquire();
+        try {
+            workers.execute(() -> {
+                try {
+                    inspect(items);
+                } finally {
+                    outstanding.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            outstanding.release();
+            throw e;
+        }
+    }
+
+    private void inspect(List<Item> items) {
+        StringBuilder lines = new StringBuilder(items.size() * 512);
+        int valid = 0;
+        for (Item item : items) {
+            CodeInspector.Result result = item.failure != null
+                    ? inspector.unreadable(item.source, item.failure)
+                    : inspect(item);
+            if (result.valid()) {
+                valid++;
+            }
+            lines.append(result.json()).append('\n');
+        }
+        synchronized (out) {
+            try {
+                out.write(lines.toString());
+            } catch (IOException e) {
+                if (writeFailure == null) {
+                    writeFailure = e;
+                }
+            }
+        }
+        inspected.add(items.size());
+        usable.add(valid);
+    }
+
+    private CodeInspector.Result inspect(Item item) {
+        if (item.code != null) {
+            return inspector.inspect(item.source, item.code);
+        }
+        try {
+            String code = new String(Files.readAllBytes(Path.of(item.source)), StandardCharsets.ISO_8859_1);
+            return inspector.inspect(item.source, code);
+        } catch (IOException e) {
+            return inspector.unreadable(item.source, e);
+        }
+    }
+
+    private record Item(String source, String code, IOException failure) {
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.ebingbo.ilicense.cli;
+
+import io.github.ebingbo.ilicense.core.LicenseKeyRing;
+import io.github.ebingbo.ilicense.core.LicensePayloadCipher;
+import io.github.ebingbo.ilicense.core.LicenseValidator;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.revocation.RevocationList;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Offline activation code inspection: {@code java -jar ilicense-cli.jar --public-key issuer.pem license.dat}.
+ * See {@link CliOptions#USAGE} for the options.
+ */
+public final class LicenseCli {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_INVALID = 1;
+    static final int EXIT_USAGE = 2;
+
+    private LicenseCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.in, System.out, System.err));
+    }
+
+    static int run(String[] args, InputStream in, PrintStream out, PrintStream err) {
+        CliOptions options;
+        try {
+            options = CliOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println("error: " + e.getMessage());
+            err.print(CliOptions.USAGE);
+            return EXIT_USAGE;
+        }
+        if (options.help) {
+            out.print(CliOptions.USAGE);
+            return EXIT_OK;
+        }
+
+        LicenseValidator validator;
+        RevocationList revocations;
+        try {
+            LicenseKeyRing keyRing = new LicenseKeyRing(Map.of(), null, options.publicKey);
+            LicensePayloadCipher payloadCipher = options.payloadPrivateKey == null
+                    ? null
+                    : LicensePayloadCipher.fromFile(options.payloadPrivateKey);
+            validator = new LicenseValidator(keyRing, 0, null, null, payloadCipher);
+            revocations = options.revocationList == null
+                    ? null
+                    : validator.validateRevocationList(
+                            Files.readString(options.revocationList, StandardCharsets.UTF_8).strip());
+        } catch (LicenseException | IOException e) {
+            err.println("error: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        Instant at = options.at == null ? Instant.now() : options.at;
+        CodeInspector inspector = new CodeInspector(validator, revocations, options.expiryPolicy(), at,
+                options.payload);
+
+        long start = System.nanoTime();
+        long inspected;
+        long usable;
+        try (Writer writer = writer(options.output, out);
+             InspectionRun run = new InspectionRun(inspector, writer, options.threads)) {
+            for (int i = 0; i < options.codes.size(); i++) {
+                run.code("arg:" + (i + 1), options.codes.get(i));
+            }
+            for (String input : options.inputs) {
+                if (CliOptions.STDIN.equals(input)) {
+                    run.stdin(in);
+                } else {
+                    run.path(Path.of(input), options.name, options.lines);
+                }
+            }
+            inspected = run.finish();
+            usable = run.getUsable();
+        } catch (IOException e) {
+            err.println("error: " + e.getMessage());
+            return EXIT_USAGE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("error: interrupted");
+            return EXIT_USAGE;
+        }
+
+        if (!options.quiet) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            err.printf(Locale.ROOT, "inspected %d codes in %.2f s (%d usable, %d not usable, %.0f codes/s, %d threads)%n",
+                    inspected, seconds, usable, inspected - usable,
+                    seconds > 0 ? inspected / seconds : 0.0, options.threads);
+        }
+        return usable == inspected ? EXIT_OK : EXIT_INVALID;
+    }
+
+    private static Writer writer(Path output, PrintStream out) throws IOException {
+        if (output != null) {
+            return Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+        }
+        // 不关闭标准输出，只在结束时刷新
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16) {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+}
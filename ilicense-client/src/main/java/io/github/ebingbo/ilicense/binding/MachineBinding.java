@@ -0,0 +1,81 @@
+package io.github.ebingbo.ilicense.binding;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The {@code machine} claim of a license: hashed host identifiers the license is bound to.
+ * <p>
+ * Each listed component matches when the host has at least one of its values. A license matches a host
+ * when at least {@code min_matches} components match, so a NIC swap or a host rename alone does not lock
+ * a customer out; when the claim omits {@code min_matches}, {@link #DEFAULT_MIN_MATCHES} applies. The
+ * client can raise the requirement but never lower it, and at least one component always has to match.
+ */
+@Data
+public class MachineBinding implements Serializable {
+
+    /**
+     * Components required when the claim omits {@code min_matches}.
+     */
+    public static final int DEFAULT_MIN_MATCHES = 2;
+
+    @JsonProperty("mac")
+    private List<String> mac;
+
+    @JsonProperty("hostname")
+    private List<String> hostname;
+
+    @JsonProperty("machine_id")
+    private List<String> machineId;
+
+    @JsonProperty("container")
+    private List<String> container;
+
+    @JsonProperty("min_matches")
+    private Integer minMatches;
+
+    /**
+     * Number of components in the claim that match {@code fingerprint}.
+     */
+    public int score(MachineFingerprint fingerprint) {
+        return matches(mac, fingerprint, MachineFingerprint.MAC)
+                + matches(hostname, fingerprint, MachineFingerprint.HOSTNAME)
+                + matches(machineId, fingerprint, MachineFingerprint.MACHINE_ID)
+                + matches(container, fingerprint, MachineFingerprint.CONTAINER);
+    }
+
+    @JsonIgnore
+    public int getComponentCount() {
+        return count(mac) + count(hostname) + count(machineId) + count(container);
+    }
+
+    /**
+     * Whether {@code fingerprint} matches the claim; {@code clientMinMatches} is a floor on top of the
+     * claim's own requirement, capped at the number of components the claim lists.
+     */
+    public boolean matches(MachineFingerprint fingerprint, int clientMinMatches) {
+        int claimed = minMatches == null ? DEFAULT_MIN_MATCHES : minMatches;
+        int required = Math.min(Math.max(Math.max(claimed, clientMinMatches), 1), getComponentCount());
+        return required > 0 && score(fingerprint) >= required;
+    }
+
+    private static int matches(List<String> claimed, MachineFingerprint fingerprint, String component) {
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+        for (String value : fingerprint.get(component)) {
+            if (claimed.contains(value)) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    private static int count(List<String> claimed) {
+        return claimed == null || claimed.isEmpty() ? 0 : 1;
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.ebingbo.ilicense.binding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hashed identifiers of the host the client runs on.
+ * <p>
+ * Every component value is the SHA-256 hex of the raw identifier, so fingerprints can be sent to the vendor
+ * and embedded in licenses without disclosing MAC addresses or host names. Collecting one enumerates network
+ * interfaces and reads system files; use {@link MachineFingerprintProvider} to keep that off the request path.
+ */
+public final class MachineFingerprint {
+
+    private static final Logger log = LoggerFactory.getLogger(MachineFingerprint.class);
+
+    public static final String MAC = "mac";
+    public static final String HOSTNAME = "hostname";
+    public static final String MACHINE_ID = "machine_id";
+    public static final String CONTAINER = "container";
+
+    private static final List<String> VIRTUAL_NIC_PREFIXES = List.of("veth", "docker", "br-", "virbr", "vmnet",
+            "vboxnet", "tun", "tap", "cni", "flannel", "cali", "kube");
+    private static final List<String> MACHINE_ID_FILES = List.of("etc/machine-id", "var/lib/dbus/machine-id");
+    private static final Pattern CONTAINER_ID = Pattern.compile("[0-9a-f]{64}");
+
+    private final Map<String, Set<String>> components;
+    private final long collectedAt;
+
+    public MachineFingerprint(Map<String, Set<String>> components, long collectedAt) {
+        Map<String, Set<String>> copy = new LinkedHashMap<>();
+        components.forEach((name, values) -> {
+            if (values != null && !values.isEmpty()) {
+                copy.put(name, Collections.unmodifiableSet(new TreeSet<>(values)));
+            }
+        });
+        this.components = Collections.unmodifiableMap(copy);
+        this.collectedAt = collectedAt;
+    }
+
+    public static MachineFingerprint collect() {
+        return collect(Path.of("/"));
+    }
+
+    /**
+     * Collects against another file system root; {@code root} only affects the hostname, machine-id and
+     * cgroup files.
+     */
+    static MachineFingerprint collect(Path root) {
+        Map<String, Set<String>> components = new LinkedHashMap<>();
+        components.put(MAC, macAddresses());
+        components.put(HOSTNAME, hashed(hostname(root)));
+        components.put(MACHINE_ID, hashed(machineId(root)));
+        components.put(CONTAINER, hashed(containerId(root)));
+        return new MachineFingerprint(components, System.currentTimeMillis());
+    }
+
+    /**
+     * Hashed values of {@code component}, empty when it could not be determined.
+     */
+    public Set<String> get(String component) {
+        return components.getOrDefault(component, Set.of());
+    }
+
+    public Map<String, Set<String>> getComponents() {
+        return components;
+    }
+
+    public long getCollectedAt() {
+        return collectedAt;
+    }
+
+    public static String hash(String raw) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(raw.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof MachineFingerprint that && components.equals(that.components);
+    }
+
+    @Override
+    public int hashCode() {
+        return components.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "MachineFingerprint" + components;
+    }
+
+    private static Set<String> hashed(String raw) {
+        return raw == null || raw.isBlank() ? Set.of() : Set.of(hash(raw));
+    }
+
+    private static Set<String> macAddresses() {
+        Set<String> macs = new TreeSet<>();
+        try {
+            for (NetworkInterface nic : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                if (nic.isLoopback() || nic.isVirtual() || isVirtualName(nic.getName())) {
+                    continue;
+                }
+                byte[] address = nic.getHardwareAddress();
+                if (address == null || address.length != 6 || isZero(address)) {
+                    continue;
+                }
+                macs.add(hash(HexFormat.ofDelimiter(":").formatHex(address)));
+            }
+        } catch (SocketException e) {
+            log.debug("failed to enumerate network interfaces: {}", e.getMessage());
+        }
+        return macs;
+    }
+
+    private static boolean isVirtualName(String name) {
+        for (String prefix : VIRTUAL_NIC_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZero(byte[] address) {
+        for (byte b : address) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The kernel's host name. The {@code HOSTNAME} environment variable is not used: any process can set it.
+     */
+    private static String hostname(Path root) {
+        String host = readQuietly(root.resolve("proc/sys/kernel/hostname"));
+        if (host != null && !host.isBlank()) {
+            return host.trim();
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String machineId(Path root) {
+        for (String file : MACHINE_ID_FILES) {
+            String id = readQuietly(root.resolve(file));
+            if (id != null && !id.isBlank()) {
+                return id.trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Container ID from the cgroup (v1) or mount table (v2) of the current process.
+     */
+    private static String containerId(Path root) {
+        for (String file : List.of("proc/self/cgroup", "proc/self/mountinfo")) {
+            String content = readQuietly(root.resolve(file));
+            if (content == null) {
+                continue;
+            }
+            Matcher matcher = CONTAINER_ID.matcher(content);
+            if (matcher.find()) {
+                return matcher.group();
+            }
+        }
+        return null;
+    }
+
+    private static String readQuietly(Path file) {
+        try {
+            return Files.isReadable(file) ? Files.readString(file, StandardCharsets.UTF_8) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.ebingbo.ilicense.binding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Collects the {@link MachineFingerprint} on a background thread and caches it.
+ * <p>
+ * The first collection starts as soon as {@link #start()} is called and is refreshed on a long interval;
+ * readers get the cached value from {@link #current()}, which never touches the OS and is {@code null}
+ * until a collection succeeded. A failed first collection ends {@link #await(Duration)} early; the next
+ * refresh tries again. A change listener is told when a refresh yields a different
+ * fingerprint, and once after the first collection.
+ */
+public class MachineFingerprintProvider implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MachineFingerprintProvider.class);
+
+    private final Supplier<MachineFingerprint> collector;
+    private final Duration refreshInterval;
+    private final CompletableFuture<MachineFingerprint> first = new CompletableFuture<>();
+
+    private volatile MachineFingerprint current;
+    private volatile Consumer<MachineFingerprint> changeListener = fingerprint -> {
+    };
+    private ScheduledExecutorService scheduler;
+
+    public MachineFingerprintProvider(Duration refreshInterval) {
+        this(MachineFingerprint::collect, refreshInterval);
+    }
+
+    public MachineFingerprintProvider(Supplier<MachineFingerprint> collector, Duration refreshInterval) {
+        this.collector = collector;
+        this.refreshInterval = refreshInterval;
+    }
+
+    public void setChangeListener(Consumer<MachineFingerprint> changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ilicense-fingerprint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0L, Math.max(1L, refreshInterval.toMillis()),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The cached fingerprint, or {@code null} while no collection has succeeded yet.
+     */
+    public MachineFingerprint current() {
+        return current;
+    }
+
+    /**
+     * Waits up to {@code timeout} for the first collection; returns {@code null} when it did not finish.
+     */
+    public MachineFingerprint await(Duration timeout) {
+        MachineFingerprint fingerprint = current;
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        try {
+            return first.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    void refresh() {
+        MachineFingerprint collected;
+        long start = System.nanoTime();
+        try {
+            collected = collector.get();
+        } catch (RuntimeException e) {
+            if (current == null) {
+                log.error("failed to collect machine fingerprint, bound licenses are denied until it is collected: {}",
+                        e.getMessage());
+                first.completeExceptionally(e);
+            } else {
+                log.warn("failed to refresh machine fingerprint, keeping the previous one: {}", e.getMessage());
+            }
+            return;
+        }
+        MachineFingerprint previous = current;
+        current = collected;
+        first.complete(collected);
+        if (previous == null) {
+            log.info("machine fingerprint collected in {} ms - components: {}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), collected.getComponents().keySet());
+        } else if (previous.equals(collected)) {
+            return;
+        } else {
+            log.warn("machine fingerprint changed - components: {}", collected.getComponents().keySet());
+        }
+        changeListener.accept(collected);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
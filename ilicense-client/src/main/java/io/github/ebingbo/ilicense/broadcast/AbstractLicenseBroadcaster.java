@@ -0,0 +1,39 @@
+package io.github.ebingbo.ilicense.broadcast;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Gives a broadcaster a random node id and drops the node's own broadcasts on delivery.
+ */
+public abstract class AbstractLicenseBroadcaster implements LicenseBroadcaster {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Consumer<LicenseBroadcast> receiver;
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void start(Consumer<LicenseBroadcast> receiver) {
+        this.receiver = receiver;
+    }
+
+    protected LicenseBroadcast message(String activationCode) {
+        return new LicenseBroadcast(nodeId, System.currentTimeMillis(), activationCode);
+    }
+
+    protected void deliver(LicenseBroadcast broadcast) {
+        Consumer<LicenseBroadcast> current = receiver;
+        if (current != null && !nodeId.equals(broadcast.nodeId())) {
+            current.accept(broadcast);
+        }
+    }
+
+    @Override
+    public void close() {
+        receiver = null;
+    }
+}
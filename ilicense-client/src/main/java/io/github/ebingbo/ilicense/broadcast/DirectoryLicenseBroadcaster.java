@@ -0,0 +1,112 @@
+package io.github.ebingbo.ilicense.broadcast;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts through a directory shared by all nodes, e.g. an NFS export or a volume mounted into every pod.
+ * <p>
+ * The latest broadcast is a single file replaced with an atomic move. Receivers poll its identity,
+ * modification time and size, which is a single {@code stat} and also works on network file systems that
+ * do not deliver change notifications. The file present at start-up is delivered too, so nodes that join
+ * after an activation pick it up.
+ */
+public class DirectoryLicenseBroadcaster extends AbstractLicenseBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectoryLicenseBroadcaster.class);
+
+    static final String FILE_NAME = "activation.broadcast";
+
+    private final Path directory;
+    private final Path file;
+    private final Duration pollInterval;
+
+    private ScheduledExecutorService scheduler;
+    private volatile String lastVersion;
+
+    public DirectoryLicenseBroadcaster(Path directory, Duration pollInterval) {
+        this.directory = directory.toAbsolutePath();
+        this.file = this.directory.resolve(FILE_NAME);
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public synchronized void start(Consumer<LicenseBroadcast> receiver) {
+        super.start(receiver);
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ilicense-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, 0L, Math.max(1L, pollInterval.toMillis()),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(String activationCode) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = directory.resolve(FILE_NAME + "." + getNodeId() + ".tmp");
+            Files.write(temp, message(activationCode).encode());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new LicenseException("failed to write license broadcast " + file, e);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "directory:" + directory;
+    }
+
+    @Override
+    public synchronized void close() {
+        super.close();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    void poll() {
+        try {
+            String version = version();
+            if (version == null || Objects.equals(version, lastVersion)) {
+                return;
+            }
+            lastVersion = version;
+            deliver(LicenseBroadcast.decode(Files.readAllBytes(file)));
+        } catch (NoSuchFileException e) {
+            // replaced between stat and read, the next poll sees the new file
+        } catch (IOException | RuntimeException e) {
+            log.warn("failed to read license broadcast {}: {}", file, e.getMessage());
+        }
+    }
+
+    private String version() throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.fileKey() + ":" + attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+                    + ":" + attributes.size();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
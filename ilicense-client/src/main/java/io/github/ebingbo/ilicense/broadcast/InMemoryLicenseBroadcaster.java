@@ -0,0 +1,48 @@
+package io.github.ebingbo.ilicense.broadcast;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers broadcasts synchronously to the other members of an in-process group; meant for tests and
+ * for several managers in one JVM.
+ */
+public class InMemoryLicenseBroadcaster extends AbstractLicenseBroadcaster {
+
+    private final List<InMemoryLicenseBroadcaster> group;
+
+    public InMemoryLicenseBroadcaster() {
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    private InMemoryLicenseBroadcaster(List<InMemoryLicenseBroadcaster> group) {
+        this.group = group;
+        group.add(this);
+    }
+
+    /**
+     * A new member of this broadcaster's group.
+     */
+    public InMemoryLicenseBroadcaster join() {
+        return new InMemoryLicenseBroadcaster(group);
+    }
+
+    @Override
+    public void publish(String activationCode) {
+        LicenseBroadcast broadcast = message(activationCode);
+        for (InMemoryLicenseBroadcaster member : group) {
+            member.deliver(broadcast);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "memory:" + group.size();
+    }
+
+    @Override
+    public void close() {
+        group.remove(this);
+        super.close();
+    }
+}
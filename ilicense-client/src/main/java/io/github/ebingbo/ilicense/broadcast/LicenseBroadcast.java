@@ -0,0 +1,41 @@
+package io.github.ebingbo.ilicense.broadcast;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An activation code announced by one node to its peers.
+ * <p>
+ * On the wire it is UTF-8 text: a header line, the sender's node id, the send time in epoch millis and
+ * the activation code. Nothing in it is trusted; receivers verify the code like any other activation code.
+ *
+ * @param nodeId         random id of the sending broadcaster, used to drop a node's own broadcasts
+ * @param sentAt         epoch millis on the sender, used to keep the newest of a burst
+ * @param activationCode the activation code as accepted by the sender
+ */
+public record LicenseBroadcast(String nodeId, long sentAt, String activationCode) {
+
+    static final String HEADER = "ilicense-broadcast/1";
+
+    public byte[] encode() {
+        return (HEADER + "\n" + nodeId + "\n" + sentAt + "\n" + activationCode).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static LicenseBroadcast decode(byte[] data, int offset, int length) {
+        String text = new String(data, offset, length, StandardCharsets.UTF_8);
+        String[] parts = text.split("\n", 4);
+        if (parts.length != 4 || !HEADER.equals(parts[0]) || parts[1].isEmpty() || parts[3].isBlank()) {
+            throw new LicenseException("malformed license broadcast");
+        }
+        try {
+            return new LicenseBroadcast(parts[1], Long.parseLong(parts[2]), parts[3].trim());
+        } catch (NumberFormatException e) {
+            throw new LicenseException("malformed license broadcast");
+        }
+    }
+
+    public static LicenseBroadcast decode(byte[] data) {
+        return decode(data, 0, data.length);
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.ebingbo.ilicense.broadcast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Collapses bursts of broadcasts into one: the first broadcast of a burst opens a window, later ones only
+ * replace the pending broadcast when they were sent later, and when the window closes the newest one is
+ * handed to the target on the coalescer's own thread, off the transport's receiving thread.
+ */
+public class LicenseBroadcastCoalescer implements Consumer<LicenseBroadcast>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LicenseBroadcastCoalescer.class);
+
+    private final Consumer<LicenseBroadcast> target;
+    private final long windowMillis;
+    private final AtomicReference<LicenseBroadcast> pending = new AtomicReference<>();
+    private final ScheduledExecutorService scheduler;
+
+    public LicenseBroadcastCoalescer(Consumer<LicenseBroadcast> target, Duration window) {
+        this.target = target;
+        this.windowMillis = Math.max(0L, window.toMillis());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ilicense-broadcast-apply");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void accept(LicenseBroadcast broadcast) {
+        LicenseBroadcast previous = pending.getAndAccumulate(broadcast,
+                (current, next) -> current == null || next.sentAt() >= current.sentAt() ? next : current);
+        if (previous == null) {
+            try {
+                scheduler.schedule(this::drain, windowMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                pending.set(null);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void drain() {
+        LicenseBroadcast broadcast = pending.getAndSet(null);
+        if (broadcast == null) {
+            return;
+        }
+        try {
+            target.accept(broadcast);
+        } catch (RuntimeException e) {
+            log.warn("failed to apply license broadcast from node {}: {}", broadcast.nodeId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.ebingbo.ilicense.broadcast;
+
+import java.util.function.Consumer;
+
+/**
+ * Fans an accepted activation code out to the other instances of the application, so activating one node
+ * activates the cluster.
+ * <p>
+ * A broadcaster only carries the code. Receivers verify its signature before they apply it, so transports
+ * need neither authentication nor ordering guarantees; duplicates and bursts are coalesced on the
+ * receiving side by {@link LicenseBroadcastCoalescer}.
+ */
+public interface LicenseBroadcaster extends AutoCloseable {
+
+    /**
+     * Starts delivering broadcasts from other nodes to {@code receiver}; the node's own broadcasts are not
+     * delivered. Delivery happens on the broadcaster's thread, so receivers must hand off slow work.
+     */
+    void start(Consumer<LicenseBroadcast> receiver);
+
+    void publish(String activationCode);
+
+    String describe();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,52 @@
+package io.github.ebingbo.ilicense.broadcast;
+
+import io.github.ebingbo.ilicense.config.LicenseClientProperties;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Builds the broadcaster configured by {@code LicenseClientProperties#getBroadcastType()}.
+ */
+public final class LicenseBroadcasters {
+
+    public static final String NONE = "none";
+    public static final String DIRECTORY = "directory";
+    public static final String MULTICAST = "multicast";
+
+    private LicenseBroadcasters() {
+    }
+
+    /**
+     * Returns {@code null} when broadcasting is off.
+     */
+    public static LicenseBroadcaster create(LicenseClientProperties properties) {
+        String type = properties.getBroadcastType() == null
+                ? NONE
+                : properties.getBroadcastType().trim().toLowerCase(Locale.ROOT);
+        return switch (type) {
+            case NONE, "" -> null;
+            case DIRECTORY -> {
+                if (properties.getBroadcastDirectory() == null || properties.getBroadcastDirectory().isBlank()) {
+                    throw new LicenseException("directory license broadcast requires a broadcast directory");
+                }
+                yield new DirectoryLicenseBroadcaster(Path.of(properties.getBroadcastDirectory()),
+                        properties.getBroadcastPollInterval());
+            }
+            case MULTICAST -> new MulticastLicenseBroadcaster(group(properties.getBroadcastGroup()),
+                    properties.getBroadcastPort(), properties.getBroadcastInterface(), properties.getBroadcastTtl());
+            default -> throw new LicenseException("unknown license broadcast type: " + type);
+        };
+    }
+
+    private static InetAddress group(String address) {
+        try {
+            return InetAddress.getByName(address);
+        } catch (UnknownHostException e) {
+            throw new LicenseException("invalid license broadcast group: " + address, e);
+        }
+    }
+}
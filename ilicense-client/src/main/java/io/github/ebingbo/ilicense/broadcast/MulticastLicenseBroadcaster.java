@@ -0,0 +1,150 @@
+package io.github.ebingbo.ilicense.broadcast;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts over UDP multicast on the local network segment.
+ * <p>
+ * Every node joins the same group and port; a broadcast is a single datagram, sent twice because UDP may
+ * drop it. Duplicates are harmless: receivers coalesce bursts and skip codes they already run.
+ */
+public class MulticastLicenseBroadcaster extends AbstractLicenseBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(MulticastLicenseBroadcaster.class);
+
+    static final int MAX_DATAGRAM = 65_507;
+    private static final int SENDS = 2;
+
+    private final InetSocketAddress group;
+    private final String interfaceName;
+    private final int ttl;
+
+    private DatagramChannel channel;
+    private Thread receiverThread;
+
+    public MulticastLicenseBroadcaster(InetAddress group, int port, String interfaceName, int ttl) {
+        if (!group.isMulticastAddress()) {
+            throw new LicenseException("not a multicast address: " + group.getHostAddress());
+        }
+        this.group = new InetSocketAddress(group, port);
+        this.interfaceName = interfaceName;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public synchronized void start(Consumer<LicenseBroadcast> receiver) {
+        super.start(receiver);
+        if (channel != null) {
+            return;
+        }
+        try {
+            NetworkInterface networkInterface = resolveInterface();
+            channel = DatagramChannel.open(group.getAddress() instanceof Inet4Address
+                            ? StandardProtocolFamily.INET
+                            : StandardProtocolFamily.INET6)
+                    .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                    .bind(new InetSocketAddress(group.getPort()))
+                    .setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface)
+                    .setOption(StandardSocketOptions.IP_MULTICAST_TTL, ttl);
+            channel.join(group.getAddress(), networkInterface);
+            log.info("license broadcast joined {} on {}", describe(), networkInterface.getName());
+        } catch (IOException e) {
+            close();
+            throw new LicenseException("failed to join license broadcast group " + describe(), e);
+        }
+        DatagramChannel current = channel;
+        receiverThread = new Thread(() -> receive(current), "ilicense-broadcast");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    @Override
+    public void publish(String activationCode) {
+        byte[] data = message(activationCode).encode();
+        if (data.length > MAX_DATAGRAM) {
+            throw new LicenseException("activation code too large for a multicast datagram: " + data.length);
+        }
+        DatagramChannel current;
+        synchronized (this) {
+            current = channel;
+        }
+        if (current == null) {
+            throw new LicenseException("license broadcast not started: " + describe());
+        }
+        try {
+            for (int i = 0; i < SENDS; i++) {
+                current.send(ByteBuffer.wrap(data), group);
+            }
+        } catch (IOException e) {
+            throw new LicenseException("failed to send license broadcast to " + describe(), e);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "multicast:" + group.getAddress().getHostAddress() + ":" + group.getPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        super.close();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("failed to close license broadcast channel", e);
+            }
+            channel = null;
+        }
+        receiverThread = null;
+    }
+
+    private void receive(DatagramChannel current) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM);
+        while (current.isOpen()) {
+            try {
+                buffer.clear();
+                current.receive(buffer);
+                buffer.flip();
+                deliver(LicenseBroadcast.decode(buffer.array(), 0, buffer.limit()));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("dropped license broadcast datagram: {}", e.getMessage());
+            }
+        }
+    }
+
+    private NetworkInterface resolveInterface() throws SocketException {
+        if (interfaceName != null && !interfaceName.isBlank()) {
+            NetworkInterface named = NetworkInterface.getByName(interfaceName);
+            if (named == null) {
+                throw new LicenseException("network interface not found: " + interfaceName);
+            }
+            return named;
+        }
+        for (NetworkInterface candidate : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            if (candidate.isUp() && candidate.supportsMulticast() && !candidate.isLoopback()
+                    && !candidate.isVirtual() && candidate.getInetAddresses().hasMoreElements()) {
+                return candidate;
+            }
+        }
+        throw new LicenseException("no multicast-capable network interface, set the broadcast interface");
+    }
+}
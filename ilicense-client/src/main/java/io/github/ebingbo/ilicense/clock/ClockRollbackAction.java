@@ -0,0 +1,14 @@
+package io.github.ebingbo.ilicense.clock;
+
+public enum ClockRollbackAction {
+
+    /**
+     * Keep the license usable for the configured grace period after a rollback is detected.
+     */
+    GRACE,
+
+    /**
+     * Treat the license as expired as soon as a rollback is detected.
+     */
+    EXPIRE
+}
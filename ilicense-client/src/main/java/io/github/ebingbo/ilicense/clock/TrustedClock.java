@@ -0,0 +1,285 @@
+package io.github.ebingbo.ilicense.clock;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Wall clock that never runs backwards across restarts.
+ * <p>
+ * The highest observed time is kept as an HMAC-protected record in a small memory-mapped file. While
+ * running, elapsed time is derived from {@link System#nanoTime()}, so moving the system clock back
+ * neither rewinds {@link #millis()} nor goes unnoticed. The mark is rewritten at most once per persist
+ * interval, from whichever caller first crosses the interval; {@link #flush()} and {@link #close()} write it
+ * unconditionally.
+ * <p>
+ * When history is expected (a license is already stored) a missing, truncated or unsigned mark counts as
+ * tampering. The detection is recorded in the signed mark, so restarting does not clear it; only removing
+ * the stored license together with the mark starts over.
+ */
+public class TrustedClock implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TrustedClock.class);
+
+    private static final int MAGIC = 0x494C434B;
+    private static final int LEGACY_FORMAT_VERSION = 1;
+    private static final int LEGACY_RECORD_SIZE = 4 + 4 + 8 + 32;
+    private static final int FORMAT_VERSION = 2;
+    private static final int RECORD_SIZE = 4 + 4 + 8 + 8 + 32;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String MISSING = "is missing";
+    private static final String SHORT = "is truncated";
+    private static final String INVALID = "failed integrity check";
+
+    private static final TrustedClock SYSTEM = new TrustedClock();
+
+    private final Path markFile;
+    private final SecretKeySpec macKey;
+    private final long persistIntervalNanos;
+    private final long toleranceMillis;
+
+    private final long baseMillis;
+    private final long baseNanos;
+
+    private FileChannel channel;
+    private MappedByteBuffer mark;
+
+    private volatile long lastPersistNanos;
+    private volatile long tamperedAtMillis;
+    private long persistedHighWater;
+    private volatile long rollbackDetectedNanos;
+    private volatile long rollbackDetectedMillis;
+    private volatile boolean rollbackDetected;
+    private volatile Runnable rollbackListener;
+
+    private TrustedClock() {
+        this.markFile = null;
+        this.macKey = null;
+        this.persistIntervalNanos = Long.MAX_VALUE;
+        this.toleranceMillis = 0L;
+        this.baseMillis = 0L;
+        this.baseNanos = 0L;
+    }
+
+    public TrustedClock(Path markFile, String secret, Duration persistInterval, Duration tolerance) {
+        this(markFile, secret, persistInterval, tolerance, false);
+    }
+
+    /**
+     * {@code historyExpected} says a mark must already exist, because a license is stored next to it.
+     */
+    public TrustedClock(Path markFile, String secret, Duration persistInterval, Duration tolerance,
+                        boolean historyExpected) {
+        this.markFile = markFile;
+        this.macKey = new SecretKeySpec(sha256(secret), HMAC_ALGORITHM);
+        this.persistIntervalNanos = persistInterval.toNanos();
+        this.toleranceMillis = tolerance.toMillis();
+
+        Mark opened = open();
+        long highWater = opened.highWater;
+        persistedHighWater = highWater;
+        long systemMillis = System.currentTimeMillis();
+        if (opened.tamperedAt != 0L) {
+            tamperedAtMillis = opened.tamperedAt;
+            markRollback("clock mark file " + markFile + " was tampered with at "
+                    + Instant.ofEpochMilli(opened.tamperedAt), opened.tamperedAt);
+        } else if (opened.problem != null && (historyExpected || INVALID.equals(opened.problem))) {
+            tamperedAtMillis = Math.max(systemMillis, highWater);
+            markRollback("clock mark file " + markFile + " " + opened.problem, tamperedAtMillis);
+        } else if (highWater - systemMillis > toleranceMillis) {
+            markRollback("system clock is " + Duration.ofMillis(highWater - systemMillis)
+                    + " behind the recorded high-water mark", highWater);
+        }
+        this.baseMillis = Math.max(systemMillis, highWater);
+        this.baseNanos = System.nanoTime();
+        persist(baseMillis, baseNanos);
+    }
+
+    public static TrustedClock system() {
+        return SYSTEM;
+    }
+
+    public long millis() {
+        long systemMillis = System.currentTimeMillis();
+        if (mark == null) {
+            return systemMillis;
+        }
+
+        long nowNanos = System.nanoTime();
+        long monotonicMillis = baseMillis + (nowNanos - baseNanos) / 1_000_000L;
+        if (monotonicMillis - systemMillis > toleranceMillis && !rollbackDetected) {
+            markRollback("system clock moved back by " + Duration.ofMillis(monotonicMillis - systemMillis), monotonicMillis);
+        }
+
+        long trusted = Math.max(systemMillis, monotonicMillis);
+        if (nowNanos - lastPersistNanos >= persistIntervalNanos) {
+            persist(trusted, nowNanos);
+        }
+        return trusted;
+    }
+
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+
+    public boolean isRollbackDetected() {
+        return rollbackDetected;
+    }
+
+    /**
+     * Trusted time at which the rollback was detected, or {@code 0} when no rollback was seen.
+     */
+    public long getRollbackDetectedMillis() {
+        return rollbackDetectedMillis;
+    }
+
+    /**
+     * Registers a callback for rollback detection; it runs immediately when a rollback was already seen.
+     */
+    public void setRollbackListener(Runnable listener) {
+        this.rollbackListener = listener;
+        if (rollbackDetected && listener != null) {
+            listener.run();
+        }
+    }
+
+    public Duration sinceRollback() {
+        return rollbackDetected ? Duration.ofNanos(System.nanoTime() - rollbackDetectedNanos) : Duration.ZERO;
+    }
+
+    /**
+     * Writes the current high-water mark and forces it to storage, regardless of the persist interval.
+     */
+    public synchronized void flush() {
+        if (mark != null) {
+            long trusted = millis();
+            write(trusted, System.nanoTime());
+            mark.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (mark == null) {
+            return;
+        }
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("failed to close clock mark file {}: {}", markFile, e.getMessage());
+        }
+    }
+
+    private Mark open() {
+        try {
+            Path dir = markFile.getParent();
+            if (dir != null && !Files.exists(dir)) {
+                Files.createDirectories(dir);
+            }
+            long size = Files.exists(markFile) ? Files.size(markFile) : -1L;
+            channel = FileChannel.open(markFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mark = channel.map(FileChannel.MapMode.READ_WRITE, 0, RECORD_SIZE);
+            if (size < 0L) {
+                return new Mark(0L, 0L, MISSING);
+            }
+            if (size < LEGACY_RECORD_SIZE || (size < RECORD_SIZE && mark.getInt(4) != LEGACY_FORMAT_VERSION)) {
+                return new Mark(0L, 0L, size == 0L ? MISSING : SHORT);
+            }
+
+            int version = mark.getInt(4);
+            long highWater = mark.getLong(8);
+            long tamperedAt = version == FORMAT_VERSION ? mark.getLong(16) : 0L;
+            int signatureAt = version == FORMAT_VERSION ? 24 : 16;
+            byte[] expected = version == FORMAT_VERSION ? sign(highWater, tamperedAt) : signLegacy(highWater);
+            byte[] actual = new byte[32];
+            mark.get(signatureAt, actual);
+            if (mark.getInt(0) != MAGIC || (version != FORMAT_VERSION && version != LEGACY_FORMAT_VERSION)
+                    || !MessageDigest.isEqual(expected, actual)) {
+                return new Mark(0L, 0L, INVALID);
+            }
+            return new Mark(highWater, tamperedAt, null);
+        } catch (IOException e) {
+            throw new LicenseException("failed to open clock mark file " + markFile, e);
+        }
+    }
+
+    private synchronized void persist(long millis, long nowNanos) {
+        if (nowNanos - lastPersistNanos < persistIntervalNanos && lastPersistNanos != 0L) {
+            return;
+        }
+        write(millis, nowNanos);
+    }
+
+    private synchronized void write(long millis, long nowNanos) {
+        long highWater = Math.max(persistedHighWater, millis);
+        long tamperedAt = tamperedAtMillis;
+        mark.putInt(0, MAGIC);
+        mark.putInt(4, FORMAT_VERSION);
+        mark.putLong(8, highWater);
+        mark.putLong(16, tamperedAt);
+        mark.put(24, sign(highWater, tamperedAt));
+        persistedHighWater = highWater;
+        lastPersistNanos = nowNanos;
+    }
+
+    private void markRollback(String reason, long trustedMillis) {
+        rollbackDetectedNanos = System.nanoTime();
+        rollbackDetectedMillis = trustedMillis;
+        rollbackDetected = true;
+        log.error("clock rollback detected: {}", reason);
+
+        Runnable listener = rollbackListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    private byte[] sign(long highWater, long tamperedAt) {
+        return hmac(FORMAT_VERSION, highWater, tamperedAt);
+    }
+
+    private byte[] signLegacy(long highWater) {
+        return hmac(highWater);
+    }
+
+    private byte[] hmac(long... values) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(macKey);
+            for (long value : values) {
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    mac.update((byte) (value >>> shift));
+                }
+            }
+            return mac.doFinal();
+        } catch (Exception e) {
+            throw new LicenseException("failed to sign clock mark", e);
+        }
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new LicenseException("failed to derive clock key", e);
+        }
+    }
+
+    private record Mark(long highWater, long tamperedAt, String problem) {
+    }
+}
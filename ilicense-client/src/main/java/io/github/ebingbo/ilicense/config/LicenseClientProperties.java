@@ -1,7 +1,13 @@
 package io.github.ebingbo.ilicense.config;
 
+import io.github.ebingbo.ilicense.clock.ClockRollbackAction;
+import io.github.ebingbo.ilicense.shared.SharedStatusRole;
 import lombok.Data;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 public class LicenseClientProperties {
 
@@ -15,5 +21,107 @@ public class LicenseClientProperties {
 
     private int expiryWarningDays = 30;
 
+    private Duration gracePeriod = Duration.ZERO;
+
+    private Duration degradedPeriod = Duration.ZERO;
+
+    private List<String> degradedModules = new ArrayList<>();
+
+    private boolean degradedReadOnly = true;
+
     private String apiPrefix = "/api/license";
+
+    private String revocationListPath;
+
+    private boolean clockTrackingEnabled = false;
+
+    private Duration clockPersistInterval = Duration.ofMinutes(1);
+
+    private Duration clockRollbackTolerance = Duration.ofMinutes(5);
+
+    private ClockRollbackAction clockRollbackAction = ClockRollbackAction.GRACE;
+
+    private Duration clockRollbackGracePeriod = Duration.ofHours(24);
+
+    private String clockSecret;
+
+    private SharedStatusRole sharedStatusRole = SharedStatusRole.OFF;
+
+    private String sharedStatusPath;
+
+    private String sharedStatusSecret;
+
+    private boolean onlineEnabled = false;
+
+    private String serverUrl;
+
+    private String licenseKey;
+
+    private String instanceId;
+
+    private Duration checkInInterval = Duration.ofHours(1);
+
+    private Duration onlineRequestTimeout = Duration.ofSeconds(10);
+
+    private Duration onlineBackoffBase = Duration.ofSeconds(5);
+
+    private Duration onlineBackoffMax = Duration.ofMinutes(30);
+
+    private Duration onlineStartupJitter = Duration.ofSeconds(10);
+
+    private String onlineCachePath;
+
+    private boolean meteringEnabled = false;
+
+    private String meteringPath;
+
+    private Duration meteringFlushInterval = Duration.ofMinutes(1);
+
+    private long meteringSegmentSize = 1024 * 1024;
+
+    private int meteringMaxSegments = 16;
+
+    private String meteringSecret;
+
+    private boolean bindingEnabled = false;
+
+    private boolean bindingRequired = false;
+
+    private int bindingMinMatches = 1;
+
+    private Duration bindingRefreshInterval = Duration.ofHours(24);
+
+    private Duration bindingTimeout = Duration.ofSeconds(10);
+
+    private List<String> storeChain = new ArrayList<>(List.of("file"));
+
+    private String storeEnvVariable = "ILICENSE_ACTIVATION_CODE";
+
+    private String storeSecretDirectory = "/var/run/secrets/ilicense";
+
+    private String storeSecretKey = "activation-code";
+
+    private String storeClasspathResource = "license/activation-code.lic";
+
+    private String storeJdbcTable = "ilicense_store";
+
+    private String storeJdbcName = "default";
+
+    private boolean storeJdbcInitialize = true;
+
+    private String broadcastType = "none";
+
+    private String broadcastDirectory;
+
+    private Duration broadcastPollInterval = Duration.ofMillis(250);
+
+    private String broadcastGroup = "239.255.76.73";
+
+    private int broadcastPort = 7476;
+
+    private String broadcastInterface;
+
+    private int broadcastTtl = 1;
+
+    private Duration broadcastCoalesceWindow = Duration.ofMillis(100);
 }
@@ -0,0 +1,108 @@
+package io.github.ebingbo.ilicense.core;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Guards record-by-record processing with a {@link LicensePermit} that is renewed once per chunk.
+ * <p>
+ * Elements inside a chunk pass through untouched; before the first element of each chunk the permit is
+ * {@linkplain LicensePermit#renew() renewed}, so expiry, revocation and re-activation take effect at the
+ * next chunk boundary and a {@link io.github.ebingbo.ilicense.exception.LicenseException} stops the
+ * iteration there.
+ */
+public final class LicenseBatches {
+
+    private LicenseBatches() {
+    }
+
+    public static <T> Iterable<T> guard(LicensePermit permit, Iterable<T> records, int chunkSize) {
+        Objects.requireNonNull(permit, "permit");
+        checkChunkSize(chunkSize);
+        return () -> new GuardedIterator<>(permit, records.iterator(), chunkSize);
+    }
+
+    /**
+     * The returned stream is sequential; it does not split for parallel processing.
+     */
+    public static <T> Stream<T> guard(LicensePermit permit, Stream<T> records, int chunkSize) {
+        Objects.requireNonNull(permit, "permit");
+        checkChunkSize(chunkSize);
+        Spliterator<T> source = records.spliterator();
+        return StreamSupport.stream(new GuardedSpliterator<>(permit, source, chunkSize), false)
+                .onClose(records::close);
+    }
+
+    private static void checkChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+        }
+    }
+
+    private static final class GuardedIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> delegate;
+        private final int chunkSize;
+        private LicensePermit permit;
+        private int remaining;
+
+        GuardedIterator(LicensePermit permit, Iterator<T> delegate, int chunkSize) {
+            this.permit = permit;
+            this.delegate = delegate;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (remaining == 0) {
+                permit = permit.renew();
+                remaining = chunkSize;
+            }
+            T next = delegate.next();
+            remaining--;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            delegate.remove();
+        }
+    }
+
+    private static final class GuardedSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final Spliterator<T> delegate;
+        private final int chunkSize;
+        private LicensePermit permit;
+        private int remaining;
+
+        GuardedSpliterator(LicensePermit permit, Spliterator<T> delegate, int chunkSize) {
+            super(delegate.estimateSize(), delegate.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED));
+            this.permit = permit;
+            this.delegate = delegate;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return delegate.tryAdvance(element -> {
+                if (remaining == 0) {
+                    permit = permit.renew();
+                    remaining = chunkSize;
+                }
+                remaining--;
+                action.accept(element);
+            });
+        }
+    }
+}
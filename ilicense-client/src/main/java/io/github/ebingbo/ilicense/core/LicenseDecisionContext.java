@@ -0,0 +1,90 @@
+package io.github.ebingbo.ilicense.core;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * One consistent license decision for a request or other unit of work, bound to the opening thread.
+ * <p>
+ * While a context is open, {@link LicenseManager#checkLicense(boolean)},
+ * {@link LicenseManager#checkModule(String, boolean)} and {@link LicenseManager#getPhase()} on that thread answer from the state snapshot and clock reading taken
+ * when it was opened, and checks that passed once are not evaluated again. The context also holds a
+ * {@link LicenseUsageScope}, so each module is metered once per unit of work. A license activated, revoked or
+ * expiring in the middle of the unit of work therefore takes effect for the next one. Contexts nest: opening
+ * one while another is open on the same thread joins it, and only the outermost {@link #close()} unbinds it.
+ * <p>
+ * Keep units of work short; long-running batches should use {@link LicenseManager#permit(boolean, String...)},
+ * which notices state changes.
+ */
+public final class LicenseDecisionContext implements AutoCloseable {
+
+    private final LicenseManager licenseManager;
+    private final LicenseState state;
+    private final LicensePhase phase;
+    private final LicenseUsageScope usage;
+
+    private int depth = 1;
+    private boolean licenseGranted;
+    private boolean readOnlyGranted;
+    private Set<String> grantedModules;
+    private Set<String> readOnlyModules;
+
+    LicenseDecisionContext(LicenseManager licenseManager, LicenseState state, LicensePhase phase,
+                           LicenseUsageScope usage) {
+        this.licenseManager = licenseManager;
+        this.state = state;
+        this.phase = phase;
+        this.usage = usage;
+    }
+
+    public LicenseState getState() {
+        return state;
+    }
+
+    public LicensePhase getPhase() {
+        return phase;
+    }
+
+    @Override
+    public void close() {
+        if (--depth == 0) {
+            licenseManager.unbind(this);
+            usage.close();
+        }
+    }
+
+    void join() {
+        depth++;
+    }
+
+    boolean isLicenseGranted(boolean readOnly) {
+        return licenseGranted || (readOnly && readOnlyGranted);
+    }
+
+    void grantLicense(boolean readOnly) {
+        if (readOnly) {
+            readOnlyGranted = true;
+        } else {
+            licenseGranted = true;
+        }
+    }
+
+    boolean isModuleGranted(String module, boolean readOnly) {
+        return grantedModules != null && grantedModules.contains(module)
+                || readOnly && readOnlyModules != null && readOnlyModules.contains(module);
+    }
+
+    void grantModule(String module, boolean readOnly) {
+        if (readOnly) {
+            if (readOnlyModules == null) {
+                readOnlyModules = new HashSet<>(4);
+            }
+            readOnlyModules.add(module);
+        } else {
+            if (grantedModules == null) {
+                grantedModules = new HashSet<>(4);
+            }
+            grantedModules.add(module);
+        }
+    }
+}
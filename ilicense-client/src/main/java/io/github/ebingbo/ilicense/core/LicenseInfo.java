@@ -2,7 +2,13 @@ package io.github.ebingbo.ilicense.core;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.github.ebingbo.ilicense.binding.MachineBinding;
+import io.github.ebingbo.ilicense.entitlement.LicenseEntitlements;
+import io.github.ebingbo.ilicense.module.ModuleGrants;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.io.Serializable;
 import java.time.Instant;
@@ -44,6 +50,12 @@ public class LicenseInfo implements Serializable {
     @JsonProperty("max_instances")
     private Integer maxInstances;
 
+    @JsonProperty("entitlements")
+    private LicenseEntitlements entitlements;
+
+    @JsonProperty("machine")
+    private MachineBinding machine;
+
     @JsonProperty("valid")
     @JsonIgnore
     private transient boolean valid;
@@ -52,11 +64,34 @@ public class LicenseInfo implements Serializable {
     @JsonIgnore
     private transient long daysLeft;
 
+    @JsonIgnore
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private transient ModuleGrants moduleGrants;
+
     public boolean isExpired() {
-        return expireAt != null && expireAt.toInstant().isBefore(Instant.now());
+        return isExpired(Instant.now());
+    }
+
+    public boolean isExpired(Instant now) {
+        return expireAt != null && expireAt.toInstant().isBefore(now);
+    }
+
+    public void setModules(String modules) {
+        this.modules = modules;
+        this.moduleGrants = ModuleGrants.parse(modules);
+    }
+
+    public ModuleGrants getModuleGrants() {
+        ModuleGrants grants = moduleGrants;
+        if (grants == null) {
+            grants = ModuleGrants.parse(modules);
+            moduleGrants = grants;
+        }
+        return grants;
     }
 
     public boolean hasModule(String moduleName) {
-        return modules != null && modules.contains(moduleName);
+        return getModuleGrants().isGranted(moduleName);
     }
 }
@@ -0,0 +1,258 @@
+package io.github.ebingbo.ilicense.core;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Trusted public keys indexed by key ID.
+ * <p>
+ * Every key is registered under its configured ID (or file name) and under its fingerprint, so the
+ * verifier for an activation code is a single map lookup. Keys loaded from a file or directory can be
+ * reloaded at runtime; the previous key set stays in effect when a reload fails.
+ */
+public class LicenseKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(LicenseKeyRing.class);
+
+    public static final String DEFAULT_KEY_ID = "default";
+
+    private static final Pattern PEM_BLOCK = Pattern.compile(
+            "-----BEGIN PUBLIC KEY-----(.*?)-----END PUBLIC KEY-----", Pattern.DOTALL);
+
+    private final Map<String, String> inlineKeys;
+    private final String primaryKeyId;
+    private final Path location;
+
+    private volatile Snapshot snapshot;
+
+    public LicenseKeyRing(Map<String, String> inlineKeys, String primaryKeyId, String location) {
+        this(inlineKeys, primaryKeyId, location, true);
+    }
+
+    private LicenseKeyRing(Map<String, String> inlineKeys, String primaryKeyId, String location, boolean eager) {
+        this.inlineKeys = inlineKeys == null ? Map.of() : new LinkedHashMap<>(inlineKeys);
+        this.primaryKeyId = primaryKeyId;
+        this.location = location == null || location.isBlank() ? null : Paths.get(location);
+        if (eager) {
+            this.snapshot = load();
+        }
+    }
+
+    /**
+     * Single-key ring whose key is parsed on first use, matching the historical behaviour of
+     * {@code new LicenseValidator(publicKey)}.
+     */
+    public static LicenseKeyRing of(String publicKey) {
+        return new LicenseKeyRing(Map.of(DEFAULT_KEY_ID, publicKey), DEFAULT_KEY_ID, null, false);
+    }
+
+    public PublicKey resolve(String keyId) {
+        Snapshot current = snapshot();
+        if (keyId == null || keyId.isEmpty()) {
+            if (current.primary == null) {
+                throw new LicenseException("no primary public key configured");
+            }
+            return current.primary;
+        }
+        PublicKey key = current.keys.get(keyId);
+        if (key == null) {
+            throw new LicenseException("unknown public key id: " + keyId);
+        }
+        return key;
+    }
+
+    public Set<String> getKeyIds() {
+        return snapshot().keys.keySet();
+    }
+
+    /**
+     * Identity of the currently loaded key set; changes on every successful reload.
+     */
+    Object currentKeys() {
+        return snapshot();
+    }
+
+    public boolean isReloadable() {
+        return location != null;
+    }
+
+    public boolean reloadIfChanged() {
+        if (location == null || locationStamp() == snapshot().stamp) {
+            return false;
+        }
+        return reload();
+    }
+
+    public boolean reload() {
+        try {
+            Snapshot loaded = load();
+            this.snapshot = loaded;
+            log.info("public keys reloaded - key ids: {}", loaded.keys.keySet());
+            return true;
+        } catch (Exception e) {
+            log.error("failed to reload public keys from {}, keeping previous keys: {}", location, e.getMessage());
+            return false;
+        }
+    }
+
+    public static String fingerprint(PublicKey publicKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (Exception e) {
+            throw new LicenseException("failed to compute public key fingerprint", e);
+        }
+    }
+
+    public static PublicKey parsePublicKey(String publicKeyStr) {
+        try {
+            String cleaned = publicKeyStr
+                    .replace("-----BEGIN PUBLIC KEY-----", "")
+                    .replace("-----END PUBLIC KEY-----", "")
+                    .replaceAll("\\s", "");
+
+            byte[] keyBytes = Base64.getDecoder().decode(cleaned);
+            X509EncodedKeySpec spec = new X509EncodedKeySpec(keyBytes);
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            return keyFactory.generatePublic(spec);
+        } catch (Exception e) {
+            throw new LicenseException("invalid public key: " + e.getMessage(), e);
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        long stamp = locationStamp();
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        List<PublicKey> ordered = new ArrayList<>();
+
+        inlineKeys.forEach((id, pem) -> register(keys, ordered, id, parsePublicKey(pem)));
+
+        if (location != null) {
+            loadLocation(keys, ordered);
+        }
+
+        if (keys.isEmpty()) {
+            throw new LicenseException("no public key configured");
+        }
+
+        PublicKey primary;
+        if (primaryKeyId != null && !primaryKeyId.isEmpty()) {
+            primary = keys.get(primaryKeyId);
+            if (primary == null) {
+                throw new LicenseException("primary public key not found: " + primaryKeyId);
+            }
+        } else {
+            primary = ordered.get(0);
+        }
+        return new Snapshot(Collections.unmodifiableMap(keys), primary, stamp);
+    }
+
+    private void loadLocation(Map<String, PublicKey> keys, List<PublicKey> ordered) {
+        try {
+            if (Files.isDirectory(location)) {
+                List<Path> files = new ArrayList<>();
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(location, "*.{pem,pub}")) {
+                    stream.forEach(files::add);
+                }
+                files.sort(null);
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    String id = name.substring(0, name.lastIndexOf('.'));
+                    List<String> blocks = pemBlocks(Files.readString(file, StandardCharsets.UTF_8));
+                    for (int i = 0; i < blocks.size(); i++) {
+                        register(keys, ordered, i == 0 ? id : id + "-" + i, parsePublicKey(blocks.get(i)));
+                    }
+                }
+            } else {
+                for (String block : pemBlocks(Files.readString(location, StandardCharsets.UTF_8))) {
+                    register(keys, ordered, null, parsePublicKey(block));
+                }
+            }
+        } catch (IOException e) {
+            throw new LicenseException("failed to read public keys from " + location, e);
+        }
+    }
+
+    private static List<String> pemBlocks(String content) {
+        List<String> blocks = new ArrayList<>();
+        Matcher matcher = PEM_BLOCK.matcher(content);
+        while (matcher.find()) {
+            blocks.add(matcher.group(1));
+        }
+        if (blocks.isEmpty() && !content.isBlank()) {
+            blocks.add(content);
+        }
+        return blocks;
+    }
+
+    private static void register(Map<String, PublicKey> keys, List<PublicKey> ordered, String id, PublicKey key) {
+        if (id != null) {
+            keys.put(id, key);
+        }
+        keys.putIfAbsent(fingerprint(key), key);
+        ordered.add(key);
+    }
+
+    private long locationStamp() {
+        if (location == null) {
+            return 0L;
+        }
+        try {
+            if (!Files.isDirectory(location)) {
+                BasicFileAttributes attributes = Files.readAttributes(location, BasicFileAttributes.class);
+                return attributes.lastModifiedTime().toMillis() * 31 + attributes.size();
+            }
+            long stamp = 17;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(location, "*.{pem,pub}")) {
+                for (Path file : stream) {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    stamp += file.getFileName().hashCode() * 31L
+                            + attributes.lastModifiedTime().toMillis() * 7 + attributes.size();
+                }
+            }
+            return stamp;
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    private record Snapshot(Map<String, PublicKey> keys, PublicKey primary, long stamp) {
+    }
+}
@@ -1,34 +1,191 @@
 package io.github.ebingbo.ilicense.core;
 
+import io.github.ebingbo.ilicense.binding.MachineBinding;
+import io.github.ebingbo.ilicense.binding.MachineFingerprint;
+import io.github.ebingbo.ilicense.binding.MachineFingerprintProvider;
+import io.github.ebingbo.ilicense.broadcast.LicenseBroadcast;
+import io.github.ebingbo.ilicense.broadcast.LicenseBroadcastCoalescer;
+import io.github.ebingbo.ilicense.broadcast.LicenseBroadcaster;
+import io.github.ebingbo.ilicense.broadcast.LicenseBroadcasters;
+import io.github.ebingbo.ilicense.clock.ClockRollbackAction;
+import io.github.ebingbo.ilicense.clock.TrustedClock;
 import io.github.ebingbo.ilicense.config.LicenseClientProperties;
+import io.github.ebingbo.ilicense.entitlement.EntitlementEnforcer;
+import io.github.ebingbo.ilicense.entitlement.LicenseEntitlements;
 import io.github.ebingbo.ilicense.event.LicenseEventListener;
+import io.github.ebingbo.ilicense.exception.LicenseBindingException;
+import io.github.ebingbo.ilicense.exception.LicenseDegradedException;
 import io.github.ebingbo.ilicense.exception.LicenseException;
 import io.github.ebingbo.ilicense.exception.LicenseExpiredException;
 import io.github.ebingbo.ilicense.exception.LicenseNotFoundException;
+import io.github.ebingbo.ilicense.exception.LicenseQuotaExceededException;
+import io.github.ebingbo.ilicense.exception.LicenseRevokedException;
+import io.github.ebingbo.ilicense.exception.LicenseStoreConflictException;
+import io.github.ebingbo.ilicense.jfr.LicenseFileIOEvent;
+import io.github.ebingbo.ilicense.jfr.LicenseStateTransitionEvent;
+import io.github.ebingbo.ilicense.metering.UsageJournal;
+import io.github.ebingbo.ilicense.metering.UsageMeter;
+import io.github.ebingbo.ilicense.metering.UsageReportSigner;
+import io.github.ebingbo.ilicense.metering.UsageSummary;
+import io.github.ebingbo.ilicense.policy.ExpiryPolicy;
+import io.github.ebingbo.ilicense.revocation.RevocationList;
+import io.github.ebingbo.ilicense.shared.SharedStatusFile;
+import io.github.ebingbo.ilicense.shared.SharedStatusRole;
+import io.github.ebingbo.ilicense.store.LicenseStore;
+import io.github.ebingbo.ilicense.store.LicenseStores;
+import io.github.ebingbo.ilicense.store.StoredLicense;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
 
-public class LicenseManager {
+public class LicenseManager implements AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(LicenseManager.class);
 
     private final LicenseClientProperties properties;
     private final LicenseValidator validator;
     private final LicenseEventListener eventListener;
+    private final TrustedClock clock;
+    private final ExpiryPolicy policy;
+    private final EntitlementEnforcer entitlements = new EntitlementEnforcer();
+    private final SharedStatusFile sharedStatus;
+    private final boolean subscriber;
+    private final UsageMeter usageMeter;
+    private final MachineFingerprintProvider fingerprints;
+    private final LicenseStore store;
+    private final LicenseBroadcaster broadcaster;
+    private final LicenseBroadcastCoalescer broadcastReceiver;
+    private final ThreadLocal<LicenseDecisionContext> decisions = new ThreadLocal<>();
+    private final ThreadLocal<LicenseUsageScope> usageScopes = new ThreadLocal<>();
+    private final Object activationLock = new Object();
 
-    private volatile LicenseInfo currentLicense;
+    private volatile LicenseState state = LicenseState.EMPTY;
+    private volatile LicensePhase observedPhase;
+    private volatile RevocationList revocationList = RevocationList.EMPTY;
+    private volatile long revocationListStamp = Long.MIN_VALUE;
+    private volatile long sharedSequence;
+    private volatile boolean storeObserved;
+    private volatile String storeVersion;
+    private volatile String activeCode;
 
     public LicenseManager(LicenseClientProperties properties,
                           LicenseValidator validator,
                           LicenseEventListener eventListener) {
+        this(properties, validator, eventListener, null);
+    }
+
+    /**
+     * @param store where the activation code is read from and saved to; {@code null} builds the store
+     *              configured by {@code LicenseClientProperties#getStoreChain()}
+     */
+    public LicenseManager(LicenseClientProperties properties,
+                          LicenseValidator validator,
+                          LicenseEventListener eventListener,
+                          LicenseStore store) {
+        this(properties, validator, eventListener, store, null);
+    }
+
+    /**
+     * @param broadcaster fans activations out to the other nodes; {@code null} builds the broadcaster
+     *                    configured by {@code LicenseClientProperties#getBroadcastType()}
+     */
+    public LicenseManager(LicenseClientProperties properties,
+                          LicenseValidator validator,
+                          LicenseEventListener eventListener,
+                          LicenseStore store,
+                          LicenseBroadcaster broadcaster) {
         this.properties = properties;
         this.validator = validator;
         this.eventListener = eventListener == null ? LicenseEventListener.NO_OP : eventListener;
+        this.clock = createClock(properties);
+        this.policy = ExpiryPolicy.from(properties);
+        this.clock.setRollbackListener(this::applyClockRollback);
+        this.sharedStatus = createSharedStatus(properties);
+        this.subscriber = sharedStatus != null && properties.getSharedStatusRole() == SharedStatusRole.SUBSCRIBER;
+        this.store = store == null ? LicenseStores.create(properties, null) : store;
+        this.usageMeter = createUsageMeter(properties);
+        this.fingerprints = properties.isEnabled()
+                ? new MachineFingerprintProvider(properties.getBindingRefreshInterval())
+                : null;
+        // subscribers follow the host's publisher, which receives broadcasts on their behalf
+        this.broadcaster = !properties.isEnabled() || subscriber
+                ? null
+                : broadcaster == null ? LicenseBroadcasters.create(properties) : broadcaster;
+        this.broadcastReceiver = this.broadcaster == null
+                ? null
+                : new LicenseBroadcastCoalescer(this::applyBroadcast, properties.getBroadcastCoalesceWindow());
+    }
+
+    private static UsageMeter createUsageMeter(LicenseClientProperties properties) {
+        if (!properties.isEnabled() || !properties.isMeteringEnabled()) {
+            return null;
+        }
+        Path file = properties.getMeteringPath() == null || properties.getMeteringPath().isBlank()
+                ? Paths.get(Paths.get(properties.getStoragePath()).toAbsolutePath() + ".usage")
+                : Paths.get(properties.getMeteringPath());
+        UsageJournal journal;
+        try {
+            journal = new UsageJournal(file, properties.getMeteringSegmentSize(), properties.getMeteringMaxSegments());
+            log.info("usage metering journal - file: {}", journal.getPath());
+        } catch (LicenseException e) {
+            journal = null;
+            log.warn("usage metering kept in memory only: {}", e.getMessage());
+        }
+        return new UsageMeter(journal);
+    }
+
+    private static SharedStatusFile createSharedStatus(LicenseClientProperties properties) {
+        SharedStatusRole role = properties.getSharedStatusRole();
+        if (!properties.isEnabled() || role == null || role == SharedStatusRole.OFF) {
+            return null;
+        }
+        Path storagePath = Paths.get(properties.getStoragePath()).toAbsolutePath();
+        Path file = properties.getSharedStatusPath() == null || properties.getSharedStatusPath().isBlank()
+                ? Paths.get(storagePath + ".status")
+                : Paths.get(properties.getSharedStatusPath());
+        String secret = properties.getSharedStatusSecret();
+        if (secret == null || secret.isBlank()) {
+            throw new LicenseException("license.shared-status-secret is required when shared status is enabled");
+        }
+        log.info("shared license status {} - file: {}", role.name().toLowerCase(), file);
+        return role == SharedStatusRole.PUBLISHER
+                ? SharedStatusFile.publisher(file, secret)
+                : SharedStatusFile.subscriber(file, secret);
+    }
+
+    private static TrustedClock createClock(LicenseClientProperties properties) {
+        if (!properties.isEnabled() || !properties.isClockTrackingEnabled()) {
+            return TrustedClock.system();
+        }
+        // a key derived from the storage path could be recomputed by anyone who wants to rewrite the high-water mark
+        if (properties.getClockSecret() == null || properties.getClockSecret().isBlank()) {
+            throw new LicenseException("license.clock-secret is required when clock tracking is enabled");
+        }
+        Path storagePath = Paths.get(properties.getStoragePath()).toAbsolutePath();
+        return new TrustedClock(
+                Paths.get(storagePath + ".clock"),
+                properties.getClockSecret(),
+                properties.getClockPersistInterval(),
+                properties.getClockRollbackTolerance(),
+                hasStoredLicense(storagePath)
+        );
+    }
+
+    private static boolean hasStoredLicense(Path storagePath) {
+        try {
+            return Files.isRegularFile(storagePath) && Files.size(storagePath) > 0;
+        } catch (IOException e) {
+            return true;
+        }
     }
 
     public void init() {
@@ -37,21 +194,56 @@ public class LicenseManager {
             return;
         }
 
+        if (properties.isBindingEnabled()) {
+            startFingerprints();
+        }
+
+        if (subscriber) {
+            syncSharedStatus();
+        } else {
+            refreshRevocationList();
+        }
+
+        if (usageMeter != null) {
+            usageMeter.start(properties.getMeteringFlushInterval());
+        }
+
         if (properties.isValidateOnStartup()) {
             performStartupValidation();
         }
+
+        if (broadcaster != null) {
+            broadcaster.start(broadcastReceiver);
+            log.info("license broadcast started: {}", broadcaster.describe());
+        }
     }
 
     private void performStartupValidation() {
+        awaitFingerprint(null);
         try {
-            loadLicenseFromFile();
+            if (!subscriber) {
+                loadLicenseFromStore();
+            }
+            LicenseInfo loaded = state.getLicense();
+            if (state.isBindingMismatch() && isBound(loaded) && getMachineFingerprint() == null) {
+                awaitFingerprint(loaded);
+                applyBinding();
+            }
 
-            if (currentLicense == null) {
+            LicenseState current = state;
+            LicensePhase phase = current.phaseAt(clock.millis());
+            if (!current.isActivated()) {
                 handleNoLicense();
-            } else if (currentLicense.isExpired()) {
-                handleExpiredLicense();
+            } else if (current.isRevoked()) {
+                handleRevokedLicense(current.getLicense());
+            } else if (current.isBindingMismatch()) {
+                handleBindingMismatch(current.getLicense());
+            } else if (phase == LicensePhase.BLOCKED) {
+                handleExpiredLicense(current);
+            } else if (!phase.isUsable()) {
+                handleDegradedLicense(current.getLicense());
             } else {
-                handleValidLicense();
+                handleValidLicense(current.getLicense(), phase);
             }
 
         } catch (Exception e) {
@@ -71,128 +263,838 @@ public class LicenseManager {
         }
     }
 
-    private void handleExpiredLicense() {
-        log.error("license expired - expiry date: {}", currentLicense.getExpireAt());
+    private void handleExpiredLicense(LicenseState current) {
+        log.error("license expired - expiry date: {}", current.getLicense().getExpireAt());
 
-        eventListener.onExpired(currentLicense);
+        eventListener.onExpired(current.getLicense());
 
         if (!properties.isAllowStartWhenExpired()) {
-            throw new LicenseExpiredException("license expired, startup failed: " + currentLicense.getExpireAt());
+            throw new LicenseExpiredException("license expired, startup failed: " + expiredMessage(current));
         }
     }
 
-    private void handleValidLicense() {
+    private void handleDegradedLicense(LicenseInfo license) {
+        log.error("license expired, running in degraded mode - expiry date: {}, allowed modules: {}",
+                license.getExpireAt(), policy.getDegradedModules());
+
+        eventListener.onExpired(license);
+    }
+
+    private void handleRevokedLicense(LicenseInfo license) {
+        log.error("license revoked - license code: {}", license.getLicenseCode());
+
+        eventListener.onRevoked(license);
+
+        if (!properties.isAllowStartWhenExpired()) {
+            throw new LicenseRevokedException("license revoked, startup failed: " + license.getLicenseCode());
+        }
+    }
+
+    private void handleBindingMismatch(LicenseInfo license) {
+        log.error("license is bound to another machine - license code: {}", license.getLicenseCode());
+
+        if (!properties.isAllowStartWhenExpired()) {
+            throw new LicenseBindingException("license is bound to another machine, startup failed: "
+                    + license.getLicenseCode());
+        }
+    }
+
+    private void handleValidLicense(LicenseInfo license, LicensePhase phase) {
         log.info("license validation successful - customer: {}, product: {}, expiry: {}, days left: {}",
-                truncate(currentLicense.getCustomerName(), 20),
-                truncate(currentLicense.getProductName(), 20),
-                currentLicense.getExpireAt(),
-                currentLicense.getDaysLeft());
+                truncate(license.getCustomerName(), 20),
+                truncate(license.getProductName(), 20),
+                license.getExpireAt(),
+                license.getDaysLeft());
 
-        checkExpiryWarning();
+        if (phase == LicensePhase.GRACE) {
+            log.warn("license expired, running in grace period until {}", state.getGraceEndsAt());
+            eventListener.onExpired(license);
+        } else {
+            checkExpiryWarning(license, phase);
+        }
     }
 
-    private void checkExpiryWarning() {
-        if (currentLicense.getDaysLeft() <= properties.getExpiryWarningDays()) {
-            log.warn("license will expire in {} days, please renew", currentLicense.getDaysLeft());
-            eventListener.onExpiringSoon(currentLicense, currentLicense.getDaysLeft());
+    private void checkExpiryWarning(LicenseInfo license, LicensePhase phase) {
+        if (phase == LicensePhase.WARNING) {
+            log.warn("license will expire in {} days, please renew", license.getDaysLeft());
+            eventListener.onExpiringSoon(license, license.getDaysLeft());
         }
     }
 
     public void checkLicenseStatus() {
-        if (currentLicense == null) {
+        if (subscriber) {
+            syncSharedStatus();
+        } else {
+            loadRevocationList();
+            reloadIfStoreChanged();
+        }
+        clock.flush();
+
+        LicenseState current = state;
+        if (!current.isActivated()) {
             log.info("skipping check: not activated");
             return;
         }
 
-        if (currentLicense.isExpired()) {
-            log.error("periodic check: license expired");
-            eventListener.onExpired(currentLicense);
+        Instant now = clock.instant();
+        LicenseInfo license = current.getLicense();
+        LicensePhase phase = current.phaseAt(now.toEpochMilli());
+        if (license.getExpireAt() != null) {
+            license.setDaysLeft(ChronoUnit.DAYS.between(now, license.getExpireAt().toInstant()));
+        }
+        license.setValid(phase.isUsable());
+        notifyPhase(license, phase);
+
+        if (current.isRevoked()) {
+            log.error("periodic check: license revoked - license code: {}", license.getLicenseCode());
+            eventListener.onRevoked(license);
+        } else if (phase.compareTo(LicensePhase.GRACE) >= 0) {
+            log.error("periodic check: license expired - phase: {}", phase);
+            eventListener.onExpired(license);
         } else {
-            checkExpiryWarning();
+            checkExpiryWarning(license, phase);
         }
     }
 
     public LicenseInfo activate(String activationCode) {
         log.info("starting license activation");
+        if (subscriber) {
+            throw new LicenseException("license is managed by the shared status publisher: " + sharedStatus.getFile());
+        }
 
-        LicenseInfo license = validator.validate(activationCode);
+        LicenseInfo license = install(activationCode, validator.validate(activationCode));
 
-        if (license.isExpired()) {
-            throw new LicenseExpiredException("license expired: " + license.getExpireAt());
+        if (broadcaster != null) {
+            try {
+                broadcaster.publish(activationCode);
+            } catch (LicenseException e) {
+                log.warn("failed to broadcast activation to other nodes: {}", e.getMessage());
+            }
         }
 
-        saveLicenseToFile(activationCode);
-        this.currentLicense = license;
+        log.info("license activated successfully: {}", license.getCustomerName());
 
-        eventListener.onActivated(license);
+        return license;
+    }
 
-        log.info("license activated successfully: {}", license.getCustomerName());
+    private LicenseInfo install(String activationCode, LicenseInfo license) {
+        if (revocationList.isRevoked(license.getLicenseCode())) {
+            throw new LicenseRevokedException("license revoked: " + license.getLicenseCode());
+        }
+        awaitFingerprint(license);
+        LicenseState candidate = buildState(license, state.getGeneration());
+        if (candidate.isBindingMismatch()) {
+            throw bindingDenied(license);
+        }
+        if (candidate.phaseAt(clock.millis()).compareTo(LicensePhase.GRACE) >= 0) {
+            throw new LicenseExpiredException(expiredMessage(candidate));
+        }
 
+        // racing activations are serialized so the store and the published state name the same license;
+        // the store write stays outside the monitor that state publication and the periodic check share
+        synchronized (activationLock) {
+            saveLicenseToStore(activationCode);
+            synchronized (this) {
+                activeCode = activationCode;
+                publish(license);
+            }
+        }
+
+        eventListener.onActivated(license);
         return license;
     }
 
+    /**
+     * Applies an activation code broadcast by another node. The code is verified like a local activation,
+     * but broadcasts are not authenticated, so it only replaces the installed license when it continues it:
+     * same license code, customer code and product code, issued no earlier than the installed one. Replays
+     * of older codes therefore cannot roll a node back. A node without a license accepts any verified code.
+     */
+    private void applyBroadcast(LicenseBroadcast broadcast) {
+        String activationCode = broadcast.activationCode();
+        if (activationCode.equals(activeCode)) {
+            return;
+        }
+        try {
+            LicenseInfo license = validator.validate(activationCode);
+            LicenseInfo current = state.getLicense();
+            if (current != null && !sameLineage(current, license)) {
+                log.warn("ignored broadcast of a license that does not continue the installed one - installed: {}, broadcast: {}",
+                        current.getLicenseCode(), license.getLicenseCode());
+                return;
+            }
+            if (current != null && current.getIssueAt() != null && license.getIssueAt() != null
+                    && license.getIssueAt().isBefore(current.getIssueAt())) {
+                log.warn("ignored broadcast of a license issued before the current one: {}", license.getLicenseCode());
+                return;
+            }
+            install(activationCode, license);
+            log.info("license activated from broadcast of node {}: {}", broadcast.nodeId(), license.getCustomerName());
+        } catch (LicenseException e) {
+            log.warn("rejected activation broadcast of node {}: {}", broadcast.nodeId(), e.getMessage());
+        }
+    }
+
+    private static boolean sameLineage(LicenseInfo installed, LicenseInfo candidate) {
+        return Objects.equals(installed.getLicenseCode(), candidate.getLicenseCode())
+                && Objects.equals(installed.getCustomerCode(), candidate.getCustomerCode())
+                && Objects.equals(installed.getProductCode(), candidate.getProductCode());
+    }
+
     public LicenseInfo getCurrentLicense() {
-        return currentLicense;
+        return current().getLicense();
+    }
+
+    public LicenseState getState() {
+        return current();
+    }
+
+    public LicensePhase getPhase() {
+        LicenseDecisionContext context = decisions.get();
+        if (context != null) {
+            return context.getPhase();
+        }
+        return current().phaseAt(clock.millis());
     }
 
     public boolean isValid() {
-        return currentLicense != null && !currentLicense.isExpired();
+        LicenseState current = current();
+        return current.isActivated() && current.phaseAt(clock.millis()).isUsable();
+    }
+
+    public RevocationList getRevocationList() {
+        return revocationList;
     }
 
     public boolean hasModule(String moduleName) {
-        return currentLicense != null && currentLicense.hasModule(moduleName);
+        LicenseInfo license = current().getLicense();
+        return license != null && license.hasModule(moduleName);
     }
 
     public void checkLicense() {
-        if (currentLicense == null) {
-            throw new LicenseNotFoundException("system not activated");
-        }
-        if (currentLicense.isExpired()) {
-            throw new LicenseExpiredException("license expired: " + currentLicense.getExpireAt());
+        checkLicense(false);
+    }
+
+    public void checkLicense(boolean readOnly) {
+        LicenseDecisionContext context = decisions.get();
+        if (context != null) {
+            if (!context.isLicenseGranted(readOnly)) {
+                checkLicense(context.getState(), context.getPhase(), readOnly);
+                context.grantLicense(readOnly);
+            }
+            return;
         }
+        LicenseState current = current();
+        checkLicense(current, current.phaseAt(clock.millis()), readOnly);
     }
 
     public void checkModule(String moduleName) {
-        checkLicense();
-        if (!currentLicense.hasModule(moduleName)) {
+        checkModule(moduleName, false);
+    }
+
+    /**
+     * Checks a module; in the degraded phase a read-only access passes like {@link #checkLicense(boolean)}
+     * does. Within a {@link LicenseDecisionContext} a module is checked once per unit of work, and within a
+     * {@link LicenseUsageScope} it is metered once.
+     */
+    public void checkModule(String moduleName, boolean readOnly) {
+        LicenseDecisionContext context = decisions.get();
+        if (context != null) {
+            if (context.isModuleGranted(moduleName, readOnly)) {
+                return;
+            }
+            checkModule(context.getState(), context.getPhase(), moduleName, readOnly);
+            context.grantModule(moduleName, readOnly);
+        } else {
+            LicenseState current = current();
+            checkModule(current, current.phaseAt(clock.millis()), moduleName, readOnly);
+        }
+        meterModule(moduleName);
+    }
+
+    /**
+     * Checks the license and, unless {@code moduleName} is {@code null}, the module against one state
+     * snapshot and clock reading, and returns the phase the decision was made in. Request guards use the
+     * phase for their response header instead of reading the state again.
+     */
+    public LicensePhase checkAccess(boolean readOnly, String moduleName) {
+        LicenseDecisionContext context = decisions.get();
+        if (context != null) {
+            checkLicense(readOnly);
+            if (moduleName != null) {
+                checkModule(moduleName, readOnly);
+            }
+            return context.getPhase();
+        }
+        LicenseState current = current();
+        LicensePhase phase = current.phaseAt(clock.millis());
+        checkLicense(current, phase, readOnly);
+        if (moduleName != null) {
+            checkModule(current, phase, moduleName, readOnly);
+            meterModule(moduleName);
+        }
+        return phase;
+    }
+
+    /**
+     * Checks the license and, unless {@code moduleName} is {@code null}, the module against the given
+     * snapshot and phase, without consulting a decision context and without metering. For callers that
+     * probe decisions rather than consume a module, such as warm-up and token minting.
+     */
+    public void checkSnapshot(LicenseState state, LicensePhase phase, boolean readOnly, String moduleName) {
+        checkLicense(state, phase, readOnly);
+        if (moduleName != null) {
+            checkModule(state, phase, moduleName, readOnly);
+        }
+    }
+
+    /**
+     * Binds a decision context to the calling thread, or joins the one already bound. Use it with
+     * try-with-resources around a request or unit of work.
+     */
+    public LicenseDecisionContext openDecisionContext() {
+        LicenseDecisionContext context = decisions.get();
+        if (context != null) {
+            context.join();
+            return context;
+        }
+        LicenseState current = current();
+        context = new LicenseDecisionContext(this, current, current.phaseAt(clock.millis()), openUsageScope());
+        decisions.set(context);
+        return context;
+    }
+
+    void unbind(LicenseDecisionContext context) {
+        if (decisions.get() == context) {
+            decisions.remove();
+        }
+    }
+
+    /**
+     * Binds a usage scope to the calling thread, or joins the one already bound, without pinning a license
+     * snapshot. Use it with try-with-resources around a request when decision contexts are not wanted.
+     */
+    public LicenseUsageScope openUsageScope() {
+        LicenseUsageScope scope = usageScopes.get();
+        if (scope != null) {
+            scope.join();
+            return scope;
+        }
+        scope = new LicenseUsageScope(this);
+        usageScopes.set(scope);
+        return scope;
+    }
+
+    void unbind(LicenseUsageScope scope) {
+        if (usageScopes.get() == scope) {
+            usageScopes.remove();
+        }
+    }
+
+    private void meterModule(String moduleName) {
+        if (usageMeter == null) {
+            return;
+        }
+        LicenseUsageScope scope = usageScopes.get();
+        if (scope == null || scope.firstUse(moduleName)) {
+            usageMeter.recordModule(moduleName);
+        }
+    }
+
+    /**
+     * Checks the license, or each of {@code modules}, once and returns a permit that stays valid until the
+     * state generation changes or the phase moves on, whichever comes first. Batch consumers check the
+     * permit at batch boundaries instead of guarding every record.
+     */
+    public LicensePermit permit(boolean readOnly, String... modules) {
+        LicenseState current = current();
+        long now = clock.millis();
+        LicensePhase phase = current.phaseAt(now);
+        if (modules.length == 0) {
+            checkLicense(current, phase, readOnly);
+        }
+        for (String module : modules) {
+            checkModule(current, phase, module, readOnly);
+        }
+        for (String module : modules) {
+            meterModule(module);
+        }
+        return new LicensePermit(this, current, readOnly, modules.clone(), current.nextBoundaryAfter(now));
+    }
+
+    private void checkLicense(LicenseState current, LicensePhase phase, boolean readOnly) {
+        if (phase.isUsable()) {
+            return;
+        }
+        if (phase == LicensePhase.DEGRADED && readOnly && policy.isDegradedReadOnly()) {
+            return;
+        }
+        throw denied(current, phase);
+    }
+
+    private void checkModule(LicenseState current, LicensePhase phase, String moduleName, boolean readOnly) {
+        if (!phase.isUsable() && !(phase == LicensePhase.DEGRADED
+                && (policy.isDegradedModule(moduleName) || readOnly && policy.isDegradedReadOnly()))) {
+            throw denied(current, phase);
+        }
+        if (!current.getLicense().hasModule(moduleName)) {
             throw new LicenseException("unauthorized module: " + moduleName);
         }
     }
 
-    private void loadLicenseFromFile() {
+    public boolean tryAcquire(String feature, long permits) {
+        LicenseState current = current();
+        if (current.phaseAt(clock.millis()).isUsable() && entitlements.tryAcquire(feature, permits)) {
+            recordFeature(feature, permits);
+            return true;
+        }
+        return false;
+    }
+
+    public void acquire(String feature, long permits) {
+        checkLicense();
+        if (!entitlements.tryAcquire(feature, permits)) {
+            throw new LicenseQuotaExceededException("license quota exceeded: " + feature);
+        }
+        recordFeature(feature, permits);
+    }
+
+    private void recordFeature(String feature, long permits) {
+        if (usageMeter != null) {
+            usageMeter.recordFeature(feature, permits);
+        }
+    }
+
+    /**
+     * The cached machine fingerprint, or {@code null} while it is still being collected; the first call starts
+     * the collection when neither {@code binding-enabled} nor a bound license has started it yet.
+     */
+    public MachineFingerprint getMachineFingerprint() {
+        startFingerprints();
+        return fingerprints == null ? null : fingerprints.current();
+    }
+
+    /**
+     * The usage meter, or {@code null} when metering is disabled.
+     */
+    public UsageMeter getUsageMeter() {
+        return usageMeter;
+    }
+
+    /**
+     * Signed usage summary for {@code [from, to)}, to be sent to the vendor; advisory, see
+     * {@link UsageReportSigner}.
+     */
+    public String exportUsage(Instant from, Instant to) {
+        if (usageMeter == null) {
+            throw new LicenseException("usage metering disabled");
+        }
+        LicenseInfo license = current().getLicense();
+        UsageSummary summary = usageMeter.summarize(license == null ? null : license.getLicenseCode(), from, to);
+        return new UsageReportSigner(properties.getMeteringSecret()).sign(summary);
+    }
+
+    public void release(String feature, long permits) {
+        entitlements.release(feature, permits);
+    }
+
+    public EntitlementEnforcer getEntitlementEnforcer() {
+        return entitlements;
+    }
+
+    public boolean isFeatureEnabled(String feature) {
+        LicenseInfo license = current().getLicense();
+        LicenseEntitlements granted = license == null ? null : license.getEntitlements();
+        return granted != null && granted.isFeatureEnabled(feature);
+    }
+
+    public Object getFeature(String feature) {
+        LicenseInfo license = current().getLicense();
+        LicenseEntitlements granted = license == null ? null : license.getEntitlements();
+        return granted == null ? null : granted.getFeature(feature);
+    }
+
+    private LicenseException denied(LicenseState current, LicensePhase phase) {
+        if (!current.isActivated()) {
+            return new LicenseNotFoundException("system not activated");
+        }
+        if (current.isBindingMismatch()) {
+            return bindingDenied(current.getLicense());
+        }
+        if (current.isRevoked()) {
+            return new LicenseRevokedException("license revoked: " + current.getLicense().getLicenseCode());
+        }
+        if (phase == LicensePhase.DEGRADED) {
+            return new LicenseDegradedException("license expired, running in degraded mode: "
+                    + current.getLicense().getExpireAt());
+        }
+        return new LicenseExpiredException(expiredMessage(current));
+    }
+
+    private LicenseBindingException bindingDenied(LicenseInfo license) {
+        if (fingerprints != null && fingerprints.current() == null) {
+            return new LicenseBindingException("machine fingerprint not available, license is bound to a machine: "
+                    + license.getLicenseCode());
+        }
+        return new LicenseBindingException("license is bound to another machine: " + license.getLicenseCode());
+    }
+
+    public boolean refreshRevocationList() {
+        if (subscriber || !loadRevocationList()) {
+            return false;
+        }
+
+        LicenseState current = state;
+        if (current.isRevoked()) {
+            log.error("license revoked by revocation list - license code: {}", current.getLicense().getLicenseCode());
+            eventListener.onRevoked(current.getLicense());
+        }
+        return true;
+    }
+
+    private boolean loadRevocationList() {
+        String path = properties.getRevocationListPath();
+        if (path == null || path.isBlank()) {
+            return false;
+        }
+
         try {
-            if (!Files.exists(Paths.get(properties.getStoragePath()))) {
-                log.info("license file does not exist: {}", properties.getStoragePath());
-                return;
+            Path file = Paths.get(path);
+            if (!Files.exists(file)) {
+                return false;
             }
 
-            String activationCode = Files.readString(
-                    Paths.get(properties.getStoragePath()),
-                    StandardCharsets.UTF_8
-            );
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long stamp = attributes.lastModifiedTime().toMillis() * 31 + attributes.size();
+            if (stamp == revocationListStamp) {
+                return false;
+            }
 
-            this.currentLicense = validator.validate(activationCode);
-            log.info("license loaded successfully from file");
+            RevocationList loaded = validator.validateRevocationList(readFile(file));
+            // only a verified list is remembered, a rejected or half-written one is retried on the next check
+            revocationListStamp = stamp;
+            if (loaded.getVersion() < revocationList.getVersion()) {
+                log.warn("ignoring revocation list with older version {} (current {})",
+                        loaded.getVersion(), revocationList.getVersion());
+                return false;
+            }
+            revocationList = loaded;
+            log.info("revocation list loaded - version: {}, entries: {}", loaded.getVersion(), loaded.size());
 
+            LicenseInfo license = state.getLicense();
+            if (license != null && loaded.isRevoked(license.getLicenseCode()) != state.isRevoked()) {
+                publish(license);
+            }
+            return true;
         } catch (Exception e) {
-            log.error("failed to load license file", e);
+            log.error("failed to load revocation list {}: {}", path, e.getMessage());
+            return false;
         }
     }
 
-    private void saveLicenseToFile(String activationCode) {
+    @Override
+    public void close() {
+        if (broadcaster != null) {
+            broadcaster.close();
+            broadcastReceiver.close();
+        }
+        if (fingerprints != null) {
+            fingerprints.close();
+        }
+        if (usageMeter != null) {
+            usageMeter.close();
+        }
+        clock.close();
+        if (sharedStatus != null) {
+            sharedStatus.close();
+        }
+    }
+
+    public LicenseBroadcaster getBroadcaster() {
+        return broadcaster;
+    }
+
+    public LicenseStore getLicenseStore() {
+        return store;
+    }
+
+    public TrustedClock getClock() {
+        return clock;
+    }
+
+    private void publish(LicenseInfo license) {
+        publish(license, revocationList.isRevoked(license.getLicenseCode()));
+    }
+
+    private synchronized void publish(LicenseInfo license, boolean revoked) {
+        LicenseStateTransitionEvent event = new LicenseStateTransitionEvent();
+        LicenseState previous = state;
+        LicenseState next = buildState(license, previous.getGeneration() + 1, revoked);
+        long now = clock.millis();
+        license.setValid(next.phaseAt(now).isUsable());
+        entitlements.update(license.getEntitlements());
+        state = next;
+        observedPhase = null;
+        if (event.shouldCommit()) {
+            commit(event, "PUBLISH", previous.phaseAt(now), next, now);
+        }
+        if (sharedStatus != null && !subscriber) {
+            try {
+                sharedStatus.publish(activeCode, revoked);
+            } catch (LicenseException e) {
+                log.error("failed to publish shared license status: {}", e.getMessage());
+            }
+        }
+    }
+
+    private LicenseState current() {
+        if (subscriber && sharedStatus.sequence() != sharedSequence) {
+            syncSharedStatus();
+        }
+        return state;
+    }
+
+    private synchronized void syncSharedStatus() {
+        long sequence = sharedStatus.sequence();
+        if (sequence == sharedSequence) {
+            return;
+        }
+        SharedStatusFile.Snapshot snapshot;
         try {
-            Path dir = Paths.get(properties.getStoragePath()).getParent();
-            if (dir != null && !Files.exists(dir)) {
-                Files.createDirectories(Paths.get(properties.getStoragePath()).getParent());
-            }
-            Files.writeString(
-                    Paths.get(properties.getStoragePath()),
-                    activationCode,
-                    StandardCharsets.UTF_8
-            );
-            log.info("license saved: {}", properties.getStoragePath());
+            snapshot = sharedStatus.read();
+        } catch (LicenseException e) {
+            sharedSequence = sequence;
+            log.error("ignoring shared license status: {}", e.getMessage());
+            return;
+        }
+        if (snapshot == null || snapshot.activationCode() == null) {
+            return;
+        }
+
+        boolean initial = sharedSequence == 0L;
+        sharedSequence = snapshot.sequence();
+        // the record's HMAC only proves it came from a holder of the secret, the license itself must be signed
+        LicenseInfo license;
+        try {
+            license = validator.validate(snapshot.activationCode());
+        } catch (LicenseException e) {
+            log.error("ignoring shared license status with an invalid activation code: {}", e.getMessage());
+            return;
+        }
+        activeCode = snapshot.activationCode();
+        if (license.getExpireAt() != null) {
+            license.setDaysLeft(ChronoUnit.DAYS.between(clock.instant(), license.getExpireAt().toInstant()));
+        }
+        publish(license, snapshot.revoked());
+        log.info("license status received from shared status publisher - license code: {}, revoked: {}",
+                license.getLicenseCode(), snapshot.revoked());
+
+        if (!initial) {
+            if (snapshot.revoked()) {
+                eventListener.onRevoked(license);
+            } else {
+                eventListener.onActivated(license);
+            }
+        }
+    }
+
+    /**
+     * Starts collecting the machine fingerprint; idempotent. Kept out of the constructor so the change
+     * listener never sees a partly constructed manager.
+     */
+    private void startFingerprints() {
+        if (fingerprints != null) {
+            fingerprints.setChangeListener(fingerprint -> applyBinding());
+            fingerprints.start();
+        }
+    }
+
+    /**
+     * Waits for the first fingerprint when {@code binding-enabled} asks for it up front or {@code license}
+     * carries a machine claim.
+     */
+    private void awaitFingerprint(LicenseInfo license) {
+        if (fingerprints != null && (properties.isBindingEnabled() || isBound(license))) {
+            startFingerprints();
+            fingerprints.await(properties.getBindingTimeout());
+        }
+    }
+
+    private LicenseState buildState(LicenseInfo license, long generation) {
+        return buildState(license, generation, revocationList.isRevoked(license.getLicenseCode()));
+    }
+
+    private LicenseState buildState(LicenseInfo license, long generation, boolean revoked) {
+        LicenseState built = LicenseState.of(license, generation, policy, revoked);
+        if (clock.isRollbackDetected()) {
+            long detectedAt = clock.getRollbackDetectedMillis();
+            long blockedFrom = properties.getClockRollbackAction() == ClockRollbackAction.EXPIRE
+                    ? detectedAt
+                    : detectedAt + properties.getClockRollbackGracePeriod().toMillis();
+            built = built.withClockRollback(generation, detectedAt, blockedFrom);
+        }
+        return bindingMatches(license) ? built : built.withBindingMismatch();
+    }
+
+    /**
+     * Checks the license's machine claim against the cached fingerprint. A signed claim is always enforced,
+     * whatever {@code binding-enabled} says, and {@code binding-min-matches} can only raise the number of
+     * components it requires. Fails closed: a bound license does not match while no fingerprint has been
+     * collected, whether collection is still running or failed; {@link #applyBinding()} re-evaluates it
+     * once a fingerprint arrives.
+     */
+    private boolean bindingMatches(LicenseInfo license) {
+        if (!isBound(license)) {
+            return !properties.isBindingRequired();
+        }
+        if (fingerprints == null) {
+            return true;
+        }
+        startFingerprints();
+        MachineFingerprint fingerprint = fingerprints.current();
+        return fingerprint != null && license.getMachine().matches(fingerprint, properties.getBindingMinMatches());
+    }
+
+    private static boolean isBound(LicenseInfo license) {
+        MachineBinding binding = license == null ? null : license.getMachine();
+        return binding != null && binding.getComponentCount() > 0;
+    }
+
+    private synchronized void applyBinding() {
+        LicenseInfo license = state.getLicense();
+        if (license == null || bindingMatches(license) != state.isBindingMismatch()) {
+            return;
+        }
+        publish(license, state.isRevoked());
+        if (state.isBindingMismatch()) {
+            log.error("license is bound to another machine - license code: {}", license.getLicenseCode());
+        } else {
+            log.info("license machine binding matches again - license code: {}", license.getLicenseCode());
+        }
+    }
+
+    private synchronized void applyClockRollback() {
+        LicenseInfo license = state.getLicense();
+        if (license != null && !state.isClockRollback()) {
+            publish(license, state.isRevoked());
+            log.error("clock rollback applied to license state - blocked from: {}", state.getBlockedAt());
+        }
+    }
+
+    private void notifyPhase(LicenseInfo license, LicensePhase phase) {
+        if (phase != observedPhase) {
+            LicenseStateTransitionEvent event = new LicenseStateTransitionEvent();
+            if (event.shouldCommit() && observedPhase != null) {
+                commit(event, "PHASE", observedPhase, state, clock.millis());
+            }
+            observedPhase = phase;
+            log.info("license phase: {}", phase);
+            eventListener.onPhaseChanged(license, phase);
+        }
+    }
+
+    private static void commit(LicenseStateTransitionEvent event, String cause, LicensePhase from,
+                               LicenseState to, long now) {
+        event.cause = cause;
+        event.fromPhase = from.name();
+        event.toPhase = to.phaseAt(now).name();
+        event.generation = to.getGeneration();
+        event.licenseCode = to.getLicense() == null ? null : to.getLicense().getLicenseCode();
+        event.revoked = to.isRevoked();
+        event.clockRollback = to.isClockRollback();
+        event.commit();
+    }
+
+    private String expiredMessage(LicenseState current) {
+        return current.isClockRollback()
+                ? "license expired: clock rollback detected"
+                : "license expired: " + current.getLicense().getExpireAt();
+    }
+
+    /**
+     * Loads and publishes the stored code; returns whether a license was published. The store version is
+     * recorded even when the code fails validation, so a bad code is not reloaded on every check.
+     */
+    private boolean loadLicenseFromStore() {
+        try {
+            StoredLicense stored = store.load();
+            storeObserved = true;
+            storeVersion = stored == null ? null : stored.version();
+            if (stored == null) {
+                log.info("no activation code in license store: {}", store.describe());
+                return false;
+            }
+
+            LicenseInfo license = validator.validate(stored.activationCode());
+            activeCode = stored.activationCode();
+            publish(license);
+            log.info("license loaded successfully from {}", store.describe());
+            return true;
+
         } catch (Exception e) {
-            throw new LicenseException("failed to save license", e);
+            log.error("failed to load license from store", e);
+            return false;
+        }
+    }
+
+    /**
+     * Picks up a code replaced behind the manager's back, e.g. a rotated secret or another instance's
+     * activation in a shared table, or one that appeared after startup. A code removed from the store
+     * leaves the running license in place.
+     */
+    private void reloadIfStoreChanged() {
+        String version;
+        try {
+            version = store.version();
+        } catch (LicenseException e) {
+            log.warn("failed to check license store: {}", e.getMessage());
+            return;
+        }
+        if (version == null || version.equals(storeVersion)) {
+            return;
+        }
+        log.info("activation code changed in license store {}", store.describe());
+        if (loadLicenseFromStore()) {
+            eventListener.onActivated(state.getLicense());
+        }
+    }
+
+    /**
+     * Writes the code only if the store still holds the version last read by this manager, so a code
+     * saved by another instance in the meantime is not overwritten.
+     */
+    private void saveLicenseToStore(String activationCode) {
+        StoredLicense stored = store.load();
+        if (stored != null && activationCode.equals(stored.activationCode())) {
+            storeObserved = true;
+            storeVersion = stored.version();
+            return;
+        }
+        // nothing was read before: the store's current content is what this activation replaces
+        String expectedVersion = storeObserved ? storeVersion : stored == null ? null : stored.version();
+        try {
+            stored = store.compareAndSet(expectedVersion, activationCode);
+        } catch (LicenseStoreConflictException e) {
+            // a peer sharing the store may have saved the same broadcast code first
+            stored = store.load();
+            if (stored == null || !activationCode.equals(stored.activationCode())) {
+                throw e;
+            }
+        }
+        storeObserved = true;
+        storeVersion = stored.version();
+        log.info("license saved: {}", store.describe());
+    }
+
+    private static String readFile(Path file) throws IOException {
+        LicenseFileIOEvent event = new LicenseFileIOEvent();
+        event.begin();
+        String content = null;
+        try {
+            content = Files.readString(file, StandardCharsets.UTF_8);
+            return content;
+        } finally {
+            event.commit(LicenseFileIOEvent.READ, file, content);
         }
     }
 
@@ -0,0 +1,65 @@
+package io.github.ebingbo.ilicense.core;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Result of a successful {@link LicenseManager#permit(boolean, String...)} check.
+ * <p>
+ * A permit is bound to the state snapshot it was checked against: it stays valid until a new snapshot is
+ * published (activation, revocation, clock rollback, shared status update) or the next phase boundary of
+ * that snapshot passes. Checking it is a reference comparison and a clock read, so it can be done at every
+ * batch or chunk boundary; {@link #renew()} re-runs the full check only once the permit has gone stale.
+ */
+public final class LicensePermit {
+
+    private final LicenseManager licenseManager;
+    private final LicenseState state;
+    private final boolean readOnly;
+    private final String[] modules;
+    private final long validUntil;
+
+    LicensePermit(LicenseManager licenseManager, LicenseState state, boolean readOnly, String[] modules,
+                  long validUntil) {
+        this.licenseManager = licenseManager;
+        this.state = state;
+        this.readOnly = readOnly;
+        this.modules = modules;
+        this.validUntil = validUntil;
+    }
+
+    public boolean isValid() {
+        return licenseManager.getState() == state && licenseManager.getClock().millis() < validUntil;
+    }
+
+    /**
+     * Returns this permit while it is valid, otherwise checks again and returns a new one.
+     *
+     * @throws io.github.ebingbo.ilicense.exception.LicenseException when the license no longer allows it
+     */
+    public LicensePermit renew() {
+        return isValid() ? this : licenseManager.permit(readOnly, modules);
+    }
+
+    public long getGeneration() {
+        return state.getGeneration();
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public String[] getModules() {
+        return modules.clone();
+    }
+
+    public Instant getValidUntil() {
+        return validUntil == Long.MAX_VALUE ? Instant.MAX : Instant.ofEpochMilli(validUntil);
+    }
+
+    @Override
+    public String toString() {
+        return "LicensePermit{generation=" + state.getGeneration() + ", modules=" + Arrays.toString(modules)
+                + ", readOnly=" + readOnly + ", validUntil=" + getValidUntil() + "}";
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.ebingbo.ilicense.core;
+
+public enum LicensePhase {
+
+    /**
+     * License is valid and not close to expiry.
+     */
+    ACTIVE,
+
+    /**
+     * License is valid but inside the expiry warning window.
+     */
+    WARNING,
+
+    /**
+     * License has expired; everything is still allowed but the state is flagged.
+     */
+    GRACE,
+
+    /**
+     * License has expired; only degraded modules and read-only access are allowed.
+     */
+    DEGRADED,
+
+    /**
+     * License is expired, revoked or not activated; access is refused.
+     */
+    BLOCKED;
+
+    public boolean isUsable() {
+        return this.compareTo(GRACE) <= 0;
+    }
+}
@@ -0,0 +1,191 @@
+package io.github.ebingbo.ilicense.core;
+
+import io.github.ebingbo.ilicense.policy.ExpiryPolicy;
+
+import java.time.Instant;
+
+/**
+ * Immutable snapshot of the license as seen by guards.
+ * <p>
+ * Phase boundaries are resolved to epoch millis when the snapshot is built, so deciding the phase on
+ * the request path is a comparison against the current time; a license that is not yet in its warning
+ * window is decided by the first comparison. Every published snapshot carries a new generation.
+ */
+public final class LicenseState {
+
+    static final LicenseState EMPTY = new LicenseState(null, 0L, ExpiryPolicy.DEFAULT, false, false,
+            Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private final LicenseInfo license;
+    private final long generation;
+    private final ExpiryPolicy policy;
+    private final boolean revoked;
+    private final boolean clockRollback;
+    private final boolean bindingMismatch;
+
+    private final long warningAt;
+    private final long expireAt;
+    private final long graceEndsAt;
+    private final long blockedAt;
+
+    private LicenseState(LicenseInfo license, long generation, ExpiryPolicy policy, boolean revoked, boolean clockRollback,
+                         long warningAt, long expireAt, long graceEndsAt, long blockedAt) {
+        this(license, generation, policy, revoked, clockRollback, false, warningAt, expireAt, graceEndsAt, blockedAt);
+    }
+
+    private LicenseState(LicenseInfo license, long generation, ExpiryPolicy policy, boolean revoked, boolean clockRollback,
+                         boolean bindingMismatch, long warningAt, long expireAt, long graceEndsAt, long blockedAt) {
+        this.license = license;
+        this.generation = generation;
+        this.policy = policy;
+        this.revoked = revoked;
+        this.clockRollback = clockRollback;
+        this.bindingMismatch = bindingMismatch;
+        this.warningAt = warningAt;
+        this.expireAt = expireAt;
+        this.graceEndsAt = graceEndsAt;
+        this.blockedAt = blockedAt;
+    }
+
+    static LicenseState of(LicenseInfo license, long generation, ExpiryPolicy policy, boolean revoked) {
+        if (revoked) {
+            return new LicenseState(license, generation, policy, true, false,
+                    Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE);
+        }
+        if (license.getExpireAt() == null) {
+            return new LicenseState(license, generation, policy, false, false,
+                    Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+        }
+        long expireAt = license.getExpireAt().toInstant().toEpochMilli();
+        long graceEndsAt = saturatedAdd(expireAt, policy.getGracePeriod().toMillis());
+        return new LicenseState(license, generation, policy, false, false,
+                saturatedAdd(expireAt, -policy.getWarningPeriod().toMillis()),
+                expireAt,
+                graceEndsAt,
+                saturatedAdd(graceEndsAt, policy.getDegradedPeriod().toMillis()));
+    }
+
+    /**
+     * Detached snapshot of a license that is not installed anywhere, used to forecast its phases offline.
+     */
+    public static LicenseState forecast(LicenseInfo license, ExpiryPolicy policy) {
+        return of(license, 0L, policy, false);
+    }
+
+    /**
+     * Caps the timeline after a clock rollback: grace from {@code detectedAt}, blocked from {@code blockedFrom}.
+     */
+    LicenseState withClockRollback(long generation, long detectedAt, long blockedFrom) {
+        return new LicenseState(license, generation, policy, revoked, true,
+                Math.min(warningAt, detectedAt),
+                Math.min(expireAt, detectedAt),
+                Math.min(graceEndsAt, blockedFrom),
+                Math.min(blockedAt, blockedFrom));
+    }
+
+    /**
+     * Blocks the license because it is bound to another machine.
+     */
+    LicenseState withBindingMismatch() {
+        return new LicenseState(license, generation, policy, revoked, clockRollback, true,
+                Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE);
+    }
+
+    public LicensePhase phaseAt(long nowMillis) {
+        if (nowMillis < warningAt) {
+            return LicensePhase.ACTIVE;
+        }
+        if (license == null) {
+            return LicensePhase.BLOCKED;
+        }
+        if (nowMillis < expireAt) {
+            return LicensePhase.WARNING;
+        }
+        if (nowMillis < graceEndsAt) {
+            return LicensePhase.GRACE;
+        }
+        if (nowMillis < blockedAt) {
+            return LicensePhase.DEGRADED;
+        }
+        return LicensePhase.BLOCKED;
+    }
+
+    public boolean isActivated() {
+        return license != null;
+    }
+
+    public LicenseInfo getLicense() {
+        return license;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public ExpiryPolicy getPolicy() {
+        return policy;
+    }
+
+    public boolean isRevoked() {
+        return revoked;
+    }
+
+    public boolean isClockRollback() {
+        return clockRollback;
+    }
+
+    public boolean isBindingMismatch() {
+        return bindingMismatch;
+    }
+
+    public Instant getWarningAt() {
+        return toInstant(warningAt);
+    }
+
+    public Instant getExpireAt() {
+        return toInstant(expireAt);
+    }
+
+    public Instant getGraceEndsAt() {
+        return toInstant(graceEndsAt);
+    }
+
+    public Instant getBlockedAt() {
+        return toInstant(blockedAt);
+    }
+
+    /**
+     * The first phase boundary strictly after {@code nowMillis}, or {@link Long#MAX_VALUE} when the phase
+     * can no longer change.
+     */
+    long nextBoundaryAfter(long nowMillis) {
+        for (long boundary : new long[]{warningAt, expireAt, graceEndsAt, blockedAt}) {
+            if (boundary > nowMillis) {
+                return boundary;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    long blockedAtMillis() {
+        return blockedAt;
+    }
+
+    private static Instant toInstant(long millis) {
+        if (millis == Long.MAX_VALUE) {
+            return Instant.MAX;
+        }
+        if (millis == Long.MIN_VALUE) {
+            return Instant.MIN;
+        }
+        return Instant.ofEpochMilli(millis);
+    }
+
+    private static long saturatedAdd(long value, long delta) {
+        long result = value + delta;
+        if (((value ^ result) & (delta ^ result)) < 0) {
+            return delta > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        return result;
+    }
+}
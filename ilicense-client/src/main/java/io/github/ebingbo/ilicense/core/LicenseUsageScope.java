@@ -0,0 +1,44 @@
+package io.github.ebingbo.ilicense.core;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * One unit of work for usage metering, bound to the opening thread: a module checked any number of times
+ * while the scope is open, by the guard filter, the interceptor and {@code @RequireLicense} methods alike,
+ * is metered once. Every {@link LicenseDecisionContext} opens one; request filters open one on their own
+ * when decision contexts are disabled. Scopes nest like decision contexts, and only the outermost
+ * {@link #close()} unbinds it.
+ */
+public final class LicenseUsageScope implements AutoCloseable {
+
+    private final LicenseManager licenseManager;
+
+    private int depth = 1;
+    private Set<String> modules;
+
+    LicenseUsageScope(LicenseManager licenseManager) {
+        this.licenseManager = licenseManager;
+    }
+
+    @Override
+    public void close() {
+        if (--depth == 0) {
+            licenseManager.unbind(this);
+        }
+    }
+
+    void join() {
+        depth++;
+    }
+
+    /**
+     * {@code true} the first time {@code module} is used within this scope.
+     */
+    boolean firstUse(String module) {
+        if (modules == null) {
+            modules = new HashSet<>(4);
+        }
+        return modules.add(module);
+    }
+}
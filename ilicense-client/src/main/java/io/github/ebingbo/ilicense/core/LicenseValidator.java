@@ -1,16 +1,21 @@
 package io.github.ebingbo.ilicense.core;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.jfr.LicenseValidationEvent;
+import io.github.ebingbo.ilicense.revocation.RevocationList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.Signature;
-import java.security.spec.X509EncodedKeySpec;
+import java.security.interfaces.RSAKey;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
@@ -19,52 +24,249 @@ public class LicenseValidator {
 
     private static final Logger log = LoggerFactory.getLogger(LicenseValidator.class);
 
-    private final String publicKey;
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(10);
+    public static final Duration DEFAULT_FAILURE_CACHE_TTL = Duration.ofMinutes(1);
+
+    private final LicenseKeyRing keyRing;
     private final ObjectMapper objectMapper;
+    private final ValidationCache cache;
+    private final LicensePayloadCipher payloadCipher;
 
     public LicenseValidator(String publicKey) {
-        this.publicKey = publicKey;
+        this(LicenseKeyRing.of(publicKey));
+    }
+
+    public LicenseValidator(LicenseKeyRing keyRing) {
+        this(keyRing, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL, DEFAULT_FAILURE_CACHE_TTL);
+    }
+
+    /**
+     * @param cacheSize  maximum number of remembered verification results, {@code 0} disables the cache
+     * @param cacheTtl   how long a successfully verified code skips signature verification
+     * @param failureTtl how long a rejected code is rejected without being verified again
+     */
+    public LicenseValidator(LicenseKeyRing keyRing, int cacheSize, Duration cacheTtl, Duration failureTtl) {
+        this(keyRing, cacheSize, cacheTtl, failureTtl, null);
+    }
+
+    /**
+     * @param payloadCipher opens activation codes with an encrypted payload, {@code null} when this client
+     *                      only accepts plain signed payloads
+     */
+    public LicenseValidator(LicenseKeyRing keyRing, int cacheSize, Duration cacheTtl, Duration failureTtl,
+                            LicensePayloadCipher payloadCipher) {
+        this.keyRing = keyRing;
+        this.payloadCipher = payloadCipher;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.findAndRegisterModules();
+        this.cache = new ValidationCache(cacheSize, cacheTtl, failureTtl);
+    }
+
+    public LicenseKeyRing getKeyRing() {
+        return keyRing;
+    }
+
+    public LicensePayloadCipher getPayloadCipher() {
+        return payloadCipher;
     }
 
     public LicenseInfo validate(String activationCode) {
+        if (!cache.isEnabled()) {
+            return verify(activationCode, null, null);
+        }
+
+        byte[] digest = digest(activationCode);
+        Object keys;
+        try {
+            keys = keyRing.currentKeys();
+        } catch (LicenseException e) {
+            log.warn("license validation failed: {}", e.getMessage());
+            throw new LicenseException("license validation failed: " + e.getMessage(), e);
+        }
+
+        ValidationCache.Entry cached = cache.get(digest, keys);
+        if (cached == null) {
+            return verify(activationCode, digest, keys);
+        }
+
+        LicenseValidationEvent event = new LicenseValidationEvent();
+        event.begin();
+        if (cached.isFailure()) {
+            log.debug("license validation failed (cached): {}", cached.failure());
+            commit(event, LicenseValidationEvent.CACHED_INVALID, null);
+            throw new LicenseException(cached.failure());
+        }
+        try {
+            log.debug("license signature verification skipped (cached)");
+            long start = event.isEnabled() ? System.nanoTime() : 0L;
+            LicenseInfo info = parse(cached.payload());
+            if (event.isEnabled()) {
+                event.parseDuration = System.nanoTime() - start;
+            }
+            commit(event, LicenseValidationEvent.CACHED_VALID, info);
+            return info;
+        } catch (Exception e) {
+            commit(event, LicenseValidationEvent.INVALID, null);
+            throw new LicenseException("license validation failed: " + e.getMessage(), e);
+        }
+    }
+
+    private LicenseInfo verify(String activationCode, byte[] digest, Object keys) {
+        LicenseValidationEvent event = new LicenseValidationEvent();
+        event.begin();
         try {
             log.info("starting license validation");
 
-            String cleaned = activationCode.replaceAll("\\s", "").trim();
-            byte[] decoded = Base64.getUrlDecoder().decode(cleaned);
+            byte[] dataBytes = event.isEnabled()
+                    ? verifySignedData(activationCode, event)
+                    : verifySignedData(activationCode);
 
-            ByteBuffer buffer = ByteBuffer.wrap(decoded);
+            log.info("signature verification successful");
 
-            int dataLength = buffer.getInt();
-            byte[] dataBytes = new byte[dataLength];
-            buffer.get(dataBytes);
+            long start = event.isEnabled() ? System.nanoTime() : 0L;
+            LicenseInfo info = parse(dataBytes);
+            if (event.isEnabled()) {
+                event.parseDuration = System.nanoTime() - start;
+            }
+            if (digest != null) {
+                cache.putSuccess(digest, keys, dataBytes);
+            }
 
-            int signatureLength = buffer.getInt();
-            byte[] signatureBytes = new byte[signatureLength];
-            buffer.get(signatureBytes);
+            log.info("license validation successful: {}", info.getCustomerName());
+            commit(event, LicenseValidationEvent.VALID, info);
+            return info;
 
-            PublicKey pubKey = loadPublicKey(publicKey);
-            if (!verifySignature(dataBytes, signatureBytes, pubKey)) {
-                throw new LicenseException("signature verification failed");
+        } catch (Exception e) {
+            String message = "license validation failed: " + e.getMessage();
+            if (digest != null) {
+                cache.putFailure(digest, keys, message);
             }
+            log.warn(message);
+            log.debug("license validation failure detail", e);
+            commit(event, LicenseValidationEvent.INVALID, null);
+            throw new LicenseException(message, e);
+        }
+    }
 
-            log.info("signature verification successful");
+    private static void commit(LicenseValidationEvent event, String outcome, LicenseInfo info) {
+        if (event.shouldCommit()) {
+            event.outcome = outcome;
+            event.licenseCode = info == null ? null : info.getLicenseCode();
+            event.commit();
+        }
+    }
 
-            String jsonData = new String(dataBytes, StandardCharsets.UTF_8);
-            LicenseInfo info = objectMapper.readValue(jsonData, LicenseInfo.class);
+    LicenseInfo parse(byte[] dataBytes) throws Exception {
+        String jsonData = new String(dataBytes, StandardCharsets.UTF_8);
+        LicenseInfo info = objectMapper.readValue(jsonData, LicenseInfo.class);
 
-            info.setValid(!info.isExpired());
-            info.setDaysLeft(ChronoUnit.DAYS.between(Instant.now(), info.getExpireAt().toInstant()));
+        info.setValid(!info.isExpired());
+        info.setDaysLeft(ChronoUnit.DAYS.between(Instant.now(), info.getExpireAt().toInstant()));
+        return info;
+    }
 
-            log.info("license validation successful: {}", info.getCustomerName());
-            return info;
+    static byte[] digest(String activationCode) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(activationCode.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
+    public RevocationList validateRevocationList(String encodedList) {
+        try {
+            byte[] dataBytes = verifySignedData(encodedList);
+            RevocationList revocationList = RevocationList.parse(objectMapper.readTree(dataBytes));
+            log.info("revocation list verified - version: {}, entries: {}",
+                    revocationList.getVersion(), revocationList.size());
+            return revocationList;
+        } catch (LicenseException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("license validation failed", e);
-            throw new LicenseException("license validation failed: " + e.getMessage(), e);
+            throw new LicenseException("revocation list validation failed: " + e.getMessage(), e);
+        }
+    }
+
+    public byte[] verifySignedData(String encoded) throws Exception {
+        return verifySignedData(encoded, null);
+    }
+
+    /**
+     * Returns the payload, decrypted when the header marks it as encrypted; the signature always covers the
+     * bytes as transmitted. Records the decode, verify and decrypt durations and the key on {@code event} when
+     * it is not {@code null}.
+     */
+    private byte[] verifySignedData(String encoded, LicenseValidationEvent event) throws Exception {
+        long start = event == null ? 0L : System.nanoTime();
+        String cleaned = encoded.replaceAll("\\s", "").trim();
+        byte[] decoded = Base64.getUrlDecoder().decode(cleaned);
+
+        ByteBuffer buffer = ByteBuffer.wrap(decoded);
+
+        byte[] dataBytes = readBlock(buffer, "data");
+        byte[] signatureBytes = readBlock(buffer, "signature");
+
+        String keyId = null;
+        String encryption = null;
+        if (buffer.remaining() >= 4) {
+            byte[] headerBytes = readBlock(buffer, "header");
+            JsonNode header = objectMapper.readTree(headerBytes);
+            keyId = header.path("kid").asText(null);
+            encryption = header.path("enc").asText(null);
+        }
+
+        PublicKey pubKey = keyRing.resolve(keyId);
+        if (event != null) {
+            long resolved = System.nanoTime();
+            event.decodeDuration = resolved - start;
+            event.keyId = keyId;
+            event.keySize = pubKey instanceof RSAKey rsaKey ? rsaKey.getModulus().bitLength() : 0;
+            start = resolved;
+        }
+        boolean verified = verifySignature(dataBytes, signatureBytes, pubKey);
+        if (event != null) {
+            event.verifyDuration = System.nanoTime() - start;
+        }
+        if (!verified) {
+            throw new LicenseException("signature verification failed");
+        }
+        if (encryption == null) {
+            return dataBytes;
+        }
+        return decrypt(dataBytes, encryption, event);
+    }
+
+    /**
+     * Reads a length-prefixed block, checking the declared length against what the code actually carries so
+     * that a forged length cannot allocate more than the code's own size.
+     */
+    private static byte[] readBlock(ByteBuffer buffer, String name) {
+        if (buffer.remaining() < 4) {
+            throw new LicenseException("malformed activation code: " + name + " length missing");
         }
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new LicenseException("malformed activation code: invalid " + name + " length " + length);
+        }
+        byte[] block = new byte[length];
+        buffer.get(block);
+        return block;
+    }
+
+    private byte[] decrypt(byte[] sealed, String encryption, LicenseValidationEvent event) {
+        if (!LicensePayloadCipher.ALGORITHM.equals(encryption)) {
+            throw new LicenseException("unsupported payload encryption: " + encryption);
+        }
+        if (payloadCipher == null) {
+            throw new LicenseException("license payload is encrypted but no payload private key is configured");
+        }
+        long start = event == null ? 0L : System.nanoTime();
+        byte[] payload = payloadCipher.open(sealed);
+        if (event != null) {
+            event.decryptDuration = System.nanoTime() - start;
+        }
+        return payload;
     }
 
     private boolean verifySignature(byte[] data, byte[] signature, PublicKey publicKey)
@@ -74,16 +276,4 @@ public class LicenseValidator {
         sig.update(data);
         return sig.verify(signature);
     }
-
-    private PublicKey loadPublicKey(String publicKeyStr) throws Exception {
-        String cleaned = publicKeyStr
-                .replace("-----BEGIN PUBLIC KEY-----", "")
-                .replace("-----END PUBLIC KEY-----", "")
-                .replaceAll("\\s", "");
-
-        byte[] keyBytes = Base64.getDecoder().decode(cleaned);
-        X509EncodedKeySpec spec = new X509EncodedKeySpec(keyBytes);
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        return keyFactory.generatePublic(spec);
-    }
 }
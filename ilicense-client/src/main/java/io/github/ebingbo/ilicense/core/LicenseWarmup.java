@@ -0,0 +1,97 @@
+package io.github.ebingbo.ilicense.core;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exercises the validation and guard paths so the first real request does not pay for class loading,
+ * provider initialization and interpretation.
+ * <p>
+ * Decoding and signature verification run against a bundled self-signed sample, so warm-up never touches
+ * the configured keys, license.dat or the validation cache. Parsing goes through the application's own
+ * validator so that its {@code ObjectMapper} builds and caches the {@link LicenseInfo} deserializer. Guard
+ * checks go through {@link LicenseManager#checkSnapshot}, so they are not metered, and their outcomes are
+ * discarded.
+ */
+public class LicenseWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(LicenseWarmup.class);
+
+    private static final String SAMPLE_KEY = "warmup-sample.pem";
+    private static final String SAMPLE_CODE = "warmup-sample.lic";
+
+    private final LicenseValidator validator;
+    private final LicenseManager licenseManager;
+
+    private volatile long sink;
+
+    public LicenseWarmup(LicenseValidator validator, LicenseManager licenseManager) {
+        this.validator = validator;
+        this.licenseManager = licenseManager;
+    }
+
+    /**
+     * @param validationIterations times to decode, verify and parse the sample
+     * @param guardIterations  times to run the license and module checks
+     * @param modules          modules to check on the guard path, typically the route-to-module targets
+     */
+    public void run(int validationIterations, int guardIterations, Iterable<String> modules) {
+        long start = System.nanoTime();
+        LicenseValidator sampleValidator = new LicenseValidator(LicenseKeyRing.of(read(SAMPLE_KEY)), 0, null, null);
+        String sampleCode = read(SAMPLE_CODE).trim();
+
+        long sink = 0;
+        try {
+            for (int i = 0; i < validationIterations; i++) {
+                sink += LicenseValidator.digest(sampleCode)[0];
+                byte[] payload = sampleValidator.verifySignedData(sampleCode);
+                sink += validator.parse(payload).getModules().length();
+            }
+        } catch (Exception e) {
+            log.warn("license warm-up of the validation path failed: {}", e.getMessage());
+        }
+        long crypto = System.nanoTime();
+
+        for (int i = 0; i < guardIterations; i++) {
+            LicenseState state = licenseManager.getState();
+            LicensePhase phase = licenseManager.getPhase();
+            sink += guard(state, phase, true, null);
+            sink += guard(state, phase, false, null);
+            for (String module : modules) {
+                sink += guard(state, phase, false, module);
+            }
+            sink += phase.ordinal();
+        }
+        long end = System.nanoTime();
+
+        this.sink = sink;
+
+        log.info("license warm-up finished - validation: {} x {} ms, guard: {} x {} ms",
+                validationIterations, (crypto - start) / 1_000_000, guardIterations, (end - crypto) / 1_000_000);
+    }
+
+    private int guard(LicenseState state, LicensePhase phase, boolean readOnly, String module) {
+        try {
+            licenseManager.checkSnapshot(state, phase, readOnly, module);
+            return 1;
+        } catch (LicenseException e) {
+            return 0;
+        }
+    }
+
+    private static String read(String resource) {
+        try (InputStream in = LicenseWarmup.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new LicenseException("license warm-up sample not found: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new LicenseException("failed to read license warm-up sample: " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.ebingbo.ilicense.core;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded TTL cache of activation code verification results, keyed by the SHA-256 digest of the code.
+ * <p>
+ * Successful entries hold the verified payload so callers still parse it against the current time;
+ * failed entries hold the failure message. Entries are bound to the key set they were verified against
+ * and are ignored once the key ring has been reloaded.
+ */
+final class ValidationCache {
+
+    private final int maxEntries;
+    private final long successTtlNanos;
+    private final long failureTtlNanos;
+    private final ConcurrentHashMap<Digest, Entry> entries = new ConcurrentHashMap<>();
+
+    ValidationCache(int maxEntries, Duration successTtl, Duration failureTtl) {
+        this.maxEntries = maxEntries;
+        this.successTtlNanos = successTtl == null ? 0L : successTtl.toNanos();
+        this.failureTtlNanos = failureTtl == null ? 0L : failureTtl.toNanos();
+    }
+
+    boolean isEnabled() {
+        return maxEntries > 0 && (successTtlNanos > 0 || failureTtlNanos > 0);
+    }
+
+    Entry get(byte[] digest, Object keys) {
+        Digest key = Digest.of(digest);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.keys != keys || entry.expiresAt - System.nanoTime() <= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    void putSuccess(byte[] digest, Object keys, byte[] payload) {
+        if (successTtlNanos > 0) {
+            put(digest, new Entry(payload, null, keys, System.nanoTime() + successTtlNanos));
+        }
+    }
+
+    void putFailure(byte[] digest, Object keys, String failure) {
+        if (failureTtlNanos > 0) {
+            put(digest, new Entry(null, failure, keys, System.nanoTime() + failureTtlNanos));
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void put(byte[] digest, Entry entry) {
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(Digest.of(digest), entry);
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+        Iterator<Digest> iterator = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    record Entry(byte[] payload, String failure, Object keys, long expiresAt) {
+
+        boolean isFailure() {
+            return failure != null;
+        }
+    }
+
+    private record Digest(long a, long b, long c, long d) {
+
+        static Digest of(byte[] sha256) {
+            ByteBuffer buffer = ByteBuffer.wrap(sha256);
+            return new Digest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+    }
+}
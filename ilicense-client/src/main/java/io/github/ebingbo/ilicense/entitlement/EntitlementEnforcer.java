@@ -0,0 +1,70 @@
+package io.github.ebingbo.ilicense.entitlement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enforces the rate limits and quotas of the current license.
+ * <p>
+ * Quota usage survives license renewal: only the limit of an existing counter changes. Rate limiters are
+ * rebuilt when their rate changes.
+ */
+public class EntitlementEnforcer {
+
+    private final Map<String, StripedRateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final Map<String, QuotaCounter> quotas = new ConcurrentHashMap<>();
+
+    public synchronized void update(LicenseEntitlements entitlements) {
+        Map<String, Long> rates = entitlements == null ? Map.of() : entitlements.getEffectiveRateLimits();
+        Map<String, Long> limits = entitlements == null ? Map.of() : entitlements.getEffectiveQuotas();
+
+        rateLimiters.keySet().retainAll(rates.keySet());
+        rates.forEach((feature, rate) -> {
+            StripedRateLimiter existing = rateLimiters.get(feature);
+            if (rate == null || rate <= 0) {
+                rateLimiters.remove(feature);
+            } else if (existing == null || existing.getPermitsPerSecond() != rate) {
+                rateLimiters.put(feature, new StripedRateLimiter(rate));
+            }
+        });
+
+        quotas.keySet().retainAll(limits.keySet());
+        limits.forEach((feature, limit) -> {
+            long value = limit == null ? 0L : limit;
+            QuotaCounter existing = quotas.get(feature);
+            if (existing == null) {
+                quotas.put(feature, new QuotaCounter(value));
+            } else {
+                existing.setLimit(value);
+            }
+        });
+    }
+
+    public boolean tryAcquire(String feature, long permits) {
+        StripedRateLimiter limiter = rateLimiters.get(feature);
+        if (limiter != null) {
+            return limiter.tryAcquire(permits);
+        }
+        QuotaCounter counter = quotas.get(feature);
+        return counter != null && counter.tryAcquire(permits);
+    }
+
+    public void release(String feature, long permits) {
+        QuotaCounter counter = quotas.get(feature);
+        if (counter != null) {
+            counter.release(permits);
+        }
+    }
+
+    public boolean isRateLimited(String feature) {
+        return rateLimiters.containsKey(feature);
+    }
+
+    public boolean isQuota(String feature) {
+        return quotas.containsKey(feature);
+    }
+
+    public QuotaCounter getQuota(String feature) {
+        return quotas.get(feature);
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.ebingbo.ilicense.entitlement;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+public class LicenseEntitlements implements Serializable {
+
+    public static final String USERS = "users";
+    public static final String RECORDS = "records";
+    public static final String API_CALLS = "api";
+
+    @JsonProperty("max_users")
+    private Long maxUsers;
+
+    @JsonProperty("max_records")
+    private Long maxRecords;
+
+    @JsonProperty("api_calls_per_second")
+    private Long apiCallsPerSecond;
+
+    @JsonProperty("quotas")
+    private Map<String, Long> quotas = new LinkedHashMap<>();
+
+    @JsonProperty("rate_limits")
+    private Map<String, Long> rateLimits = new LinkedHashMap<>();
+
+    @JsonProperty("features")
+    private Map<String, Object> features = new LinkedHashMap<>();
+
+    @JsonIgnore
+    public Map<String, Long> getEffectiveQuotas() {
+        Map<String, Long> effective = new LinkedHashMap<>();
+        if (maxUsers != null) {
+            effective.put(USERS, maxUsers);
+        }
+        if (maxRecords != null) {
+            effective.put(RECORDS, maxRecords);
+        }
+        if (quotas != null) {
+            effective.putAll(quotas);
+        }
+        return Collections.unmodifiableMap(effective);
+    }
+
+    @JsonIgnore
+    public Map<String, Long> getEffectiveRateLimits() {
+        Map<String, Long> effective = new LinkedHashMap<>();
+        if (apiCallsPerSecond != null) {
+            effective.put(API_CALLS, apiCallsPerSecond);
+        }
+        if (rateLimits != null) {
+            effective.putAll(rateLimits);
+        }
+        return Collections.unmodifiableMap(effective);
+    }
+
+    public Object getFeature(String name) {
+        return features == null ? null : features.get(name);
+    }
+
+    public boolean isFeatureEnabled(String name) {
+        Object value = getFeature(name);
+        if (value instanceof Boolean enabled) {
+            return enabled;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue() != 0;
+        }
+        return value != null && !"false".equalsIgnoreCase(value.toString()) && !value.toString().isEmpty();
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.ebingbo.ilicense.entitlement;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free bounded counter for allocation-style quotas such as users or records.
+ */
+public final class QuotaCounter {
+
+    private final AtomicLong used = new AtomicLong();
+    private volatile long limit;
+
+    public QuotaCounter(long limit) {
+        this.limit = limit;
+    }
+
+    public boolean tryAcquire(long permits) {
+        requirePositive(permits);
+        while (true) {
+            long current = used.get();
+            if (permits > limit - current) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + permits)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long permits) {
+        requirePositive(permits);
+        used.accumulateAndGet(permits, (current, released) -> Math.max(0L, current - released));
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    void setLimit(long limit) {
+        this.limit = limit;
+    }
+
+    // a negative acquire would hand out capacity, a negative release would consume it
+    private static void requirePositive(long permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive: " + permits);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.ebingbo.ilicense.entitlement;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free rate limiter split into independent stripes.
+ * <p>
+ * Each stripe is a GCRA cell (a single "theoretical arrival time" updated by CAS) owning an equal share of
+ * the rate. A thread starts at the stripe chosen by its id and only moves to other stripes when that one is
+ * exhausted, so uncontended threads rarely touch the same cache line while the total rate is still honoured.
+ * Burst capacity is one second's worth of permits. A request larger than one stripe's burst is charged to
+ * every stripe at once and refunded if any of them cannot cover its share; a request larger than the whole
+ * burst is denied up front, since it could never be granted.
+ */
+public final class StripedRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int PADDING = 16;
+
+    private final long permitsPerSecond;
+    private final int stripes;
+    private final long intervalNanos;
+    private final long stripeBurst;
+    private final long burstNanos;
+    private final AtomicLongArray cells;
+
+    public StripedRateLimiter(long permitsPerSecond) {
+        this(permitsPerSecond, stripeCount(permitsPerSecond));
+    }
+
+    StripedRateLimiter(long permitsPerSecond, int stripes) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two: " + stripes);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.stripes = stripes;
+        this.intervalNanos = Math.max(1L, NANOS_PER_SECOND * stripes / permitsPerSecond);
+        this.stripeBurst = (permitsPerSecond + stripes - 1) / stripes;
+        this.burstNanos = stripeBurst * intervalNanos;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        long start = System.nanoTime() - burstNanos;
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, start);
+        }
+    }
+
+    public boolean tryAcquire(long permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive: " + permits);
+        }
+        if (permits > permitsPerSecond) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (permits > stripeBurst) {
+            return tryAcquireSpread(permits, now);
+        }
+        int first = (int) (Thread.currentThread().threadId() & (stripes - 1));
+        for (int i = 0; i < stripes; i++) {
+            if (tryAcquire((first + i) & (stripes - 1), permits, now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    private boolean tryAcquire(int stripe, long permits, long now) {
+        int index = stripe * PADDING;
+        long cost = permits * intervalNanos;
+        while (true) {
+            long tat = cells.get(index);
+            long next = Math.max(tat, now - burstNanos) + cost;
+            if (next - now > 0) {
+                return false;
+            }
+            if (cells.compareAndSet(index, tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean tryAcquireSpread(long permits, long now) {
+        long share = permits / stripes;
+        long remainder = permits % stripes;
+        for (int i = 0; i < stripes; i++) {
+            long part = share + (i < remainder ? 1 : 0);
+            if (part > 0 && !tryAcquire(i, part, now)) {
+                for (int j = 0; j < i; j++) {
+                    long charged = share + (j < remainder ? 1 : 0);
+                    if (charged > 0) {
+                        cells.addAndGet(j * PADDING, -charged * intervalNanos);
+                    }
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int stripeCount(long permitsPerSecond) {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int target = (int) Math.min(cpus, Math.max(1L, permitsPerSecond / 8));
+        return Integer.highestOneBit(Math.max(1, target));
+    }
+}
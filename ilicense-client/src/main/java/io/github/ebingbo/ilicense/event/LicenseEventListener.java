@@ -1,6 +1,7 @@
 package io.github.ebingbo.ilicense.event;
 
 import io.github.ebingbo.ilicense.core.LicenseInfo;
+import io.github.ebingbo.ilicense.core.LicensePhase;
 
 public interface LicenseEventListener {
 
@@ -13,6 +14,13 @@ public interface LicenseEventListener {
     default void onExpired(LicenseInfo licenseInfo) {
     }
 
+    default void onRevoked(LicenseInfo licenseInfo) {
+        onExpired(licenseInfo);
+    }
+
     default void onExpiringSoon(LicenseInfo licenseInfo, long daysLeft) {
     }
+
+    default void onPhaseChanged(LicenseInfo licenseInfo, LicensePhase phase) {
+    }
 }
@@ -0,0 +1,7 @@
+package io.github.ebingbo.ilicense.exception;
+
+public class LicenseBindingException extends LicenseException {
+    public LicenseBindingException(String message) {
+        super(message);
+    }
+}
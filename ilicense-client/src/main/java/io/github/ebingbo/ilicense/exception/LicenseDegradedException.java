@@ -0,0 +1,7 @@
+package io.github.ebingbo.ilicense.exception;
+
+public class LicenseDegradedException extends LicenseExpiredException {
+    public LicenseDegradedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.ebingbo.ilicense.exception;
+
+public class LicenseQuotaExceededException extends LicenseException {
+    public LicenseQuotaExceededException(String message) {
+        super(message);
+    }
+}
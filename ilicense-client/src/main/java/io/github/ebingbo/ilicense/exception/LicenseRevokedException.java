@@ -0,0 +1,7 @@
+package io.github.ebingbo.ilicense.exception;
+
+public class LicenseRevokedException extends LicenseExpiredException {
+    public LicenseRevokedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.ebingbo.ilicense.exception;
+
+public class LicenseStoreConflictException extends LicenseException {
+    public LicenseStoreConflictException(String message) {
+        super(message);
+    }
+}
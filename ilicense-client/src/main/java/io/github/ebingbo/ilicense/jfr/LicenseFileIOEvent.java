@@ -0,0 +1,55 @@
+package io.github.ebingbo.ilicense.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Read or write of a license file (license.dat, revocation list).
+ */
+@Name("io.github.ebingbo.ilicense.LicenseFileIO")
+@Label("License File I/O")
+@Category("iLicense")
+@Description("License file read or write")
+@Enabled(false)
+@StackTrace(false)
+public class LicenseFileIOEvent extends Event {
+
+    public static final String READ = "READ";
+    public static final String WRITE = "WRITE";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+
+    @Label("Success")
+    public boolean success;
+
+    /**
+     * Fills in and commits the event when it is recorded; {@code content} is {@code null} when the
+     * operation failed.
+     */
+    public void commit(String operation, Path file, String content) {
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.path = file.toString();
+            this.success = content != null;
+            this.bytes = content == null ? 0L : content.getBytes(StandardCharsets.UTF_8).length;
+            commit();
+        }
+    }
+}
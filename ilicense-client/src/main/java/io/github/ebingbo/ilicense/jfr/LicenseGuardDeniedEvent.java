@@ -0,0 +1,44 @@
+package io.github.ebingbo.ilicense.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A request or call refused by a license guard (filter, interceptor or aspect).
+ */
+@Name("io.github.ebingbo.ilicense.LicenseGuardDenied")
+@Label("License Guard Denied")
+@Category("iLicense")
+@Description("Request refused by a license guard")
+@Enabled(false)
+@StackTrace(false)
+public class LicenseGuardDeniedEvent extends Event {
+
+    @Label("Guard")
+    public String guard;
+
+    @Label("Reason")
+    public String reason;
+
+    @Label("Module")
+    public String module;
+
+    @Label("Path")
+    public String path;
+
+    public static void emit(String guard, String reason, String module, String path) {
+        LicenseGuardDeniedEvent event = new LicenseGuardDeniedEvent();
+        if (event.shouldCommit()) {
+            event.guard = guard;
+            event.reason = reason;
+            event.module = module;
+            event.path = path;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.ebingbo.ilicense.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A new license state snapshot was published, or the current one moved to another expiry phase.
+ */
+@Name("io.github.ebingbo.ilicense.LicenseStateTransition")
+@Label("License State Transition")
+@Category("iLicense")
+@Description("License state published or expiry phase changed")
+@Enabled(false)
+@StackTrace(false)
+public class LicenseStateTransitionEvent extends Event {
+
+    @Label("Cause")
+    public String cause;
+
+    @Label("From Phase")
+    public String fromPhase;
+
+    @Label("To Phase")
+    public String toPhase;
+
+    @Label("Generation")
+    public long generation;
+
+    @Label("License Code")
+    public String licenseCode;
+
+    @Label("Revoked")
+    public boolean revoked;
+
+    @Label("Clock Rollback")
+    public boolean clockRollback;
+}
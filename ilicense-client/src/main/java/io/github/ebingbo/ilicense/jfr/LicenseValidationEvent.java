@@ -0,0 +1,58 @@
+package io.github.ebingbo.ilicense.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One activation code validation, split into envelope decoding, signature verification, payload decryption
+ * (encrypted payloads only) and payload parsing.
+ */
+@Name("io.github.ebingbo.ilicense.LicenseValidation")
+@Label("License Validation")
+@Category("iLicense")
+@Description("Activation code validation")
+@Enabled(false)
+@StackTrace(false)
+public class LicenseValidationEvent extends Event {
+
+    public static final String VALID = "VALID";
+    public static final String INVALID = "INVALID";
+    public static final String CACHED_VALID = "CACHED_VALID";
+    public static final String CACHED_INVALID = "CACHED_INVALID";
+
+    @Label("Decode Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long decodeDuration;
+
+    @Label("Verify Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long verifyDuration;
+
+    @Label("Decrypt Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long decryptDuration;
+
+    @Label("Parse Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long parseDuration;
+
+    @Label("Key Size")
+    @DataAmount(DataAmount.BITS)
+    public int keySize;
+
+    @Label("Key ID")
+    public String keyId;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("License Code")
+    public String licenseCode;
+}
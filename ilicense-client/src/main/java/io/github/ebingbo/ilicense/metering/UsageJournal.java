@@ -0,0 +1,323 @@
+package io.github.ebingbo.ilicense.metering;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only usage journal made of fixed-size, memory-mapped segments.
+ * <p>
+ * Segments are named {@code <path>.<n>}; records are only ever appended to the highest-numbered one, and
+ * when a record does not fit a new segment is started and the oldest ones beyond {@code maxSegments} are
+ * deleted, with the lost time range logged at WARN. Journals start at segment 1, so a lower segment that
+ * no longer exists means usage was rotated out; {@link #getRetainedSince()} reports from when the journal
+ * is complete. Each record is checksummed with CRC-32C and its length is written last, so a record torn by a
+ * crash is detected on reopen and the segment tail is cleared from there. A lock file keeps a second
+ * process from appending to the same journal.
+ * <pre>
+ *   segment: int magic, int version, long created at, records...
+ *   record:  int body length (0 = end), int crc32c(body), body
+ *   body:    long timestamp, int entries, entries { byte kind, short name length, byte[] name, long count }
+ * </pre>
+ */
+public class UsageJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageJournal.class);
+
+    private static final int MAGIC = 0x494C554A;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 16;
+    private static final int RECORD_HEADER_LENGTH = 8;
+    static final long MIN_SEGMENT_SIZE = 4 * 1024;
+
+    private final Path path;
+    private final long segmentSize;
+    private final int maxSegments;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    public UsageJournal(Path path, long segmentSize, int maxSegments) {
+        if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new LicenseException("usage journal segment size out of range: " + segmentSize);
+        }
+        this.path = path.toAbsolutePath();
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(1, maxSegments);
+        try {
+            Files.createDirectories(this.path.getParent());
+            this.lockChannel = FileChannel.open(Path.of(this.path + ".lock"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            this.lock = acquireLock();
+            TreeMap<Long, Path> segments = segments();
+            if (segments.isEmpty()) {
+                openSegment(1L, true);
+            } else {
+                openSegment(segments.lastKey(), false);
+            }
+        } catch (IOException e) {
+            throw new LicenseException("failed to open usage journal " + this.path, e);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Appends one record and forces it to storage. Entries with a zero count are skipped.
+     */
+    public synchronized void append(long timestamp, Map<String, Long> modules, Map<String, Long> features) {
+        byte[] body = encode(timestamp, modules, features);
+        if (RECORD_HEADER_LENGTH + body.length > segmentSize - HEADER_LENGTH) {
+            throw new LicenseException("usage record too large for journal segment: " + body.length + " bytes");
+        }
+        if (buffer.position() + RECORD_HEADER_LENGTH + body.length > segmentSize) {
+            rotate();
+        }
+        int position = buffer.position();
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        buffer.put(position + RECORD_HEADER_LENGTH, body);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, body.length);
+        buffer.position(position + RECORD_HEADER_LENGTH + body.length);
+        buffer.force();
+    }
+
+    /**
+     * Epoch millis from which the journal still holds every record, or {@code 0} when no segment has been
+     * rotated out yet. Records before it were deleted by rotation and are missing from {@link #readAll()}.
+     */
+    public synchronized long getRetainedSince() {
+        try {
+            Map.Entry<Long, Path> oldest = segments().firstEntry();
+            if (oldest == null || oldest.getKey() <= 1L) {
+                return 0L;
+            }
+            return oldest.getKey() == segmentNumber ? buffer.getLong(8) : createdAt(oldest.getValue());
+        } catch (IOException e) {
+            throw new LicenseException("failed to read usage journal " + path, e);
+        }
+    }
+
+    /**
+     * All intact records, oldest first.
+     */
+    public synchronized List<UsageRecord> readAll() {
+        List<UsageRecord> records = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, Path> segment : segments().entrySet()) {
+                ByteBuffer data = segment.getKey() == segmentNumber
+                        ? buffer.duplicate().position(0)
+                        : ByteBuffer.wrap(Files.readAllBytes(segment.getValue()));
+                scan(data, records);
+            }
+        } catch (IOException e) {
+            throw new LicenseException("failed to read usage journal " + path, e);
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("failed to close usage journal {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void rotate() {
+        try {
+            buffer.force();
+            channel.close();
+            openSegment(segmentNumber + 1, true);
+            List<Path> segments = new ArrayList<>(segments().values());
+            int excess = segments.size() - maxSegments;
+            for (int i = 0; i < excess; i++) {
+                // the next segment was started when this one filled up, so its creation time ends the range
+                log.warn("usage journal segment {} deleted by rotation, usage recorded from {} to {} is lost",
+                        segments.get(i).getFileName(), Instant.ofEpochMilli(createdAt(segments.get(i))),
+                        Instant.ofEpochMilli(createdAt(segments.get(i + 1))));
+                Files.deleteIfExists(segments.get(i));
+            }
+            log.info("usage journal rotated to segment {}", segmentNumber);
+        } catch (IOException e) {
+            throw new LicenseException("failed to rotate usage journal " + path, e);
+        }
+    }
+
+    private void openSegment(long number, boolean create) throws IOException {
+        Path file = Path.of(path + "." + number);
+        channel = create
+                ? FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < segmentSize) {
+            channel.write(ByteBuffer.wrap(new byte[1]), segmentSize - 1);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segmentNumber = number;
+
+        if (create || buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.putLong(8, System.currentTimeMillis());
+            buffer.position(HEADER_LENGTH);
+            return;
+        }
+        int end = scan(buffer.duplicate().position(0), null);
+        buffer.position(end);
+        if (end + RECORD_HEADER_LENGTH <= segmentSize && buffer.getInt(end) != 0) {
+            log.warn("usage journal segment {} has a torn record at offset {}, discarding the tail", file, end);
+            for (int i = end; i < segmentSize; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    private static long createdAt(Path segment) throws IOException {
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            file.read(header, 0);
+            return header.getInt(0) == MAGIC ? header.getLong(8) : 0L;
+        }
+    }
+
+    /**
+     * Decodes intact records into {@code records} (when not null) and returns the append position.
+     */
+    private static int scan(ByteBuffer data, List<UsageRecord> records) {
+        if (data.limit() < HEADER_LENGTH || data.getInt(0) != MAGIC) {
+            return HEADER_LENGTH;
+        }
+        int position = HEADER_LENGTH;
+        while (position + RECORD_HEADER_LENGTH <= data.limit()) {
+            int length = data.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_LENGTH + length > data.limit()) {
+                break;
+            }
+            byte[] body = new byte[length];
+            data.get(position + RECORD_HEADER_LENGTH, body);
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != data.getInt(position + 4)) {
+                break;
+            }
+            if (records != null) {
+                records.add(decode(body));
+            }
+            position += RECORD_HEADER_LENGTH + length;
+        }
+        return position;
+    }
+
+    private static byte[] encode(long timestamp, Map<String, Long> modules, Map<String, Long> features) {
+        int entries = 0;
+        int size = 8 + 4;
+        for (Map<String, Long> counts : List.of(modules, features)) {
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                if (entry.getValue() != 0L) {
+                    entries++;
+                    size += 1 + 2 + entry.getKey().getBytes(StandardCharsets.UTF_8).length + 8;
+                }
+            }
+        }
+        ByteBuffer body = ByteBuffer.allocate(size);
+        body.putLong(timestamp);
+        body.putInt(entries);
+        put(body, UsageRecord.KIND_MODULE, modules);
+        put(body, UsageRecord.KIND_FEATURE, features);
+        return body.array();
+    }
+
+    private static void put(ByteBuffer body, byte kind, Map<String, Long> counts) {
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (entry.getValue() == 0L) {
+                continue;
+            }
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (name.length > Short.MAX_VALUE) {
+                throw new LicenseException("usage counter name too long");
+            }
+            body.put(kind);
+            body.putShort((short) name.length);
+            body.put(name);
+            body.putLong(entry.getValue());
+        }
+    }
+
+    private static UsageRecord decode(byte[] bytes) {
+        ByteBuffer body = ByteBuffer.wrap(bytes);
+        long timestamp = body.getLong();
+        int entries = body.getInt();
+        Map<String, Long> modules = new LinkedHashMap<>();
+        Map<String, Long> features = new LinkedHashMap<>();
+        for (int i = 0; i < entries; i++) {
+            byte kind = body.get();
+            byte[] name = new byte[body.getShort()];
+            body.get(name);
+            long count = body.getLong();
+            (kind == UsageRecord.KIND_FEATURE ? features : modules)
+                    .merge(new String(name, StandardCharsets.UTF_8), count, Long::sum);
+        }
+        return new UsageRecord(timestamp, modules, features);
+    }
+
+    private TreeMap<Long, Path> segments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        String prefix = path.getFileName() + ".";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path.getParent(), prefix + "*")) {
+            for (Path file : stream) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                    segments.put(Long.parseLong(suffix), file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private FileLock acquireLock() throws IOException {
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            acquired = null;
+        }
+        if (acquired == null) {
+            lockChannel.close();
+            throw new LicenseException("usage journal " + path + " is already in use by another process");
+        }
+        return acquired;
+    }
+}
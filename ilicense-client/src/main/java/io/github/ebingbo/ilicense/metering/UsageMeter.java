@@ -0,0 +1,163 @@
+package io.github.ebingbo.ilicense.metering;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts module checks and feature permits in striped {@link LongAdder}s and periodically flushes the
+ * counts to a {@link UsageJournal}.
+ * <p>
+ * Recording is a map lookup and an adder increment; the adder for a name is created on its first use only.
+ * A flush drains every counter with {@link LongAdder#sumThenReset()}, so increments racing with it land in
+ * either this flush or the next one and none are lost. When the journal cannot be written the drained counts
+ * are put back and retried on the next flush.
+ */
+public class UsageMeter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageMeter.class);
+
+    private final ConcurrentHashMap<String, LongAdder> modules = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> features = new ConcurrentHashMap<>();
+    private final UsageJournal journal;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param journal where flushed counts go; {@code null} keeps counts in memory only
+     */
+    public UsageMeter(UsageJournal journal) {
+        this.journal = journal;
+    }
+
+    public void recordModule(String module) {
+        counter(modules, module).increment();
+    }
+
+    public void recordFeature(String feature, long permits) {
+        counter(features, feature).add(permits);
+    }
+
+    public UsageJournal getJournal() {
+        return journal;
+    }
+
+    public synchronized void start(Duration flushInterval) {
+        if (scheduler != null || journal == null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ilicense-metering");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = Math.max(1L, flushInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the counts accumulated since the previous flush as one journal record.
+     */
+    public synchronized void flush() {
+        if (journal == null) {
+            return;
+        }
+        Map<String, Long> drainedModules = drain(modules);
+        Map<String, Long> drainedFeatures = drain(features);
+        if (drainedModules.isEmpty() && drainedFeatures.isEmpty()) {
+            return;
+        }
+        try {
+            journal.append(System.currentTimeMillis(), drainedModules, drainedFeatures);
+        } catch (LicenseException e) {
+            drainedModules.forEach((name, count) -> counter(modules, name).add(count));
+            drainedFeatures.forEach((name, count) -> counter(features, name).add(count));
+            throw e;
+        }
+    }
+
+    /**
+     * Totals from the journal between {@code from} (inclusive) and {@code to} (exclusive), plus the counts
+     * not yet flushed when {@code to} is in the future. When rotation already deleted part of the period the
+     * summary's {@code missingBefore} says from when the totals are complete.
+     */
+    public synchronized UsageSummary summarize(String licenseCode, Instant from, Instant to) {
+        Map<String, Long> moduleTotals = new TreeMap<>();
+        Map<String, Long> featureTotals = new TreeMap<>();
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        Long missingBefore = null;
+        if (journal != null) {
+            long retainedSince = journal.getRetainedSince();
+            if (retainedSince > fromMillis) {
+                missingBefore = Math.min(retainedSince, toMillis);
+                log.warn("usage summary from {} is incomplete, the journal only holds usage since {}",
+                        from, Instant.ofEpochMilli(retainedSince));
+            }
+            for (UsageRecord record : journal.readAll()) {
+                if (record.timestamp() >= fromMillis && record.timestamp() < toMillis) {
+                    record.modules().forEach((name, count) -> moduleTotals.merge(name, count, Long::sum));
+                    record.features().forEach((name, count) -> featureTotals.merge(name, count, Long::sum));
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        if (toMillis > now) {
+            modules.forEach((name, adder) -> add(moduleTotals, name, adder.sum()));
+            features.forEach((name, adder) -> add(featureTotals, name, adder.sum()));
+        }
+        return new UsageSummary(licenseCode, fromMillis, Math.min(toMillis, now), now, moduleTotals, featureTotals,
+                missingBefore);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        flushQuietly();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("failed to flush usage counters: {}", e.getMessage());
+        }
+    }
+
+    private static LongAdder counter(ConcurrentHashMap<String, LongAdder> counters, String name) {
+        LongAdder adder = counters.get(name);
+        return adder != null ? adder : counters.computeIfAbsent(name, UsageMeter::newAdder);
+    }
+
+    private static LongAdder newAdder(String name) {
+        return new LongAdder();
+    }
+
+    private static Map<String, Long> drain(ConcurrentHashMap<String, LongAdder> counters) {
+        Map<String, Long> drained = new TreeMap<>();
+        counters.forEach((name, adder) -> add(drained, name, adder.sumThenReset()));
+        return drained;
+    }
+
+    private static void add(Map<String, Long> totals, String name, long count) {
+        if (count != 0L) {
+            totals.merge(name, count, Long::sum);
+        }
+    }
+}
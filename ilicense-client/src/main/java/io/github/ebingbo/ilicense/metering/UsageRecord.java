@@ -0,0 +1,16 @@
+package io.github.ebingbo.ilicense.metering;
+
+import java.util.Map;
+
+/**
+ * One flushed batch of usage counts.
+ *
+ * @param timestamp epoch millis of the flush
+ * @param modules   module checks that passed since the previous flush
+ * @param features  permits acquired per feature since the previous flush
+ */
+public record UsageRecord(long timestamp, Map<String, Long> modules, Map<String, Long> features) {
+
+    static final byte KIND_MODULE = 1;
+    static final byte KIND_FEATURE = 2;
+}
@@ -0,0 +1,82 @@
+package io.github.ebingbo.ilicense.metering;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Signs usage summaries so they can be carried to the vendor by hand, e.g. from an air-gapped site.
+ * <p>
+ * A report is {@code base64url(json) "." base64url(HMAC-SHA256(json))}; the JSON stays readable for the
+ * customer, and the vendor, who issued the metering secret, verifies it with {@link #verify(String)}.
+ * <p>
+ * Reports are advisory. The signature catches corruption and third-party tampering on the way to the
+ * vendor, but the secret is configured on the customer's side and the journal behind the summary is only
+ * checksummed, so a report does not prove usage against the licensee.
+ */
+public class UsageReportSigner {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final SecretKeySpec key;
+
+    public UsageReportSigner(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new LicenseException("metering secret not configured");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    }
+
+    public String sign(UsageSummary summary) {
+        byte[] payload;
+        try {
+            payload = MAPPER.writeValueAsBytes(summary);
+        } catch (IOException e) {
+            throw new LicenseException("failed to encode usage summary", e);
+        }
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    public UsageSummary verify(String report) {
+        int dot = report == null ? -1 : report.indexOf('.');
+        if (dot <= 0 || dot == report.length() - 1) {
+            throw new LicenseException("malformed usage report");
+        }
+        byte[] payload;
+        byte[] mac;
+        try {
+            payload = DECODER.decode(report.substring(0, dot));
+            mac = DECODER.decode(report.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new LicenseException("malformed usage report");
+        }
+        if (!MessageDigest.isEqual(mac, mac(payload))) {
+            throw new LicenseException("usage report signature invalid");
+        }
+        try {
+            return MAPPER.readValue(payload, UsageSummary.class);
+        } catch (IOException e) {
+            throw new LicenseException("failed to decode usage report", e);
+        }
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new LicenseException("failed to compute usage report mac", e);
+        }
+    }
+}
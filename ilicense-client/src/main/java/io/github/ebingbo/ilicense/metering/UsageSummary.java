@@ -0,0 +1,27 @@
+package io.github.ebingbo.ilicense.metering;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Usage totals for a period, as exported to the vendor. Times are epoch millis.
+ * <p>
+ * {@code missingBefore} is set when the journal rotated out usage recorded inside the period: the totals
+ * only cover {@code [missingBefore, to)}, and everything before it is missing rather than zero.
+ */
+public record UsageSummary(
+        @JsonProperty("license_code") String licenseCode,
+        @JsonProperty("from") long from,
+        @JsonProperty("to") long to,
+        @JsonProperty("generated_at") long generatedAt,
+        @JsonProperty("modules") Map<String, Long> modules,
+        @JsonProperty("features") Map<String, Long> features,
+        @JsonProperty("missing_before") @JsonInclude(JsonInclude.Include.NON_NULL) Long missingBefore) {
+
+    public UsageSummary(String licenseCode, long from, long to, long generatedAt,
+                        Map<String, Long> modules, Map<String, Long> features) {
+        this(licenseCode, from, to, generatedAt, modules, features, null);
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.ebingbo.ilicense.module;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Module grants parsed into a prefix trie over the dot-separated module namespace.
+ * <p>
+ * Grant syntax, separated by commas, semicolons or whitespace:
+ * <ul>
+ *     <li>{@code billing.export} grants exactly that module</li>
+ *     <li>{@code analytics.*} grants {@code analytics} and every module below it; {@code *} grants everything</li>
+ *     <li>{@code -billing.export} (or {@code !billing.export}) denies that module and everything below it</li>
+ * </ul>
+ * The most specific grant wins; on the same node a denial wins over a grant. Checks walk only the depth
+ * of the requested module and do not allocate.
+ */
+public final class ModuleGrants {
+
+    private static final Logger log = LoggerFactory.getLogger(ModuleGrants.class);
+
+    public static final ModuleGrants EMPTY = new ModuleGrants(new Node(), "");
+
+    private static final byte UNSET = 0;
+    private static final byte GRANT = 1;
+    private static final byte DENY = 2;
+
+    private final Node root;
+    private final String source;
+
+    private ModuleGrants(Node root, String source) {
+        this.root = root;
+        this.source = source;
+    }
+
+    public static ModuleGrants parse(Collection<String> grants) {
+        return grants == null || grants.isEmpty() ? EMPTY : parse(String.join(",", grants));
+    }
+
+    public static ModuleGrants parse(String grants) {
+        if (grants == null || grants.isBlank()) {
+            return EMPTY;
+        }
+        Node root = new Node();
+        for (String token : grants.split("[,;\\s]+")) {
+            if (!token.isEmpty()) {
+                add(root, token);
+            }
+        }
+        return new ModuleGrants(root, grants);
+    }
+
+    public boolean isGranted(String module) {
+        if (module == null || module.isEmpty()) {
+            return false;
+        }
+        byte decision = root.subtree;
+        Node node = root;
+        int length = module.length();
+        int pos = 0;
+        while (true) {
+            int end = module.indexOf('.', pos);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.find(module, pos, end - pos);
+            if (node == null) {
+                return decision == GRANT;
+            }
+            if (end == length) {
+                byte own = (byte) Math.max(node.exact, node.subtree);
+                return (own == UNSET ? decision : own) == GRANT;
+            }
+            if (node.subtree != UNSET) {
+                decision = node.subtree;
+            }
+            pos = end + 1;
+        }
+    }
+
+    public boolean isEmpty() {
+        return root.names.length == 0 && root.subtree == UNSET;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private static void add(Node root, String token) {
+        boolean negative = token.charAt(0) == '-' || token.charAt(0) == '!';
+        String name = negative ? token.substring(1) : token;
+        boolean wildcard = false;
+        if ("*".equals(name)) {
+            name = "";
+            wildcard = true;
+        } else if (name.endsWith(".*")) {
+            name = name.substring(0, name.length() - 2);
+            wildcard = true;
+        }
+        if ((name.isEmpty() && !wildcard) || name.indexOf('*') >= 0 || name.startsWith(".")
+                || name.endsWith(".") || name.contains("..")) {
+            log.warn("ignoring invalid module grant: {}", token);
+            return;
+        }
+
+        Node node = root;
+        if (!name.isEmpty()) {
+            for (String segment : name.split("\\.")) {
+                node = node.child(segment);
+            }
+        }
+        byte decision = negative ? DENY : GRANT;
+        if (negative || wildcard) {
+            node.subtree = (byte) Math.max(node.subtree, decision);
+        }
+        if (!name.isEmpty()) {
+            node.exact = (byte) Math.max(node.exact, decision);
+        }
+    }
+
+    private static final class Node {
+        private String[] names = new String[0];
+        private Node[] children = new Node[0];
+        private byte exact;
+        private byte subtree;
+
+        private Node find(String module, int offset, int length) {
+            String[] names = this.names;
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i];
+                if (name.length() == length && module.regionMatches(offset, name, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node child(String segment) {
+            Node existing = find(segment, 0, segment.length());
+            if (existing != null) {
+                return existing;
+            }
+            Node node = new Node();
+            names = Arrays.copyOf(names, names.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            names[names.length - 1] = segment;
+            children[children.length - 1] = node;
+            return node;
+        }
+    }
+}
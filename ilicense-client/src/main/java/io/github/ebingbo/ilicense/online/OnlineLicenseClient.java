@@ -0,0 +1,307 @@
+package io.github.ebingbo.ilicense.online;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.ebingbo.ilicense.config.LicenseClientProperties;
+import io.github.ebingbo.ilicense.core.LicenseInfo;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.store.StoredLicense;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pulls activation codes from the iLicense server and checks in periodically.
+ * <p>
+ * All requests go through one {@link HttpClient}, which keeps pooled HTTP/2 connections to the server.
+ * Check-ins run on a single background thread: the first one is spread over a random start-up delay and
+ * failures back off exponentially with full jitter, so restarting a fleet does not stampede the server.
+ * Every code is verified by the {@link LicenseManager} like an offline code; the last accepted one is
+ * cached next to {@code license.dat}. On start the cache is tried first, since it holds the last code the
+ * server handed out, and the code loaded from {@code license.dat} is only kept when the cache is missing
+ * or no longer verifies. The request path never waits on the network, it only reads the manager's
+ * in-memory state.
+ */
+public class OnlineLicenseClient implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OnlineLicenseClient.class);
+
+    static final String CHECK_IN_PATH = "/api/v1/licenses/check-in";
+
+    private final LicenseManager licenseManager;
+    private final URI checkInUri;
+    private final String licenseKey;
+    private final String instanceId;
+    private final Duration checkInInterval;
+    private final Duration requestTimeout;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final Duration startupJitter;
+    private final Path cacheFile;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ScheduledExecutorService scheduler;
+    private volatile String lastCode;
+    private volatile int failures;
+    private volatile long retryAfterMillis;
+
+    public OnlineLicenseClient(LicenseClientProperties properties, LicenseManager licenseManager) {
+        if (properties.getServerUrl() == null || properties.getServerUrl().isBlank()) {
+            throw new LicenseException("online mode requires a server url");
+        }
+        this.licenseManager = licenseManager;
+        this.checkInUri = URI.create(stripTrailingSlash(properties.getServerUrl()) + CHECK_IN_PATH);
+        this.licenseKey = properties.getLicenseKey();
+        this.instanceId = properties.getInstanceId() == null || properties.getInstanceId().isBlank()
+                ? defaultInstanceId()
+                : properties.getInstanceId();
+        this.checkInInterval = properties.getCheckInInterval();
+        this.requestTimeout = properties.getOnlineRequestTimeout();
+        this.backoffBase = properties.getOnlineBackoffBase();
+        this.backoffMax = properties.getOnlineBackoffMax();
+        this.startupJitter = properties.getOnlineStartupJitter();
+        this.cacheFile = properties.getOnlineCachePath() == null || properties.getOnlineCachePath().isBlank()
+                ? Paths.get(properties.getStoragePath() + ".online")
+                : Paths.get(properties.getOnlineCachePath());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(requestTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Restores the cached code, falling back to the one loaded from {@code license.dat}, then schedules
+     * check-ins.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        activateFromCache();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ilicense-online");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long firstDelay = licenseManager.getCurrentLicense() == null
+                ? 0L
+                : ThreadLocalRandom.current().nextLong(Math.max(1L, startupJitter.toMillis()));
+        schedule(firstDelay);
+        log.info("online license client started - server: {}, instance: {}, first check-in in {} ms",
+                checkInUri, instanceId, firstDelay);
+    }
+
+    /**
+     * Performs one check-in. Returns {@code true} when the server answered and the result was applied.
+     */
+    public boolean checkIn() {
+        try {
+            HttpResponse<String> response = httpClient.send(buildRequest(), HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            if (status == 200) {
+                JsonNode body = objectMapper.readTree(response.body());
+                String code = body.path("activation_code").asText(null);
+                if (code != null && !code.isBlank() && !code.equals(lastCode)) {
+                    apply(code);
+                }
+            } else if (status != 204 && status != 304) {
+                retryAfterMillis = retryAfter(response);
+                return failed("http " + status);
+            }
+            failures = 0;
+            retryAfterMillis = 0L;
+            return true;
+        } catch (IOException | LicenseException e) {
+            return failed(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public int getConsecutiveFailures() {
+        return failures;
+    }
+
+    public Path getCacheFile() {
+        return cacheFile;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Exponential backoff with full jitter: a random delay in {@code [base, min(max, base * 2^failures)]}.
+     */
+    static long backoffMillis(int failures, long baseMillis, long maxMillis) {
+        int exponent = Math.min(Math.max(failures - 1, 0), 30);
+        long ceiling = Math.min(maxMillis, baseMillis << exponent);
+        if (ceiling <= baseMillis) {
+            return ceiling;
+        }
+        return ThreadLocalRandom.current().nextLong(baseMillis, ceiling + 1);
+    }
+
+    private void schedule(long delayMillis) {
+        ScheduledExecutorService current = scheduler;
+        if (current != null && !current.isShutdown()) {
+            current.schedule(this::runScheduled, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Delay before the next check-in: the regular interval after a success, otherwise the jittered backoff
+     * or the server's {@code Retry-After}, whichever is longer.
+     */
+    long nextDelayMillis() {
+        if (failures == 0) {
+            return checkInInterval.toMillis();
+        }
+        return Math.max(backoffMillis(failures, backoffBase.toMillis(), backoffMax.toMillis()), retryAfterMillis);
+    }
+
+    private void runScheduled() {
+        try {
+            checkIn();
+        } catch (RuntimeException e) {
+            failed(e.toString());
+        }
+        schedule(nextDelayMillis());
+    }
+
+    private boolean failed(String reason) {
+        failures++;
+        log.warn("online check-in failed ({} in a row): {}", failures, reason);
+        return false;
+    }
+
+    private void apply(String code) {
+        LicenseInfo license = licenseManager.activate(code);
+        lastCode = code;
+        writeCache(code);
+        log.info("online license code applied - license code: {}, expiry: {}",
+                license.getLicenseCode(), license.getExpireAt());
+    }
+
+    private void activateFromCache() {
+        String code = readQuietly(cacheFile);
+        if (code == null || code.isEmpty()) {
+            return;
+        }
+        if (licenseManager.getCurrentLicense() != null && code.equals(storedCode())) {
+            lastCode = code;
+            return;
+        }
+        try {
+            licenseManager.activate(code);
+            lastCode = code;
+            log.info("license restored from online cache {}", cacheFile);
+        } catch (Exception e) {
+            log.warn("failed to restore license from online cache {}, keeping {}: {}", cacheFile,
+                    licenseManager.getLicenseStore().describe(), e.getMessage());
+        }
+    }
+
+    private String storedCode() {
+        try {
+            StoredLicense stored = licenseManager.getLicenseStore().load();
+            return stored == null ? null : stored.activationCode();
+        } catch (LicenseException e) {
+            return null;
+        }
+    }
+
+    private static String readQuietly(Path file) {
+        try {
+            return Files.exists(file) ? Files.readString(file, StandardCharsets.UTF_8).trim() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeCache(String code) {
+        try {
+            Path dir = cacheFile.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            Path temp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            Files.writeString(temp, code, StandardCharsets.UTF_8);
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("failed to write online cache {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private HttpRequest buildRequest() throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("license_key", licenseKey);
+        body.put("instance_id", instanceId);
+        LicenseInfo current = licenseManager.getCurrentLicense();
+        body.put("license_code", current == null ? null : current.getLicenseCode());
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(checkInUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (licenseKey != null && !licenseKey.isBlank()) {
+            builder.header("Authorization", "Bearer " + licenseKey);
+        }
+        return builder.build();
+    }
+
+    private static long retryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+                .map(value -> {
+                    try {
+                        return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+                    } catch (NumberFormatException e) {
+                        return 0L;
+                    }
+                })
+                .orElse(0L);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static String defaultInstanceId() {
+        String host = System.getenv("HOSTNAME");
+        if (host == null || host.isBlank()) {
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (IOException e) {
+                host = "unknown";
+            }
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
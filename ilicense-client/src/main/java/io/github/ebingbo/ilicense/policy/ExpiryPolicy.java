@@ -0,0 +1,80 @@
+package io.github.ebingbo.ilicense.policy;
+
+import io.github.ebingbo.ilicense.config.LicenseClientProperties;
+import io.github.ebingbo.ilicense.module.ModuleGrants;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Phase durations around {@code expire_at}:
+ * <pre>
+ *   ACTIVE | WARNING (warningPeriod) | expire_at | GRACE (gracePeriod) | DEGRADED (degradedPeriod) | BLOCKED
+ * </pre>
+ * With the default zero grace and degraded periods an expired license is blocked immediately, which is
+ * the historical behaviour.
+ */
+public final class ExpiryPolicy {
+
+    public static final ExpiryPolicy DEFAULT = new ExpiryPolicy(
+            Duration.ofDays(30), Duration.ZERO, Duration.ZERO, Set.of(), true);
+
+    private final Duration warningPeriod;
+    private final Duration gracePeriod;
+    private final Duration degradedPeriod;
+    private final Set<String> degradedModules;
+    private final ModuleGrants degradedGrants;
+    private final boolean degradedReadOnly;
+
+    public ExpiryPolicy(Duration warningPeriod,
+                        Duration gracePeriod,
+                        Duration degradedPeriod,
+                        Collection<String> degradedModules,
+                        boolean degradedReadOnly) {
+        this.warningPeriod = nonNegative(warningPeriod);
+        this.gracePeriod = nonNegative(gracePeriod);
+        this.degradedPeriod = nonNegative(degradedPeriod);
+        this.degradedModules = degradedModules == null ? Set.of() : Set.copyOf(degradedModules);
+        this.degradedGrants = ModuleGrants.parse(this.degradedModules);
+        this.degradedReadOnly = degradedReadOnly;
+    }
+
+    public static ExpiryPolicy from(LicenseClientProperties properties) {
+        return new ExpiryPolicy(
+                Duration.ofDays(properties.getExpiryWarningDays()),
+                properties.getGracePeriod(),
+                properties.getDegradedPeriod(),
+                properties.getDegradedModules(),
+                properties.isDegradedReadOnly()
+        );
+    }
+
+    public Duration getWarningPeriod() {
+        return warningPeriod;
+    }
+
+    public Duration getGracePeriod() {
+        return gracePeriod;
+    }
+
+    public Duration getDegradedPeriod() {
+        return degradedPeriod;
+    }
+
+    public Set<String> getDegradedModules() {
+        return degradedModules;
+    }
+
+    public boolean isDegradedReadOnly() {
+        return degradedReadOnly;
+    }
+
+    public boolean isDegradedModule(String moduleName) {
+        return degradedGrants.isGranted(moduleName);
+    }
+
+    private static Duration nonNegative(Duration duration) {
+        return duration == null || duration.isNegative() ? Duration.ZERO : duration;
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.ebingbo.ilicense.revocation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Verified certificate revocation list keyed by {@code license_code}.
+ * <p>
+ * Lookups go through a bloom filter first; only a filter hit is confirmed against the exact set, so the
+ * common "not revoked" answer costs a few bit probes.
+ */
+public final class RevocationList {
+
+    public static final RevocationList EMPTY = new RevocationList(0L, null, Set.of());
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    private final long version;
+    private final OffsetDateTime issueAt;
+    private final Set<String> revokedCodes;
+    private final BloomFilter filter;
+
+    private RevocationList(long version, OffsetDateTime issueAt, Set<String> revokedCodes) {
+        this.version = version;
+        this.issueAt = issueAt;
+        this.revokedCodes = Set.copyOf(revokedCodes);
+        this.filter = BloomFilter.of(this.revokedCodes, FALSE_POSITIVE_RATE);
+    }
+
+    public static RevocationList of(long version, Set<String> revokedCodes) {
+        return new RevocationList(version, null, revokedCodes);
+    }
+
+    public static RevocationList parse(JsonNode root) {
+        Set<String> codes = new HashSet<>();
+        root.path("revoked").forEach(entry -> {
+            String code = entry.isTextual() ? entry.asText() : entry.path("license_code").asText(null);
+            if (code != null && !code.isEmpty()) {
+                codes.add(code);
+            }
+        });
+        return new RevocationList(root.path("version").asLong(0L), parseTime(root.get("issue_at")), codes);
+    }
+
+    private static OffsetDateTime parseTime(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isNumber()) {
+            long millis = node.decimalValue().movePointRight(3).longValue();
+            return OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+        }
+        return OffsetDateTime.parse(node.asText());
+    }
+
+    public boolean isRevoked(String licenseCode) {
+        return licenseCode != null
+                && !revokedCodes.isEmpty()
+                && filter.mightContain(licenseCode)
+                && revokedCodes.contains(licenseCode);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public OffsetDateTime getIssueAt() {
+        return issueAt;
+    }
+
+    public int size() {
+        return revokedCodes.size();
+    }
+}
@@ -0,0 +1,224 @@
+package io.github.ebingbo.ilicense.route;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route-to-module rules compiled into a trie keyed by path segment.
+ * <p>
+ * Patterns use the familiar path syntax: literal segments, {@code *} or {@code {var}} for exactly one
+ * segment and {@code **} or {@code {*var}} for zero or more segments. Resolving a request path walks the
+ * trie once, segment by segment, so the cost depends on the depth of the path rather than on the number
+ * of rules. When several rules match, literal segments win over {@code *}, which wins over {@code **}.
+ */
+public final class RouteModuleTrie {
+
+    public static final RouteModuleTrie EMPTY = new RouteModuleTrie(new Node(), 0);
+
+    private static final String SAMPLE_SEGMENT = "warmup";
+
+    private final Node root;
+    private final int size;
+
+    private RouteModuleTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static RouteModuleTrie compile(Map<String, String> rules) {
+        if (rules == null || rules.isEmpty()) {
+            return EMPTY;
+        }
+        Node root = new Node();
+        for (Map.Entry<String, String> rule : rules.entrySet()) {
+            String module = rule.getValue() == null ? "" : rule.getValue().trim();
+            if (module.isEmpty()) {
+                throw new LicenseException("route rule without module: " + rule.getKey());
+            }
+            Node node = root;
+            for (String segment : rule.getKey().split("/")) {
+                if (!segment.isEmpty()) {
+                    node = node.child(rule.getKey(), segment);
+                }
+            }
+            if (node.module != null && !node.module.equals(module)) {
+                throw new LicenseException("conflicting route rules for " + rule.getKey()
+                        + ": " + node.module + ", " + module);
+            }
+            node.module = module;
+        }
+        return new RouteModuleTrie(root, rules.size());
+    }
+
+    /**
+     * Returns the module required by {@code path}, or {@code null} when no rule matches.
+     * <p>
+     * {@code path} is the raw request path. Each segment is matched the way Spring MVC maps it: {@code ;}
+     * parameters are removed, percent-escapes are decoded and {@code .}/{@code ..} segments are resolved,
+     * so {@code /api/reports;x=1/daily} and {@code /api/%72eports/daily} resolve like
+     * {@code /api/reports/daily}.
+     */
+    public String resolve(String path) {
+        if (size == 0 || path == null) {
+            return null;
+        }
+        return match(root, segments(path), 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A request path that {@code pattern} matches, for warming up {@link #resolve(String)} with the paths it
+     * actually sees: each {@code *} or {@code {var}} segment becomes one sample segment and each {@code **}
+     * or {@code {*var}} becomes two, so the wildcard matching runs as well.
+     */
+    public static String samplePath(String pattern) {
+        StringBuilder path = new StringBuilder();
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (isMulti(segment)) {
+                path.append("/").append(SAMPLE_SEGMENT).append("/").append(SAMPLE_SEGMENT);
+            } else {
+                path.append("/").append(isSingle(segment) ? SAMPLE_SEGMENT : segment);
+            }
+        }
+        return path.isEmpty() ? "/" : path.toString();
+    }
+
+    private static boolean isMulti(String segment) {
+        return "**".equals(segment) || (segment.startsWith("{*") && segment.endsWith("}"));
+    }
+
+    private static boolean isSingle(String segment) {
+        return "*".equals(segment) || (segment.startsWith("{") && segment.endsWith("}"));
+    }
+
+    private static String match(Node node, List<String> segments, int index) {
+        if (index >= segments.size()) {
+            if (node.module != null) {
+                return node.module;
+            }
+            return node.multi == null ? null : matchMulti(node.multi, segments, index);
+        }
+
+        String result = null;
+        if (node.literals != null) {
+            Node child = node.literals.get(segments.get(index));
+            if (child != null) {
+                result = match(child, segments, index + 1);
+            }
+        }
+        if (result == null && node.single != null) {
+            result = match(node.single, segments, index + 1);
+        }
+        if (result == null && node.multi != null) {
+            result = matchMulti(node.multi, segments, index);
+        }
+        return result;
+    }
+
+    private static String matchMulti(Node multi, List<String> segments, int index) {
+        if (multi.isLeaf()) {
+            return multi.module;
+        }
+        for (int i = index; i <= segments.size(); i++) {
+            String result = match(multi, segments, i);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        int length = path.length();
+        int pos = 0;
+        while (pos < length) {
+            int end = path.indexOf('/', pos);
+            if (end < 0) {
+                end = length;
+            }
+            String segment = path.substring(pos, end);
+            int parameters = segment.indexOf(';');
+            if (parameters >= 0) {
+                segment = segment.substring(0, parameters);
+            }
+            if (segment.indexOf('%') >= 0) {
+                segment = decode(segment);
+            }
+            if ("..".equals(segment)) {
+                if (!segments.isEmpty()) {
+                    segments.remove(segments.size() - 1);
+                }
+            } else if (!segment.isEmpty() && !".".equals(segment)) {
+                segments.add(segment);
+            }
+            pos = end + 1;
+        }
+        return segments;
+    }
+
+    private static String decode(String segment) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(segment.length());
+        int i = 0;
+        while (i < segment.length()) {
+            if (segment.charAt(i) == '%' && i + 2 < segment.length()) {
+                int high = Character.digit(segment.charAt(i + 1), 16);
+                int low = Character.digit(segment.charAt(i + 2), 16);
+                if (high >= 0 && low >= 0) {
+                    bytes.write((high << 4) | low);
+                    i += 3;
+                    continue;
+                }
+            }
+            int codePoint = segment.codePointAt(i);
+            bytes.writeBytes(Character.toString(codePoint).getBytes(StandardCharsets.UTF_8));
+            i += Character.charCount(codePoint);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static final class Node {
+        private Map<String, Node> literals;
+        private Node single;
+        private Node multi;
+        private String module;
+
+        private Node child(String pattern, String segment) {
+            if (isMulti(segment)) {
+                if (multi == null) {
+                    multi = new Node();
+                }
+                return multi;
+            }
+            if (isSingle(segment)) {
+                if (single == null) {
+                    single = new Node();
+                }
+                return single;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('{') >= 0) {
+                throw new LicenseException("unsupported route pattern segment '" + segment + "' in " + pattern);
+            }
+            if (literals == null) {
+                literals = new HashMap<>();
+            }
+            return literals.computeIfAbsent(segment, s -> new Node());
+        }
+
+        private boolean isLeaf() {
+            return literals == null && single == null && multi == null;
+        }
+    }
+}
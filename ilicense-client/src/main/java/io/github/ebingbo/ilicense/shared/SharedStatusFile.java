@@ -0,0 +1,286 @@
+package io.github.ebingbo.ilicense.shared;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+/**
+ * Host-local license status shared between JVMs through a memory-mapped file.
+ * <p>
+ * A single publisher, guarded by a file lock, writes the signed activation code of the verified license
+ * and its revocation flag as an HMAC-protected record. Subscribers map the file read-only and verify the
+ * code's signature themselves, once per new record, so a forged record cannot grant anything the issuer
+ * did not sign. Writes follow the seqlock protocol: the sequence is odd while a record is being written,
+ * and readers retry until they see the same even sequence before and after copying the record. Checking
+ * for a new record is a single acquire load of the sequence.
+ * <pre>
+ *   0  int   magic        16 int   payload length
+ *   4  int   version      24 byte[32] HMAC-SHA256(payload)
+ *   8  long  sequence     64 byte[]   payload (JSON)
+ * </pre>
+ */
+public class SharedStatusFile implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedStatusFile.class);
+
+    private static final int MAGIC = 0x494C5354;
+    private static final int FORMAT_VERSION = 2;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int LENGTH_OFFSET = 16;
+    private static final int MAC_OFFSET = 24;
+    private static final int MAC_LENGTH = 32;
+    private static final int PAYLOAD_OFFSET = 64;
+    private static final int FILE_SIZE = 64 * 1024;
+    private static final int SPIN_ATTEMPTS = 100;
+    private static final long READ_TIMEOUT_NANOS = 1_000_000_000L;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final VarHandle SEQUENCE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final Path file;
+    private final SecretKeySpec macKey;
+    private final boolean publisher;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final FileLock lock;
+
+    private SharedStatusFile(Path file, String secret, boolean publisher) {
+        this.file = file;
+        this.macKey = new SecretKeySpec(sha256(secret), HMAC_ALGORITHM);
+        this.publisher = publisher;
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            if (publisher) {
+                this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+                allocate(channel);
+                this.lock = acquirePublisherLock();
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            } else {
+                // a subscriber started before its publisher lays out the empty file, then never writes to it
+                if (!Files.exists(file) || Files.size(file) < FILE_SIZE) {
+                    try (FileChannel creating = FileChannel.open(file, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE)) {
+                        allocate(creating);
+                    }
+                }
+                this.channel = FileChannel.open(file, StandardOpenOption.READ);
+                this.lock = null;
+                this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+            }
+        } catch (IOException e) {
+            throw new LicenseException("failed to open shared license status file " + file, e);
+        }
+        if (publisher) {
+            long sequence = (long) SEQUENCE.getAcquire(buffer, SEQUENCE_OFFSET);
+            if ((sequence & 1L) != 0) {
+                SEQUENCE.setRelease(buffer, SEQUENCE_OFFSET, sequence + 1);
+            }
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, FORMAT_VERSION);
+        }
+    }
+
+    public static SharedStatusFile publisher(Path file, String secret) {
+        return new SharedStatusFile(file, secret, true);
+    }
+
+    public static SharedStatusFile subscriber(Path file, String secret) {
+        return new SharedStatusFile(file, secret, false);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Publishes the activation code of the license currently in force; subscribers verify it on their side.
+     */
+    public synchronized void publish(String activationCode, boolean revoked) {
+        if (!publisher) {
+            throw new LicenseException("shared license status is read-only in subscriber mode");
+        }
+        byte[] payload;
+        try {
+            payload = MAPPER.writeValueAsBytes(new Status(activationCode, revoked, System.currentTimeMillis()));
+        } catch (IOException e) {
+            throw new LicenseException("failed to encode shared license status", e);
+        }
+        if (payload.length > FILE_SIZE - PAYLOAD_OFFSET) {
+            throw new LicenseException("shared license status too large: " + payload.length + " bytes");
+        }
+        byte[] mac = mac(payload);
+
+        long sequence = (long) SEQUENCE.getAcquire(buffer, SEQUENCE_OFFSET);
+        SEQUENCE.setVolatile(buffer, SEQUENCE_OFFSET, sequence + 1);
+        VarHandle.storeStoreFence();
+        buffer.putInt(LENGTH_OFFSET, payload.length);
+        buffer.put(MAC_OFFSET, mac);
+        buffer.put(PAYLOAD_OFFSET, payload);
+        SEQUENCE.setRelease(buffer, SEQUENCE_OFFSET, sequence + 2);
+
+        log.debug("shared license status published - sequence: {}", sequence + 2);
+    }
+
+    /**
+     * Current record sequence; {@code 0} until a publisher has written a record.
+     */
+    public long sequence() {
+        return (long) SEQUENCE.getAcquire(buffer, SEQUENCE_OFFSET);
+    }
+
+    /**
+     * Consistent copy of the current record, or {@code null} when none has been published yet.
+     */
+    public Snapshot read() {
+        long deadline = System.nanoTime() + READ_TIMEOUT_NANOS;
+        for (int attempt = 0; attempt < SPIN_ATTEMPTS || deadline - System.nanoTime() > 0; attempt++) {
+            if (attempt > 0) {
+                backOff(attempt);
+            }
+            long before = (long) SEQUENCE.getAcquire(buffer, SEQUENCE_OFFSET);
+            if (before == 0L) {
+                return null;
+            }
+            if ((before & 1L) != 0) {
+                continue;
+            }
+            int length = buffer.getInt(LENGTH_OFFSET);
+            if (length < 0 || length > FILE_SIZE - PAYLOAD_OFFSET) {
+                continue;
+            }
+            byte[] mac = new byte[MAC_LENGTH];
+            byte[] payload = new byte[length];
+            buffer.get(MAC_OFFSET, mac);
+            buffer.get(PAYLOAD_OFFSET, payload);
+            VarHandle.acquireFence();
+            if ((long) SEQUENCE.getAcquire(buffer, SEQUENCE_OFFSET) != before) {
+                continue;
+            }
+
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC || !MessageDigest.isEqual(mac, mac(payload))) {
+                throw new LicenseException("shared license status failed integrity check: " + file);
+            }
+            try {
+                Status status = MAPPER.readValue(payload, Status.class);
+                return new Snapshot(before, status.activationCode, status.revoked, status.publishedAt);
+            } catch (IOException e) {
+                throw new LicenseException("failed to decode shared license status", e);
+            }
+        }
+        throw new LicenseException("shared license status is being rewritten continuously: " + file);
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            channel.close();
+        } catch (IOException e) {
+            log.warn("failed to close shared license status file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void backOff(int attempt) {
+        if (attempt < SPIN_ATTEMPTS) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    private static void allocate(FileChannel channel) throws IOException {
+        if (channel.size() < FILE_SIZE) {
+            channel.write(ByteBuffer.wrap(new byte[1]), FILE_SIZE - 1);
+        }
+    }
+
+    private FileLock acquirePublisherLock() throws IOException {
+        FileLock acquired;
+        try {
+            acquired = channel.tryLock(FILE_SIZE, 1, false);
+        } catch (OverlappingFileLockException e) {
+            acquired = null;
+        }
+        if (acquired == null) {
+            channel.close();
+            throw new LicenseException("another process already publishes shared license status to " + file);
+        }
+        return acquired;
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(macKey);
+            return mac.doFinal(payload);
+        } catch (Exception e) {
+            throw new LicenseException("failed to compute shared status mac", e);
+        }
+    }
+
+    private static byte[] sha256(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new LicenseException("failed to derive shared status key", e);
+        }
+    }
+
+    public record Snapshot(long sequence, String activationCode, boolean revoked, long publishedAt) {
+    }
+
+    private static final class Status {
+
+        @JsonProperty("activation_code")
+        private String activationCode;
+
+        @JsonProperty("revoked")
+        private boolean revoked;
+
+        @JsonProperty("published_at")
+        private long publishedAt;
+
+        private Status() {
+        }
+
+        private Status(String activationCode, boolean revoked, long publishedAt) {
+            this.activationCode = activationCode;
+            this.revoked = revoked;
+            this.publishedAt = publishedAt;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.ebingbo.ilicense.shared;
+
+/**
+ * Role of a {@code LicenseManager} in host-local status sharing.
+ */
+public enum SharedStatusRole {
+
+    /**
+     * Verify and track the license independently.
+     */
+    OFF,
+
+    /**
+     * Verify the license and publish its status for the other processes on the host.
+     */
+    PUBLISHER,
+
+    /**
+     * Take the license status from the publisher without verifying it locally.
+     */
+    SUBSCRIBER
+}
@@ -0,0 +1,59 @@
+package io.github.ebingbo.ilicense.store;
+
+import java.util.Objects;
+
+/**
+ * Read-through cache in front of another store: {@link #load()} asks the delegate for its version stamp only
+ * and re-reads the code when the stamp changed since the last load or write.
+ */
+public class CachingLicenseStore implements LicenseStore {
+
+    private final LicenseStore delegate;
+    private volatile StoredLicense cached;
+
+    public CachingLicenseStore(LicenseStore delegate) {
+        this.delegate = delegate;
+    }
+
+    public LicenseStore getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public StoredLicense load() {
+        String version = delegate.version();
+        StoredLicense current = cached;
+        if (version == null) {
+            cached = null;
+            return null;
+        }
+        if (current != null && Objects.equals(current.version(), version)) {
+            return current;
+        }
+        current = delegate.load();
+        cached = current;
+        return current;
+    }
+
+    @Override
+    public String version() {
+        return delegate.version();
+    }
+
+    @Override
+    public StoredLicense compareAndSet(String expectedVersion, String activationCode) {
+        StoredLicense stored = delegate.compareAndSet(expectedVersion, activationCode);
+        cached = stored;
+        return stored;
+    }
+
+    @Override
+    public boolean isWritable() {
+        return delegate.isWritable();
+    }
+
+    @Override
+    public String describe() {
+        return delegate.describe();
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.ebingbo.ilicense.store;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.exception.LicenseStoreConflictException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Falls back through stores in order: the first one holding a code wins. Writes go to the first writable
+ * store, so an environment variable or mounted secret can take precedence over {@code license.dat} while
+ * activations through the API still persist.
+ * <p>
+ * The chain's version names the winning store and its version, so a store earlier in the chain starting or
+ * stopping to provide a code changes it too.
+ */
+public class ChainLicenseStore implements LicenseStore {
+
+    private final List<LicenseStore> stores;
+    private final LicenseStore writable;
+
+    public ChainLicenseStore(List<LicenseStore> stores) {
+        if (stores.isEmpty()) {
+            throw new LicenseException("license store chain is empty");
+        }
+        this.stores = List.copyOf(stores);
+        this.writable = this.stores.stream().filter(LicenseStore::isWritable).findFirst().orElse(null);
+    }
+
+    public List<LicenseStore> getStores() {
+        return stores;
+    }
+
+    @Override
+    public StoredLicense load() {
+        for (int i = 0; i < stores.size(); i++) {
+            StoredLicense stored = stores.get(i).load();
+            if (stored != null) {
+                return new StoredLicense(stored.activationCode(), i + "/" + stored.version());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String version() {
+        for (int i = 0; i < stores.size(); i++) {
+            String version = stores.get(i).version();
+            if (version != null) {
+                return i + "/" + version;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public StoredLicense compareAndSet(String expectedVersion, String activationCode) {
+        if (writable == null) {
+            throw new LicenseException("license store chain has no writable store: " + describe());
+        }
+        int writableIndex = stores.indexOf(writable);
+        for (int i = 0; i < writableIndex; i++) {
+            if (stores.get(i).version() != null) {
+                throw new LicenseException("activation code is provided by " + stores.get(i).describe()
+                        + " and cannot be replaced");
+            }
+        }
+        String writableVersion = writable.version();
+        String current = writableVersion == null ? version() : writableIndex + "/" + writableVersion;
+        if (!Objects.equals(current, expectedVersion)) {
+            throw new LicenseStoreConflictException("license store chain changed concurrently: " + describe());
+        }
+        StoredLicense stored = writable.compareAndSet(writableVersion, activationCode);
+        return new StoredLicense(activationCode, writableIndex + "/" + stored.version());
+    }
+
+    @Override
+    public boolean isWritable() {
+        return writable != null;
+    }
+
+    @Override
+    public String describe() {
+        return stores.stream().map(LicenseStore::describe).collect(Collectors.joining(" -> "));
+    }
+}
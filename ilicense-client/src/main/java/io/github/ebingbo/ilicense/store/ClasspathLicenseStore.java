@@ -0,0 +1,68 @@
+package io.github.ebingbo.ilicense.store;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Activation code packaged as a classpath resource. The version is the resource's last-modified time,
+ * which only changes for exploded resources during development.
+ */
+public class ClasspathLicenseStore extends ReadOnlyLicenseStore {
+
+    private final ClassLoader classLoader;
+    private final String resource;
+
+    public ClasspathLicenseStore(String resource) {
+        this(Thread.currentThread().getContextClassLoader(), resource);
+    }
+
+    public ClasspathLicenseStore(ClassLoader classLoader, String resource) {
+        this.classLoader = classLoader == null ? ClasspathLicenseStore.class.getClassLoader() : classLoader;
+        this.resource = resource.startsWith("/") ? resource.substring(1) : resource;
+    }
+
+    @Override
+    public StoredLicense load() {
+        URL url = classLoader.getResource(resource);
+        if (url == null) {
+            return null;
+        }
+        try {
+            URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            try (InputStream in = connection.getInputStream()) {
+                String code = trimToNull(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                return code == null ? null : new StoredLicense(code, String.valueOf(connection.getLastModified()));
+            }
+        } catch (IOException e) {
+            throw new LicenseException("failed to read license resource " + resource, e);
+        }
+    }
+
+    @Override
+    public String version() {
+        URL url = classLoader.getResource(resource);
+        if (url == null) {
+            return null;
+        }
+        try {
+            URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            long lastModified = connection.getLastModified();
+            connection.getInputStream().close();
+            return String.valueOf(lastModified);
+        } catch (IOException e) {
+            throw new LicenseException("failed to read license resource " + resource, e);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "classpath:" + resource;
+    }
+}
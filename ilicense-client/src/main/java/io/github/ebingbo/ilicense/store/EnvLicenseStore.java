@@ -0,0 +1,43 @@
+package io.github.ebingbo.ilicense.store;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Activation code in an environment variable. The environment of a running process does not change, so
+ * the version is derived from the value itself.
+ */
+public class EnvLicenseStore extends ReadOnlyLicenseStore {
+
+    private final String variable;
+    private final UnaryOperator<String> environment;
+
+    public EnvLicenseStore(String variable) {
+        this(variable, System::getenv);
+    }
+
+    EnvLicenseStore(String variable, UnaryOperator<String> environment) {
+        this.variable = variable;
+        this.environment = environment;
+    }
+
+    @Override
+    public StoredLicense load() {
+        String code = trimToNull(environment.apply(variable));
+        return code == null ? null : new StoredLicense(code, version(code));
+    }
+
+    @Override
+    public String version() {
+        String code = trimToNull(environment.apply(variable));
+        return code == null ? null : version(code);
+    }
+
+    @Override
+    public String describe() {
+        return "env:" + variable;
+    }
+
+    private static String version(String code) {
+        return code.length() + ":" + Integer.toHexString(code.hashCode());
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.ebingbo.ilicense.store;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.exception.LicenseStoreConflictException;
+import io.github.ebingbo.ilicense.jfr.LicenseFileIOEvent;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Activation code in a local file, by default {@code license.dat}.
+ * <p>
+ * The version is the file's identity, modification time and size; writes replace the file, so every
+ * write yields a new identity. Writes hold an exclusive lock on {@code <file>.lock} while they compare
+ * the version and replace the file with an atomic move, so processes sharing the file cannot interleave.
+ */
+public class FileLicenseStore implements LicenseStore {
+
+    private final Path file;
+
+    public FileLicenseStore(Path file) {
+        this.file = file.toAbsolutePath();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public StoredLicense load() {
+        String version = version();
+        if (version == null) {
+            return null;
+        }
+        String content = read(file);
+        return content == null ? null : new StoredLicense(content.trim(), version);
+    }
+
+    @Override
+    public String version() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.fileKey() + ":" + attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+                    + ":" + attributes.size();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new LicenseException("failed to stat license file " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized StoredLicense compareAndSet(String expectedVersion, String activationCode) {
+        try {
+            Path dir = file.getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            try (FileChannel lockChannel = FileChannel.open(Path.of(file + ".lock"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+                 FileLock ignored = lockChannel.lock()) {
+                if (!Objects.equals(version(), expectedVersion)) {
+                    throw new LicenseStoreConflictException("license file changed concurrently: " + file);
+                }
+                Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                write(temp, activationCode);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return new StoredLicense(activationCode, version());
+            }
+        } catch (IOException e) {
+            throw new LicenseException("failed to save license to " + file, e);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "file:" + file;
+    }
+
+    static String read(Path file) {
+        LicenseFileIOEvent event = new LicenseFileIOEvent();
+        event.begin();
+        String content = null;
+        try {
+            content = Files.readString(file, StandardCharsets.UTF_8);
+            return content;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new LicenseException("failed to read license from " + file, e);
+        } finally {
+            event.commit(LicenseFileIOEvent.READ, file, content);
+        }
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        LicenseFileIOEvent event = new LicenseFileIOEvent();
+        event.begin();
+        boolean written = false;
+        try {
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+            written = true;
+        } finally {
+            event.commit(LicenseFileIOEvent.WRITE, file, written ? content : null);
+        }
+    }
+}
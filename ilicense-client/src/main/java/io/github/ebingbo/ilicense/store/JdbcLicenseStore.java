@@ -0,0 +1,153 @@
+package io.github.ebingbo.ilicense.store;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.exception.LicenseStoreConflictException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+/**
+ * Activation code in a database table shared by the application's instances.
+ * <pre>
+ *   CREATE TABLE ilicense_store (
+ *       name            VARCHAR(64) PRIMARY KEY,
+ *       activation_code VARCHAR(16000) NOT NULL,
+ *       version         BIGINT NOT NULL
+ *   )
+ * </pre>
+ * The row version is the version stamp: reading it is a primary-key lookup of one column, and writes are
+ * {@code UPDATE ... WHERE version = ?} (or an {@code INSERT} when no row exists), so concurrent activations
+ * from different instances cannot overwrite each other unnoticed.
+ */
+public class JdbcLicenseStore implements LicenseStore {
+
+    public static final String DEFAULT_TABLE = "ilicense_store";
+    public static final String DEFAULT_NAME = "default";
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_.]*");
+
+    private final DataSource dataSource;
+    private final String table;
+    private final String name;
+
+    public JdbcLicenseStore(DataSource dataSource) {
+        this(dataSource, DEFAULT_TABLE, DEFAULT_NAME);
+    }
+
+    public JdbcLicenseStore(DataSource dataSource, String table, String name) {
+        if (dataSource == null) {
+            throw new LicenseException("jdbc license store requires a data source");
+        }
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new LicenseException("invalid license store table name: " + table);
+        }
+        this.dataSource = dataSource;
+        this.table = table;
+        this.name = name;
+    }
+
+    /**
+     * Creates the table when it does not exist yet.
+     */
+    public JdbcLicenseStore initialize() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                    + "name VARCHAR(64) PRIMARY KEY, "
+                    + "activation_code VARCHAR(16000) NOT NULL, "
+                    + "version BIGINT NOT NULL)");
+            return this;
+        } catch (SQLException e) {
+            throw new LicenseException("failed to create license store table " + table, e);
+        }
+    }
+
+    @Override
+    public StoredLicense load() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT activation_code, version FROM " + table + " WHERE name = ?")) {
+            statement.setString(1, name);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? new StoredLicense(rs.getString(1).trim(), String.valueOf(rs.getLong(2))) : null;
+            }
+        } catch (SQLException e) {
+            throw new LicenseException("failed to load license from table " + table, e);
+        }
+    }
+
+    @Override
+    public String version() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT version FROM " + table + " WHERE name = ?")) {
+            statement.setString(1, name);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? String.valueOf(rs.getLong(1)) : null;
+            }
+        } catch (SQLException e) {
+            throw new LicenseException("failed to read license version from table " + table, e);
+        }
+    }
+
+    @Override
+    public StoredLicense compareAndSet(String expectedVersion, String activationCode) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (expectedVersion == null) {
+                return insert(connection, activationCode);
+            }
+            long expected = parseVersion(expectedVersion);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE " + table + " SET activation_code = ?, version = ? WHERE name = ? AND version = ?")) {
+                statement.setString(1, activationCode);
+                statement.setLong(2, expected + 1);
+                statement.setString(3, name);
+                statement.setLong(4, expected);
+                if (statement.executeUpdate() != 1) {
+                    throw conflict();
+                }
+            }
+            return new StoredLicense(activationCode, String.valueOf(expected + 1));
+        } catch (SQLException e) {
+            throw new LicenseException("failed to save license to table " + table, e);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "jdbc:" + table + "/" + name;
+    }
+
+    private StoredLicense insert(Connection connection, String activationCode) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + table + " (name, activation_code, version) VALUES (?, ?, 1)")) {
+            statement.setString(1, name);
+            statement.setString(2, activationCode);
+            statement.executeUpdate();
+            return new StoredLicense(activationCode, "1");
+        } catch (SQLException e) {
+            // 23xxx: integrity constraint violation, another instance inserted the row first
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                throw conflict();
+            }
+            throw e;
+        }
+    }
+
+    private LicenseStoreConflictException conflict() {
+        return new LicenseStoreConflictException("license store row changed concurrently: " + describe());
+    }
+
+    private long parseVersion(String version) {
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            throw conflict();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.ebingbo.ilicense.store;
+
+/**
+ * Where the activation code lives.
+ * <p>
+ * Every stored code has an opaque version stamp (file mtime, secret revision, row version, ...) that can be
+ * read without reading the code itself, so callers such as {@link CachingLicenseStore} only reload when it
+ * changes. Writes are compare-and-set against the version the writer last saw.
+ */
+public interface LicenseStore {
+
+    /**
+     * The stored code and its version, or {@code null} when the store holds none.
+     */
+    StoredLicense load();
+
+    /**
+     * The version of the stored code, or {@code null} when the store holds none. Must be cheaper than
+     * {@link #load()}.
+     */
+    String version();
+
+    /**
+     * Atomically replaces the stored code when its version is still {@code expectedVersion}
+     * ({@code null}: only when the store holds no code).
+     *
+     * @throws io.github.ebingbo.ilicense.exception.LicenseStoreConflictException when the version moved on
+     * @throws io.github.ebingbo.ilicense.exception.LicenseException when the store is read-only or the write failed
+     */
+    StoredLicense compareAndSet(String expectedVersion, String activationCode);
+
+    default boolean isWritable() {
+        return true;
+    }
+
+    /**
+     * Short description for log messages.
+     */
+    String describe();
+}
@@ -0,0 +1,70 @@
+package io.github.ebingbo.ilicense.store;
+
+import io.github.ebingbo.ilicense.config.LicenseClientProperties;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the store configured by {@code LicenseClientProperties#getStoreChain()}.
+ */
+public final class LicenseStores {
+
+    public static final String FILE = "file";
+    public static final String SECRET = "secret";
+    public static final String ENV = "env";
+    public static final String CLASSPATH = "classpath";
+    public static final String JDBC = "jdbc";
+
+    private LicenseStores() {
+    }
+
+    /**
+     * @param dataSource used by a {@code jdbc} entry; may be {@code null} when the chain has none
+     */
+    public static LicenseStore create(LicenseClientProperties properties, DataSource dataSource) {
+        List<LicenseStore> stores = new ArrayList<>();
+        for (String type : types(properties.getStoreChain())) {
+            stores.add(create(type, properties, dataSource));
+        }
+        return new CachingLicenseStore(stores.size() == 1 ? stores.get(0) : new ChainLicenseStore(stores));
+    }
+
+    /**
+     * Whether {@code chain} has an entry of {@code type}, matched the way {@link #create} matches entries.
+     */
+    public static boolean contains(List<String> chain, String type) {
+        return types(chain).contains(type);
+    }
+
+    private static List<String> types(List<String> chain) {
+        if (chain == null || chain.isEmpty()) {
+            return List.of(FILE);
+        }
+        List<String> types = new ArrayList<>(chain.size());
+        for (String type : chain) {
+            types.add(type.trim().toLowerCase(Locale.ROOT));
+        }
+        return types;
+    }
+
+    private static LicenseStore create(String type, LicenseClientProperties properties, DataSource dataSource) {
+        return switch (type) {
+            case FILE -> new FileLicenseStore(Path.of(properties.getStoragePath()));
+            case SECRET -> new SecretLicenseStore(Path.of(properties.getStoreSecretDirectory()),
+                    properties.getStoreSecretKey());
+            case ENV -> new EnvLicenseStore(properties.getStoreEnvVariable());
+            case CLASSPATH -> new ClasspathLicenseStore(properties.getStoreClasspathResource());
+            case JDBC -> {
+                JdbcLicenseStore store = new JdbcLicenseStore(dataSource, properties.getStoreJdbcTable(),
+                        properties.getStoreJdbcName());
+                yield properties.isStoreJdbcInitialize() ? store.initialize() : store;
+            }
+            default -> throw new LicenseException("unknown license store type: " + type);
+        };
+    }
+}
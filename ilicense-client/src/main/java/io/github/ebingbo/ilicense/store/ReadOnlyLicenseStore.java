@@ -0,0 +1,28 @@
+package io.github.ebingbo.ilicense.store;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+
+/**
+ * Base for stores backed by sources the application cannot write, such as environment variables,
+ * classpath resources and mounted secrets. Their compare-and-set always fails.
+ */
+abstract class ReadOnlyLicenseStore implements LicenseStore {
+
+    @Override
+    public StoredLicense compareAndSet(String expectedVersion, String activationCode) {
+        throw new LicenseException("license store is read-only: " + describe());
+    }
+
+    @Override
+    public boolean isWritable() {
+        return false;
+    }
+
+    static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
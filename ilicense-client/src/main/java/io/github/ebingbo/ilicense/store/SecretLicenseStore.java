@@ -0,0 +1,61 @@
+package io.github.ebingbo.ilicense.store;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Activation code in a mounted secret volume, e.g. a Kubernetes secret key mounted as a file.
+ * <p>
+ * Kubernetes updates secret volumes by writing a new timestamped directory and swapping the
+ * {@code ..data} symlink, so when that link exists its target is the version; otherwise the file's
+ * modification time and size are used. Secret volumes are read-only to the application.
+ */
+public class SecretLicenseStore extends ReadOnlyLicenseStore {
+
+    private static final String DATA_LINK = "..data";
+
+    private final Path directory;
+    private final Path file;
+
+    public SecretLicenseStore(Path directory, String key) {
+        this.directory = directory.toAbsolutePath();
+        this.file = this.directory.resolve(key);
+    }
+
+    @Override
+    public StoredLicense load() {
+        String version = version();
+        if (version == null) {
+            return null;
+        }
+        String code = trimToNull(FileLicenseStore.read(file));
+        return code == null ? null : new StoredLicense(code, version);
+    }
+
+    @Override
+    public String version() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            Path dataLink = directory.resolve(DATA_LINK);
+            if (Files.isSymbolicLink(dataLink)) {
+                return Files.readSymbolicLink(dataLink).toString();
+            }
+            return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS) + ":" + attributes.size();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new LicenseException("failed to stat license secret " + file, e);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "secret:" + file;
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.ebingbo.ilicense.store;
+
+/**
+ * An activation code as read from a {@link LicenseStore}, with the version it was read at.
+ */
+public record StoredLicense(String activationCode, String version) {
+}
@@ -0,0 +1,84 @@
+package io.github.ebingbo.ilicense.token;
+
+/**
+ * Verified contents of a downstream license token.
+ */
+public final class LicenseToken {
+
+    static final int FLAG_READ_ONLY = 1;
+    static final int FLAG_MODULES_ONLY = 2;
+
+    private final LicenseTokenCodec codec;
+    private final String licenseCode;
+    private final long issuedAt;
+    private final long expiresAt;
+    private final int flags;
+    private final long[] modules;
+
+    LicenseToken(LicenseTokenCodec codec, String licenseCode, long issuedAt, long expiresAt,
+                 int flags, long[] modules) {
+        this.codec = codec;
+        this.licenseCode = licenseCode;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.flags = flags;
+        this.modules = modules;
+    }
+
+    public String getLicenseCode() {
+        return licenseCode;
+    }
+
+    /**
+     * Epoch seconds.
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * Epoch seconds.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * {@code true} when the edge license only allows read-only requests (degraded phase).
+     */
+    public boolean isReadOnly() {
+        return (flags & FLAG_READ_ONLY) != 0;
+    }
+
+    /**
+     * {@code true} when the edge license only allows its degraded modules; requests outside them are refused.
+     */
+    public boolean isModulesOnly() {
+        return (flags & FLAG_MODULES_ONLY) != 0;
+    }
+
+    /**
+     * Modules outside the shared catalog are never granted.
+     */
+    public boolean hasModule(String module) {
+        int index = codec.indexOf(module);
+        if (index < 0) {
+            return false;
+        }
+        int word = index >>> 6;
+        return word < modules.length && (modules[word] & (1L << index)) != 0;
+    }
+
+    int flags() {
+        return flags;
+    }
+
+    long[] moduleBits() {
+        return modules;
+    }
+
+    @Override
+    public String toString() {
+        return "LicenseToken{licenseCode=" + licenseCode + ", expiresAt=" + expiresAt + ", flags=" + flags + "}";
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.ebingbo.ilicense.token;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes and verifies compact HMAC-SHA256 license tokens.
+ * <p>
+ * A token is {@code base64url(payload) "." base64url(mac)}, where the payload is a small binary record:
+ * <pre>
+ *   byte   version        long  expires at (epoch seconds)
+ *   byte   flags          byte  module words (n)
+ *   int    catalog hash   long[n] module bitset
+ *   long   issued at      byte[] license code (UTF-8)
+ * </pre>
+ * Bit {@code i} of the bitset stands for the {@code i}-th entry of the module catalog, which every service
+ * sharing the secret must configure identically; the catalog hash rejects tokens minted against another one.
+ */
+public class LicenseTokenCodec {
+
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 1 + 1 + 4 + 8 + 8 + 1;
+    private static final int MAC_LENGTH = 32;
+    private static final int MIN_SECRET_LENGTH = 32;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final List<String> modules;
+    private final Map<String, Integer> moduleIndex;
+    private final int catalogHash;
+    private final ThreadLocal<Mac> macs;
+
+    public LicenseTokenCodec(String secret, List<String> modules) {
+        if (secret == null || secret.isBlank()) {
+            throw new LicenseException("license token secret not configured");
+        }
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        // shorter than the HMAC-SHA256 output, a guessable secret would let any service mint tokens
+        if (secretBytes.length < MIN_SECRET_LENGTH) {
+            throw new LicenseException("license token secret must be at least " + MIN_SECRET_LENGTH
+                    + " bytes, got " + secretBytes.length);
+        }
+        this.key = new SecretKeySpec(secretBytes, HMAC_ALGORITHM);
+        this.modules = modules == null ? List.of() : List.copyOf(modules);
+        this.moduleIndex = new HashMap<>();
+        for (int i = 0; i < this.modules.size(); i++) {
+            if (moduleIndex.putIfAbsent(this.modules.get(i), i) != null) {
+                throw new LicenseException("duplicate module in license token catalog: " + this.modules.get(i));
+            }
+        }
+        this.catalogHash = this.modules.hashCode();
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        newMac();
+    }
+
+    public List<String> getModules() {
+        return modules;
+    }
+
+    public String encode(LicenseToken token) {
+        byte[] code = token.getLicenseCode().getBytes(StandardCharsets.UTF_8);
+        long[] bits = token.moduleBits();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + bits.length * 8 + code.length);
+        buffer.put(VERSION);
+        buffer.put((byte) token.flags());
+        buffer.putInt(catalogHash);
+        buffer.putLong(token.getIssuedAt());
+        buffer.putLong(token.getExpiresAt());
+        buffer.put((byte) bits.length);
+        for (long word : bits) {
+            buffer.putLong(word);
+        }
+        buffer.put(code);
+
+        byte[] payload = buffer.array();
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    /**
+     * Checks the MAC and the expiry; {@code nowSeconds} is epoch seconds.
+     */
+    public LicenseToken decode(String token, long nowSeconds) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            throw new LicenseException("malformed license token");
+        }
+        byte[] payload;
+        byte[] mac;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            mac = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new LicenseException("malformed license token");
+        }
+        if (mac.length != MAC_LENGTH || !MessageDigest.isEqual(mac, mac(payload))) {
+            throw new LicenseException("license token signature invalid");
+        }
+        if (payload.length < HEADER_LENGTH || payload[0] != VERSION) {
+            throw new LicenseException("unsupported license token");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        buffer.get();
+        byte flags = buffer.get();
+        if (buffer.getInt() != catalogHash) {
+            throw new LicenseException("license token module catalog mismatch");
+        }
+        long issuedAt = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        int words = buffer.get() & 0xFF;
+        if (buffer.remaining() < words * 8) {
+            throw new LicenseException("malformed license token");
+        }
+        long[] bits = new long[words];
+        for (int i = 0; i < words; i++) {
+            bits[i] = buffer.getLong();
+        }
+        String licenseCode = new String(payload, buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+
+        if (nowSeconds >= expiresAt) {
+            throw new LicenseException("license token expired");
+        }
+        return new LicenseToken(this, licenseCode, issuedAt, expiresAt, flags, bits);
+    }
+
+    int indexOf(String module) {
+        Integer index = moduleIndex.get(module);
+        return index == null ? -1 : index;
+    }
+
+    long[] newBitset() {
+        return new long[(modules.size() + 63) >>> 6];
+    }
+
+    private byte[] mac(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new LicenseException("failed to initialise license token mac", e);
+        }
+    }
+}
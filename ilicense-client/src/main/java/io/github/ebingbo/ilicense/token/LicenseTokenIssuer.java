@@ -0,0 +1,107 @@
+package io.github.ebingbo.ilicense.token;
+
+import io.github.ebingbo.ilicense.core.LicenseInfo;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicensePhase;
+import io.github.ebingbo.ilicense.core.LicenseState;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Mints downstream license tokens at the edge from the locally verified license.
+ * <p>
+ * The encoded token is reused until half of its lifetime has passed or the license state changes, so
+ * attaching it to an outgoing call is a volatile read in the common case. Tokens are minted from the live
+ * state, never from a {@code LicenseDecisionContext} open on the calling thread: a token is shared by every
+ * caller until it is refreshed, so its grants, phase and cache key all come from one current snapshot.
+ */
+public class LicenseTokenIssuer {
+
+    private static final Logger log = LoggerFactory.getLogger(LicenseTokenIssuer.class);
+
+    private final LicenseTokenCodec codec;
+    private final LicenseManager licenseManager;
+    private final long ttlSeconds;
+
+    private volatile Issued issued;
+
+    public LicenseTokenIssuer(LicenseTokenCodec codec, LicenseManager licenseManager, Duration ttl) {
+        if (ttl == null || ttl.getSeconds() < 2) {
+            throw new LicenseException("license token ttl must be at least 2 seconds");
+        }
+        this.codec = codec;
+        this.licenseManager = licenseManager;
+        this.ttlSeconds = ttl.getSeconds();
+    }
+
+    /**
+     * Current token for outgoing calls; throws the usual license exceptions when the license is not usable.
+     */
+    public String currentToken() {
+        LicenseState state = licenseManager.getState();
+        LicensePhase phase = state.phaseAt(licenseManager.getClock().millis());
+        long now = System.currentTimeMillis() / 1000L;
+
+        Issued current = issued;
+        if (current != null && current.generation == state.getGeneration() && current.phase == phase
+                && now < current.refreshAt) {
+            return current.token;
+        }
+        return mint(state, phase, now);
+    }
+
+    private synchronized String mint(LicenseState state, LicensePhase phase, long now) {
+        Issued current = issued;
+        if (current != null && current.generation == state.getGeneration() && current.phase == phase
+                && now < current.refreshAt) {
+            return current.token;
+        }
+        LicenseInfo license = state.getLicense();
+        if (license == null) {
+            licenseManager.checkSnapshot(state, phase, false, null);
+        }
+
+        boolean full = isAllowed(state, phase, false, null);
+        boolean readOnly = !full && isAllowed(state, phase, true, null);
+        long[] bits = codec.newBitset();
+        boolean anyModule = false;
+        List<String> modules = codec.getModules();
+        for (int i = 0; i < modules.size(); i++) {
+            if (isAllowed(state, phase, false, modules.get(i))) {
+                bits[i >>> 6] |= 1L << i;
+                anyModule = true;
+            }
+        }
+        if (!full && !readOnly && !anyModule) {
+            licenseManager.checkSnapshot(state, phase, false, null);
+        }
+
+        int flags = full ? 0 : readOnly ? LicenseToken.FLAG_READ_ONLY : LicenseToken.FLAG_MODULES_ONLY;
+        LicenseToken token = new LicenseToken(codec, license.getLicenseCode(), now, now + ttlSeconds, flags, bits);
+        String encoded = codec.encode(token);
+        issued = new Issued(state.getGeneration(), phase, encoded, now + ttlSeconds / 2);
+
+        log.debug("license token minted - license code: {}, phase: {}, expires at: {}",
+                license.getLicenseCode(), phase, token.getExpiresAt());
+        return encoded;
+    }
+
+    /**
+     * Probes a grant without metering: minting covers every catalog module, not the ones actually used.
+     */
+    private boolean isAllowed(LicenseState state, LicensePhase phase, boolean readOnly, String module) {
+        try {
+            licenseManager.checkSnapshot(state, phase, readOnly, module);
+            return true;
+        } catch (LicenseException e) {
+            return false;
+        }
+    }
+
+    private record Issued(long generation, LicensePhase phase, String token, long refreshAt) {
+    }
+}
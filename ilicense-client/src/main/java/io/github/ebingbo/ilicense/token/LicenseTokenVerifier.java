@@ -0,0 +1,62 @@
+package io.github.ebingbo.ilicense.token;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies downstream license tokens, remembering verified tokens until they expire.
+ * <p>
+ * Callers on one hop usually present the same token for half its lifetime, so most requests are answered
+ * by a single map lookup; unseen tokens cost one HMAC-SHA256. Only tokens that verified are cached, which
+ * keeps forged tokens from filling the table.
+ */
+public class LicenseTokenVerifier {
+
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private final LicenseTokenCodec codec;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, LicenseToken> verified = new ConcurrentHashMap<>();
+
+    public LicenseTokenVerifier(LicenseTokenCodec codec) {
+        this(codec, DEFAULT_CACHE_SIZE);
+    }
+
+    public LicenseTokenVerifier(LicenseTokenCodec codec, int maxEntries) {
+        this.codec = codec;
+        this.maxEntries = maxEntries;
+    }
+
+    public LicenseToken verify(String token) {
+        long now = System.currentTimeMillis() / 1000L;
+        LicenseToken cached = token == null ? null : verified.get(token);
+        if (cached != null) {
+            if (now < cached.getExpiresAt()) {
+                return cached;
+            }
+            verified.remove(token, cached);
+        }
+
+        LicenseToken decoded = codec.decode(token, now);
+        if (maxEntries > 0) {
+            if (verified.size() >= maxEntries) {
+                evict(now);
+            }
+            verified.put(token, decoded);
+        }
+        return decoded;
+    }
+
+    int size() {
+        return verified.size();
+    }
+
+    private void evict(long now) {
+        verified.values().removeIf(entry -> now >= entry.getExpiresAt());
+        Iterator<String> iterator = verified.keySet().iterator();
+        while (verified.size() >= maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
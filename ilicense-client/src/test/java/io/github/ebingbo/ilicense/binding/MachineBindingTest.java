@@ -0,0 +1,124 @@
+package io.github.ebingbo.ilicense.binding;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MachineBindingTest {
+
+    private static final String CONTAINER_ID = "4f3c2b1a".repeat(8);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void collectShouldHashMachineIdContainerIdAndKernelHostname() throws Exception {
+        Files.createDirectories(root.resolve("etc"));
+        Files.createDirectories(root.resolve("proc/self"));
+        Files.createDirectories(root.resolve("proc/sys/kernel"));
+        Files.writeString(root.resolve("etc/machine-id"), "0123456789abcdef0123456789abcdef\n");
+        Files.writeString(root.resolve("proc/sys/kernel/hostname"), "kernel-host\n");
+        Files.writeString(root.resolve("proc/self/cgroup"), "12:cpu,cpuacct:/docker/" + CONTAINER_ID + "\n");
+
+        MachineFingerprint fingerprint = MachineFingerprint.collect(root);
+
+        assertEquals(Set.of(MachineFingerprint.hash("0123456789abcdef0123456789abcdef")),
+                fingerprint.get(MachineFingerprint.MACHINE_ID));
+        assertEquals(Set.of(MachineFingerprint.hash(CONTAINER_ID)), fingerprint.get(MachineFingerprint.CONTAINER));
+        assertEquals(Set.of(MachineFingerprint.hash("kernel-host")), fingerprint.get(MachineFingerprint.HOSTNAME));
+        assertFalse(fingerprint.toString().contains("0123456789abcdef0123456789abcdef"));
+    }
+
+    @Test
+    void bindingShouldMatchWhenEnoughComponentsAgree() {
+        MachineFingerprint fingerprint = fingerprint("aa:bb:cc:dd:ee:ff", "node-1", "machine-1");
+
+        MachineBinding binding = new MachineBinding();
+        binding.setMac(List.of(MachineFingerprint.hash("11:22:33:44:55:66")));
+        binding.setHostname(List.of(MachineFingerprint.hash("node-1")));
+        binding.setMachineId(List.of(MachineFingerprint.hash("machine-1")));
+
+        assertEquals(2, binding.score(fingerprint));
+        assertTrue(binding.matches(fingerprint, 2));
+        assertFalse(binding.matches(fingerprint, 3));
+
+        binding.setMinMatches(3);
+        assertFalse(binding.matches(fingerprint, 1));
+
+        // the client setting is only a floor: it cannot lower the claim or switch the check off
+        binding.setMinMatches(null);
+        assertFalse(binding.matches(fingerprint("11:22:33:44:55:66", "node-9", "machine-9"), 0));
+        binding.setMinMatches(0);
+        assertFalse(binding.matches(fingerprint("aa:aa:aa:aa:aa:aa", "node-9", "machine-9"), 0));
+        binding.setMinMatches(1);
+        assertTrue(binding.matches(fingerprint("11:22:33:44:55:66", "node-9", "machine-9"), 1));
+        assertFalse(binding.matches(fingerprint("11:22:33:44:55:66", "node-9", "machine-9"), 2));
+
+        MachineBinding hostOnly = new MachineBinding();
+        hostOnly.setHostname(List.of(MachineFingerprint.hash("NODE-1")));
+        assertTrue(hostOnly.matches(fingerprint, 2));
+        assertFalse(hostOnly.matches(fingerprint("aa:bb:cc:dd:ee:ff", "node-2", "machine-1"), 2));
+    }
+
+    @Test
+    void providerShouldCacheAndNotifyOnlyWhenFingerprintChanges() {
+        AtomicReference<MachineFingerprint> collected = new AtomicReference<>(fingerprint("aa:bb:cc:dd:ee:ff", "node-1", "m"));
+        List<MachineFingerprint> notified = new CopyOnWriteArrayList<>();
+        MachineFingerprintProvider provider = new MachineFingerprintProvider(collected::get, Duration.ofHours(24));
+        provider.setChangeListener(notified::add);
+
+        assertNull(provider.current());
+        provider.refresh();
+        provider.refresh();
+        assertEquals(1, notified.size());
+        assertSame(collected.get(), provider.await(Duration.ZERO));
+
+        collected.set(fingerprint("aa:bb:cc:dd:ee:ff", "node-2", "m"));
+        provider.refresh();
+        assertEquals(2, notified.size());
+        assertEquals(Set.of(MachineFingerprint.hash("node-2")), provider.current().get(MachineFingerprint.HOSTNAME));
+    }
+
+    @Test
+    void failedFirstCollectionShouldEndWaitingWithoutFingerprint() {
+        AtomicReference<MachineFingerprint> collected = new AtomicReference<>();
+        List<MachineFingerprint> notified = new CopyOnWriteArrayList<>();
+        MachineFingerprintProvider provider = new MachineFingerprintProvider(() -> {
+            MachineFingerprint fingerprint = collected.get();
+            if (fingerprint == null) {
+                throw new IllegalStateException("interfaces not readable");
+            }
+            return fingerprint;
+        }, Duration.ofHours(24));
+        provider.setChangeListener(notified::add);
+
+        provider.refresh();
+        long start = System.nanoTime();
+        assertNull(provider.await(Duration.ofSeconds(30)));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+        assertNull(provider.current());
+        assertTrue(notified.isEmpty());
+
+        collected.set(fingerprint("aa:bb:cc:dd:ee:ff", "node-1", "m"));
+        provider.refresh();
+        assertSame(collected.get(), provider.await(Duration.ZERO));
+        assertEquals(1, notified.size());
+    }
+
+    private static MachineFingerprint fingerprint(String mac, String hostname, String machineId) {
+        return new MachineFingerprint(Map.of(
+                MachineFingerprint.MAC, Set.of(MachineFingerprint.hash(mac)),
+                MachineFingerprint.HOSTNAME, Set.of(MachineFingerprint.hash(hostname)),
+                MachineFingerprint.MACHINE_ID, Set.of(MachineFingerprint.hash(machineId))), 0L);
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.ebingbo.ilicense.broadcast;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LicenseBroadcasterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void broadcastShouldRoundTripAndRejectForeignData() {
+        LicenseBroadcast broadcast = new LicenseBroadcast("node-1", 42L, "CODE.with\nnewline");
+        assertEquals(broadcast, LicenseBroadcast.decode(broadcast.encode()));
+
+        assertThrows(LicenseException.class,
+                () -> LicenseBroadcast.decode("hello\nworld".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(LicenseException.class,
+                () -> LicenseBroadcast.decode("ilicense-broadcast/1\nnode\nnot-a-time\nCODE".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void inMemoryBroadcastShouldReachPeersButNotTheSender() {
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        try (InMemoryLicenseBroadcaster a = new InMemoryLicenseBroadcaster();
+             InMemoryLicenseBroadcaster b = a.join()) {
+            a.start(broadcast -> first.add(broadcast.activationCode()));
+            b.start(broadcast -> second.add(broadcast.activationCode()));
+
+            a.publish("CODE-A");
+            b.publish("CODE-B");
+        }
+
+        assertEquals(List.of("CODE-B"), first);
+        assertEquals(List.of("CODE-A"), second);
+    }
+
+    @Test
+    void directoryBroadcastShouldReachPeersAndLateJoiners() throws Exception {
+        Path directory = tempDir.resolve("broadcast");
+        LinkedBlockingQueue<LicenseBroadcast> received = new LinkedBlockingQueue<>();
+        LinkedBlockingQueue<LicenseBroadcast> own = new LinkedBlockingQueue<>();
+        try (DirectoryLicenseBroadcaster sender = new DirectoryLicenseBroadcaster(directory, Duration.ofMillis(20));
+             DirectoryLicenseBroadcaster receiver = new DirectoryLicenseBroadcaster(directory, Duration.ofMillis(20))) {
+            sender.start(own::add);
+            receiver.start(received::add);
+
+            sender.publish("CODE-1");
+            LicenseBroadcast broadcast = received.poll(1, TimeUnit.SECONDS);
+            assertNotNull(broadcast);
+            assertEquals("CODE-1", broadcast.activationCode());
+            assertEquals(sender.getNodeId(), broadcast.nodeId());
+
+            try (DirectoryLicenseBroadcaster late = new DirectoryLicenseBroadcaster(directory, Duration.ofMillis(20))) {
+                LinkedBlockingQueue<LicenseBroadcast> lateReceived = new LinkedBlockingQueue<>();
+                late.start(lateReceived::add);
+                assertEquals("CODE-1", lateReceived.poll(1, TimeUnit.SECONDS).activationCode());
+            }
+            assertNull(own.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    void coalescerShouldApplyOnlyTheNewestBroadcastOfABurst() throws Exception {
+        List<String> applied = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        try (LicenseBroadcastCoalescer coalescer = new LicenseBroadcastCoalescer(broadcast -> {
+            applied.add(broadcast.activationCode());
+            done.countDown();
+        }, Duration.ofMillis(200))) {
+            coalescer.accept(new LicenseBroadcast("a", 2L, "CODE-2"));
+            coalescer.accept(new LicenseBroadcast("b", 3L, "CODE-3"));
+            coalescer.accept(new LicenseBroadcast("c", 1L, "CODE-1"));
+            coalescer.accept(new LicenseBroadcast("a", 3L, "CODE-3"));
+
+            assertTrue(done.await(1, TimeUnit.SECONDS));
+            Thread.sleep(250);
+        }
+        assertEquals(List.of("CODE-3"), applied);
+    }
+}
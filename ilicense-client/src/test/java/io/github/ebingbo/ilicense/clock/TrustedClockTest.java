@@ -0,0 +1,116 @@
+package io.github.ebingbo.ilicense.clock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrustedClockTest {
+
+    private static final String SECRET = "test-secret";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldPersistHighWaterMarkAcrossRestarts() {
+        Path markFile = tempDir.resolve("license.dat.clock");
+
+        try (TrustedClock clock = newClock(markFile)) {
+            assertFalse(clock.isRollbackDetected());
+            assertTrue(Math.abs(clock.millis() - System.currentTimeMillis()) < 1000);
+        }
+
+        try (TrustedClock restarted = newClock(markFile)) {
+            assertFalse(restarted.isRollbackDetected());
+        }
+    }
+
+    @Test
+    void shouldDetectRollbackWhenSystemClockIsBehindMark() throws Exception {
+        Path markFile = tempDir.resolve("license.dat.clock");
+        long future = System.currentTimeMillis() + Duration.ofDays(3).toMillis();
+        writeMark(markFile, future, SECRET);
+
+        try (TrustedClock clock = newClock(markFile)) {
+            assertTrue(clock.isRollbackDetected());
+            assertTrue(clock.millis() >= future);
+        }
+    }
+
+    @Test
+    void shouldDetectTamperedMark() throws Exception {
+        Path markFile = tempDir.resolve("license.dat.clock");
+        writeMark(markFile, System.currentTimeMillis(), "another-secret");
+
+        try (TrustedClock clock = newClock(markFile)) {
+            assertTrue(clock.isRollbackDetected());
+        }
+    }
+
+    @Test
+    void shouldTreatMissingOrTruncatedMarkAsTamperingWhenLicenseIsStored() throws Exception {
+        Path markFile = tempDir.resolve("license.dat.clock");
+        try (TrustedClock fresh = newClock(markFile, true)) {
+            assertTrue(fresh.isRollbackDetected());
+        }
+        // the detection is signed into the mark, so a restart does not clear it
+        try (TrustedClock restarted = newClock(markFile, true)) {
+            assertTrue(restarted.isRollbackDetected());
+        }
+
+        Path truncated = tempDir.resolve("truncated.clock");
+        try (TrustedClock clock = newClock(truncated)) {
+            assertFalse(clock.isRollbackDetected());
+        }
+        Files.write(truncated, Arrays.copyOf(Files.readAllBytes(truncated), 20));
+        try (TrustedClock clock = newClock(truncated, true)) {
+            assertTrue(clock.isRollbackDetected());
+        }
+
+        try (TrustedClock firstStart = newClock(tempDir.resolve("first.clock"))) {
+            assertFalse(firstStart.isRollbackDetected());
+        }
+    }
+
+    @Test
+    void flushShouldWriteTheMarkBeforeThePersistInterval() throws Exception {
+        Path markFile = tempDir.resolve("license.dat.clock");
+        try (TrustedClock clock = newClock(markFile)) {
+            long before = ByteBuffer.wrap(Files.readAllBytes(markFile)).getLong(8);
+            Thread.sleep(20);
+            clock.flush();
+            long after = ByteBuffer.wrap(Files.readAllBytes(markFile)).getLong(8);
+            assertTrue(after > before, before + " -> " + after);
+        }
+    }
+
+    private static TrustedClock newClock(Path markFile, boolean historyExpected) {
+        return new TrustedClock(markFile, SECRET, Duration.ofMinutes(1), Duration.ofMinutes(5), historyExpected);
+    }
+
+    private static TrustedClock newClock(Path markFile) {
+        return new TrustedClock(markFile, SECRET, Duration.ofMinutes(1), Duration.ofMinutes(5));
+    }
+
+    private static void writeMark(Path markFile, long highWater, String secret) throws Exception {
+        byte[] key = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        byte[] signature = mac.doFinal(ByteBuffer.allocate(8).putLong(highWater).array());
+
+        ByteBuffer record = ByteBuffer.allocate(48);
+        record.putInt(0x494C434B).putInt(1).putLong(highWater).put(signature);
+        Files.write(markFile, record.array());
+    }
+}
@@ -1,17 +1,41 @@
 package io.github.ebingbo.ilicense.core;
 
+import io.github.ebingbo.ilicense.binding.MachineBinding;
+import io.github.ebingbo.ilicense.binding.MachineFingerprint;
+import io.github.ebingbo.ilicense.broadcast.InMemoryLicenseBroadcaster;
+import io.github.ebingbo.ilicense.clock.ClockRollbackAction;
 import io.github.ebingbo.ilicense.config.LicenseClientProperties;
 import io.github.ebingbo.ilicense.event.LicenseEventListener;
+import io.github.ebingbo.ilicense.exception.LicenseBindingException;
+import io.github.ebingbo.ilicense.exception.LicenseDegradedException;
 import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.exception.LicenseExpiredException;
 import io.github.ebingbo.ilicense.exception.LicenseNotFoundException;
+import io.github.ebingbo.ilicense.exception.LicenseRevokedException;
+import io.github.ebingbo.ilicense.exception.LicenseStoreConflictException;
+import io.github.ebingbo.ilicense.metering.UsageReportSigner;
+import io.github.ebingbo.ilicense.metering.UsageSummary;
+import io.github.ebingbo.ilicense.shared.SharedStatusRole;
+import io.github.ebingbo.ilicense.store.CachingLicenseStore;
+import io.github.ebingbo.ilicense.store.FileLicenseStore;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -99,6 +123,212 @@ class LicenseManagerTest {
         assertEquals(1, listener.expiredCount);
     }
 
+    @Test
+    void expiredLicenseShouldMoveThroughGraceAndDegradedPhases() throws Exception {
+        Path storagePath = tempDir.resolve("license.dat");
+        FakeValidator validator = new FakeValidator();
+        validator.register("IN-GRACE", newLicense(OffsetDateTime.now().minusHours(1), "base,advanced"));
+        validator.register("DEGRADED", newLicense(OffsetDateTime.now().minusHours(3), "base,advanced"));
+        validator.register("BLOCKED", newLicense(OffsetDateTime.now().minusHours(5), "base,advanced"));
+
+        LicenseClientProperties properties = newProperties(storagePath);
+        properties.setValidateOnStartup(true);
+        properties.setGracePeriod(Duration.ofHours(2));
+        properties.setDegradedPeriod(Duration.ofHours(2));
+        properties.setDegradedModules(List.of("base"));
+
+        Files.writeString(storagePath, "IN-GRACE");
+        LicenseManager inGrace = new LicenseManager(properties, validator, LicenseEventListener.NO_OP);
+        inGrace.init();
+        assertEquals(LicensePhase.GRACE, inGrace.getPhase());
+        assertTrue(inGrace.isValid());
+        inGrace.checkLicense();
+        inGrace.checkModule("advanced");
+
+        Files.writeString(storagePath, "DEGRADED");
+        LicenseManager degraded = new LicenseManager(properties, validator, LicenseEventListener.NO_OP);
+        degraded.init();
+        assertEquals(LicensePhase.DEGRADED, degraded.getPhase());
+        assertFalse(degraded.isValid());
+        assertThrows(LicenseDegradedException.class, degraded::checkLicense);
+        degraded.checkLicense(true);
+        degraded.checkModule("base");
+        assertThrows(LicenseDegradedException.class, () -> degraded.checkModule("advanced"));
+        degraded.checkModule("advanced", true);
+        assertEquals(LicensePhase.DEGRADED, degraded.checkAccess(true, "advanced"));
+        assertThrows(LicenseDegradedException.class, () -> degraded.checkAccess(false, "advanced"));
+
+        Files.writeString(storagePath, "BLOCKED");
+        LicenseManager blocked = new LicenseManager(properties, validator, LicenseEventListener.NO_OP);
+        blocked.init();
+        assertEquals(LicensePhase.BLOCKED, blocked.getPhase());
+        assertThrows(LicenseExpiredException.class, () -> blocked.checkLicense(true));
+        assertThrows(LicenseExpiredException.class, () -> blocked.checkModule("base"));
+    }
+
+    @Test
+    void revocationListUpdateShouldRevokeActiveLicense() throws Exception {
+        KeyPair keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+        String code = LicenseCryptoTestSupport.buildActivationCode(
+                keyPair.getPrivate(), OffsetDateTime.now().plusDays(30), "base");
+        Path crlPath = tempDir.resolve("license.crl");
+
+        LicenseClientProperties properties = newProperties(tempDir.resolve("license.dat"));
+        properties.setRevocationListPath(crlPath.toString());
+        RecordingListener listener = new RecordingListener();
+        LicenseManager manager = new LicenseManager(
+                properties, new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(keyPair)), listener);
+        manager.activate(code);
+
+        Files.writeString(crlPath, buildRevocationList(keyPair, 1, "LIC-999"));
+        assertTrue(manager.refreshRevocationList());
+        manager.checkLicense();
+
+        Files.writeString(crlPath, buildRevocationList(keyPair, 2, "LIC-999", "LIC-001"));
+        Files.setLastModifiedTime(crlPath, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        manager.checkLicenseStatus();
+
+        assertEquals(2, manager.getRevocationList().getVersion());
+        assertEquals(1, listener.expiredCount);
+        assertFalse(manager.isValid());
+        assertThrows(LicenseExpiredException.class, manager::checkLicense);
+        assertThrows(LicenseRevokedException.class, () -> manager.activate(code));
+    }
+
+    @Test
+    void revocationListSignedWithUntrustedKeyShouldBeIgnored() throws Exception {
+        KeyPair keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+        KeyPair otherKey = LicenseCryptoTestSupport.generateRsaKeyPair();
+        Path crlPath = tempDir.resolve("license.crl");
+        Files.writeString(crlPath, buildRevocationList(otherKey, 1, "LIC-001"));
+
+        LicenseClientProperties properties = newProperties(tempDir.resolve("license.dat"));
+        properties.setRevocationListPath(crlPath.toString());
+        LicenseManager manager = new LicenseManager(
+                properties, new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(keyPair)), LicenseEventListener.NO_OP);
+
+        assertFalse(manager.refreshRevocationList());
+        assertFalse(manager.getRevocationList().isRevoked("LIC-001"));
+    }
+
+    @Test
+    void rejectedRevocationListShouldBeRetriedWithoutTimestampChange() throws Exception {
+        KeyPair keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+        Path crlPath = tempDir.resolve("license.crl");
+        byte[] signed = buildRevocationList(keyPair, 1, "LIC-001").getBytes(StandardCharsets.US_ASCII);
+        byte[] corrupted = signed.clone();
+        corrupted[corrupted.length - 10] = (byte) (corrupted[corrupted.length - 10] == 'A' ? 'B' : 'A');
+        FileTime modified = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+
+        LicenseClientProperties properties = newProperties(tempDir.resolve("license.dat"));
+        properties.setRevocationListPath(crlPath.toString());
+        LicenseManager manager = new LicenseManager(
+                properties, new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(keyPair)), LicenseEventListener.NO_OP);
+
+        Files.write(crlPath, corrupted);
+        Files.setLastModifiedTime(crlPath, modified);
+        assertFalse(manager.refreshRevocationList());
+
+        // same size and mtime, e.g. a copy that was still being written during the first check
+        Files.write(crlPath, signed);
+        Files.setLastModifiedTime(crlPath, modified);
+        assertTrue(manager.refreshRevocationList());
+        assertTrue(manager.getRevocationList().isRevoked("LIC-001"));
+    }
+
+    @Test
+    void clockRollbackShouldExpireLicenseWhenConfigured() throws Exception {
+        String code = "ACTIVATION-CODE-005";
+        Path storagePath = tempDir.resolve("license.dat");
+        FakeValidator validator = new FakeValidator();
+        validator.register(code, newLicense(OffsetDateTime.now().plusDays(10), "base"));
+
+        LicenseClientProperties properties = newProperties(storagePath);
+        properties.setClockTrackingEnabled(true);
+        properties.setClockRollbackAction(ClockRollbackAction.EXPIRE);
+        assertThrows(LicenseException.class, () -> new LicenseManager(properties, validator, LicenseEventListener.NO_OP));
+        properties.setClockSecret("test-secret");
+
+        try (LicenseManager manager = new LicenseManager(properties, validator, LicenseEventListener.NO_OP)) {
+            manager.activate(code);
+            manager.checkLicense();
+        }
+        assertTrue(Files.exists(tempDir.resolve("license.dat.clock")));
+
+        byte[] mark = Files.readAllBytes(tempDir.resolve("license.dat.clock"));
+        mark[20] ^= 0x01;
+        Files.write(tempDir.resolve("license.dat.clock"), mark);
+
+        try (LicenseManager restarted = new LicenseManager(properties, validator, LicenseEventListener.NO_OP)) {
+            LicenseExpiredException e = assertThrows(LicenseExpiredException.class, () -> restarted.activate(code));
+            assertTrue(e.getMessage().contains("clock rollback"));
+        }
+    }
+
+    @Test
+    void subscriberShouldVerifyEachPublishedCodeOnce() throws Exception {
+        Path storagePath = tempDir.resolve("license.dat");
+        FakeValidator validator = new FakeValidator();
+        validator.register("CODE-1", newLicense(OffsetDateTime.now().plusDays(60), "base"));
+        validator.register("CODE-2", newLicense(OffsetDateTime.now().plusDays(400), "base,advanced"));
+        validator.register("CODE-FORGED", newLicense(OffsetDateTime.now().plusDays(4000), "base,advanced,enterprise"));
+        AtomicInteger verified = new AtomicInteger();
+        FakeValidator subscriberValidator = new FakeValidator() {
+            @Override
+            public LicenseInfo validate(String activationCode) {
+                verified.incrementAndGet();
+                return super.validate(activationCode);
+            }
+        };
+        subscriberValidator.register("CODE-1", newLicense(OffsetDateTime.now().plusDays(60), "base"));
+        subscriberValidator.register("CODE-2", newLicense(OffsetDateTime.now().plusDays(400), "base,advanced"));
+
+        LicenseClientProperties publisherProperties = newProperties(storagePath);
+        publisherProperties.setSharedStatusRole(SharedStatusRole.PUBLISHER);
+        LicenseClientProperties subscriberProperties = newProperties(tempDir.resolve("worker/license.dat"));
+        subscriberProperties.setSharedStatusRole(SharedStatusRole.SUBSCRIBER);
+        subscriberProperties.setSharedStatusPath(storagePath + ".status");
+        assertThrows(LicenseException.class,
+                () -> new LicenseManager(publisherProperties, validator, LicenseEventListener.NO_OP));
+        publisherProperties.setSharedStatusSecret("host-secret");
+        subscriberProperties.setSharedStatusSecret("host-secret");
+
+        RecordingListener listener = new RecordingListener();
+        try (LicenseManager publisher = new LicenseManager(publisherProperties, validator, LicenseEventListener.NO_OP);
+             LicenseManager subscriber = new LicenseManager(subscriberProperties, subscriberValidator, listener)) {
+            publisher.activate("CODE-1");
+            subscriber.init();
+
+            subscriber.checkModule("base");
+            assertFalse(subscriber.hasModule("advanced"));
+            assertThrows(LicenseException.class, () -> subscriber.activate("CODE-1"));
+
+            publisher.activate("CODE-2");
+
+            assertTrue(subscriber.hasModule("advanced"));
+            assertEquals(LicensePhase.ACTIVE, subscriber.getPhase());
+            assertEquals(1, listener.activatedCount);
+            assertEquals(2, verified.get());
+
+            // a record whose code does not verify on the subscriber's side grants nothing
+            publisher.activate("CODE-FORGED");
+            assertFalse(subscriber.hasModule("enterprise"));
+            assertTrue(subscriber.hasModule("advanced"));
+            assertEquals(3, verified.get());
+
+            assertThrows(LicenseException.class,
+                    () -> new LicenseManager(publisherProperties, validator, LicenseEventListener.NO_OP));
+        }
+    }
+
+    private static String buildRevocationList(KeyPair keyPair, long version, String... revokedCodes) throws Exception {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("version", version);
+        payload.put("issue_at", OffsetDateTime.now());
+        payload.put("revoked", List.of(revokedCodes));
+        return LicenseCryptoTestSupport.buildSignedEnvelope(keyPair.getPrivate(), payload, null);
+    }
+
     private static LicenseClientProperties newProperties(Path storagePath) {
         LicenseClientProperties properties = new LicenseClientProperties();
         properties.setEnabled(true);
@@ -109,6 +339,356 @@ class LicenseManagerTest {
         return properties;
     }
 
+    @Test
+    void concurrentActivationsShouldLeaveFileAndStateInAgreement() throws Exception {
+        FakeValidator validator = new FakeValidator();
+        validator.register("CODE-A", newLicense(OffsetDateTime.now().plusDays(10), "base"));
+        validator.register("CODE-B", newLicense(OffsetDateTime.now().plusDays(20), "advanced"));
+        Path storagePath = tempDir.resolve("license.dat");
+
+        for (int round = 0; round < 50; round++) {
+            LicenseManager manager = new LicenseManager(newProperties(storagePath), validator, LicenseEventListener.NO_OP);
+            CountDownLatch start = new CountDownLatch(1);
+            Thread a = new Thread(() -> awaitThen(start, () -> manager.activate("CODE-A")));
+            Thread b = new Thread(() -> awaitThen(start, () -> manager.activate("CODE-B")));
+            a.start();
+            b.start();
+            start.countDown();
+            a.join();
+            b.join();
+
+            String stored = Files.readString(storagePath);
+            assertEquals(stored.equals("CODE-A") ? "base" : "advanced", manager.getCurrentLicense().getModules());
+        }
+    }
+
+    @Test
+    void permitShouldStayValidUntilStateGenerationChanges() {
+        FakeValidator validator = new FakeValidator();
+        OffsetDateTime expireAt = OffsetDateTime.now().plusDays(90);
+        validator.register("CODE-A", newLicense(expireAt, "base,advanced"));
+        validator.register("CODE-B", newLicense(OffsetDateTime.now().plusDays(90), "base"));
+
+        LicenseManager manager = new LicenseManager(newProperties(tempDir.resolve("license.dat")), validator, LicenseEventListener.NO_OP);
+        assertThrows(LicenseNotFoundException.class, () -> manager.permit(false));
+        manager.activate("CODE-A");
+
+        LicensePermit permit = manager.permit(false, "base", "advanced");
+        assertTrue(permit.isValid());
+        assertSame(permit, permit.renew());
+        assertEquals(expireAt.minusDays(30).toInstant().toEpochMilli(), permit.getValidUntil().toEpochMilli());
+
+        manager.activate("CODE-B");
+        assertFalse(permit.isValid());
+        assertThrows(LicenseException.class, permit::renew);
+
+        LicensePermit base = manager.permit(false, "base");
+        assertNotEquals(permit.getGeneration(), base.getGeneration());
+        assertSame(base, base.renew());
+    }
+
+    @Test
+    void decisionContextShouldPinOneSnapshotPerUnitOfWork() throws Exception {
+        FakeValidator validator = new FakeValidator();
+        validator.register("CODE-A", newLicense(OffsetDateTime.now().plusDays(90), "base,advanced"));
+        validator.register("CODE-B", newLicense(OffsetDateTime.now().plusDays(90), "base"));
+        LicenseManager manager = new LicenseManager(newProperties(tempDir.resolve("license.dat")), validator, LicenseEventListener.NO_OP);
+        manager.activate("CODE-A");
+
+        try (LicenseDecisionContext request = manager.openDecisionContext()) {
+            manager.checkModule("advanced");
+            Thread other = new Thread(() -> manager.activate("CODE-B"));
+            other.start();
+            other.join();
+
+            try (LicenseDecisionContext nested = manager.openDecisionContext()) {
+                assertSame(request, nested);
+                manager.checkModule("advanced");
+                manager.checkLicense();
+                assertEquals(LicensePhase.ACTIVE, manager.getPhase());
+            }
+            manager.checkModule("advanced");
+            assertEquals("base,advanced", request.getState().getLicense().getModules());
+        }
+
+        assertThrows(LicenseException.class, () -> manager.checkModule("advanced"));
+    }
+
+    @Test
+    void batchGuardShouldRenewPermitOncePerChunk() {
+        FakeValidator validator = new FakeValidator();
+        validator.register("CODE-A", newLicense(OffsetDateTime.now().plusDays(90), "base,advanced"));
+        validator.register("CODE-B", newLicense(OffsetDateTime.now().plusDays(90), "base"));
+        LicenseManager manager = new LicenseManager(newProperties(tempDir.resolve("license.dat")), validator, LicenseEventListener.NO_OP);
+        manager.activate("CODE-A");
+
+        List<Integer> records = List.of(1, 2, 3, 4, 5, 6, 7);
+        List<Integer> seen = new ArrayList<>();
+        LicenseException denied = assertThrows(LicenseException.class, () -> {
+            for (Integer record : LicenseBatches.guard(manager.permit(false, "advanced"), records, 3)) {
+                seen.add(record);
+                if (record == 2) {
+                    manager.activate("CODE-B");
+                }
+            }
+        });
+        assertTrue(denied.getMessage().contains("advanced"));
+        assertEquals(List.of(1, 2, 3), seen);
+
+        manager.activate("CODE-A");
+        assertEquals(28, LicenseBatches.guard(manager.permit(false, "advanced"), records.stream(), 2)
+                .mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void moduleChecksShouldBeMeteredAndExportedAsSignedReport() {
+        FakeValidator validator = new FakeValidator();
+        validator.register("CODE-A", newLicense(OffsetDateTime.now().plusDays(90), "base,advanced"));
+        LicenseClientProperties properties = newProperties(tempDir.resolve("license.dat"));
+        properties.setMeteringEnabled(true);
+        properties.setMeteringSecret("vendor-secret");
+
+        try (LicenseManager manager = new LicenseManager(properties, validator, LicenseEventListener.NO_OP)) {
+            manager.activate("CODE-A");
+            manager.checkModule("advanced");
+            manager.checkModule("advanced");
+            assertThrows(LicenseException.class, () -> manager.checkModule("audit"));
+            manager.getUsageMeter().flush();
+            manager.checkModule("base");
+
+            String report = manager.exportUsage(Instant.EPOCH, Instant.now().plusSeconds(60));
+            UsageSummary summary = new UsageReportSigner("vendor-secret").verify(report);
+            assertEquals(Map.of("advanced", 2L, "base", 1L), summary.modules());
+            assertTrue(Files.exists(tempDir.resolve("license.dat.usage.1")));
+        }
+    }
+
+    @Test
+    void moduleShouldBeMeteredOncePerUsageScope() {
+        FakeValidator validator = new FakeValidator();
+        validator.register("CODE-A", newLicense(OffsetDateTime.now().plusDays(90), "base,advanced"));
+        LicenseClientProperties properties = newProperties(tempDir.resolve("license.dat"));
+        properties.setMeteringEnabled(true);
+
+        try (LicenseManager manager = new LicenseManager(properties, validator, LicenseEventListener.NO_OP)) {
+            manager.activate("CODE-A");
+            try (LicenseUsageScope ignored = manager.openUsageScope()) {
+                manager.checkAccess(true, "advanced");
+                manager.checkModule("advanced");
+                try (LicenseDecisionContext context = manager.openDecisionContext()) {
+                    manager.checkModule("advanced", true);
+                    manager.checkSnapshot(context.getState(), context.getPhase(), false, "base");
+                }
+            }
+            try (LicenseDecisionContext ignored = manager.openDecisionContext()) {
+                manager.checkModule("advanced");
+            }
+
+            UsageSummary summary = manager.getUsageMeter().summarize(null, Instant.EPOCH, Instant.now().plusSeconds(60));
+            assertEquals(Map.of("advanced", 2L), summary.modules());
+        }
+    }
+
+    @Test
+    void machineBindingShouldRejectLicensesBoundToAnotherHost() {
+        MachineFingerprint local = MachineFingerprint.collect();
+        MachineBinding bound = new MachineBinding();
+        bound.setMac(List.of(MachineFingerprint.hash("11:22:33:44:55:66")));
+        bound.setHostname(List.copyOf(local.get(MachineFingerprint.HOSTNAME)));
+        bound.setMinMatches(1);
+        MachineBinding foreign = new MachineBinding();
+        foreign.setHostname(List.of(MachineFingerprint.hash("another-host")));
+
+        FakeValidator validator = new FakeValidator();
+        LicenseInfo localLicense = newLicense(OffsetDateTime.now().plusDays(90), "base");
+        localLicense.setMachine(bound);
+        LicenseInfo foreignLicense = newLicense(OffsetDateTime.now().plusDays(90), "base");
+        foreignLicense.setMachine(foreign);
+        validator.register("LOCAL", localLicense);
+        validator.register("FOREIGN", foreignLicense);
+        validator.register("UNBOUND", newLicense(OffsetDateTime.now().plusDays(90), "base"));
+
+        LicenseClientProperties properties = newProperties(tempDir.resolve("license.dat"));
+        properties.setBindingEnabled(true);
+        try (LicenseManager manager = new LicenseManager(properties, validator, LicenseEventListener.NO_OP)) {
+            manager.activate("LOCAL");
+            manager.checkModule("base");
+            assertNotNull(manager.getMachineFingerprint());
+
+            assertThrows(LicenseBindingException.class, () -> manager.activate("FOREIGN"));
+            manager.checkModule("base");
+
+            manager.activate("UNBOUND");
+            properties.setBindingRequired(true);
+            assertThrows(LicenseBindingException.class, () -> manager.activate("UNBOUND"));
+        }
+    }
+
+    @Test
+    void machineClaimShouldBeEnforcedWithoutBindingEnabled() {
+        MachineFingerprint local = MachineFingerprint.collect();
+        MachineBinding bound = new MachineBinding();
+        bound.setHostname(List.copyOf(local.get(MachineFingerprint.HOSTNAME)));
+        MachineBinding foreign = new MachineBinding();
+        foreign.setHostname(List.of(MachineFingerprint.hash("another-host")));
+
+        FakeValidator validator = new FakeValidator();
+        LicenseInfo localLicense = newLicense(OffsetDateTime.now().plusDays(90), "base");
+        localLicense.setMachine(bound);
+        LicenseInfo foreignLicense = newLicense(OffsetDateTime.now().plusDays(90), "base");
+        foreignLicense.setMachine(foreign);
+        validator.register("LOCAL", localLicense);
+        validator.register("FOREIGN", foreignLicense);
+
+        LicenseClientProperties properties = newProperties(tempDir.resolve("license.dat"));
+        properties.setBindingMinMatches(0);
+        assertFalse(properties.isBindingEnabled());
+        try (LicenseManager manager = new LicenseManager(properties, validator, LicenseEventListener.NO_OP)) {
+            assertThrows(LicenseBindingException.class, () -> manager.activate("FOREIGN"));
+            manager.activate("LOCAL");
+            manager.checkModule("base");
+            assertNotNull(manager.getMachineFingerprint());
+        }
+    }
+
+    @Test
+    void periodicCheckShouldPickUpCodeReplacedInStore() {
+        FakeValidator validator = new FakeValidator();
+        validator.register("CODE-A", newLicense(OffsetDateTime.now().plusDays(10), "base"));
+        validator.register("CODE-B", newLicense(OffsetDateTime.now().plusDays(20), "base,advanced"));
+        FileLicenseStore shared = new FileLicenseStore(tempDir.resolve("license.dat"));
+        shared.compareAndSet(null, "CODE-A");
+
+        LicenseClientProperties properties = newProperties(tempDir.resolve("license.dat"));
+        properties.setValidateOnStartup(true);
+        RecordingListener listener = new RecordingListener();
+        LicenseManager manager = new LicenseManager(properties, validator, listener,
+                new CachingLicenseStore(new FileLicenseStore(tempDir.resolve("license.dat"))));
+        manager.init();
+        assertThrows(LicenseException.class, () -> manager.checkModule("advanced"));
+
+        manager.checkLicenseStatus();
+        assertEquals(0, listener.activatedCount);
+
+        shared.compareAndSet(shared.version(), "CODE-B");
+        manager.checkLicenseStatus();
+        manager.checkModule("advanced");
+        assertEquals(1, listener.activatedCount);
+        assertEquals("CODE-B", manager.getLicenseStore().load().activationCode());
+    }
+
+    @Test
+    void storeShouldBeReloadedAndWrittenAgainstTheObservedVersion() {
+        FakeValidator validator = new FakeValidator();
+        validator.register("CODE-A", newLicense(OffsetDateTime.now().plusDays(10), "base"));
+        validator.register("CODE-B", newLicense(OffsetDateTime.now().plusDays(20), "base,advanced"));
+        validator.register("CODE-C", newLicense(OffsetDateTime.now().plusDays(30), "base"));
+        FileLicenseStore shared = new FileLicenseStore(tempDir.resolve("license.dat"));
+
+        LicenseClientProperties properties = newProperties(tempDir.resolve("license.dat"));
+        properties.setValidateOnStartup(true);
+        RecordingListener listener = new RecordingListener();
+        LicenseManager manager = new LicenseManager(properties, validator, listener,
+                new CachingLicenseStore(new FileLicenseStore(tempDir.resolve("license.dat"))));
+        manager.init();
+        assertNull(manager.getCurrentLicense());
+
+        // a code that appears after startup is picked up
+        shared.compareAndSet(null, "CODE-A");
+        manager.checkLicenseStatus();
+        manager.checkModule("base");
+        assertEquals(1, listener.activatedCount);
+
+        // a code that fails validation keeps the running license and is not announced
+        shared.compareAndSet(shared.version(), "CODE-FORGED");
+        manager.checkLicenseStatus();
+        manager.checkModule("base");
+        assertEquals(1, listener.activatedCount);
+
+        // a code saved by another instance since the last read is not overwritten
+        manager.activate("CODE-B");
+        shared.compareAndSet(shared.version(), "CODE-C");
+        assertThrows(LicenseStoreConflictException.class, () -> manager.activate("CODE-A"));
+        assertEquals("CODE-C", shared.load().activationCode());
+
+        manager.checkLicenseStatus();
+        manager.activate("CODE-A");
+        assertEquals("CODE-A", shared.load().activationCode());
+    }
+
+    @Test
+    void activationShouldBeBroadcastToPeersThatVerifyIt() throws Exception {
+        FakeValidator validator = new FakeValidator();
+        LicenseInfo current = lineage(newLicense(OffsetDateTime.now().plusDays(30), "base"), "CUST-1");
+        current.setIssueAt(OffsetDateTime.now().minusDays(1));
+        LicenseInfo older = lineage(newLicense(OffsetDateTime.now().plusDays(10), "base"), "CUST-1");
+        older.setIssueAt(OffsetDateTime.now().minusDays(30));
+        LicenseInfo foreign = lineage(newLicense(OffsetDateTime.now().plusDays(90), "base,advanced"), "CUST-2");
+        foreign.setIssueAt(OffsetDateTime.now());
+        LicenseInfo renewed = lineage(newLicense(OffsetDateTime.now().plusDays(400), "base,advanced"), "CUST-1");
+        renewed.setIssueAt(OffsetDateTime.now());
+        validator.register("CODE-NEW", current);
+        validator.register("CODE-OLD", older);
+        validator.register("CODE-FOREIGN", foreign);
+        validator.register("CODE-RENEWED", renewed);
+
+        InMemoryLicenseBroadcaster group = new InMemoryLicenseBroadcaster();
+        RecordingListener peerListener = new RecordingListener();
+        try (LicenseManager node = newBroadcastingManager("node", validator, LicenseEventListener.NO_OP, group.join());
+             LicenseManager peer = newBroadcastingManager("peer", validator, peerListener, group.join())) {
+            node.activate("CODE-NEW");
+            awaitActivated(peer, 1, peerListener);
+            assertEquals("CODE-NEW", peer.getLicenseStore().load().activationCode());
+
+            group.publish("CODE-FORGED");
+            group.publish("CODE-OLD");
+            Thread.sleep(300);
+            group.publish("CODE-FOREIGN");
+            Thread.sleep(300);
+            assertEquals(1, peerListener.activatedCount);
+            assertSame(current, peer.getCurrentLicense());
+
+            group.publish("CODE-RENEWED");
+            awaitActivated(peer, 2, peerListener);
+            assertSame(renewed, peer.getCurrentLicense());
+        }
+    }
+
+    private static LicenseInfo lineage(LicenseInfo license, String customerCode) {
+        license.setLicenseCode("LIC-" + customerCode);
+        license.setCustomerCode(customerCode);
+        license.setProductCode("PRD-001");
+        return license;
+    }
+
+    private LicenseManager newBroadcastingManager(String name, LicenseValidator validator, LicenseEventListener listener,
+                                                  InMemoryLicenseBroadcaster broadcaster) {
+        LicenseClientProperties properties = newProperties(tempDir.resolve(name + ".dat"));
+        properties.setBroadcastCoalesceWindow(Duration.ofMillis(20));
+        LicenseManager manager = new LicenseManager(properties, validator, listener, null, broadcaster);
+        manager.init();
+        return manager;
+    }
+
+    private static void awaitActivated(LicenseManager manager, int count, RecordingListener listener) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (listener.activatedCount < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, listener.activatedCount);
+        assertNotNull(manager.getCurrentLicense());
+    }
+
+    private static void awaitThen(CountDownLatch latch, Runnable action) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        action.run();
+    }
+
     private static LicenseInfo newLicense(OffsetDateTime expireAt, String modules) {
         LicenseInfo info = new LicenseInfo();
         info.setCustomerName("Demo Customer");
@@ -143,7 +723,7 @@ class LicenseManagerTest {
     }
 
     private static class RecordingListener implements LicenseEventListener {
-        int activatedCount;
+        volatile int activatedCount;
         int expiredCount;
 
         @Override
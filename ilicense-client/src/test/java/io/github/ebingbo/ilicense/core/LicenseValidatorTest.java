@@ -3,13 +3,27 @@ package io.github.ebingbo.ilicense.core;
 import io.github.ebingbo.ilicense.exception.LicenseException;
 import org.junit.jupiter.api.Test;
 
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.KeyPair;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class LicenseValidatorTest {
 
+    @TempDir
+    Path tempDir;
+
     @Test
     void validateShouldParseLicenseInfoWhenSignatureIsValid() throws Exception {
         KeyPair keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
@@ -43,4 +57,167 @@ class LicenseValidatorTest {
 
         assertThrows(LicenseException.class, () -> validator.validate(activationCode));
     }
+
+    @Test
+    void validateShouldRejectForgedBlockLengths() throws Exception {
+        KeyPair keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+        LicenseValidator validator = new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(keyPair));
+        String activationCode = LicenseCryptoTestSupport.buildActivationCode(
+                keyPair.getPrivate(),
+                OffsetDateTime.now().plusDays(30),
+                "base"
+        );
+        byte[] valid = Base64.getUrlDecoder().decode(activationCode);
+
+        for (int length : new int[]{Integer.MAX_VALUE, -1, valid.length}) {
+            byte[] forged = valid.clone();
+            ByteBuffer.wrap(forged).putInt(length);
+            String code = Base64.getUrlEncoder().encodeToString(forged);
+            LicenseException e = assertThrows(LicenseException.class, () -> validator.validate(code));
+            assertTrue(e.getMessage().contains("invalid data length"), e.getMessage());
+        }
+        assertThrows(LicenseException.class,
+                () -> validator.validate(Base64.getUrlEncoder().encodeToString(new byte[]{0, 0})));
+    }
+
+    @Test
+    void validateShouldSelectPublicKeyByKeyIdHeader() throws Exception {
+        KeyPair oldKey = LicenseCryptoTestSupport.generateRsaKeyPair();
+        KeyPair newKey = LicenseCryptoTestSupport.generateRsaKeyPair();
+
+        Map<String, String> keys = new LinkedHashMap<>();
+        keys.put("2025", LicenseCryptoTestSupport.toPemPublicKey(oldKey));
+        keys.put("2026", LicenseCryptoTestSupport.toPemPublicKey(newKey));
+        LicenseValidator validator = new LicenseValidator(new LicenseKeyRing(keys, "2025", null));
+
+        String legacyCode = LicenseCryptoTestSupport.buildActivationCode(
+                oldKey.getPrivate(), OffsetDateTime.now().plusDays(30), "base");
+        String rotatedCode = LicenseCryptoTestSupport.buildActivationCode(
+                newKey.getPrivate(), OffsetDateTime.now().plusDays(30), "base", "2026");
+        String fingerprintCode = LicenseCryptoTestSupport.buildActivationCode(
+                newKey.getPrivate(), OffsetDateTime.now().plusDays(30), "base",
+                LicenseKeyRing.fingerprint(newKey.getPublic()));
+        String unknownKeyCode = LicenseCryptoTestSupport.buildActivationCode(
+                newKey.getPrivate(), OffsetDateTime.now().plusDays(30), "base", "2027");
+
+        assertEquals("Demo Customer", validator.validate(legacyCode).getCustomerName());
+        assertEquals("Demo Customer", validator.validate(rotatedCode).getCustomerName());
+        assertEquals("Demo Customer", validator.validate(fingerprintCode).getCustomerName());
+        assertThrows(LicenseException.class, () -> validator.validate(unknownKeyCode));
+    }
+
+    @Test
+    void keyRingShouldReloadKeysFromDirectory() throws Exception {
+        KeyPair firstKey = LicenseCryptoTestSupport.generateRsaKeyPair();
+        KeyPair secondKey = LicenseCryptoTestSupport.generateRsaKeyPair();
+        Path keyDir = Files.createDirectories(tempDir.resolve("keys"));
+        Files.writeString(keyDir.resolve("k1.pem"), LicenseCryptoTestSupport.toPemPublicKey(firstKey));
+
+        LicenseKeyRing keyRing = new LicenseKeyRing(null, "k1", keyDir.toString());
+        LicenseValidator validator = new LicenseValidator(keyRing);
+        String code = LicenseCryptoTestSupport.buildActivationCode(
+                secondKey.getPrivate(), OffsetDateTime.now().plusDays(30), "base", "k2");
+
+        assertThrows(LicenseException.class, () -> validator.validate(code));
+
+        Files.writeString(keyDir.resolve("k2.pem"), LicenseCryptoTestSupport.toPemPublicKey(secondKey));
+
+        assertTrue(keyRing.reloadIfChanged());
+        assertFalse(keyRing.reloadIfChanged());
+        assertEquals("Demo Customer", validator.validate(code).getCustomerName());
+    }
+
+    @Test
+    void validateShouldParseEntitlements() throws Exception {
+        KeyPair keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("license_code", "LIC-002");
+        payload.put("customer_name", "Demo Customer");
+        payload.put("expire_at", OffsetDateTime.now().plusDays(30));
+        payload.put("modules", "base");
+        payload.put("entitlements", Map.of(
+                "max_users", 100,
+                "api_calls_per_second", 50,
+                "rate_limits", Map.of("export", 5),
+                "features", Map.of("sso", true)
+        ));
+        String activationCode = LicenseCryptoTestSupport.buildSignedEnvelope(keyPair.getPrivate(), payload, null);
+
+        LicenseInfo info = new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(keyPair)).validate(activationCode);
+
+        assertEquals(100L, info.getEntitlements().getEffectiveQuotas().get("users"));
+        assertEquals(50L, info.getEntitlements().getEffectiveRateLimits().get("api"));
+        assertEquals(5L, info.getEntitlements().getEffectiveRateLimits().get("export"));
+        assertTrue(info.getEntitlements().isFeatureEnabled("sso"));
+    }
+
+    @Test
+    void validateShouldCacheSuccessfulAndFailedVerification() throws Exception {
+        KeyPair keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+        KeyPair otherKey = LicenseCryptoTestSupport.generateRsaKeyPair();
+        String validCode = LicenseCryptoTestSupport.buildActivationCode(
+                keyPair.getPrivate(), OffsetDateTime.now().plusDays(30), "base");
+        String forgedCode = LicenseCryptoTestSupport.buildActivationCode(
+                otherKey.getPrivate(), OffsetDateTime.now().plusDays(30), "base");
+
+        AtomicInteger verifications = new AtomicInteger();
+        LicenseValidator validator = new LicenseValidator(
+                LicenseKeyRing.of(LicenseCryptoTestSupport.toPemPublicKey(keyPair)),
+                16, Duration.ofMinutes(10), Duration.ofMinutes(1)) {
+            @Override
+            public byte[] verifySignedData(String encoded) throws Exception {
+                verifications.incrementAndGet();
+                return super.verifySignedData(encoded);
+            }
+        };
+
+        LicenseInfo first = validator.validate(validCode);
+        LicenseInfo second = validator.validate(validCode);
+        assertNotSame(first, second);
+        assertEquals(first.getLicenseCode(), second.getLicenseCode());
+
+        LicenseException failure = assertThrows(LicenseException.class, () -> validator.validate(forgedCode));
+        LicenseException cachedFailure = assertThrows(LicenseException.class, () -> validator.validate(forgedCode));
+        assertEquals(failure.getMessage(), cachedFailure.getMessage());
+
+        assertEquals(2, verifications.get());
+
+        LicenseValidator uncached = new LicenseValidator(
+                LicenseKeyRing.of(LicenseCryptoTestSupport.toPemPublicKey(keyPair)), 0, null, null);
+        uncached.validate(validCode);
+        assertThrows(LicenseException.class, () -> uncached.validate(forgedCode));
+    }
+
+    @Test
+    void validateShouldDecryptEncryptedPayloadAfterVerifyingSignature() throws Exception {
+        KeyPair issuer = LicenseCryptoTestSupport.generateRsaKeyPair();
+        KeyPair client = LicenseCryptoTestSupport.generateRsaKeyPair();
+        String activationCode = LicenseCryptoTestSupport.buildEncryptedActivationCode(
+                issuer.getPrivate(), client.getPublic(), OffsetDateTime.now().plusDays(30), "base,advanced");
+
+        String decoded = new String(Base64.getUrlDecoder().decode(activationCode), StandardCharsets.ISO_8859_1);
+        assertFalse(decoded.contains("Demo Customer"));
+
+        LicenseKeyRing keyRing = LicenseKeyRing.of(LicenseCryptoTestSupport.toPemPublicKey(issuer));
+        LicenseValidator validator = new LicenseValidator(keyRing, 0, null, null,
+                LicensePayloadCipher.fromPem(LicenseCryptoTestSupport.toPemPrivateKey(client)));
+        for (int i = 0; i < 2; i++) {
+            LicenseInfo info = validator.validate(activationCode);
+            assertEquals("Demo Customer", info.getCustomerName());
+            assertTrue(info.hasModule("advanced"));
+        }
+
+        LicenseException missingKey = assertThrows(LicenseException.class,
+                () -> new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(issuer)).validate(activationCode));
+        assertTrue(missingKey.getMessage().contains("no payload private key"));
+
+        KeyPair other = LicenseCryptoTestSupport.generateRsaKeyPair();
+        LicenseValidator wrongKey = new LicenseValidator(keyRing, 0, null, null,
+                LicensePayloadCipher.fromPem(LicenseCryptoTestSupport.toPemPrivateKey(other)));
+        assertThrows(LicenseException.class, () -> wrongKey.validate(activationCode));
+
+        String plainCode = LicenseCryptoTestSupport.buildActivationCode(
+                issuer.getPrivate(), OffsetDateTime.now().plusDays(30), "base");
+        assertEquals("Demo Customer", validator.validate(plainCode).getCustomerName());
+    }
 }
@@ -0,0 +1,69 @@
+package io.github.ebingbo.ilicense.core;
+
+import io.github.ebingbo.ilicense.config.LicenseClientProperties;
+import io.github.ebingbo.ilicense.event.LicenseEventListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LicenseWarmupTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void bundledSampleShouldVerifyAndParse() throws Exception {
+        String pem = new String(LicenseWarmup.class.getResourceAsStream("warmup-sample.pem").readAllBytes());
+        String code = new String(LicenseWarmup.class.getResourceAsStream("warmup-sample.lic").readAllBytes()).trim();
+
+        LicenseInfo sample = new LicenseValidator(pem).validate(code);
+
+        assertEquals("WARMUP-SAMPLE", sample.getLicenseCode());
+        assertTrue(sample.hasModule("warmup.anything"));
+        assertFalse(sample.isExpired());
+    }
+
+    @Test
+    void warmupShouldLeaveManagerAndStorageUntouched() throws Exception {
+        KeyPair keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+        LicenseClientProperties properties = new LicenseClientProperties();
+        properties.setStoragePath(tempDir.resolve("license.dat").toString());
+        LicenseValidator validator = new LicenseValidator(LicenseKeyRing.of(LicenseCryptoTestSupport.toPemPublicKey(keyPair)),
+                16, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        LicenseManager manager = new LicenseManager(properties, validator, LicenseEventListener.NO_OP);
+
+        new LicenseWarmup(validator, manager).run(3, 100, List.of("base", "advanced"));
+
+        assertNull(manager.getCurrentLicense());
+        assertEquals(0L, manager.getState().getGeneration());
+        assertFalse(Files.exists(tempDir.resolve("license.dat")));
+    }
+
+    @Test
+    void warmupGuardChecksShouldNotBeMetered() throws Exception {
+        KeyPair keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+        LicenseClientProperties properties = new LicenseClientProperties();
+        properties.setStoragePath(tempDir.resolve("license.dat").toString());
+        properties.setMeteringEnabled(true);
+        LicenseValidator validator = new LicenseValidator(LicenseKeyRing.of(LicenseCryptoTestSupport.toPemPublicKey(keyPair)),
+                16, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        try (LicenseManager manager = new LicenseManager(properties, validator, LicenseEventListener.NO_OP)) {
+            manager.activate(LicenseCryptoTestSupport.buildActivationCode(keyPair.getPrivate(),
+                    OffsetDateTime.now().plusDays(90), "base,advanced"));
+
+            new LicenseWarmup(validator, manager).run(0, 100, List.of("base", "advanced"));
+
+            assertTrue(manager.getUsageMeter().summarize(null, Instant.EPOCH, Instant.now().plusSeconds(60))
+                    .modules().isEmpty());
+        }
+    }
+}
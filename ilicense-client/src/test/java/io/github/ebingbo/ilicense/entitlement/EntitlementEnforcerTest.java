@@ -0,0 +1,111 @@
+package io.github.ebingbo.ilicense.entitlement;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntitlementEnforcerTest {
+
+    @Test
+    void rateLimiterShouldCapPermitsAcrossThreads() throws Exception {
+        StripedRateLimiter limiter = new StripedRateLimiter(200);
+        AtomicInteger granted = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        if (limiter.tryAcquire(1)) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(granted.get() >= 150, "granted " + granted.get());
+        assertTrue(granted.get() <= 260, "granted " + granted.get());
+    }
+
+    @Test
+    void rateLimiterShouldGrantAFullBurstAndRejectWhatNoBurstCovers() {
+        StripedRateLimiter limiter = new StripedRateLimiter(100);
+        assertThrows(IllegalArgumentException.class, () -> limiter.tryAcquire(0));
+        assertThrows(IllegalArgumentException.class, () -> limiter.tryAcquire(-1));
+        assertFalse(limiter.tryAcquire(101));
+        // one second of permits in one request, whatever the number of stripes
+        assertTrue(limiter.tryAcquire(100));
+        assertFalse(limiter.tryAcquire(100));
+
+        // larger than one stripe's burst: charged across all stripes, refunded when any falls short
+        assertTrue(new StripedRateLimiter(100, 4).tryAcquire(60));
+        StripedRateLimiter striped = new StripedRateLimiter(100, 4);
+        assertTrue(striped.tryAcquire(25));
+        assertFalse(striped.tryAcquire(40));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(striped.tryAcquire(25), "stripe " + i);
+        }
+    }
+
+    @Test
+    void quotaShouldRejectNonPositivePermits() {
+        QuotaCounter counter = new QuotaCounter(2);
+        assertThrows(IllegalArgumentException.class, () -> counter.tryAcquire(-5));
+        assertThrows(IllegalArgumentException.class, () -> counter.tryAcquire(0));
+        assertThrows(IllegalArgumentException.class, () -> counter.release(-1));
+        assertFalse(counter.tryAcquire(Long.MAX_VALUE));
+        assertTrue(counter.tryAcquire(2));
+        assertEquals(2, counter.getUsed());
+    }
+
+    @Test
+    void quotaShouldBeEnforcedAndKeepUsageAcrossUpdates() {
+        LicenseEntitlements entitlements = new LicenseEntitlements();
+        entitlements.setMaxUsers(2L);
+
+        EntitlementEnforcer enforcer = new EntitlementEnforcer();
+        enforcer.update(entitlements);
+
+        assertTrue(enforcer.tryAcquire(LicenseEntitlements.USERS, 1));
+        assertTrue(enforcer.tryAcquire(LicenseEntitlements.USERS, 1));
+        assertFalse(enforcer.tryAcquire(LicenseEntitlements.USERS, 1));
+
+        entitlements.setMaxUsers(3L);
+        enforcer.update(entitlements);
+        assertEquals(2, enforcer.getQuota(LicenseEntitlements.USERS).getUsed());
+        assertTrue(enforcer.tryAcquire(LicenseEntitlements.USERS, 1));
+
+        enforcer.release(LicenseEntitlements.USERS, 2);
+        assertEquals(1, enforcer.getQuota(LicenseEntitlements.USERS).getUsed());
+    }
+
+    @Test
+    void unknownFeatureShouldBeDenied() {
+        LicenseEntitlements entitlements = new LicenseEntitlements();
+        entitlements.setRateLimits(Map.of("export", 5L));
+        entitlements.setFeatures(Map.of("sso", true, "export.format", "xlsx"));
+
+        EntitlementEnforcer enforcer = new EntitlementEnforcer();
+        enforcer.update(entitlements);
+
+        assertTrue(enforcer.tryAcquire("export", 1));
+        assertFalse(enforcer.tryAcquire("import", 1));
+        assertTrue(entitlements.isFeatureEnabled("sso"));
+        assertEquals("xlsx", entitlements.getFeature("export.format"));
+        assertFalse(entitlements.isFeatureEnabled("audit"));
+    }
+}
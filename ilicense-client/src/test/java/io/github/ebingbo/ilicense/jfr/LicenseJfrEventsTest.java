@@ -0,0 +1,100 @@
+package io.github.ebingbo.ilicense.jfr;
+
+import io.github.ebingbo.ilicense.config.LicenseClientProperties;
+import io.github.ebingbo.ilicense.core.LicenseCryptoTestSupport;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicenseValidator;
+import io.github.ebingbo.ilicense.event.LicenseEventListener;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LicenseJfrEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void eventsShouldBeRecordedOnlyWhenEnabled() throws Exception {
+        KeyPair keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+        String code = LicenseCryptoTestSupport.buildActivationCode(keyPair.getPrivate(),
+                OffsetDateTime.now().plusDays(90), "base");
+
+        List<RecordedEvent> silent = record(false, () -> activate(keyPair, code, "silent.dat"));
+        assertTrue(silent.isEmpty());
+
+        List<RecordedEvent> events = record(true, () -> {
+            LicenseManager manager = activate(keyPair, code, "license.dat");
+            manager.activate(code);
+            LicenseGuardDeniedEvent.emit("filter", "unauthorized module: billing", "billing", "/billing");
+        });
+
+        List<RecordedEvent> validations = ofType(events, "io.github.ebingbo.ilicense.LicenseValidation");
+        assertEquals(2, validations.size());
+        RecordedEvent verified = validations.get(0);
+        assertEquals(LicenseValidationEvent.VALID, verified.getString("outcome"));
+        assertEquals(2048, verified.getInt("keySize"));
+        assertTrue(verified.getLong("verifyDuration") > 0);
+        assertEquals("LIC-001", verified.getString("licenseCode"));
+        assertEquals(LicenseValidationEvent.CACHED_VALID, validations.get(1).getString("outcome"));
+
+        List<RecordedEvent> transitions = ofType(events, "io.github.ebingbo.ilicense.LicenseStateTransition");
+        assertEquals(2, transitions.size());
+        assertEquals("BLOCKED", transitions.get(0).getString("fromPhase"));
+        assertEquals("ACTIVE", transitions.get(0).getString("toPhase"));
+        assertEquals(1L, transitions.get(0).getLong("generation"));
+
+        // re-activating the stored code does not rewrite license.dat
+        List<RecordedEvent> writes = ofType(events, "io.github.ebingbo.ilicense.LicenseFileIO");
+        assertEquals(1, writes.size());
+        assertEquals(LicenseFileIOEvent.WRITE, writes.get(0).getString("operation"));
+        assertEquals(code.length(), writes.get(0).getLong("bytes"));
+
+        List<RecordedEvent> denials = ofType(events, "io.github.ebingbo.ilicense.LicenseGuardDenied");
+        assertEquals(1, denials.size());
+        assertEquals("/billing", denials.get(0).getString("path"));
+    }
+
+    private LicenseManager activate(KeyPair keyPair, String code, String file) {
+        LicenseClientProperties properties = new LicenseClientProperties();
+        properties.setStoragePath(tempDir.resolve(file).toString());
+        LicenseManager manager = new LicenseManager(properties,
+                new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(keyPair)), LicenseEventListener.NO_OP);
+        manager.activate(code);
+        return manager;
+    }
+
+    private List<RecordedEvent> record(boolean enabled, Runnable action) throws Exception {
+        Path dump = tempDir.resolve(enabled ? "enabled.jfr" : "disabled.jfr");
+        try (Recording recording = new Recording()) {
+            if (enabled) {
+                recording.enable(LicenseValidationEvent.class).withThreshold(Duration.ZERO);
+                recording.enable(LicenseGuardDeniedEvent.class);
+                recording.enable(LicenseStateTransitionEvent.class);
+                recording.enable(LicenseFileIOEvent.class).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        return RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().startsWith("io.github.ebingbo.ilicense."))
+                .collect(Collectors.toList());
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.ebingbo.ilicense.metering;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsageMeterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void flushedCountsShouldSurviveReopenAndBeSummarized() {
+        Path file = tempDir.resolve("license.dat.usage");
+        try (UsageMeter meter = new UsageMeter(new UsageJournal(file, 64 * 1024, 4))) {
+            for (int i = 0; i < 1000; i++) {
+                meter.recordModule("report");
+            }
+            meter.recordFeature("export", 5);
+            meter.flush();
+            meter.recordModule("report");
+        }
+
+        try (UsageMeter meter = new UsageMeter(new UsageJournal(file, 64 * 1024, 4))) {
+            meter.recordModule("audit");
+            UsageSummary summary = meter.summarize("LIC-001", Instant.EPOCH, Instant.now().plusSeconds(60));
+            assertEquals(Map.of("report", 1001L, "audit", 1L), summary.modules());
+            assertEquals(Map.of("export", 5L), summary.features());
+            assertEquals(2, meter.getJournal().readAll().size());
+        }
+    }
+
+    @Test
+    void journalShouldRotateBySizeAndKeepNewestSegments() throws IOException {
+        Path file = tempDir.resolve("license.dat.usage");
+        try (UsageJournal journal = new UsageJournal(file, UsageJournal.MIN_SEGMENT_SIZE, 3)) {
+            for (int i = 0; i < 500; i++) {
+                journal.append(i, Map.of("module-" + i, 1L), Map.of());
+            }
+            List<UsageRecord> records = journal.readAll();
+            assertEquals(499L, records.get(records.size() - 1).timestamp());
+            assertTrue(records.size() < 500);
+            assertEquals(499L - records.get(0).timestamp() + 1, records.size());
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(3, files.filter(p -> !p.toString().endsWith(".lock")).count());
+        }
+    }
+
+    @Test
+    void summaryShouldReportUsageRotatedOutOfTheJournal() {
+        Path file = tempDir.resolve("license.dat.usage");
+        long retainedSince;
+        try (UsageMeter meter = new UsageMeter(new UsageJournal(file, UsageJournal.MIN_SEGMENT_SIZE, 2))) {
+            assertEquals(0L, meter.getJournal().getRetainedSince());
+            assertNull(meter.summarize("LIC-001", Instant.EPOCH, Instant.now()).missingBefore());
+            for (int i = 0; i < 300; i++) {
+                meter.getJournal().append(System.currentTimeMillis(), Map.of("report", 1L), Map.of());
+            }
+            retainedSince = meter.getJournal().getRetainedSince();
+            assertTrue(retainedSince > 0L);
+
+            UsageSummary summary = meter.summarize("LIC-001", Instant.EPOCH, Instant.now().plusSeconds(60));
+            assertEquals(retainedSince, summary.missingBefore());
+            assertTrue(summary.modules().get("report") < 300L);
+            assertNull(meter.summarize("LIC-001", Instant.ofEpochMilli(retainedSince), Instant.now()).missingBefore());
+        }
+        try (UsageJournal journal = new UsageJournal(file, UsageJournal.MIN_SEGMENT_SIZE, 2)) {
+            assertEquals(retainedSince, journal.getRetainedSince());
+        }
+    }
+
+    @Test
+    void tornRecordShouldBeDiscardedOnReopen() throws IOException {
+        Path file = tempDir.resolve("license.dat.usage");
+        try (UsageJournal journal = new UsageJournal(file, 64 * 1024, 4)) {
+            journal.append(1L, Map.of("report", 3L), Map.of());
+            journal.append(2L, Map.of("report", 4L), Map.of());
+        }
+        Path segment = tempDir.resolve("license.dat.usage.1");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, 16);
+            int second = 16 + 8 + length.flip().getInt();
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), second + 20);
+        }
+
+        try (UsageJournal journal = new UsageJournal(file, 64 * 1024, 4)) {
+            assertEquals(1, journal.readAll().size());
+            journal.append(3L, Map.of("report", 5L), Map.of());
+            assertEquals(List.of(1L, 3L), journal.readAll().stream().map(UsageRecord::timestamp).toList());
+        }
+    }
+
+    @Test
+    void journalShouldRefuseSecondWriter() {
+        Path file = tempDir.resolve("license.dat.usage");
+        try (UsageJournal ignored = new UsageJournal(file, 64 * 1024, 4)) {
+            assertThrows(LicenseException.class, () -> new UsageJournal(file, 64 * 1024, 4));
+        }
+    }
+
+    @Test
+    void signedReportShouldVerifyAndRejectTampering() {
+        UsageSummary summary = new UsageSummary("LIC-001", 0L, 10L, 10L, Map.of("report", 7L), Map.of());
+        UsageReportSigner signer = new UsageReportSigner("vendor-secret");
+        String report = signer.sign(summary);
+
+        assertEquals(summary, signer.verify(report));
+        assertThrows(LicenseException.class, () -> new UsageReportSigner("other-secret").verify(report));
+        String forged = new UsageReportSigner("vendor-secret")
+                .sign(new UsageSummary("LIC-001", 0L, 10L, 10L, Map.of("report", 1L), Map.of()));
+        assertThrows(LicenseException.class,
+                () -> signer.verify(forged.substring(0, forged.indexOf('.')) + report.substring(report.indexOf('.'))));
+    }
+}
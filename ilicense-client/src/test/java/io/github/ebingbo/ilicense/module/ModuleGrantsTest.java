@@ -0,0 +1,71 @@
+package io.github.ebingbo.ilicense.module;
+
+import io.github.ebingbo.ilicense.core.LicenseInfo;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModuleGrantsTest {
+
+    @Test
+    void shouldResolveExactWildcardAndNegativeGrants() {
+        ModuleGrants grants = ModuleGrants.parse("base, analytics.*, billing.export; -analytics.raw !analytics.audit.*");
+
+        assertTrue(grants.isGranted("base"));
+        assertFalse(grants.isGranted("base.admin"));
+        assertTrue(grants.isGranted("analytics"));
+        assertTrue(grants.isGranted("analytics.reports.daily"));
+        assertFalse(grants.isGranted("analytics.raw"));
+        assertFalse(grants.isGranted("analytics.raw.export"));
+        assertFalse(grants.isGranted("analytics.audit"));
+        assertTrue(grants.isGranted("billing.export"));
+        assertFalse(grants.isGranted("billing"));
+        assertFalse(grants.isGranted("bas"));
+        assertFalse(grants.isGranted(""));
+    }
+
+    @Test
+    void shouldPreferMostSpecificGrant() {
+        ModuleGrants grants = ModuleGrants.parse("*,-billing,billing.invoice.view");
+
+        assertTrue(grants.isGranted("reporting.export"));
+        assertFalse(grants.isGranted("billing.invoice"));
+        assertTrue(grants.isGranted("billing.invoice.view"));
+        assertFalse(ModuleGrants.parse("billing,-billing").isGranted("billing"));
+        assertFalse(ModuleGrants.parse(List.of()).isGranted("billing"));
+    }
+
+    @Test
+    void shouldBackLicenseInfoHasModule() {
+        LicenseInfo info = new LicenseInfo();
+        info.setModules("base,advanced.*");
+
+        assertTrue(info.hasModule("advanced.export"));
+        assertFalse(info.hasModule("adv"));
+        assertEquals("base,advanced.*", info.getModuleGrants().toString());
+    }
+
+    @Test
+    void checksShouldNotAllocate() {
+        ModuleGrants grants = ModuleGrants.parse("base,analytics.*,-analytics.raw,billing.export");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        boolean sink = false;
+        for (int i = 0; i < 20_000; i++) {
+            sink ^= grants.isGranted("analytics.reports.daily");
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            sink ^= grants.isGranted("analytics.reports.daily");
+            sink ^= grants.isGranted("billing.export");
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertFalse(sink);
+        assertTrue(allocated < 64 * 1024, "allocated " + allocated + " bytes");
+    }
+}
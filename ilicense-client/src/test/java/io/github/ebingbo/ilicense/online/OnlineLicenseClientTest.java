@@ -0,0 +1,205 @@
+package io.github.ebingbo.ilicense.online;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.ebingbo.ilicense.config.LicenseClientProperties;
+import io.github.ebingbo.ilicense.core.LicenseCryptoTestSupport;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicenseValidator;
+import io.github.ebingbo.ilicense.event.LicenseEventListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OnlineLicenseClientTest {
+
+    private static KeyPair keyPair;
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicReference<String> code = new AtomicReference<>();
+    private final AtomicReference<String> retryAfter = new AtomicReference<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        if (keyPair == null) {
+            keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(OnlineLicenseClient.CHECK_IN_PATH, this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void checkInShouldActivateAndCacheServerCode() throws Exception {
+        String activationCode = LicenseCryptoTestSupport.buildActivationCode(keyPair.getPrivate(),
+                OffsetDateTime.now().plusDays(90), "base");
+        code.set(activationCode);
+
+        LicenseManager manager = newManager();
+        try (OnlineLicenseClient client = new OnlineLicenseClient(properties(serverUrl()), manager)) {
+            assertTrue(client.checkIn());
+            assertEquals("LIC-001", manager.getCurrentLicense().getLicenseCode());
+            assertEquals(activationCode, Files.readString(client.getCacheFile()));
+
+            status.set(204);
+            assertTrue(client.checkIn());
+            assertEquals(0, client.getConsecutiveFailures());
+        }
+
+        assertEquals(2, requests.size());
+        assertTrue(requests.get(0).contains("\"instance_id\":\"node-1\""));
+        assertTrue(requests.get(1).contains("\"license_code\":\"LIC-001\""));
+    }
+
+    @Test
+    void checkInShouldHonourRetryAfterAndBackOff() {
+        status.set(429);
+        retryAfter.set("120");
+
+        try (OnlineLicenseClient client = new OnlineLicenseClient(properties(serverUrl()), newManager())) {
+            assertFalse(client.checkIn());
+            assertEquals(1, client.getConsecutiveFailures());
+            assertTrue(client.nextDelayMillis() >= 120_000L);
+
+            status.set(204);
+            assertTrue(client.checkIn());
+            assertEquals(Duration.ofHours(1).toMillis(), client.nextDelayMillis());
+        }
+    }
+
+    @Test
+    void startShouldFallBackToCachedCodeWhenServerIsUnreachable() throws Exception {
+        String activationCode = LicenseCryptoTestSupport.buildActivationCode(keyPair.getPrivate(),
+                OffsetDateTime.now().plusDays(90), "base");
+        LicenseClientProperties properties = properties("http://127.0.0.1:" + server.getAddress().getPort());
+        server.stop(0);
+        Files.writeString(Path.of(properties.getStoragePath() + ".online"), activationCode);
+
+        LicenseManager manager = newManager();
+        try (OnlineLicenseClient client = new OnlineLicenseClient(properties, manager)) {
+            client.start();
+            assertNotNull(manager.getCurrentLicense());
+            assertFalse(client.checkIn());
+            assertNotNull(manager.getCurrentLicense());
+        }
+    }
+
+    @Test
+    void startShouldPreferCacheOverLicenseFileAndFallBackWhenCacheIsBad() throws Exception {
+        String stored = LicenseCryptoTestSupport.buildActivationCode(keyPair.getPrivate(),
+                OffsetDateTime.now().plusDays(30), "base");
+        String cached = LicenseCryptoTestSupport.buildActivationCode(keyPair.getPrivate(),
+                OffsetDateTime.now().plusDays(365), "base,advanced");
+        LicenseClientProperties properties = properties("http://127.0.0.1:" + server.getAddress().getPort());
+        server.stop(0);
+        Path cacheFile = Path.of(properties.getStoragePath() + ".online");
+
+        LicenseManager manager = newManager();
+        manager.activate(stored);
+        Files.writeString(cacheFile, cached);
+        try (OnlineLicenseClient client = new OnlineLicenseClient(properties, manager)) {
+            client.start();
+            assertEquals("base,advanced", manager.getCurrentLicense().getModules());
+        }
+
+        LicenseManager fallback = newManager();
+        fallback.activate(stored);
+        Files.writeString(cacheFile, "corrupted");
+        try (OnlineLicenseClient client = new OnlineLicenseClient(properties, fallback)) {
+            client.start();
+            assertEquals("base", fallback.getCurrentLicense().getModules());
+        }
+    }
+
+    @Test
+    void checkInShouldKeepCurrentLicenseWhenServerSendsBadCode() throws Exception {
+        String activationCode = LicenseCryptoTestSupport.buildActivationCode(keyPair.getPrivate(),
+                OffsetDateTime.now().plusDays(90), "base");
+        code.set(activationCode);
+
+        LicenseManager manager = newManager();
+        try (OnlineLicenseClient client = new OnlineLicenseClient(properties(serverUrl()), manager)) {
+            assertTrue(client.checkIn());
+
+            KeyPair foreign = LicenseCryptoTestSupport.generateRsaKeyPair();
+            code.set(LicenseCryptoTestSupport.buildActivationCode(foreign.getPrivate(),
+                    OffsetDateTime.now().plusDays(365), "base,advanced"));
+            assertFalse(client.checkIn());
+            assertEquals("base", manager.getCurrentLicense().getModules());
+            assertEquals(activationCode, Files.readString(client.getCacheFile()));
+        }
+    }
+
+    @Test
+    void backoffShouldStayWithinJitterWindow() {
+        for (int failures = 1; failures <= 40; failures++) {
+            long delay = OnlineLicenseClient.backoffMillis(failures, 1_000L, 60_000L);
+            long ceiling = Math.min(60_000L, 1_000L << Math.min(failures - 1, 30));
+            assertTrue(delay >= 1_000L && delay <= ceiling, "delay " + delay + " after " + failures);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        int current = status.get();
+        if (retryAfter.get() != null) {
+            exchange.getResponseHeaders().set("Retry-After", retryAfter.get());
+        }
+        if (current != 200) {
+            exchange.sendResponseHeaders(current, -1);
+        } else {
+            byte[] body = ("{\"activation_code\":\"" + code.get() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+
+    private String serverUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    private LicenseClientProperties properties(String serverUrl) {
+        LicenseClientProperties properties = new LicenseClientProperties();
+        properties.setStoragePath(tempDir.resolve("license.dat").toString());
+        properties.setOnlineEnabled(true);
+        properties.setServerUrl(serverUrl);
+        properties.setLicenseKey("key-001");
+        properties.setInstanceId("node-1");
+        properties.setOnlineRequestTimeout(Duration.ofSeconds(2));
+        properties.setOnlineStartupJitter(Duration.ofMinutes(10));
+        return properties;
+    }
+
+    private LicenseManager newManager() {
+        return new LicenseManager(properties(serverUrl()),
+                new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(keyPair)), LicenseEventListener.NO_OP);
+    }
+}
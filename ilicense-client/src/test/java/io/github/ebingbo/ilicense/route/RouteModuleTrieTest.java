@@ -0,0 +1,82 @@
+package io.github.ebingbo.ilicense.route;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteModuleTrieTest {
+
+    @Test
+    void shouldResolveMostSpecificRule() {
+        Map<String, String> rules = new LinkedHashMap<>();
+        rules.put("/api/**", "base");
+        rules.put("/api/reports/**", "reporting");
+        rules.put("/api/reports/export", "reporting.export");
+        rules.put("/api/orders/*/invoice", "billing");
+        rules.put("/api/{tenant}/audit/**", "audit");
+        RouteModuleTrie trie = RouteModuleTrie.compile(rules);
+
+        assertEquals(5, trie.size());
+        assertEquals("reporting.export", trie.resolve("/api/reports/export"));
+        assertEquals("reporting", trie.resolve("/api/reports/daily/2026"));
+        assertEquals("reporting", trie.resolve("/api/reports"));
+        assertEquals("billing", trie.resolve("/api/orders/42/invoice"));
+        assertEquals("audit", trie.resolve("/api/acme/audit/events"));
+        assertEquals("base", trie.resolve("/api/orders/42"));
+        assertNull(trie.resolve("/static/app.js"));
+    }
+
+    @Test
+    void samplePathShouldResolveToItsOwnRule() {
+        Map<String, String> rules = new LinkedHashMap<>();
+        rules.put("/api/**", "base");
+        rules.put("/api/reports/**", "reporting");
+        rules.put("/api/orders/*/invoice", "billing");
+        rules.put("/api/{tenant}/audit/{*rest}", "audit");
+        RouteModuleTrie trie = RouteModuleTrie.compile(rules);
+
+        assertEquals("/api/orders/warmup/invoice", RouteModuleTrie.samplePath("/api/orders/*/invoice"));
+        assertEquals("/api/reports/warmup/warmup", RouteModuleTrie.samplePath("/api/reports/**"));
+        rules.forEach((pattern, module) -> assertEquals(module, trie.resolve(RouteModuleTrie.samplePath(pattern)), pattern));
+    }
+
+    @Test
+    void shouldMatchDoubleWildcardInTheMiddle() {
+        RouteModuleTrie trie = RouteModuleTrie.compile(Map.of("/files/**/download", "storage"));
+
+        assertEquals("storage", trie.resolve("/files/download"));
+        assertEquals("storage", trie.resolve("/files/a/b/c/download"));
+        assertNull(trie.resolve("/files/a/b/c"));
+    }
+
+    @Test
+    void shouldMatchDecodedSegmentsWithoutPathParameters() {
+        Map<String, String> rules = new LinkedHashMap<>();
+        rules.put("/api/reports/**", "reporting");
+        rules.put("/api/orders/*/invoice", "billing");
+        RouteModuleTrie trie = RouteModuleTrie.compile(rules);
+
+        assertEquals("reporting", trie.resolve("/api/reports;x=1/daily"));
+        assertEquals("reporting", trie.resolve("/api;jsessionid=abc/reports/daily"));
+        assertEquals("reporting", trie.resolve("/api/%72eports/daily"));
+        assertEquals("reporting", trie.resolve("/api/%72%65ports;v=2/daily"));
+        assertEquals("reporting", trie.resolve("/api/./orders/../reports/daily"));
+        assertEquals("billing", trie.resolve("/api/orders/a%2Fb/invoice"));
+        assertNull(trie.resolve("/api/reports%2Fdaily"));
+        assertNull(trie.resolve("/api/%zzports/daily"));
+    }
+
+    @Test
+    void shouldRejectConflictingAndUnsupportedRules() {
+        Map<String, String> conflicting = new LinkedHashMap<>();
+        conflicting.put("/api/{id}", "a");
+        conflicting.put("/api/*", "b");
+        assertThrows(LicenseException.class, () -> RouteModuleTrie.compile(conflicting));
+        assertThrows(LicenseException.class, () -> RouteModuleTrie.compile(Map.of("/api/*.json", "a")));
+        assertNull(RouteModuleTrie.compile(Map.of()).resolve("/api"));
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.ebingbo.ilicense.shared;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedStatusFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readersShouldOnlySeeCompleteRecordsWhileWriterPublishes() throws Exception {
+        Path file = tempDir.resolve("license.status");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        try (SharedStatusFile publisher = SharedStatusFile.publisher(file, "secret");
+             SharedStatusFile subscriber = SharedStatusFile.subscriber(file, "secret")) {
+            assertNull(subscriber.read());
+            publisher.publish(code(0), false);
+
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 1; running.get(); i++) {
+                    publisher.publish(code(i), i % 2 == 0);
+                    LockSupport.parkNanos(1_000);
+                }
+            });
+            Future<?>[] readers = new Future<?>[2];
+            for (int r = 0; r < readers.length; r++) {
+                readers[r] = executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        SharedStatusFile.Snapshot snapshot = subscriber.read();
+                        assertEquals(0, snapshot.sequence() % 2);
+                        String[] parts = snapshot.activationCode().split(":");
+                        int n = Integer.parseInt(parts[1]);
+                        assertEquals("m" + (n % 7), parts[2]);
+                        assertEquals(n % 2 == 0 && n > 0, snapshot.revoked());
+                    }
+                });
+            }
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            writer.get(10, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void subscriberShouldRejectRecordWithWrongSecretOrTampering() throws Exception {
+        Path file = tempDir.resolve("license.status");
+        try (SharedStatusFile publisher = SharedStatusFile.publisher(file, "secret")) {
+            publisher.publish(code(1), false);
+        }
+
+        try (SharedStatusFile forged = SharedStatusFile.subscriber(file, "other-secret")) {
+            assertThrows(LicenseException.class, forged::read);
+        }
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[70] ^= 0x01;
+        Files.write(file, bytes);
+        try (SharedStatusFile subscriber = SharedStatusFile.subscriber(file, "secret")) {
+            assertThrows(LicenseException.class, subscriber::read);
+        }
+    }
+
+    @Test
+    void subscriberShouldMapFileReadOnly() throws Exception {
+        Path file = tempDir.resolve("license.status");
+        try (SharedStatusFile subscriber = SharedStatusFile.subscriber(file, "secret")) {
+            assertNull(subscriber.read());
+            assertThrows(LicenseException.class, () -> subscriber.publish(code(1), false));
+            try (SharedStatusFile publisher = SharedStatusFile.publisher(file, "secret")) {
+                publisher.publish(code(1), false);
+            }
+            assertEquals(code(1), subscriber.read().activationCode());
+        }
+    }
+
+    private static String code(int n) {
+        return "CODE:" + n + ":m" + (n % 7) + ":" + "x".repeat(n % 300);
+    }
+}
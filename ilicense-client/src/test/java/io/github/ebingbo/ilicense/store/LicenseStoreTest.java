@@ -0,0 +1,168 @@
+package io.github.ebingbo.ilicense.store;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.exception.LicenseStoreConflictException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LicenseStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void fileStoreShouldRejectWritesAgainstStaleVersion() throws Exception {
+        FileLicenseStore store = new FileLicenseStore(tempDir.resolve("license.dat"));
+        assertNull(store.load());
+        assertNull(store.version());
+
+        StoredLicense first = store.compareAndSet(null, "code-1");
+        assertEquals(first, store.load());
+
+        StoredLicense second = store.compareAndSet(first.version(), "code-2");
+        assertNotEquals(first.version(), second.version());
+        assertEquals("code-2", Files.readString(store.getFile()));
+
+        assertThrows(LicenseStoreConflictException.class, () -> store.compareAndSet(first.version(), "code-3"));
+        assertThrows(LicenseStoreConflictException.class, () -> store.compareAndSet(null, "code-3"));
+        assertEquals("code-2", store.load().activationCode());
+    }
+
+    @Test
+    void readOnlyStoresShouldLoadAndRefuseWrites() throws Exception {
+        Map<String, String> env = new HashMap<>(Map.of("CODE", " env-code \n"));
+        EnvLicenseStore envStore = new EnvLicenseStore("CODE", env::get);
+        assertEquals("env-code", envStore.load().activationCode());
+        String envVersion = envStore.version();
+        env.put("CODE", "env-code-2");
+        assertNotEquals(envVersion, envStore.version());
+        assertThrows(LicenseException.class, () -> envStore.compareAndSet(envStore.version(), "x"));
+        assertFalse(envStore.isWritable());
+
+        Path classes = Files.createDirectories(tempDir.resolve("classes/license"));
+        Files.writeString(classes.resolve("activation-code.lic"), "classpath-code\n");
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{tempDir.resolve("classes").toUri().toURL()}, null)) {
+            ClasspathLicenseStore classpath = new ClasspathLicenseStore(loader, "license/activation-code.lic");
+            assertEquals("classpath-code", classpath.load().activationCode());
+            assertNotNull(classpath.version());
+            assertNull(new ClasspathLicenseStore(loader, "license/missing.lic").load());
+        }
+
+        Path secrets = Files.createDirectories(tempDir.resolve("secrets"));
+        Path generation1 = Files.createDirectories(secrets.resolve("..2024_01_01"));
+        Files.writeString(generation1.resolve("activation-code"), "secret-1");
+        Files.createSymbolicLink(secrets.resolve("..data"), generation1.getFileName());
+        Files.createSymbolicLink(secrets.resolve("activation-code"), Path.of("..data/activation-code"));
+        SecretLicenseStore secret = new SecretLicenseStore(secrets, "activation-code");
+        assertEquals(new StoredLicense("secret-1", "..2024_01_01"), secret.load());
+
+        Path generation2 = Files.createDirectories(secrets.resolve("..2024_02_01"));
+        Files.writeString(generation2.resolve("activation-code"), "secret-2");
+        Path swap = Files.createSymbolicLink(secrets.resolve("..data_tmp"), generation2.getFileName());
+        Files.move(swap, secrets.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+        assertEquals(new StoredLicense("secret-2", "..2024_02_01"), secret.load());
+    }
+
+    @Test
+    void jdbcStoreShouldCompareAndSetOnRowVersion() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:license-store;DB_CLOSE_DELAY=-1");
+        JdbcLicenseStore store = new JdbcLicenseStore(dataSource).initialize();
+        JdbcLicenseStore other = new JdbcLicenseStore(dataSource).initialize();
+
+        assertNull(store.load());
+        assertEquals("1", store.compareAndSet(null, "code-1").version());
+        assertThrows(LicenseStoreConflictException.class, () -> other.compareAndSet(null, "code-x"));
+
+        assertEquals("2", other.compareAndSet("1", "code-2").version());
+        assertThrows(LicenseStoreConflictException.class, () -> store.compareAndSet("1", "code-3"));
+        assertEquals(new StoredLicense("code-2", "2"), store.load());
+
+        assertThrows(LicenseException.class, () -> new JdbcLicenseStore(dataSource, "t; DROP TABLE x", "n"));
+    }
+
+    @Test
+    void chainShouldPreferEarlierStoresAndWriteToFirstWritable() {
+        Map<String, String> env = new HashMap<>();
+        EnvLicenseStore envStore = new EnvLicenseStore("CODE", env::get);
+        FileLicenseStore file = new FileLicenseStore(tempDir.resolve("license.dat"));
+        ChainLicenseStore chain = new ChainLicenseStore(List.of(envStore, file));
+
+        assertNull(chain.load());
+        StoredLicense saved = chain.compareAndSet(chain.version(), "file-code");
+        assertEquals(saved, chain.load());
+        assertTrue(saved.version().startsWith("1/"));
+
+        env.put("CODE", "env-code");
+        StoredLicense fromEnv = chain.load();
+        assertEquals("env-code", fromEnv.activationCode());
+        assertTrue(fromEnv.version().startsWith("0/"));
+        assertThrows(LicenseException.class, () -> chain.compareAndSet(chain.version(), "other"));
+
+        env.remove("CODE");
+        assertThrows(LicenseStoreConflictException.class, () -> chain.compareAndSet("1/stale", "other"));
+        assertEquals("file-code", chain.load().activationCode());
+    }
+
+    @Test
+    void chainShouldBeMatchedLikeItIsBuilt() {
+        assertTrue(LicenseStores.contains(List.of("file", " JDBC "), LicenseStores.JDBC));
+        assertTrue(LicenseStores.contains(null, LicenseStores.FILE));
+        assertFalse(LicenseStores.contains(List.of("file", "env"), LicenseStores.JDBC));
+        assertFalse(LicenseStores.contains(List.of("jdbc-archive"), LicenseStores.JDBC));
+    }
+
+    @Test
+    void cachingStoreShouldOnlyReloadWhenVersionChanges() {
+        AtomicInteger loads = new AtomicInteger();
+        Map<String, String> env = new HashMap<>(Map.of("CODE", "code-1"));
+        EnvLicenseStore envStore = new EnvLicenseStore("CODE", env::get);
+        CachingLicenseStore store = new CachingLicenseStore(new LicenseStore() {
+            @Override
+            public StoredLicense load() {
+                loads.incrementAndGet();
+                return envStore.load();
+            }
+
+            @Override
+            public String version() {
+                return envStore.version();
+            }
+
+            @Override
+            public StoredLicense compareAndSet(String expectedVersion, String activationCode) {
+                return envStore.compareAndSet(expectedVersion, activationCode);
+            }
+
+            @Override
+            public String describe() {
+                return envStore.describe();
+            }
+        });
+
+        assertEquals("code-1", store.load().activationCode());
+        assertEquals("code-1", store.load().activationCode());
+        assertEquals(1, loads.get());
+
+        env.put("CODE", "code-2");
+        assertEquals("code-2", store.load().activationCode());
+        assertEquals(2, loads.get());
+
+        env.remove("CODE");
+        assertNull(store.load());
+        assertEquals(2, loads.get());
+    }
+}
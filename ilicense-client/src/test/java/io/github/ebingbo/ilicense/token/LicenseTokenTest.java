@@ -0,0 +1,142 @@
+package io.github.ebingbo.ilicense.token;
+
+import io.github.ebingbo.ilicense.config.LicenseClientProperties;
+import io.github.ebingbo.ilicense.core.LicenseCryptoTestSupport;
+import io.github.ebingbo.ilicense.core.LicenseDecisionContext;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicenseValidator;
+import io.github.ebingbo.ilicense.event.LicenseEventListener;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.exception.LicenseNotFoundException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LicenseTokenTest {
+
+    private static final List<String> CATALOG = List.of("base", "analytics.report", "billing");
+
+    private static final String SECRET = "mesh-secret-0123456789abcdef0123456789";
+
+    private static KeyPair keyPair;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        keyPair = LicenseCryptoTestSupport.generateRsaKeyPair();
+    }
+
+    @Test
+    void codecShouldRejectShortSecrets() {
+        assertThrows(LicenseException.class, () -> new LicenseTokenCodec("mesh-secret", CATALOG));
+        assertThrows(LicenseException.class, () -> new LicenseTokenCodec(" ", CATALOG));
+    }
+
+    @Test
+    void verifierShouldSeeModulesGrantedAtTheEdge() throws Exception {
+        LicenseTokenCodec codec = new LicenseTokenCodec(SECRET, CATALOG);
+        LicenseTokenIssuer issuer = new LicenseTokenIssuer(codec, activatedManager("base,analytics.*"), Duration.ofMinutes(5));
+
+        String encoded = issuer.currentToken();
+        assertSame(encoded, issuer.currentToken());
+
+        LicenseTokenVerifier verifier = new LicenseTokenVerifier(new LicenseTokenCodec(SECRET, CATALOG));
+        LicenseToken token = verifier.verify(encoded);
+
+        assertEquals("LIC-001", token.getLicenseCode());
+        assertTrue(token.hasModule("base"));
+        assertTrue(token.hasModule("analytics.report"));
+        assertFalse(token.hasModule("billing"));
+        assertFalse(token.hasModule("unknown"));
+        assertFalse(token.isReadOnly());
+        assertFalse(token.isModulesOnly());
+        assertSame(token, verifier.verify(encoded));
+        assertEquals(1, verifier.size());
+    }
+
+    @Test
+    void verifierShouldRejectForgedOrForeignTokens() throws Exception {
+        LicenseTokenCodec codec = new LicenseTokenCodec(SECRET, CATALOG);
+        String encoded = new LicenseTokenIssuer(codec, activatedManager("base"), Duration.ofMinutes(5)).currentToken();
+
+        char[] chars = encoded.toCharArray();
+        chars[3] = chars[3] == 'A' ? 'B' : 'A';
+        String tampered = new String(chars);
+
+        LicenseTokenVerifier verifier = new LicenseTokenVerifier(codec);
+        assertThrows(LicenseException.class, () -> verifier.verify(tampered));
+        assertThrows(LicenseException.class, () -> verifier.verify("not-a-token"));
+        assertThrows(LicenseException.class, () -> verifier.verify(null));
+        assertEquals(0, verifier.size());
+
+        assertThrows(LicenseException.class,
+                () -> new LicenseTokenVerifier(new LicenseTokenCodec("other-" + SECRET, CATALOG)).verify(encoded));
+        LicenseException mismatch = assertThrows(LicenseException.class,
+                () -> new LicenseTokenCodec(SECRET, List.of("base")).decode(encoded, 0L));
+        assertTrue(mismatch.getMessage().contains("catalog"));
+    }
+
+    @Test
+    void decodeShouldRejectExpiredToken() throws Exception {
+        LicenseTokenCodec codec = new LicenseTokenCodec(SECRET, CATALOG);
+        String encoded = new LicenseTokenIssuer(codec, activatedManager("base"), Duration.ofSeconds(30)).currentToken();
+        long now = System.currentTimeMillis() / 1000L;
+
+        assertNotNull(codec.decode(encoded, now));
+        LicenseException expired = assertThrows(LicenseException.class, () -> codec.decode(encoded, now + 31));
+        assertTrue(expired.getMessage().contains("expired"));
+    }
+
+    @Test
+    void issuerShouldRefuseWithoutLicense() {
+        LicenseTokenCodec codec = new LicenseTokenCodec(SECRET, CATALOG);
+        LicenseManager manager = new LicenseManager(properties(),
+                new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(keyPair)), LicenseEventListener.NO_OP);
+
+        assertThrows(LicenseNotFoundException.class,
+                () -> new LicenseTokenIssuer(codec, manager, Duration.ofMinutes(5)).currentToken());
+    }
+
+    @Test
+    void issuerShouldMintFromLiveStateInsideAnOpenDecisionContext() throws Exception {
+        LicenseTokenCodec codec = new LicenseTokenCodec(SECRET, CATALOG);
+        LicenseManager manager = new LicenseManager(properties(),
+                new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(keyPair)), LicenseEventListener.NO_OP);
+        LicenseTokenIssuer issuer = new LicenseTokenIssuer(codec, manager, Duration.ofMinutes(5));
+
+        try (LicenseDecisionContext ignored = manager.openDecisionContext()) {
+            manager.activate(LicenseCryptoTestSupport.buildActivationCode(keyPair.getPrivate(),
+                    OffsetDateTime.now().plusDays(90), "base"));
+            assertThrows(LicenseNotFoundException.class, manager::checkLicense);
+
+            LicenseToken token = codec.decode(issuer.currentToken(), System.currentTimeMillis() / 1000L);
+            assertTrue(token.hasModule("base"));
+            assertFalse(token.hasModule("billing"));
+            assertFalse(token.isModulesOnly());
+        }
+    }
+
+    private LicenseManager activatedManager(String modules) throws Exception {
+        LicenseManager manager = new LicenseManager(properties(),
+                new LicenseValidator(LicenseCryptoTestSupport.toPemPublicKey(keyPair)), LicenseEventListener.NO_OP);
+        manager.activate(LicenseCryptoTestSupport.buildActivationCode(keyPair.getPrivate(),
+                OffsetDateTime.now().plusDays(90), modules));
+        return manager;
+    }
+
+    private LicenseClientProperties properties() {
+        LicenseClientProperties properties = new LicenseClientProperties();
+        properties.setStoragePath(tempDir.resolve("license.dat").toString());
+        return properties;
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.ebingbo.ilicense.jcstress;
+
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE_INTERESTING;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * First activation racing a license check: once a check has passed, the license must stay visible.
+ * <p>
+ * r1 = {@code checkLicense()} passed, r2 = {@code getCurrentLicense()} afterwards was non-null.
+ */
+@JCStressTest
+@Outcome(id = "0, 0", expect = ACCEPTABLE, desc = "Checked before activation was published")
+@Outcome(id = "0, 1", expect = ACCEPTABLE_INTERESTING, desc = "Activation published between the two reads")
+@Outcome(id = "1, 1", expect = ACCEPTABLE, desc = "Checked after activation was published")
+@Outcome(id = "1, 0", expect = FORBIDDEN, desc = "Passed check but license disappeared afterwards")
+@State
+public class ActivateCheckLicenseTest {
+
+    private final LicenseManager manager = Fixtures.newManager();
+
+    @Actor
+    public void activate() {
+        manager.activate(Fixtures.CODE_A);
+    }
+
+    @Actor
+    public void check(II_Result r) {
+        try {
+            manager.checkLicense();
+            r.r1 = 1;
+        } catch (LicenseException e) {
+            r.r1 = 0;
+        }
+        r.r2 = manager.getCurrentLicense() == null ? 0 : 1;
+    }
+
+    @Arbiter
+    public void close() {
+        manager.close();
+    }
+}
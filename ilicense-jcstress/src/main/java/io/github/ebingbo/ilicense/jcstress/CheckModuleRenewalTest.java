@@ -0,0 +1,60 @@
+package io.github.ebingbo.ilicense.jcstress;
+
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE_INTERESTING;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Renewal from license A ({@code base}) to license B ({@code advanced}) racing two module checks.
+ * <p>
+ * Each check must be decided against a single snapshot, and snapshots never go backwards, so the
+ * second check cannot fail on the old license after the first one already failed on the new one.
+ */
+@JCStressTest
+@Outcome(id = "1, 0", expect = ACCEPTABLE, desc = "Both checks saw license A")
+@Outcome(id = "0, 1", expect = ACCEPTABLE, desc = "Both checks saw license B")
+@Outcome(id = "1, 1", expect = ACCEPTABLE_INTERESTING, desc = "Renewal published between the checks")
+@Outcome(id = "0, 0", expect = FORBIDDEN, desc = "Saw license B, then license A again")
+@State
+public class CheckModuleRenewalTest {
+
+    private final LicenseManager manager = Fixtures.newManager();
+
+    public CheckModuleRenewalTest() {
+        manager.activate(Fixtures.CODE_A);
+    }
+
+    @Actor
+    public void renew() {
+        manager.activate(Fixtures.CODE_B);
+    }
+
+    @Actor
+    public void check(II_Result r) {
+        r.r1 = granted("base");
+        r.r2 = granted("advanced");
+    }
+
+    private int granted(String module) {
+        try {
+            manager.checkModule(module);
+            return 1;
+        } catch (LicenseException e) {
+            return 0;
+        }
+    }
+
+    @Arbiter
+    public void close() {
+        manager.close();
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.ebingbo.ilicense.jcstress;
+
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+import java.nio.file.Path;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Two concurrent activations: the license in memory must be the one persisted to license.dat.
+ * <p>
+ * r1 = license in memory, r2 = license in the file (1 = A, 2 = B).
+ */
+@JCStressTest
+@Outcome(id = "1, 1", expect = ACCEPTABLE, desc = "A activated last")
+@Outcome(id = "2, 2", expect = ACCEPTABLE, desc = "B activated last")
+@Outcome(id = {"1, 2", "2, 1"}, expect = FORBIDDEN, desc = "Memory and license.dat disagree")
+@State
+public class ConcurrentActivateTest {
+
+    private final Path file = Fixtures.newLicenseFile();
+    private final LicenseManager manager = Fixtures.newManager(file);
+
+    @Actor
+    public void activateA() {
+        manager.activate(Fixtures.CODE_A);
+    }
+
+    @Actor
+    public void activateB() {
+        manager.activate(Fixtures.CODE_B);
+    }
+
+    @Arbiter
+    public void arbiter(II_Result r) {
+        r.r1 = Fixtures.licenseId(manager.getCurrentLicense().getLicenseCode());
+        r.r2 = Fixtures.storedLicenseId(file);
+        manager.close();
+        Fixtures.delete(file);
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.ebingbo.ilicense.jcstress;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.ebingbo.ilicense.config.LicenseClientProperties;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicenseValidator;
+import io.github.ebingbo.ilicense.event.LicenseEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared keys, activation codes and validator for the stress tests.
+ * <p>
+ * The validator is shared so that its verification cache keeps RSA out of the measured interleavings;
+ * every state object still gets its own {@link LicenseManager}, which its arbiter closes.
+ */
+final class Fixtures {
+
+    static final String CODE_A;
+    static final String CODE_B;
+    static final String LICENSE_A = "LIC-A";
+    static final String LICENSE_B = "LIC-B";
+
+    private static final LicenseValidator VALIDATOR;
+    private static final Path DIRECTORY;
+    private static final Path SCRATCH_FILE;
+    private static final AtomicLong FILES = new AtomicLong();
+
+    static {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+            CODE_A = sign(keyPair, LICENSE_A, OffsetDateTime.now().plusDays(90), "base");
+            CODE_B = sign(keyPair, LICENSE_B, OffsetDateTime.now().plusDays(180), "advanced");
+            VALIDATOR = new LicenseValidator("-----BEGIN PUBLIC KEY-----\n"
+                    + Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded())
+                    + "\n-----END PUBLIC KEY-----");
+            DIRECTORY = Files.createTempDirectory("ilicense-jcstress");
+            SCRATCH_FILE = DIRECTORY.resolve("scratch.dat");
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Fixtures() {
+    }
+
+    /**
+     * Manager whose license.dat is shared with other states; for tests that never read the file back.
+     */
+    static LicenseManager newManager() {
+        return newManager(SCRATCH_FILE);
+    }
+
+    static Path newLicenseFile() {
+        return DIRECTORY.resolve("license-" + FILES.incrementAndGet() + ".dat");
+    }
+
+    static LicenseManager newManager(Path storagePath) {
+        LicenseClientProperties properties = new LicenseClientProperties();
+        properties.setStoragePath(storagePath.toString());
+        return new LicenseManager(properties, VALIDATOR, LicenseEventListener.NO_OP);
+    }
+
+    /**
+     * {@code 0} for no license, {@code 1} for license A, {@code 2} for license B.
+     */
+    static int licenseId(String licenseCode) {
+        if (licenseCode == null) {
+            return 0;
+        }
+        return LICENSE_A.equals(licenseCode) ? 1 : LICENSE_B.equals(licenseCode) ? 2 : -1;
+    }
+
+    static int storedLicenseId(Path file) {
+        try {
+            String code = Files.readString(file, StandardCharsets.UTF_8);
+            return CODE_A.equals(code) ? 1 : CODE_B.equals(code) ? 2 : -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // left for the temp directory cleanup
+        }
+    }
+
+    private static String sign(KeyPair keyPair, String licenseCode, OffsetDateTime expireAt, String modules)
+            throws Exception {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("license_code", licenseCode);
+        payload.put("customer_code", "CUST-001");
+        payload.put("customer_name", "Stress Customer");
+        payload.put("product_code", "PRD-001");
+        payload.put("product_name", "Stress Product");
+        payload.put("issue_at", OffsetDateTime.now().minusDays(1));
+        payload.put("expire_at", expireAt);
+        payload.put("modules", modules);
+        payload.put("max_instances", 10);
+
+        byte[] data = mapper.writeValueAsBytes(payload);
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(data);
+        byte[] signed = signature.sign();
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + data.length + 4 + signed.length);
+        buffer.putInt(data.length).put(data).putInt(signed.length).put(signed);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+}
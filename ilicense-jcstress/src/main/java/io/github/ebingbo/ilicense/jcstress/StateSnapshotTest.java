@@ -0,0 +1,56 @@
+package io.github.ebingbo.ilicense.jcstress;
+
+import io.github.ebingbo.ilicense.core.LicenseInfo;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicenseState;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * A state snapshot read during renewal must be internally consistent: its precomputed expiry matches its
+ * own license, and the license modules match the license code.
+ * <p>
+ * r1 = license seen (1 = A, 2 = B), r2 = snapshot consistent.
+ */
+@JCStressTest
+@Outcome(id = "1, 1", expect = ACCEPTABLE, desc = "Consistent snapshot of license A")
+@Outcome(id = "2, 1", expect = ACCEPTABLE, desc = "Consistent snapshot of license B")
+@Outcome(id = ".*, 0", expect = FORBIDDEN, desc = "Torn snapshot")
+@State
+public class StateSnapshotTest {
+
+    private final LicenseManager manager = Fixtures.newManager();
+
+    public StateSnapshotTest() {
+        manager.activate(Fixtures.CODE_A);
+    }
+
+    @Actor
+    public void renew() {
+        manager.activate(Fixtures.CODE_B);
+    }
+
+    @Actor
+    public void read(II_Result r) {
+        LicenseState state = manager.getState();
+        LicenseInfo license = state.getLicense();
+        r.r1 = Fixtures.licenseId(license.getLicenseCode());
+
+        boolean expiryMatches = state.getExpireAt().equals(license.getExpireAt().toInstant());
+        boolean modulesMatch = r.r1 == 1 ? license.hasModule("base") && !license.hasModule("advanced")
+                : license.hasModule("advanced") && !license.hasModule("base");
+        r.r2 = expiryMatches && modulesMatch && state.isActivated() ? 1 : 0;
+    }
+
+    @Arbiter
+    public void close() {
+        manager.close();
+    }
+}
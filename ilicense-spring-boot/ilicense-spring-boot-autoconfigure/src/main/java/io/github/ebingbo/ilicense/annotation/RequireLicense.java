@@ -20,6 +20,22 @@ public @interface RequireLicense {
     @AliasFor("value")
     String module() default "";
 
+    /**
+     * 需要消耗的配额/限流特性名称（如 api、users），为空表示不消耗
+     * 限流特性按次消耗；计数型配额在方法执行期间占用，执行结束后释放
+     */
+    String quota() default "";
+
+    /**
+     * 每次调用消耗的配额数量
+     */
+    long permits() default 1;
+
+    /**
+     * 是否为只读操作，降级期内只读操作仍允许执行
+     */
+    boolean readOnly() default false;
+
     /**
      * 错误提示信息
      */
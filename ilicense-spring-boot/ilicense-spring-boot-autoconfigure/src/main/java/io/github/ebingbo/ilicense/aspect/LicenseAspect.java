@@ -1,8 +1,10 @@
 package io.github.ebingbo.ilicense.aspect;
 
 import io.github.ebingbo.ilicense.annotation.RequireLicense;
+import io.github.ebingbo.ilicense.core.LicenseDecisionContext;
 import io.github.ebingbo.ilicense.core.LicenseManager;
 import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.jfr.LicenseGuardDeniedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -10,15 +12,43 @@ import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enforces {@link RequireLicense} according to the method's return type, which is resolved once per method:
+ * <ul>
+ *     <li>{@code Mono} / {@code Flux}: the check runs on every subscription and a denial is an error signal</li>
+ *     <li>{@code CompletableFuture} / {@code CompletionStage}: a denial is a failed future</li>
+ *     <li>anything else: the check runs before the call and a denial is thrown</li>
+ * </ul>
+ * Quota permits are released when the call returns, the future completes or the publisher terminates.
+ */
 @Slf4j
 @Aspect
 @Component
 @RequiredArgsConstructor
 public class LicenseAspect {
 
+    private static final boolean REACTOR_PRESENT =
+            ClassUtils.isPresent("reactor.core.publisher.Flux", LicenseAspect.class.getClassLoader());
+    private static final String SCHEDULED_METHOD_RUNNABLE =
+            "org.springframework.scheduling.support.ScheduledMethodRunnable";
+
     private final LicenseManager licenseManager;
+    private final Map<Method, Guard> guards = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Optional<RequireLicense>> typeAnnotations = new ConcurrentHashMap<>();
 
     @Around("@annotation(io.github.ebingbo.ilicense.annotation.RequireLicense) || " +
             "@within(io.github.ebingbo.ilicense.annotation.RequireLicense)")
@@ -26,31 +56,238 @@ public class LicenseAspect {
 
         log.info("license check start ...");
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        RequireLicense annotation = AnnotatedElementUtils.findMergedAnnotation(signature.getMethod(), RequireLicense.class);
+        Guard guard = guards.computeIfAbsent(signature.getMethod(), Guard::of);
+        RequireLicense annotation = guard.annotation();
 
         if (annotation == null) {
-            annotation = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), RequireLicense.class);
+            annotation = typeAnnotations.computeIfAbsent(joinPoint.getTarget().getClass(),
+                    type -> Optional.ofNullable(AnnotatedElementUtils.findMergedAnnotation(type, RequireLicense.class)))
+                    .orElse(null);
         }
         if (annotation == null) {
             log.info("license check end, not found @RequireLicense annotation");
             return joinPoint.proceed();
         }
 
+        return switch (guard.kind()) {
+            case MONO -> ReactorGuards.mono(this, joinPoint, annotation, signature);
+            case FLUX -> ReactorGuards.flux(this, joinPoint, annotation, signature);
+            case FUTURE -> checkFuture(joinPoint, annotation, signature);
+            case SYNC -> checkSync(joinPoint, annotation, signature, guard.scheduled());
+        };
+    }
+
+    private Object checkSync(ProceedingJoinPoint joinPoint, RequireLicense annotation, MethodSignature signature,
+                             boolean scheduled) throws Throwable {
+        // joins the request's context, or opens one for calls outside a request such as scheduled jobs
+        try (LicenseDecisionContext ignored = licenseManager.openDecisionContext()) {
+            boolean release;
+            try {
+                release = enter(annotation);
+            } catch (LicenseException e) {
+                denied(e, annotation, signature);
+                if (scheduled && calledByScheduler()) {
+                    // 定时任务本次执行跳过，下次触发时重新校验
+                    log.warn("license check fail, scheduled run skipped - {}: {}", signature.toShortString(), e.getMessage());
+                    return null;
+                }
+                log.error("license check fail: {}", e.getMessage());
+                throw e;
+            }
+            // exceptions from the method body propagate unchanged, even license exceptions
+            try {
+                return joinPoint.proceed();
+            } finally {
+                if (release) {
+                    exit(annotation);
+                }
+            }
+        }
+    }
+
+    private Object checkFuture(ProceedingJoinPoint joinPoint, RequireLicense annotation, MethodSignature signature)
+            throws Throwable {
+        boolean release;
+        try (LicenseDecisionContext ignored = licenseManager.openDecisionContext()) {
+            release = enter(annotation);
+        } catch (LicenseException e) {
+            denied(e, annotation, signature);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        Object result;
         try {
+            result = joinPoint.proceed();
+        } catch (Throwable t) {
+            if (release) {
+                exit(annotation);
+            }
+            throw t;
+        }
+        if (release) {
+            if (result instanceof CompletionStage<?> stage) {
+                stage.whenComplete((value, error) -> exit(annotation));
+            } else {
+                exit(annotation);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks the license or module and takes the quota permits; returns whether permits must be released.
+     */
+    boolean enter(RequireLicense annotation) {
+        String requiredModule = annotation.module();
+        if (requiredModule.isEmpty()) {
             // 检查License有效性
-            licenseManager.checkLicense();
+            licenseManager.checkLicense(annotation.readOnly());
+        } else {
+            // 检查License有效性及模块权限
+            licenseManager.checkModule(requiredModule, annotation.readOnly());
+        }
+
+        String quota = annotation.quota();
+        if (quota.isEmpty()) {
+            return false;
+        }
+        // 消耗配额/限流许可
+        licenseManager.acquire(quota, annotation.permits());
+        return licenseManager.getEntitlementEnforcer().isQuota(quota);
+    }
+
+    void exit(RequireLicense annotation) {
+        licenseManager.release(annotation.quota(), annotation.permits());
+    }
 
-            // 检查模块权限
-            String requiredModule = annotation.module();
-            if (!requiredModule.isEmpty()) {
-                licenseManager.checkModule(requiredModule);
+    /**
+     * Whether the denied call was made by the scheduler itself rather than by application code: the first
+     * frame above the proxy and reflection machinery belongs to Spring's {@code ScheduledMethodRunnable}.
+     * Only walked on denial.
+     */
+    static boolean calledByScheduler() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .map(StackWalker.StackFrame::getClassName)
+                .filter(className -> !isInvocationFrame(className))
+                .findFirst()
+                .map(SCHEDULED_METHOD_RUNNABLE::equals)
+                .orElse(false));
+    }
+
+    private static boolean isInvocationFrame(String className) {
+        return className.startsWith(LicenseAspect.class.getName())
+                || className.startsWith("org.springframework.aop.")
+                || className.startsWith("org.springframework.cglib.")
+                || className.contains("$$SpringCGLIB$$")
+                || className.startsWith("org.aspectj.")
+                || className.startsWith("java.lang.reflect.")
+                || className.startsWith("java.lang.invoke.")
+                || className.startsWith("jdk.internal.reflect.")
+                || className.startsWith("jdk.proxy");
+    }
+
+    void denied(LicenseException e, RequireLicense annotation, MethodSignature signature) {
+        LicenseGuardDeniedEvent.emit("aspect", e.getMessage(), annotation.module(), signature.toShortString());
+        if (log.isDebugEnabled()) {
+            log.debug("license check fail - {}: {}", signature.toShortString(), e.getMessage());
+        }
+    }
+
+    enum Kind {
+        SYNC, FUTURE, MONO, FLUX
+    }
+
+    record Guard(RequireLicense annotation, Kind kind, boolean scheduled) {
+
+        static Guard of(Method method) {
+            RequireLicense annotation = AnnotatedElementUtils.findMergedAnnotation(method, RequireLicense.class);
+            // the scheduler discards what a job returns, so only void jobs can be skipped without a value
+            boolean scheduled = method.getReturnType() == void.class
+                    && (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                    || AnnotatedElementUtils.hasAnnotation(method, Schedules.class));
+            return new Guard(annotation, kind(method.getReturnType()), scheduled);
+        }
+
+        private static Kind kind(Class<?> returnType) {
+            if (returnType == CompletableFuture.class || returnType == CompletionStage.class) {
+                return Kind.FUTURE;
             }
+            if (REACTOR_PRESENT) {
+                if (Mono.class.isAssignableFrom(returnType)) {
+                    return Kind.MONO;
+                }
+                if (Flux.class.isAssignableFrom(returnType)) {
+                    return Kind.FLUX;
+                }
+            }
+            return Kind.SYNC;
+        }
+    }
 
-            return joinPoint.proceed();
+    /**
+     * Only loaded when Reactor is on the classpath. The check, the quota permits and the method call itself
+     * all run on each subscription, so a denied subscription never executes the method body.
+     */
+    static final class ReactorGuards {
 
-        } catch (LicenseException e) {
-            log.error("license check fail: {}", e.getMessage());
-            throw e;
+        private ReactorGuards() {
+        }
+
+        static Object mono(LicenseAspect aspect, ProceedingJoinPoint joinPoint, RequireLicense annotation,
+                           MethodSignature signature) {
+            return Mono.defer(() -> {
+                boolean release;
+                try {
+                    release = aspect.enter(annotation);
+                } catch (LicenseException e) {
+                    aspect.denied(e, annotation, signature);
+                    return Mono.error(e);
+                }
+                Mono<Object> source;
+                try {
+                    source = proceed(joinPoint);
+                } catch (Throwable t) {
+                    if (release) {
+                        aspect.exit(annotation);
+                    }
+                    return Mono.error(t);
+                }
+                if (source == null) {
+                    source = Mono.empty();
+                }
+                return release ? source.doFinally(s -> aspect.exit(annotation)) : source;
+            });
+        }
+
+        static Object flux(LicenseAspect aspect, ProceedingJoinPoint joinPoint, RequireLicense annotation,
+                           MethodSignature signature) {
+            return Flux.defer(() -> {
+                boolean release;
+                try {
+                    release = aspect.enter(annotation);
+                } catch (LicenseException e) {
+                    aspect.denied(e, annotation, signature);
+                    return Flux.error(e);
+                }
+                Flux<Object> source;
+                try {
+                    source = proceed(joinPoint);
+                } catch (Throwable t) {
+                    if (release) {
+                        aspect.exit(annotation);
+                    }
+                    return Flux.error(t);
+                }
+                if (source == null) {
+                    source = Flux.empty();
+                }
+                return release ? source.doFinally(s -> aspect.exit(annotation)) : source;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <P> P proceed(ProceedingJoinPoint joinPoint) throws Throwable {
+            return (P) joinPoint.proceed();
         }
     }
 }
@@ -0,0 +1,48 @@
+package io.github.ebingbo.ilicense.autoconfigure;
+
+import io.github.ebingbo.ilicense.config.LicenseProperties;
+import io.github.ebingbo.ilicense.controller.ActivationClientKeyResolver;
+import io.github.ebingbo.ilicense.controller.ActivationRateLimitInterceptor;
+import io.github.ebingbo.ilicense.controller.ActivationRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnProperty(
+        prefix = "license",
+        name = "enable-api",
+        havingValue = "true",
+        matchIfMissing = true
+)
+public class LicenseApiConfiguration implements WebMvcConfigurer {
+
+    private final LicenseProperties properties;
+    private final ObjectProvider<ActivationClientKeyResolver> keyResolver;
+
+    public LicenseApiConfiguration(LicenseProperties properties, ObjectProvider<ActivationClientKeyResolver> keyResolver) {
+        this.properties = properties;
+        this.keyResolver = keyResolver;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (properties.getActivateRateLimit() <= 0) {
+            return;
+        }
+        String path = properties.getApiPrefix() + "/activate";
+        log.info("activation rate limit register ... path: {}, per minute: {}", path, properties.getActivateRateLimit());
+        registry.addInterceptor(new ActivationRateLimitInterceptor(new ActivationRateLimiter(
+                        properties.getActivateRateLimit(),
+                        properties.getActivateRateBurst(),
+                        properties.getActivateRateMaxClients()),
+                        keyResolver.getIfAvailable(() -> ActivationClientKeyResolver.REMOTE_ADDRESS)))
+                .addPathPatterns(path);
+    }
+}
@@ -1,14 +1,25 @@
 package io.github.ebingbo.ilicense.autoconfigure;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.ebingbo.ilicense.aspect.LicenseAspect;
+import io.github.ebingbo.ilicense.broadcast.LicenseBroadcaster;
 import io.github.ebingbo.ilicense.config.LicenseClientProperties;
 import io.github.ebingbo.ilicense.config.LicenseProperties;
+import io.github.ebingbo.ilicense.controller.CachedJsonResponses;
 import io.github.ebingbo.ilicense.controller.LicenseController;
+import io.github.ebingbo.ilicense.core.LicenseKeyRing;
 import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicensePayloadCipher;
 import io.github.ebingbo.ilicense.core.LicenseValidator;
+import io.github.ebingbo.ilicense.core.LicenseWarmup;
 import io.github.ebingbo.ilicense.event.LicenseEventListener;
 import io.github.ebingbo.ilicense.listener.DefaultLicenseEventListener;
+import io.github.ebingbo.ilicense.online.OnlineLicenseClient;
+import io.github.ebingbo.ilicense.route.RouteModuleTrie;
+import io.github.ebingbo.ilicense.store.LicenseStore;
+import io.github.ebingbo.ilicense.store.LicenseStores;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -18,12 +29,19 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.util.StringUtils;
 
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Slf4j
 @AutoConfiguration
 @EnableConfigurationProperties(LicenseProperties.class)
-@Import({LicenseSchedulingConfiguration.class, LicenseWebConfiguration.class})
+@Import({LicenseSchedulingConfiguration.class, LicenseWebConfiguration.class, LicenseFilterConfiguration.class,
+        LicenseTokenConfiguration.class, LicenseDecisionContextConfiguration.class, LicenseApiConfiguration.class})
 @ConditionalOnProperty(
         prefix = "license",
         name = "enabled",
@@ -34,15 +52,56 @@ public class LicenseAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public LicenseValidator licenseValidator(LicenseProperties properties) {
-        if (!StringUtils.hasText(properties.getPublicKey())) {
+    public LicenseKeyRing licenseKeyRing(LicenseProperties properties) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        if (StringUtils.hasText(properties.getPublicKey())) {
+            keys.put(LicenseKeyRing.DEFAULT_KEY_ID, properties.getPublicKey());
+        }
+        keys.putAll(properties.getPublicKeys());
+
+        if (keys.isEmpty() && !StringUtils.hasText(properties.getPublicKeyLocation())) {
             throw new IllegalArgumentException(
-                    "license public key not configure, please in application.yml configure license.public-key"
+                    "license public key not configure, please in application.yml configure license.public-key, " +
+                            "license.public-keys or license.public-key-location"
             );
         }
 
-        log.info("license validator init ...");
-        return new LicenseValidator(properties.getPublicKey());
+        String primaryKeyId = properties.getPrimaryKeyId();
+        if (!StringUtils.hasText(primaryKeyId) && StringUtils.hasText(properties.getPublicKey())) {
+            primaryKeyId = LicenseKeyRing.DEFAULT_KEY_ID;
+        }
+
+        LicenseKeyRing keyRing = new LicenseKeyRing(keys, primaryKeyId, properties.getPublicKeyLocation());
+        log.info("license key ring init ... key ids: {}, location: {}", keyRing.getKeyIds(), properties.getPublicKeyLocation());
+        return keyRing;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LicenseValidator licenseValidator(LicenseKeyRing licenseKeyRing, LicenseProperties properties) {
+        LicensePayloadCipher payloadCipher = null;
+        if (StringUtils.hasText(properties.getPayloadPrivateKey())) {
+            payloadCipher = LicensePayloadCipher.fromPem(properties.getPayloadPrivateKey());
+        } else if (StringUtils.hasText(properties.getPayloadPrivateKeyLocation())) {
+            payloadCipher = LicensePayloadCipher.fromFile(Path.of(properties.getPayloadPrivateKeyLocation()));
+        }
+        log.info("license validator init ... cache size: {}, payload decryption: {}",
+                properties.getValidationCacheSize(), payloadCipher != null);
+        return new LicenseValidator(
+                licenseKeyRing,
+                properties.getValidationCacheSize(),
+                properties.getValidationCacheTtl(),
+                properties.getValidationFailureCacheTtl(),
+                payloadCipher
+        );
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RouteModuleTrie licenseRouteModules(LicenseProperties properties) {
+        RouteModuleTrie routeModules = RouteModuleTrie.compile(properties.getRouteModules());
+        log.info("license route modules compiled - rules: {}", routeModules.size());
+        return routeModules;
     }
 
     @Bean
@@ -56,16 +115,48 @@ public class LicenseAutoConfiguration {
     public LicenseManager licenseManager(
             LicenseProperties properties,
             LicenseValidator validator,
-            LicenseEventListener eventListener) {
+            LicenseEventListener eventListener,
+            ObjectProvider<LicenseStore> licenseStore,
+            ObjectProvider<DataSource> dataSource,
+            ObjectProvider<LicenseBroadcaster> licenseBroadcaster) {
 
-        log.info("license manager init ... storage path: {}, is validate on startup: {}, is allow start when expired: {}",
-                properties.getStoragePath(), properties.isValidateOnStartup(), properties.isAllowStartWhenExpired());
+        log.info("license manager init ... store chain: {}, storage path: {}, is validate on startup: {}, is allow start when expired: {}",
+                properties.getStoreChain(), properties.getStoragePath(), properties.isValidateOnStartup(),
+                properties.isAllowStartWhenExpired());
 
-        LicenseManager licenseManager = new LicenseManager(toClientProperties(properties), validator, eventListener);
+        LicenseClientProperties clientProperties = toClientProperties(properties);
+        // only resolve the application's DataSource when the chain actually has a jdbc store
+        DataSource jdbc = LicenseStores.contains(properties.getStoreChain(), LicenseStores.JDBC) ? dataSource.getIfAvailable() : null;
+        LicenseStore store = licenseStore.getIfAvailable(() -> LicenseStores.create(clientProperties, jdbc));
+        LicenseManager licenseManager = new LicenseManager(clientProperties, validator, eventListener, store,
+                licenseBroadcaster.getIfAvailable());
         licenseManager.init();
         return licenseManager;
     }
 
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "license", name = "online-enabled", havingValue = "true")
+    public OnlineLicenseClient onlineLicenseClient(LicenseProperties properties, LicenseManager licenseManager) {
+        log.info("license online client init ... server url: {}, check-in interval: {}",
+                properties.getServerUrl(), properties.getCheckInInterval());
+        OnlineLicenseClient client = new OnlineLicenseClient(toClientProperties(properties), licenseManager);
+        client.start();
+        return client;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "license", name = "warmup-enabled", havingValue = "true")
+    public LicenseWarmupRunner licenseWarmupRunner(LicenseValidator validator,
+                                                   LicenseManager licenseManager,
+                                                   LicenseProperties properties,
+                                                   RouteModuleTrie routeModules) {
+        log.info("license warm-up enabled ... validation iterations: {}, guard iterations: {}",
+                properties.getWarmupValidationIterations(), properties.getWarmupGuardIterations());
+        return new LicenseWarmupRunner(new LicenseWarmup(validator, licenseManager), properties, routeModules);
+    }
+
     @Bean
     @ConditionalOnClass(name = "org.aspectj.lang.ProceedingJoinPoint")
     @ConditionalOnMissingBean
@@ -83,9 +174,15 @@ public class LicenseAutoConfiguration {
             havingValue = "true",
             matchIfMissing = true
     )
-    public LicenseController licenseController(LicenseManager licenseManager) {
+    public LicenseController licenseController(LicenseManager licenseManager,
+                                               LicenseProperties properties,
+                                               ObjectProvider<ObjectMapper> objectMapper) {
         log.info("license controller init ... api prefix: {}", "${license.api-prefix:/api/license}");
-        return new LicenseController(licenseManager);
+        CachedJsonResponses responses = new CachedJsonResponses(
+                objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build()),
+                properties.getApiCacheMaxAge()
+        );
+        return new LicenseController(licenseManager, responses, properties.getMeteringExportToken());
     }
 
     @Bean
@@ -108,7 +205,58 @@ public class LicenseAutoConfiguration {
         clientProperties.setValidateOnStartup(properties.isValidateOnStartup());
         clientProperties.setAllowStartWhenExpired(properties.isAllowStartWhenExpired());
         clientProperties.setExpiryWarningDays(properties.getExpiryWarningDays());
+        clientProperties.setGracePeriod(properties.getGracePeriod());
+        clientProperties.setDegradedPeriod(properties.getDegradedPeriod());
+        clientProperties.setDegradedModules(properties.getDegradedModules());
+        clientProperties.setDegradedReadOnly(properties.isDegradedReadOnly());
         clientProperties.setApiPrefix(properties.getApiPrefix());
+        clientProperties.setRevocationListPath(properties.getRevocationListPath());
+        clientProperties.setClockTrackingEnabled(properties.isClockTrackingEnabled());
+        clientProperties.setClockPersistInterval(properties.getClockPersistInterval());
+        clientProperties.setClockRollbackTolerance(properties.getClockRollbackTolerance());
+        clientProperties.setClockRollbackAction(properties.getClockRollbackAction());
+        clientProperties.setClockRollbackGracePeriod(properties.getClockRollbackGracePeriod());
+        clientProperties.setClockSecret(properties.getClockSecret());
+        clientProperties.setSharedStatusRole(properties.getSharedStatusRole());
+        clientProperties.setSharedStatusPath(properties.getSharedStatusPath());
+        clientProperties.setSharedStatusSecret(properties.getSharedStatusSecret());
+        clientProperties.setOnlineEnabled(properties.isOnlineEnabled());
+        clientProperties.setServerUrl(properties.getServerUrl());
+        clientProperties.setLicenseKey(properties.getLicenseKey());
+        clientProperties.setInstanceId(properties.getInstanceId());
+        clientProperties.setCheckInInterval(properties.getCheckInInterval());
+        clientProperties.setOnlineRequestTimeout(properties.getOnlineRequestTimeout());
+        clientProperties.setOnlineBackoffBase(properties.getOnlineBackoffBase());
+        clientProperties.setOnlineBackoffMax(properties.getOnlineBackoffMax());
+        clientProperties.setOnlineStartupJitter(properties.getOnlineStartupJitter());
+        clientProperties.setOnlineCachePath(properties.getOnlineCachePath());
+        clientProperties.setMeteringEnabled(properties.isMeteringEnabled());
+        clientProperties.setMeteringPath(properties.getMeteringPath());
+        clientProperties.setMeteringFlushInterval(properties.getMeteringFlushInterval());
+        clientProperties.setMeteringSegmentSize(properties.getMeteringSegmentSize().toBytes());
+        clientProperties.setMeteringMaxSegments(properties.getMeteringMaxSegments());
+        clientProperties.setMeteringSecret(properties.getMeteringSecret());
+        clientProperties.setBindingEnabled(properties.isBindingEnabled());
+        clientProperties.setBindingRequired(properties.isBindingRequired());
+        clientProperties.setBindingMinMatches(properties.getBindingMinMatches());
+        clientProperties.setBindingRefreshInterval(properties.getBindingRefreshInterval());
+        clientProperties.setBindingTimeout(properties.getBindingTimeout());
+        clientProperties.setStoreChain(properties.getStoreChain());
+        clientProperties.setStoreEnvVariable(properties.getStoreEnvVariable());
+        clientProperties.setStoreSecretDirectory(properties.getStoreSecretDirectory());
+        clientProperties.setStoreSecretKey(properties.getStoreSecretKey());
+        clientProperties.setStoreClasspathResource(properties.getStoreClasspathResource());
+        clientProperties.setStoreJdbcTable(properties.getStoreJdbcTable());
+        clientProperties.setStoreJdbcName(properties.getStoreJdbcName());
+        clientProperties.setStoreJdbcInitialize(properties.isStoreJdbcInitialize());
+        clientProperties.setBroadcastType(properties.getBroadcastType());
+        clientProperties.setBroadcastDirectory(properties.getBroadcastDirectory());
+        clientProperties.setBroadcastPollInterval(properties.getBroadcastPollInterval());
+        clientProperties.setBroadcastGroup(properties.getBroadcastGroup());
+        clientProperties.setBroadcastPort(properties.getBroadcastPort());
+        clientProperties.setBroadcastInterface(properties.getBroadcastInterface());
+        clientProperties.setBroadcastTtl(properties.getBroadcastTtl());
+        clientProperties.setBroadcastCoalesceWindow(properties.getBroadcastCoalesceWindow());
         return clientProperties;
     }
 }
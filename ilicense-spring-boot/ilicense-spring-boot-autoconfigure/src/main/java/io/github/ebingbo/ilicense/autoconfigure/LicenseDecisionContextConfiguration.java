@@ -0,0 +1,35 @@
+package io.github.ebingbo.ilicense.autoconfigure;
+
+import io.github.ebingbo.ilicense.config.LicenseProperties;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.filter.LicenseDecisionContextFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LicenseDecisionContextConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "licenseDecisionContextFilterRegistration")
+    public FilterRegistrationBean<LicenseDecisionContextFilter> licenseDecisionContextFilterRegistration(
+            LicenseManager licenseManager,
+            LicenseProperties properties) {
+        // wraps the guard filter so that it shares the request's context, or at least its usage scope
+        int order = properties.getFilterOrder() - 1;
+        log.info("license decision context filter register ... order: {}, pinned: {}",
+                order, properties.isDecisionContextEnabled());
+
+        FilterRegistrationBean<LicenseDecisionContextFilter> registration = new FilterRegistrationBean<>(
+                new LicenseDecisionContextFilter(licenseManager, properties.isDecisionContextEnabled()));
+        registration.setName("licenseDecisionContextFilter");
+        registration.setOrder(order);
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
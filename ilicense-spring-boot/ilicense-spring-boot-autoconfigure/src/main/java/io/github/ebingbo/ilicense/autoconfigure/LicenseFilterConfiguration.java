@@ -0,0 +1,49 @@
+package io.github.ebingbo.ilicense.autoconfigure;
+
+import io.github.ebingbo.ilicense.config.LicenseProperties;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.filter.LicenseGuardFilter;
+import io.github.ebingbo.ilicense.route.RouteModuleTrie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(
+        prefix = "license",
+        name = "enable-filter",
+        havingValue = "true",
+        matchIfMissing = false
+)
+public class LicenseFilterConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "licenseGuardFilterRegistration")
+    public FilterRegistrationBean<LicenseGuardFilter> licenseGuardFilterRegistration(LicenseManager licenseManager,
+                                                                                   LicenseProperties properties,
+                                                                                   RouteModuleTrie routeModules) {
+        log.info("license filter register ... order: {}, include path pattern: {}, exclude path pattern: {}",
+                properties.getFilterOrder(), properties.getInterceptUrlPatterns(), properties.getExcludeUrlPatterns());
+
+        LicenseGuardFilter filter = new LicenseGuardFilter(
+                licenseManager,
+                properties.getInterceptUrlPatterns(),
+                properties.getExcludeUrlPatterns(),
+                routeModules,
+                properties.isFilterCloseConnectionOnDenial(),
+                properties.getFilterDenialCloseThreshold()
+        );
+
+        FilterRegistrationBean<LicenseGuardFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setName("licenseGuardFilter");
+        registration.setOrder(properties.getFilterOrder());
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
@@ -1,9 +1,12 @@
 package io.github.ebingbo.ilicense.autoconfigure;
 
 import io.github.ebingbo.ilicense.config.LicenseProperties;
+import io.github.ebingbo.ilicense.core.LicenseKeyRing;
 import io.github.ebingbo.ilicense.core.LicenseManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -25,6 +28,7 @@ import java.time.Duration;
 public class LicenseSchedulingConfiguration implements SchedulingConfigurer {
     private final LicenseManager licenseManager;
     private final LicenseProperties properties;
+    private final ObjectProvider<LicenseKeyRing> keyRingProvider;
 
     @Override
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
@@ -46,6 +50,40 @@ public class LicenseSchedulingConfiguration implements SchedulingConfigurer {
                 },
                 intervalMillis
         );
+
+        if (StringUtils.hasText(properties.getRevocationListPath())) {
+            Duration revocationInterval = properties.getRevocationCheckInterval();
+            log.info("license revocation list check configured - path: {}, interval: {}",
+                    properties.getRevocationListPath(), formatDuration(revocationInterval));
+
+            taskRegistrar.addFixedDelayTask(
+                    () -> {
+                        try {
+                            licenseManager.refreshRevocationList();
+                        } catch (Exception e) {
+                            log.error("license revocation list check fail", e);
+                        }
+                    },
+                    revocationInterval.toMillis()
+            );
+        }
+
+        LicenseKeyRing keyRing = keyRingProvider.getIfAvailable();
+        if (keyRing != null && keyRing.isReloadable()) {
+            Duration reloadInterval = properties.getKeyReloadInterval();
+            log.info("license key reload check configured - interval: {}", formatDuration(reloadInterval));
+
+            taskRegistrar.addFixedDelayTask(
+                    () -> {
+                        try {
+                            keyRing.reloadIfChanged();
+                        } catch (Exception e) {
+                            log.error("license key reload fail", e);
+                        }
+                    },
+                    reloadInterval.toMillis()
+            );
+        }
     }
 
     private String formatDuration(Duration duration) {
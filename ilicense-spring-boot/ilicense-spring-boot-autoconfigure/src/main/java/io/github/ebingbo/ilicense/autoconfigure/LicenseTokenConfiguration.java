@@ -0,0 +1,78 @@
+package io.github.ebingbo.ilicense.autoconfigure;
+
+import io.github.ebingbo.ilicense.config.LicenseProperties;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.filter.LicenseTokenFilter;
+import io.github.ebingbo.ilicense.interceptor.LicenseTokenClientInterceptor;
+import io.github.ebingbo.ilicense.route.RouteModuleTrie;
+import io.github.ebingbo.ilicense.token.LicenseTokenCodec;
+import io.github.ebingbo.ilicense.token.LicenseTokenIssuer;
+import io.github.ebingbo.ilicense.token.LicenseTokenVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "license", name = "token-secret")
+public class LicenseTokenConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LicenseTokenCodec licenseTokenCodec(LicenseProperties properties) {
+        log.info("license token codec init ... modules: {}", properties.getTokenModules());
+        return new LicenseTokenCodec(properties.getTokenSecret(), properties.getTokenModules());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LicenseTokenIssuer licenseTokenIssuer(LicenseTokenCodec codec,
+                                                 LicenseManager licenseManager,
+                                                 LicenseProperties properties) {
+        return new LicenseTokenIssuer(codec, licenseManager, properties.getTokenTtl());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LicenseTokenVerifier licenseTokenVerifier(LicenseTokenCodec codec, LicenseProperties properties) {
+        return new LicenseTokenVerifier(codec, properties.getTokenCacheSize());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(name = "org.springframework.http.client.ClientHttpRequestInterceptor")
+    public LicenseTokenClientInterceptor licenseTokenClientInterceptor(LicenseTokenIssuer issuer,
+                                                                       LicenseProperties properties) {
+        return new LicenseTokenClientInterceptor(issuer, properties.getTokenHeader());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "licenseTokenFilterRegistration")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(prefix = "license", name = "token-verify-enabled", havingValue = "true")
+    public FilterRegistrationBean<LicenseTokenFilter> licenseTokenFilterRegistration(LicenseTokenVerifier verifier,
+                                                                                     LicenseProperties properties,
+                                                                                     RouteModuleTrie routeModules) {
+        log.info("license token filter register ... header: {}, include path pattern: {}, exclude path pattern: {}",
+                properties.getTokenHeader(), properties.getInterceptUrlPatterns(), properties.getExcludeUrlPatterns());
+
+        LicenseTokenFilter filter = new LicenseTokenFilter(
+                verifier,
+                properties.getTokenHeader(),
+                properties.getInterceptUrlPatterns(),
+                properties.getExcludeUrlPatterns(),
+                routeModules
+        );
+
+        FilterRegistrationBean<LicenseTokenFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setName("licenseTokenFilter");
+        registration.setOrder(properties.getFilterOrder());
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
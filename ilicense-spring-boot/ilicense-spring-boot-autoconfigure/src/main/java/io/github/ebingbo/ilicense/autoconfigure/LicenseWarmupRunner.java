@@ -0,0 +1,52 @@
+package io.github.ebingbo.ilicense.autoconfigure;
+
+import io.github.ebingbo.ilicense.config.LicenseProperties;
+import io.github.ebingbo.ilicense.core.LicenseWarmup;
+import io.github.ebingbo.ilicense.route.RouteModuleTrie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs {@link LicenseWarmup} on a background thread once the application is ready, so startup is not
+ * delayed and the first requests after a deploy hit compiled validation and guard paths.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LicenseWarmupRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final LicenseWarmup warmup;
+    private final LicenseProperties properties;
+    private final RouteModuleTrie routeModules;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Thread thread = new Thread(this::run, "ilicense-warmup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            Set<String> modules = new LinkedHashSet<>(properties.getRouteModules().values());
+            warmup.run(properties.getWarmupValidationIterations(), properties.getWarmupGuardIterations(), modules);
+            // the rules are patterns; resolve paths they match so the wildcard branches get compiled too
+            List<String> paths = properties.getRouteModules().keySet().stream()
+                    .map(RouteModuleTrie::samplePath)
+                    .toList();
+            for (int i = 0; i < properties.getWarmupGuardIterations(); i++) {
+                for (String path : paths) {
+                    routeModules.resolve(path);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("license warm-up failed: {}", e.getMessage());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package io.github.ebingbo.ilicense.autoconfigure;
 import io.github.ebingbo.ilicense.config.LicenseProperties;
 import io.github.ebingbo.ilicense.core.LicenseManager;
 import io.github.ebingbo.ilicense.interceptor.LicenseInterceptor;
+import io.github.ebingbo.ilicense.route.RouteModuleTrie;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
@@ -23,17 +24,20 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class LicenseWebConfiguration implements WebMvcConfigurer {
     private final LicenseProperties properties;
     private final LicenseManager licenseManager;
+    private final RouteModuleTrie routeModules;
 
     public LicenseWebConfiguration(LicenseProperties properties,
-                                   LicenseManager licenseManager) {
+                                   LicenseManager licenseManager,
+                                   RouteModuleTrie routeModules) {
         this.properties = properties;
         this.licenseManager = licenseManager;
+        this.routeModules = routeModules;
     }
 
     @Bean
     public LicenseInterceptor licenseInterceptor() {
         log.info("license interceptor init ...");
-        return new LicenseInterceptor(licenseManager, properties);
+        return new LicenseInterceptor(licenseManager, properties, routeModules);
     }
 
     @Override
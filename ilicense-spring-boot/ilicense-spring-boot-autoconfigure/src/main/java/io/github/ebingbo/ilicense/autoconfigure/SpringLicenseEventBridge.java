@@ -1,10 +1,12 @@
 package io.github.ebingbo.ilicense.autoconfigure;
 
 import io.github.ebingbo.ilicense.core.LicenseInfo;
+import io.github.ebingbo.ilicense.core.LicensePhase;
 import io.github.ebingbo.ilicense.event.LicenseActivatedEvent;
 import io.github.ebingbo.ilicense.event.LicenseEventListener;
 import io.github.ebingbo.ilicense.event.LicenseExpiredEvent;
 import io.github.ebingbo.ilicense.event.LicenseExpiringSoonEvent;
+import io.github.ebingbo.ilicense.event.LicensePhaseChangedEvent;
 import org.springframework.context.ApplicationEventPublisher;
 
 public class SpringLicenseEventBridge implements LicenseEventListener {
@@ -29,4 +31,9 @@ public class SpringLicenseEventBridge implements LicenseEventListener {
     public void onExpiringSoon(LicenseInfo licenseInfo, long daysLeft) {
         eventPublisher.publishEvent(new LicenseExpiringSoonEvent(licenseInfo, daysLeft));
     }
+
+    @Override
+    public void onPhaseChanged(LicenseInfo licenseInfo, LicensePhase phase) {
+        eventPublisher.publishEvent(new LicensePhaseChangedEvent(licenseInfo, phase));
+    }
 }
@@ -1,11 +1,19 @@
 package io.github.ebingbo.ilicense.config;
 
+import io.github.ebingbo.ilicense.clock.ClockRollbackAction;
+import io.github.ebingbo.ilicense.shared.SharedStatusRole;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.convert.DurationUnit;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * License配置属性
@@ -24,6 +32,37 @@ public class LicenseProperties {
      */
     private String publicKey;
 
+    /**
+     * 多公钥配置（key ID -> 公钥），用于签名密钥轮换
+     */
+    private Map<String, String> publicKeys = new LinkedHashMap<>();
+
+    /**
+     * 公钥文件或目录路径（目录下的 *.pem / *.pub 以文件名作为 key ID），支持运行时重新加载
+     */
+    private String publicKeyLocation;
+
+    /**
+     * 激活码未携带 key ID 时使用的公钥ID
+     */
+    private String primaryKeyId;
+
+    /**
+     * 客户端私钥（PKCS#8 PEM），用于解密加密载荷的激活码；未配置时只接受明文签名载荷
+     */
+    private String payloadPrivateKey;
+
+    /**
+     * 客户端私钥文件路径，与 payload-private-key 二选一
+     */
+    private String payloadPrivateKeyLocation;
+
+    /**
+     * 公钥文件变更检查间隔
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration keyReloadInterval = Duration.ofMinutes(1);
+
     /**
      * License存储路径
      */
@@ -39,6 +78,278 @@ public class LicenseProperties {
      */
     private boolean allowStartWhenExpired = true;
 
+    /**
+     * 签名吊销列表（CRL）文件路径，使用与License相同的公钥验签
+     */
+    private String revocationListPath;
+
+    /**
+     * 吊销列表文件变更检查间隔
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration revocationCheckInterval = Duration.ofSeconds(30);
+
+    /**
+     * 是否启用时钟回拨检测（在License文件旁持久化带HMAC的时间高水位）
+     */
+    private boolean clockTrackingEnabled = false;
+
+    /**
+     * 时间高水位最小持久化间隔
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration clockPersistInterval = Duration.ofMinutes(1);
+
+    /**
+     * 允许的时钟回拨误差
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration clockRollbackTolerance = Duration.ofMinutes(5);
+
+    /**
+     * 检测到时钟回拨后的处理方式：GRACE（宽限期后过期）、EXPIRE（立即过期）
+     */
+    private ClockRollbackAction clockRollbackAction = ClockRollbackAction.GRACE;
+
+    /**
+     * 时钟回拨宽限期
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration clockRollbackGracePeriod = Duration.ofHours(24);
+
+    /**
+     * 时间高水位HMAC密钥，开启时钟回拨检测时必须配置
+     */
+    private String clockSecret;
+
+    /**
+     * 同机多进程共享License状态的角色：OFF（独立验证）、PUBLISHER（验证并发布到内存映射状态文件）、SUBSCRIBER（只读映射状态文件，每条新记录验签一次）
+     */
+    private SharedStatusRole sharedStatusRole = SharedStatusRole.OFF;
+
+    /**
+     * 共享状态文件路径，不配置时为License存储路径加 .status 后缀
+     */
+    private String sharedStatusPath;
+
+    /**
+     * 共享状态记录HMAC密钥，同机发布者与订阅者需一致，开启共享状态时必须配置
+     */
+    private String sharedStatusSecret;
+
+    /**
+     * 是否启用在线模式：定期向iLicense服务端签到并拉取/刷新激活码
+     */
+    private boolean onlineEnabled = false;
+
+    /**
+     * iLicense服务端地址，如 https://license.example.com
+     */
+    private String serverUrl;
+
+    /**
+     * 在线签到使用的License Key，作为Bearer令牌发送
+     */
+    private String licenseKey;
+
+    /**
+     * 实例标识，不配置时为主机名加进程号
+     */
+    private String instanceId;
+
+    /**
+     * 在线签到间隔
+     */
+    private Duration checkInInterval = Duration.ofHours(1);
+
+    /**
+     * 在线请求超时时间（含建连）
+     */
+    private Duration onlineRequestTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 签到失败后指数退避的初始间隔，实际等待在区间内随机抖动
+     */
+    private Duration onlineBackoffBase = Duration.ofSeconds(5);
+
+    /**
+     * 签到失败后指数退避的最大间隔
+     */
+    private Duration onlineBackoffMax = Duration.ofMinutes(30);
+
+    /**
+     * 启动后首次签到的最大随机延迟，避免集群重启时集中请求服务端
+     */
+    private Duration onlineStartupJitter = Duration.ofSeconds(10);
+
+    /**
+     * 最近一次服务端下发激活码的缓存文件路径，不配置时为License存储路径加 .online 后缀
+     */
+    private String onlineCachePath;
+
+    /**
+     * 是否启用用量计量，模块校验与特性许可按模块计数并定期写入内存映射日志
+     */
+    private boolean meteringEnabled = false;
+
+    /**
+     * 用量日志路径，不配置时为License存储路径加 .usage 后缀（实际文件为 .usage.1、.usage.2 ...）
+     */
+    private String meteringPath;
+
+    /**
+     * 用量计数写入日志的间隔
+     */
+    private Duration meteringFlushInterval = Duration.ofMinutes(1);
+
+    /**
+     * 单个用量日志分段的大小，写满后滚动到新分段
+     */
+    private DataSize meteringSegmentSize = DataSize.ofMegabytes(1);
+
+    /**
+     * 保留的用量日志分段数，超出时删除最旧的分段并按 WARN 记录丢失的时间段，
+     * 覆盖该时间段的用量汇总通过 {@code missing_before} 标明缺口
+     */
+    private int meteringMaxSegments = 16;
+
+    /**
+     * 用量报告签名密钥（HMAC-SHA256），由厂商下发；签名只防止报告在传递途中被第三方篡改，密钥与用量日志都在客户侧，报告仅供参考，不能作为对客户的计费凭证
+     */
+    private String meteringSecret;
+
+    /**
+     * 导出用量报告接口 GET {api-prefix}/usage/export 的访问令牌，请求须携带 Authorization: Bearer 令牌；不配置时该接口关闭
+     */
+    private String meteringExportToken;
+
+    /**
+     * 是否在启动时预先采集本机指纹（网卡、主机名、machine-id、容器ID）；License载荷中带 machine 声明时无论是否开启都会比对
+     */
+    private boolean bindingEnabled = false;
+
+    /**
+     * 是否要求License必须包含 machine 声明，未绑定的License视为不匹配
+     */
+    private boolean bindingRequired = false;
+
+    /**
+     * 客户侧要求的最少匹配指纹分量数，只能在 License 的 min_matches（未声明时为 2）基础上提高，不能降低，至少为 1
+     */
+    private int bindingMinMatches = 1;
+
+    /**
+     * 本机指纹后台刷新间隔，请求路径只读取缓存的指纹
+     */
+    private Duration bindingRefreshInterval = Duration.ofHours(24);
+
+    /**
+     * 激活或启动校验时等待首次指纹采集完成的最长时间，超时或采集失败时绑定机器的 License 被拒绝，采集完成后自动恢复
+     */
+    private Duration bindingTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 激活码存储链，按顺序读取，第一个有激活码的存储生效；激活写入第一个可写存储。
+     * 可选：file（storage-path）、secret（挂载的密钥卷）、env（环境变量）、classpath、jdbc（需要 DataSource）
+     */
+    private List<String> storeChain = new ArrayList<>(List.of("file"));
+
+    /**
+     * env 存储读取的环境变量名
+     */
+    private String storeEnvVariable = "ILICENSE_ACTIVATION_CODE";
+
+    /**
+     * secret 存储的挂载目录，如 Kubernetes Secret 卷
+     */
+    private String storeSecretDirectory = "/var/run/secrets/ilicense";
+
+    /**
+     * secret 存储中保存激活码的键（文件名）
+     */
+    private String storeSecretKey = "activation-code";
+
+    /**
+     * classpath 存储读取的资源路径
+     */
+    private String storeClasspathResource = "license/activation-code.lic";
+
+    /**
+     * jdbc 存储使用的表名
+     */
+    private String storeJdbcTable = "ilicense_store";
+
+    /**
+     * jdbc 存储中的行名，同一张表可为多个应用保存激活码
+     */
+    private String storeJdbcName = "default";
+
+    /**
+     * 启动时是否自动创建 jdbc 存储表
+     */
+    private boolean storeJdbcInitialize = true;
+
+    /**
+     * 激活广播方式，在一个节点激活后将激活码分发到集群其余节点，各节点重新验签后生效。
+     * 可选：none、directory（共享目录）、multicast（UDP 组播）
+     */
+    private String broadcastType = "none";
+
+    /**
+     * directory 广播使用的共享目录，所有节点需挂载同一目录
+     */
+    private String broadcastDirectory;
+
+    /**
+     * directory 广播轮询共享目录的间隔
+     */
+    private Duration broadcastPollInterval = Duration.ofMillis(250);
+
+    /**
+     * multicast 广播的组播地址
+     */
+    private String broadcastGroup = "239.255.76.73";
+
+    /**
+     * multicast 广播的UDP端口
+     */
+    private int broadcastPort = 7476;
+
+    /**
+     * multicast 广播使用的网卡名，为空时选择第一个支持组播的非回环网卡
+     */
+    private String broadcastInterface;
+
+    /**
+     * multicast 广播的组播TTL，1 表示仅限本网段
+     */
+    private int broadcastTtl = 1;
+
+    /**
+     * 接收端合并突发广播的时间窗口，窗口内只应用最新的激活码
+     */
+    private Duration broadcastCoalesceWindow = Duration.ofMillis(100);
+
+    /**
+     * 是否为每个请求绑定一次License判定上下文，过滤器、拦截器与 @RequireLicense 方法共用同一快照，重复校验直接复用结果；关闭时仍为每个请求绑定用量计量范围，同一模块每个请求只计量一次
+     */
+    private boolean decisionContextEnabled = true;
+
+    /**
+     * 是否在应用就绪后于后台线程预热验签、JSON解析与守卫路径，降低发布后首个请求的延迟
+     */
+    private boolean warmupEnabled = false;
+
+    /**
+     * 预热时使用内置样例执行解码、验签与解析的次数
+     */
+    private int warmupValidationIterations = 200;
+
+    /**
+     * 预热时执行License与模块校验的次数，使JIT编译守卫路径
+     */
+    private int warmupGuardIterations = 20000;
+
     /**
      * 是否启用REST API
      */
@@ -49,11 +360,72 @@ public class LicenseProperties {
      */
     private String apiPrefix = "/api/license";
 
+    /**
+     * 只读API（info/status/health/check-module）的Cache-Control max-age，0 表示 no-cache（每次携带ETag重新验证）
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration apiCacheMaxAge = Duration.ZERO;
+
+    /**
+     * 每个客户端每分钟允许的激活请求数，0 表示不限流；客户端默认按来源 IP 区分，
+     * 反向代理后需配置 {@code server.forward-headers-strategy}，或声明 {@code ActivationClientKeyResolver} Bean
+     */
+    private int activateRateLimit = 10;
+
+    /**
+     * 激活请求限流的突发容量
+     */
+    private int activateRateBurst = 5;
+
+    /**
+     * 激活请求限流单独跟踪的最大客户端数，表满时新客户端共用一个限流桶
+     */
+    private int activateRateMaxClients = 10000;
+
+    /**
+     * 激活码验证结果缓存条数（按激活码SHA-256摘要缓存成功与失败结果），0 表示不缓存
+     */
+    private int validationCacheSize = 1024;
+
+    /**
+     * 验证成功结果缓存时间
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration validationCacheTtl = Duration.ofMinutes(10);
+
+    /**
+     * 验证失败结果缓存时间
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration validationFailureCacheTtl = Duration.ofMinutes(1);
+
     /**
      * 过期提醒天数
      */
     private int expiryWarningDays = 30;
 
+    /**
+     * 过期后的宽限期：全部功能可用，但状态标记为 GRACE
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration gracePeriod = Duration.ZERO;
+
+    /**
+     * 宽限期结束后的降级期：仅允许降级模块及只读访问
+     */
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration degradedPeriod = Duration.ZERO;
+
+    /**
+     * 降级期内仍允许访问的模块
+     */
+    private List<String> degradedModules = new ArrayList<>();
+
+    /**
+     * 降级期内是否允许只读访问（GET/HEAD/OPTIONS 请求、@RequireLicense(readOnly = true)）
+     */
+    private boolean degradedReadOnly = true;
+
     /**
      * License检查间隔
      * 支持格式: 1h, 30m, 3600s, PT1H
@@ -65,11 +437,66 @@ public class LicenseProperties {
      */
     private boolean enableInterceptor = false;
 
+    /**
+     * 是否启用License Servlet过滤器（在DispatcherServlet之前拒绝未授权请求，覆盖非MVC Servlet及静态资源）
+     */
+    private boolean enableFilter = false;
+
+    /**
+     * License过滤器顺序
+     */
+    private int filterOrder = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    /**
+     * 持续拒绝时是否要求关闭连接
+     */
+    private boolean filterCloseConnectionOnDenial = false;
+
+    /**
+     * 每秒拒绝次数超过该阈值时关闭连接
+     */
+    private long filterDenialCloseThreshold = 100;
+
+    /**
+     * 下游License令牌HMAC密钥，至少32字节，边缘服务与内部服务需一致；配置后启用令牌签发与校验组件
+     */
+    private String tokenSecret;
+
+    /**
+     * 令牌模块目录，模块按顺序映射为令牌中的位图，各服务需配置相同的列表
+     */
+    private List<String> tokenModules = new ArrayList<>();
+
+    /**
+     * 令牌有效期，边缘服务在过半时重新签发
+     */
+    private Duration tokenTtl = Duration.ofMinutes(5);
+
+    /**
+     * 携带令牌的请求头
+     */
+    private String tokenHeader = "X-License-Token";
+
+    /**
+     * 是否在下游服务启用令牌校验过滤器（按令牌与路由模块规则授权）；@RequireLicense 与拦截器仍校验本地 License
+     */
+    private boolean tokenVerifyEnabled = false;
+
+    /**
+     * 已验证令牌缓存容量
+     */
+    private int tokenCacheSize = 256;
+
     /**
      * 需要拦截的URL模式
      */
     private String[] interceptUrlPatterns = new String[]{"/**"};
 
+    /**
+     * 路由到模块的授权规则（URL模式 -> 模块），启动时编译为路径前缀树，拦截器与过滤器按请求路径一次查找所需模块
+     */
+    private Map<String, String> routeModules = new LinkedHashMap<>();
+
     /**
      * 排除拦截的URL模式
      */
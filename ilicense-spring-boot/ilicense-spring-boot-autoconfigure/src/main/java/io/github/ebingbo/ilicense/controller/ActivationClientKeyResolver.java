@@ -0,0 +1,19 @@
+package io.github.ebingbo.ilicense.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolves the key {@link ActivationRateLimiter} buckets an activation request under.
+ * <p>
+ * The default keys on {@link HttpServletRequest#getRemoteAddr()}. Behind a reverse proxy or load balancer
+ * that is the proxy's address unless {@code server.forward-headers-strategy} is set, which makes Spring
+ * or the container rewrite it from the forwarded headers. Declare a bean of this type to key on something
+ * else, such as a header set by a trusted gateway.
+ */
+@FunctionalInterface
+public interface ActivationClientKeyResolver {
+
+    ActivationClientKeyResolver REMOTE_ADDRESS = HttpServletRequest::getRemoteAddr;
+
+    String resolve(HttpServletRequest request);
+}
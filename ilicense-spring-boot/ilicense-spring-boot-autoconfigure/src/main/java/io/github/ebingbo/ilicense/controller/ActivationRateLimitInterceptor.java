@@ -0,0 +1,42 @@
+package io.github.ebingbo.ilicense.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link ActivationRateLimiter} to the activation endpoint before the handler runs, so throttled
+ * requests are refused with 429 and {@code Retry-After} without their body being read or bound. Clients are
+ * told apart by the {@link ActivationClientKeyResolver}.
+ */
+@RequiredArgsConstructor
+public class ActivationRateLimitInterceptor implements HandlerInterceptor {
+
+    private static final byte[] REJECTION =
+            "{\"code\":-1,\"message\":\"too many activation attempts\",\"data\":null}".getBytes(StandardCharsets.UTF_8);
+
+    private final ActivationRateLimiter rateLimiter;
+    private final ActivationClientKeyResolver keyResolver;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        long waitNanos = rateLimiter.tryAcquire(keyResolver.resolve(request));
+        if (waitNanos <= 0) {
+            return true;
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(REJECTION.length);
+        response.getOutputStream().write(REJECTION);
+        return false;
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.ebingbo.ilicense.controller;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token bucket for the activation endpoint.
+ * <p>
+ * Each client holds a single theoretical arrival time (GCRA), so a check is one map lookup and one CAS.
+ * At most {@code maxClients} clients get their own bucket; while the table is full, new clients share one
+ * overflow bucket, so memory stays bounded and flooding the table with keys does not lift the limit.
+ * Refilled clients are swept once per refill period by the first request that finds the sweep due, never
+ * on the path that admits a new client.
+ */
+public class ActivationRateLimiter {
+
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final long sweepIntervalNanos;
+    private final int maxClients;
+    private final ConcurrentHashMap<String, AtomicLong> clients = new ConcurrentHashMap<>();
+    private final AtomicInteger tracked = new AtomicInteger();
+    private final AtomicLong overflow = new AtomicLong(UNSET);
+    private final AtomicLong nextSweep = new AtomicLong(UNSET);
+
+    public ActivationRateLimiter(int permitsPerMinute, int burst, int maxClients) {
+        if (permitsPerMinute <= 0) {
+            throw new IllegalArgumentException("permitsPerMinute must be positive");
+        }
+        this.emissionIntervalNanos = Duration.ofMinutes(1).toNanos() / permitsPerMinute;
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, burst - 1);
+        // a bucket idle this long has refilled completely and carries no state worth keeping
+        this.sweepIntervalNanos = burstToleranceNanos + emissionIntervalNanos;
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * @return {@code 0} when the request is allowed, otherwise the nanoseconds until the next permit
+     */
+    public long tryAcquire(String client) {
+        return tryAcquire(client, System.nanoTime());
+    }
+
+    long tryAcquire(String client, long now) {
+        sweepIfDue(now);
+        AtomicLong arrival = client == null ? null : clients.get(client);
+        if (arrival == null && client != null) {
+            arrival = clients.computeIfAbsent(client, c -> track(now));
+        }
+        if (arrival == null) {
+            arrival = overflow;
+            arrival.compareAndSet(UNSET, now);
+        }
+        while (true) {
+            long tat = arrival.get();
+            long base = tat - now > 0 ? tat : now;
+            long wait = base - burstToleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(tat, base + emissionIntervalNanos)) {
+                return 0L;
+            }
+        }
+    }
+
+    int size() {
+        return tracked.get();
+    }
+
+    /**
+     * Reserves a slot for a new client, or returns {@code null} when the table is full, which leaves the
+     * key unmapped.
+     */
+    private AtomicLong track(long now) {
+        if (tracked.incrementAndGet() > maxClients) {
+            tracked.decrementAndGet();
+            return null;
+        }
+        return new AtomicLong(now);
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (due == UNSET) {
+            nextSweep.compareAndSet(UNSET, now + sweepIntervalNanos);
+            return;
+        }
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + sweepIntervalNanos)) {
+            return;
+        }
+        for (Map.Entry<String, AtomicLong> entry : clients.entrySet()) {
+            if (entry.getValue().get() - now <= 0 && clients.remove(entry.getKey(), entry.getValue())) {
+                tracked.decrementAndGet();
+            }
+        }
+    }
+}
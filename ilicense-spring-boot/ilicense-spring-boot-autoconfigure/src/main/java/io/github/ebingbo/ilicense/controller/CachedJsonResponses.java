@@ -0,0 +1,70 @@
+package io.github.ebingbo.ilicense.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Pre-serialized JSON bodies for the read-only license API, one per resource and license state version.
+ * <p>
+ * The ETag is derived from the version alone, so a matching {@code If-None-Match} is answered with 304
+ * before any DTO is built or serialized. A body is serialized at most once per version.
+ */
+public class CachedJsonResponses {
+
+    private static final int MAX_ENTRIES = 256;
+
+    private final ObjectMapper objectMapper;
+    private final CacheControl cacheControl;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public CachedJsonResponses(ObjectMapper objectMapper, Duration maxAge) {
+        this.objectMapper = objectMapper;
+        this.cacheControl = maxAge == null || maxAge.isZero() || maxAge.isNegative()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(maxAge).cachePrivate();
+    }
+
+    public ResponseEntity<byte[]> respond(ServletWebRequest request, String resource, String version,
+                                          Supplier<?> body) {
+        String etag = "\"" + version + "\"";
+        if (request.checkNotModified(etag)) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            return null;
+        }
+
+        Entry entry = entries.get(resource);
+        if (entry == null || !entry.etag.equals(etag)) {
+            if (entries.size() >= MAX_ENTRIES) {
+                entries.clear();
+            }
+            entry = new Entry(etag, serialize(body.get()));
+            entries.put(resource, entry);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .body(entry.body);
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new LicenseException("failed to serialize license response", e);
+        }
+    }
+
+    private record Entry(String etag, byte[] body) {
+    }
+}
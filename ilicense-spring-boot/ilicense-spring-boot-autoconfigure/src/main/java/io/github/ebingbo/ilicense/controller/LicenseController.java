@@ -1,12 +1,26 @@
 package io.github.ebingbo.ilicense.controller;
 
+import io.github.ebingbo.ilicense.binding.MachineFingerprint;
+import io.github.ebingbo.ilicense.core.LicenseDecisionContext;
 import io.github.ebingbo.ilicense.core.LicenseInfo;
 import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicensePhase;
+import io.github.ebingbo.ilicense.core.LicenseState;
 import io.github.ebingbo.ilicense.exception.LicenseException;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * License REST API
@@ -19,13 +33,14 @@ import org.springframework.web.bind.annotation.*;
 public class LicenseController {
 
     private final LicenseManager licenseManager;
+    private final CachedJsonResponses responses;
+    private final String usageExportToken;
 
     /**
-     * 激活License
+     * 激活License，按客户端限流由 {@link ActivationRateLimitInterceptor} 在请求体绑定前完成
      */
     @PostMapping("/activate")
-    public Result<LicenseInfo> activate(
-            @RequestBody ActivateRequest request) {
+    public Result<LicenseInfo> activate(@RequestBody ActivateRequest request) {
         try {
             LicenseInfo info = licenseManager.activate(request.getActivationCode());
             return Result.success(info, "activation successful");
@@ -38,73 +53,160 @@ public class LicenseController {
      * 获取License信息
      */
     @GetMapping("/info")
-    public Result<LicenseInfo> getInfo() {
-        LicenseInfo info = licenseManager.getCurrentLicense();
-        if (info == null) {
-            return Result.error("system not activated");
-        }
-        return Result.success(info);
+    public ResponseEntity<byte[]> getInfo(ServletWebRequest request) {
+        Snapshot snapshot = snapshot();
+        return responses.respond(request, "info", snapshot.version(), () -> {
+            LicenseInfo info = snapshot.license();
+            if (info == null) {
+                return Result.error("system not activated");
+            }
+            return Result.success(info);
+        });
     }
 
     /**
      * 检查License状态
      */
     @GetMapping("/status")
-    public Result<LicenseStatus> getStatus() {
-        LicenseInfo info = licenseManager.getCurrentLicense();
+    public ResponseEntity<byte[]> getStatus(ServletWebRequest request) {
+        Snapshot snapshot = snapshot();
+        return responses.respond(request, "status", snapshot.version(), () -> {
+            LicenseInfo info = snapshot.license();
 
-        if (info == null) {
-            LicenseStatus status = new LicenseStatus(
-                    false, "not activated", null, 0
-            );
-            return Result.success(status);
-        }
+            if (info == null) {
+                LicenseStatus status = new LicenseStatus(
+                        false, "not activated", null, 0, LicensePhase.BLOCKED
+                );
+                return Result.success(status);
+            }
 
-        boolean valid = !info.isExpired();
-        String statusText = valid ? "valid" : "expired";
+            LicensePhase phase = snapshot.phase();
+            boolean valid = phase.isUsable();
+            // 与 valid 同源：吊销、时钟回拨、机器不匹配时为 blocked，过期宽限期内为 grace
+            String statusText = switch (phase) {
+                case ACTIVE, WARNING -> "valid";
+                case GRACE -> "grace";
+                case DEGRADED -> "degraded";
+                case BLOCKED -> "blocked";
+            };
 
-        LicenseStatus status = new LicenseStatus(
-                valid, statusText, info.getExpireAt(), info.getDaysLeft()
-        );
+            LicenseStatus status = new LicenseStatus(
+                    valid, statusText, info.getExpireAt(), snapshot.daysLeft(), phase
+            );
 
-        return Result.success(status);
+            return Result.success(status);
+        });
     }
 
     /**
      * 检查模块权限
      */
     @GetMapping("/check-module")
-    public Result<ModuleCheckResult> checkModule(
-            @RequestParam String moduleName) {
+    public ResponseEntity<byte[]> checkModule(
+            @RequestParam("moduleName") String moduleName,
+            ServletWebRequest request) {
+
+        Snapshot snapshot = snapshot();
+        return responses.respond(request, "check-module:" + moduleName, snapshot.version(), () -> {
+            boolean hasModule = snapshot.license() != null && snapshot.license().hasModule(moduleName);
+            String message = hasModule ? "authorized" : "unauthorized";
 
-        boolean hasModule = licenseManager.hasModule(moduleName);
-        String message = hasModule ? "authorized" : "unauthorized";
+            ModuleCheckResult result = new ModuleCheckResult(
+                    moduleName, hasModule, message
+            );
 
-        ModuleCheckResult result = new ModuleCheckResult(
-                moduleName, hasModule, message
-        );
+            return Result.success(result);
+        });
+    }
 
-        return Result.success(result);
+    /**
+     * 本机指纹（各分量均为SHA-256摘要），提供给厂商签发绑定本机的License
+     */
+    @GetMapping("/fingerprint")
+    public Result<Map<String, Set<String>>> fingerprint() {
+        MachineFingerprint fingerprint = licenseManager.getMachineFingerprint();
+        if (fingerprint == null) {
+            return Result.error("machine fingerprint not available");
+        }
+        return Result.success(fingerprint.getComponents());
+    }
+
+    /**
+     * 导出签名的用量汇总，仅供参考；须携带 {@code license.metering-export-token} 令牌，未配置令牌时接口关闭
+     */
+    @GetMapping("/usage/export")
+    public ResponseEntity<Result<String>> exportUsage(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestParam(name = "from", required = false) Instant from,
+            @RequestParam(name = "to", required = false) Instant to) {
+        if (usageExportToken == null || usageExportToken.isBlank()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Result.error("usage export disabled"));
+        }
+        if (!bearerMatches(authorization)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Result.error("unauthorized"));
+        }
+        try {
+            return ResponseEntity.ok(Result.success(licenseManager.exportUsage(
+                    from == null ? Instant.EPOCH : from,
+                    to == null ? Instant.now() : to)));
+        } catch (LicenseException e) {
+            return ResponseEntity.ok(Result.error(e.getMessage()));
+        }
+    }
+
+    private boolean bearerMatches(String authorization) {
+        String prefix = "Bearer ";
+        if (authorization == null || !authorization.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            return false;
+        }
+        byte[] presented = authorization.substring(prefix.length()).trim().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(presented, usageExportToken.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
      * 健康检查
      */
     @GetMapping("/health")
-    public Result<HealthStatus> health() {
-        boolean valid = licenseManager.isValid();
-        LicenseInfo info = licenseManager.getCurrentLicense();
+    public ResponseEntity<byte[]> health(ServletWebRequest request) {
+        Snapshot snapshot = snapshot();
+        return responses.respond(request, "health", snapshot.version(), () -> {
+            LicenseInfo info = snapshot.license();
+
+            HealthStatus health = new HealthStatus();
+            health.setLicenseValid(info != null && snapshot.phase().isUsable());
+            health.setActivated(info != null);
 
-        HealthStatus health = new HealthStatus();
-        health.setLicenseValid(valid);
-        health.setActivated(info != null);
+            if (info != null) {
+                health.setDaysLeft(snapshot.daysLeft());
+                health.setExpiryDate(info.getExpireAt());
+            }
+
+            return Result.success(health);
+        });
+    }
 
-        if (info != null) {
-            health.setDaysLeft(info.getDaysLeft());
-            health.setExpiryDate(info.getExpireAt());
+    /**
+     * 读取一次状态快照与阶段，ETag 与响应体都由它生成，避免两者之间状态变化导致 ETag 与内容不符
+     */
+    private Snapshot snapshot() {
+        try (LicenseDecisionContext context = licenseManager.openDecisionContext()) {
+            LicenseInfo info = context.getState().getLicense();
+            return new Snapshot(context.getState(), context.getPhase(), info == null ? 0 : info.getDaysLeft());
         }
+    }
 
-        return Result.success(health);
+    /**
+     * 状态版本：快照代数 + 当前阶段 + 剩余天数，任一变化都会产生新的ETag
+     */
+    private record Snapshot(LicenseState state, LicensePhase phase, long daysLeft) {
+
+        LicenseInfo license() {
+            return state.getLicense();
+        }
+
+        String version() {
+            return state.getGeneration() + "-" + phase.ordinal() + "-" + daysLeft;
+        }
     }
 
     // DTO类
@@ -120,6 +222,7 @@ public class LicenseController {
         private final String status;
         private final Object expiryDate;
         private final long daysLeft;
+        private final LicensePhase phase;
     }
 
     @Data
@@ -0,0 +1,18 @@
+package io.github.ebingbo.ilicense.event;
+
+import io.github.ebingbo.ilicense.core.LicenseInfo;
+import io.github.ebingbo.ilicense.core.LicensePhase;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+@Getter
+public class LicensePhaseChangedEvent extends ApplicationEvent {
+    private final LicenseInfo licenseInfo;
+    private final LicensePhase phase;
+
+    public LicensePhaseChangedEvent(LicenseInfo licenseInfo, LicensePhase phase) {
+        super(licenseInfo);
+        this.licenseInfo = licenseInfo;
+        this.phase = phase;
+    }
+}
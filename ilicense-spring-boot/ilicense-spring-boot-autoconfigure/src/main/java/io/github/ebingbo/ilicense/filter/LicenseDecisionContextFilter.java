@@ -0,0 +1,43 @@
+package io.github.ebingbo.ilicense.filter;
+
+import io.github.ebingbo.ilicense.core.LicenseDecisionContext;
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicenseUsageScope;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Binds one {@link LicenseDecisionContext} to each request, so the guard filter, the interceptor and every
+ * {@code @RequireLicense} method invoked while handling it decide against the same license snapshot and
+ * repeated checks are answered from the context. With {@code pinDecisions} off it binds only a
+ * {@link LicenseUsageScope}: every check reads the live state, but a module is still metered once per request.
+ */
+public class LicenseDecisionContextFilter implements Filter {
+
+    private final LicenseManager licenseManager;
+    private final boolean pinDecisions;
+
+    public LicenseDecisionContextFilter(LicenseManager licenseManager, boolean pinDecisions) {
+        this.licenseManager = licenseManager;
+        this.pinDecisions = pinDecisions;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!pinDecisions) {
+            try (LicenseUsageScope ignored = licenseManager.openUsageScope()) {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+        try (LicenseDecisionContext ignored = licenseManager.openDecisionContext()) {
+            chain.doFilter(request, response);
+        }
+    }
+}
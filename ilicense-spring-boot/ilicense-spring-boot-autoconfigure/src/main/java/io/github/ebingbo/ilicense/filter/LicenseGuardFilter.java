@@ -0,0 +1,168 @@
+package io.github.ebingbo.ilicense.filter;
+
+import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicensePhase;
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.jfr.LicenseGuardDeniedEvent;
+import io.github.ebingbo.ilicense.interceptor.LicenseInterceptor;
+import io.github.ebingbo.ilicense.route.RouteModuleTrie;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * License guard that runs in the servlet filter chain, ahead of the DispatcherServlet.
+ * <p>
+ * Covers every servlet in the container, not only Spring MVC handlers. Path patterns are compiled once,
+ * the request body is never read, and the rejection body is serialized once per distinct message. When
+ * more than {@code closeThreshold} requests are refused within one second, rejections ask the container to
+ * close the connection so that clients hammering the endpoint pay for a new handshake.
+ */
+@Slf4j
+public class LicenseGuardFilter implements Filter {
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final LicenseManager licenseManager;
+    private final PathPattern[] includePatterns;
+    private final PathPattern[] excludePatterns;
+    private final RouteModuleTrie routeModules;
+    private final boolean closeConnectionOnDenial;
+    private final long closeThreshold;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong windowDenials = new AtomicLong();
+
+    private volatile Rejection lastRejection = new Rejection("", new byte[0]);
+
+    public LicenseGuardFilter(LicenseManager licenseManager,
+                              String[] includePatterns,
+                              String[] excludePatterns,
+                              RouteModuleTrie routeModules,
+                              boolean closeConnectionOnDenial,
+                              long closeThreshold) {
+        this.licenseManager = licenseManager;
+        this.includePatterns = compile(includePatterns);
+        this.excludePatterns = compile(excludePatterns);
+        this.routeModules = routeModules == null ? RouteModuleTrie.EMPTY : routeModules;
+        this.closeConnectionOnDenial = closeConnectionOnDenial;
+        this.closeThreshold = closeThreshold;
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+
+        String path = LicenseInterceptor.lookupPath(request);
+        if (!isGuarded(path)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String module = routeModules.resolve(path);
+        LicensePhase phase;
+        try {
+            phase = licenseManager.checkAccess(LicenseInterceptor.isReadOnly(request), module);
+        } catch (LicenseException e) {
+            LicenseGuardDeniedEvent.emit("filter", e.getMessage(), module, path);
+            reject(request, response, e);
+            return;
+        }
+
+        if (phase != LicensePhase.ACTIVE) {
+            response.setHeader(LicenseInterceptor.PHASE_HEADER, phase.name());
+        }
+        chain.doFilter(request, response);
+    }
+
+    private boolean isGuarded(String lookupPath) {
+        PathContainer path = PathContainer.parsePath(lookupPath);
+        return matches(includePatterns, path) && !matches(excludePatterns, path);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, LicenseException e) throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("license filter blocked request {}: {}", request.getRequestURI(), e.getMessage());
+        }
+
+        Rejection rejection = rejection(e.getMessage());
+        response.setStatus(HttpStatus.FORBIDDEN.value());
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(rejection.body.length);
+        if (closeConnectionOnDenial && isSustainedDenial()) {
+            response.setHeader("Connection", "close");
+        }
+        response.getOutputStream().write(rejection.body);
+    }
+
+    private boolean isSustainedDenial() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            windowDenials.set(0);
+        }
+        return windowDenials.incrementAndGet() > closeThreshold;
+    }
+
+    private Rejection rejection(String message) {
+        Rejection cached = lastRejection;
+        if (cached.message.equals(message)) {
+            return cached;
+        }
+        byte[] body = ("{\"code\":403,\"message\":\"" + escape(message) + "\"}").getBytes(StandardCharsets.UTF_8);
+        Rejection rejection = new Rejection(message, body);
+        lastRejection = rejection;
+        return rejection;
+    }
+
+    private static boolean matches(PathPattern[] patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static PathPattern[] compile(String[] patterns) {
+        if (patterns == null) {
+            return new PathPattern[0];
+        }
+        PathPatternParser parser = new PathPatternParser();
+        return Arrays.stream(patterns).map(parser::parse).toArray(PathPattern[]::new);
+    }
+
+    static String escape(String message) {
+        StringBuilder escaped = new StringBuilder(message.length() + 8);
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c < 0x20 ? ' ' : c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private record Rejection(String message, byte[] body) {
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.ebingbo.ilicense.filter;
+
+import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.jfr.LicenseGuardDeniedEvent;
+import io.github.ebingbo.ilicense.interceptor.LicenseInterceptor;
+import io.github.ebingbo.ilicense.route.RouteModuleTrie;
+import io.github.ebingbo.ilicense.token.LicenseToken;
+import io.github.ebingbo.ilicense.token.LicenseTokenVerifier;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Downstream counterpart of {@link LicenseGuardFilter}: authorizes requests from the license token minted
+ * by the edge service instead of a local license.
+ * <p>
+ * The verified token is exposed as the {@link #TOKEN_ATTRIBUTE} request attribute. Route-to-module rules
+ * are checked against the token's module bitset. The token covers these rules only: {@code @RequireLicense}
+ * and {@code LicenseInterceptor} keep checking the local {@code LicenseManager}, so a service that uses
+ * them still needs a locally activated license.
+ */
+@Slf4j
+public class LicenseTokenFilter implements Filter {
+
+    public static final String TOKEN_ATTRIBUTE = LicenseTokenFilter.class.getName() + ".TOKEN";
+
+    private static final int MAX_CACHED_REJECTIONS = 64;
+
+    private final LicenseTokenVerifier verifier;
+    private final String header;
+    private final PathPattern[] includePatterns;
+    private final PathPattern[] excludePatterns;
+    private final RouteModuleTrie routeModules;
+    private final ConcurrentHashMap<String, byte[]> rejections = new ConcurrentHashMap<>();
+
+    public LicenseTokenFilter(LicenseTokenVerifier verifier,
+                              String header,
+                              String[] includePatterns,
+                              String[] excludePatterns,
+                              RouteModuleTrie routeModules) {
+        this.verifier = verifier;
+        this.header = header;
+        this.includePatterns = compile(includePatterns);
+        this.excludePatterns = compile(excludePatterns);
+        this.routeModules = routeModules == null ? RouteModuleTrie.EMPTY : routeModules;
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+
+        String path = LicenseInterceptor.lookupPath(request);
+        if (!isGuarded(path)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String module = null;
+        try {
+            String value = request.getHeader(header);
+            if (value == null || value.isEmpty()) {
+                throw new LicenseException("license token missing");
+            }
+            LicenseToken token = verifier.verify(value);
+            if (token.isReadOnly() && !LicenseInterceptor.isReadOnly(request)) {
+                throw new LicenseException("license only allows read-only requests");
+            }
+            module = routeModules.resolve(path);
+            if (module != null ? !token.hasModule(module) : token.isModulesOnly()) {
+                throw new LicenseException("unauthorized module: " + (module == null ? path : module));
+            }
+            request.setAttribute(TOKEN_ATTRIBUTE, token);
+        } catch (LicenseException e) {
+            LicenseGuardDeniedEvent.emit("token-filter", e.getMessage(), module, path);
+            reject(request, response, e);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private boolean isGuarded(String lookupPath) {
+        PathContainer path = PathContainer.parsePath(lookupPath);
+        return matches(includePatterns, path) && !matches(excludePatterns, path);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, LicenseException e) throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("license token filter blocked request {}: {}", request.getRequestURI(), e.getMessage());
+        }
+
+        byte[] body = rejections.get(e.getMessage());
+        if (body == null) {
+            body = ("{\"code\":403,\"message\":\"" + LicenseGuardFilter.escape(e.getMessage()) + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            if (rejections.size() < MAX_CACHED_REJECTIONS) {
+                rejections.put(e.getMessage(), body);
+            }
+        }
+        response.setStatus(HttpStatus.FORBIDDEN.value());
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean matches(PathPattern[] patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static PathPattern[] compile(String[] patterns) {
+        if (patterns == null) {
+            return new PathPattern[0];
+        }
+        PathPatternParser parser = new PathPatternParser();
+        return Arrays.stream(patterns).map(parser::parse).toArray(PathPattern[]::new);
+    }
+}
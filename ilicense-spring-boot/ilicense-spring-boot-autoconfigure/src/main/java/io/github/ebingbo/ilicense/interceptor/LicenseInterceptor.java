@@ -2,7 +2,10 @@ package io.github.ebingbo.ilicense.interceptor;
 
 import io.github.ebingbo.ilicense.config.LicenseProperties;
 import io.github.ebingbo.ilicense.core.LicenseManager;
+import io.github.ebingbo.ilicense.core.LicensePhase;
 import io.github.ebingbo.ilicense.exception.LicenseException;
+import io.github.ebingbo.ilicense.jfr.LicenseGuardDeniedEvent;
+import io.github.ebingbo.ilicense.route.RouteModuleTrie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -16,20 +19,30 @@ import org.springframework.web.servlet.HandlerInterceptor;
 @Component
 public class LicenseInterceptor implements HandlerInterceptor {
 
+    public static final String PHASE_HEADER = "X-License-Phase";
+
     private final LicenseManager licenseManager;
     private final LicenseProperties properties;
+    private final RouteModuleTrie routeModules;
 
     @Override
     public boolean preHandle(HttpServletRequest request,
                              HttpServletResponse response,
                              Object handler) throws Exception {
         log.info("license interceptor started processing request {}", request.getRequestURI());
+        String path = lookupPath(request);
+        String module = null;
         try {
-            licenseManager.checkLicense();
+            module = routeModules.resolve(path);
+            LicensePhase phase = licenseManager.checkAccess(isReadOnly(request), module);
+            if (phase != LicensePhase.ACTIVE) {
+                response.setHeader(PHASE_HEADER, phase.name());
+            }
             log.info("license interceptor passed request {}", request.getRequestURI());
             return true;
         } catch (LicenseException e) {
             log.warn("license interceptor blocked request {}: {}", request.getRequestURI(), e.getMessage());
+            LicenseGuardDeniedEvent.emit("interceptor", e.getMessage(), module, path);
             response.setStatus(HttpStatus.FORBIDDEN.value());
             response.setContentType("application/json;charset=UTF-8");
             response.getWriter().write(
@@ -38,4 +51,15 @@ public class LicenseInterceptor implements HandlerInterceptor {
             return false;
         }
     }
+
+    public static String lookupPath(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        return contextPath == null || contextPath.isEmpty() ? uri : uri.substring(contextPath.length());
+    }
+
+    public static boolean isReadOnly(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package io.github.ebingbo.ilicense.interceptor;
+
+import io.github.ebingbo.ilicense.token.LicenseTokenIssuer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Attaches the edge license token to outgoing {@code RestTemplate} / {@code RestClient} calls.
+ * <p>
+ * Register it only on clients that call internal services; the token should not leave the mesh.
+ */
+@RequiredArgsConstructor
+public class LicenseTokenClientInterceptor implements ClientHttpRequestInterceptor {
+
+    private final LicenseTokenIssuer issuer;
+    private final String header;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        request.getHeaders().set(header, issuer.currentToken());
+        return execution.execute(request, body);
+    }
+}
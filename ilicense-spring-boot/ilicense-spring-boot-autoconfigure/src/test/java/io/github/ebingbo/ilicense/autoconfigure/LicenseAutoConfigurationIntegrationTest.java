@@ -2,18 +2,41 @@ package io.github.ebingbo.ilicense.autoconfigure;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.ebingbo.ilicense.annotation.RequireLicense;
+import io.github.ebingbo.ilicense.controller.LicenseController;
 import io.github.ebingbo.ilicense.core.LicenseManager;
 import io.github.ebingbo.ilicense.event.LicenseActivatedEvent;
+import io.github.ebingbo.ilicense.exception.LicenseException;
 import io.github.ebingbo.ilicense.exception.LicenseNotFoundException;
+import io.github.ebingbo.ilicense.filter.LicenseGuardFilter;
+import io.github.ebingbo.ilicense.filter.LicenseTokenFilter;
+import io.github.ebingbo.ilicense.metering.UsageReportSigner;
+import io.github.ebingbo.ilicense.token.LicenseTokenIssuer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -22,14 +45,22 @@ import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.PrivateKey;
 import java.security.Signature;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.Base64;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class LicenseAutoConfigurationIntegrationTest {
 
@@ -69,6 +100,39 @@ class LicenseAutoConfigurationIntegrationTest {
                 });
     }
 
+    @Test
+    void shouldSignalDenialsForAsyncAndReactiveReturnTypes() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        String activationCode = buildActivationCode(keyPair.getPrivate(), OffsetDateTime.now().plusDays(5), "base,advanced");
+        Path storagePath = tempDir.resolve("reactive-license.dat");
+
+        newContextRunner(toPemPublicKey(keyPair), storagePath)
+                .withUserConfiguration(TestServiceConfiguration.class)
+                .run(context -> {
+                    ProtectedService protectedService = context.getBean(ProtectedService.class);
+                    LicenseManager licenseManager = context.getBean(LicenseManager.class);
+
+                    CompletableFuture<String> future = protectedService.asyncCall();
+                    assertThat(future).isCompletedExceptionally();
+                    assertThatThrownBy(future::join).hasCauseInstanceOf(LicenseNotFoundException.class);
+
+                    Mono<String> mono = protectedService.monoCall();
+                    Flux<String> flux = protectedService.fluxCall();
+                    assertThatThrownBy(mono::block).isInstanceOf(LicenseNotFoundException.class);
+                    assertThatThrownBy(flux::blockLast).isInstanceOf(LicenseNotFoundException.class);
+                    // a denied subscription never reaches the method body
+                    assertThat(protectedService.getReactiveCalls()).isZero();
+
+                    licenseManager.activate(activationCode);
+
+                    // the check runs per subscription, so publishers assembled before activation now pass
+                    assertThat(mono.block()).isEqualTo("ok");
+                    assertThat(flux.collectList().block()).containsExactly("a", "b");
+                    assertThat(protectedService.getReactiveCalls()).isEqualTo(2);
+                    assertThat(protectedService.asyncCall().join()).isEqualTo("ok");
+                });
+    }
+
     @Test
     void shouldEnforceRequireLicenseAspectBeforeAndAfterActivation() throws Exception {
         KeyPair keyPair = generateRsaKeyPair();
@@ -81,12 +145,275 @@ class LicenseAutoConfigurationIntegrationTest {
                     ProtectedService protectedService = context.getBean(ProtectedService.class);
                     LicenseManager licenseManager = context.getBean(LicenseManager.class);
 
+                    Runnable scheduler = new ScheduledMethodRunnable(protectedService,
+                            ProtectedService.class.getMethod("scheduledRun"));
+
                     assertThatThrownBy(protectedService::protectedCall)
                             .isInstanceOf(LicenseNotFoundException.class);
+                    scheduler.run();
+                    assertThat(protectedService.getScheduledRuns()).isZero();
+                    assertThatThrownBy(protectedService::scheduledRun)
+                            .isInstanceOf(LicenseNotFoundException.class);
+                    assertThatThrownBy(protectedService::scheduledCount)
+                            .isInstanceOf(LicenseNotFoundException.class);
 
                     licenseManager.activate(activationCode);
 
                     assertThat(protectedService.protectedCall()).isEqualTo("ok");
+                    scheduler.run();
+                    protectedService.scheduledRun();
+                    assertThat(protectedService.getScheduledRuns()).isEqualTo(2);
+                    assertThat(protectedService.scheduledCount()).isEqualTo(2);
+
+                    // a license exception thrown by the body is not a guard denial and is never skipped
+                    Runnable failing = new ScheduledMethodRunnable(protectedService,
+                            ProtectedService.class.getMethod("scheduledFailure"));
+                    assertThatThrownBy(failing::run)
+                            .isInstanceOf(LicenseException.class)
+                            .hasMessage("rejected by the job");
+                    assertThatThrownBy(protectedService::scheduledFailure)
+                            .isInstanceOf(LicenseException.class)
+                            .hasMessage("rejected by the job");
+                });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRejectGuardedRequestsInServletFilterUntilActivated() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        String activationCode = buildActivationCode(keyPair.getPrivate(), OffsetDateTime.now().plusDays(5), "base");
+        Path storagePath = tempDir.resolve("filter-license.dat");
+
+        new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, LicenseAutoConfiguration.class))
+                .withPropertyValues(
+                        "license.enabled=true",
+                        "license.public-key=" + toPemPublicKey(keyPair),
+                        "license.storage-path=" + storagePath,
+                        "license.validate-on-startup=false",
+                        "license.enable-scheduled-check=false",
+                        "license.enable-api=false",
+                        "license.enable-filter=true",
+                        "license.route-modules[/reports/**]=reporting"
+                )
+                .run(context -> {
+                    LicenseGuardFilter filter = ((FilterRegistrationBean<LicenseGuardFilter>)
+                            context.getBean("licenseGuardFilterRegistration")).getFilter();
+
+                    MockHttpServletResponse blocked = new MockHttpServletResponse();
+                    filter.doFilter(new MockHttpServletRequest("GET", "/orders"), blocked, new MockFilterChain());
+                    assertThat(blocked.getStatus()).isEqualTo(403);
+                    assertThat(blocked.getContentAsString()).contains("\"code\":403");
+
+                    MockHttpServletResponse excluded = new MockHttpServletResponse();
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/license/status"), excluded, new MockFilterChain());
+                    assertThat(excluded.getStatus()).isEqualTo(200);
+
+                    context.getBean(LicenseManager.class).activate(activationCode);
+
+                    MockHttpServletResponse passed = new MockHttpServletResponse();
+                    filter.doFilter(new MockHttpServletRequest("GET", "/orders"), passed, new MockFilterChain());
+                    assertThat(passed.getStatus()).isEqualTo(200);
+
+                    // path parameters and percent-escapes do not hide the route from its module rule
+                    for (String uri : new String[]{"/reports/daily", "/reports;x=1/daily", "/%72eports/daily"}) {
+                        MockHttpServletResponse unlicensed = new MockHttpServletResponse();
+                        filter.doFilter(new MockHttpServletRequest("GET", uri), unlicensed, new MockFilterChain());
+                        assertThat(unlicensed.getStatus()).as(uri).isEqualTo(403);
+                    }
+
+                    FilterRegistrationBean<?> decisions = (FilterRegistrationBean<?>)
+                            context.getBean("licenseDecisionContextFilterRegistration");
+                    assertThat(decisions.getOrder()).isLessThan(((FilterRegistrationBean<?>)
+                            context.getBean("licenseGuardFilterRegistration")).getOrder());
+                });
+    }
+
+    @Test
+    void shouldAnswerConditionalGetWithNotModifiedUntilStateChanges() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        String activationCode = buildActivationCode(keyPair.getPrivate(), OffsetDateTime.now().plusDays(5), "base");
+        Path storagePath = tempDir.resolve("etag-license.dat");
+
+        new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, LicenseAutoConfiguration.class))
+                .withPropertyValues(
+                        "license.enabled=true",
+                        "license.public-key=" + toPemPublicKey(keyPair),
+                        "license.storage-path=" + storagePath,
+                        "license.validate-on-startup=false",
+                        "license.enable-scheduled-check=false",
+                        "license.enable-interceptor=false"
+                )
+                .run(context -> {
+                    MockMvc mockMvc = MockMvcBuilders.standaloneSetup(context.getBean(LicenseController.class)).build();
+
+                    MvcResult first = mockMvc.perform(get("/api/license/status"))
+                            .andExpect(status().isOk())
+                            .andExpect(header().string("Cache-Control", "no-cache"))
+                            .andReturn();
+                    String etag = first.getResponse().getHeader("ETag");
+                    assertThat(etag).isNotBlank();
+                    assertThat(first.getResponse().getContentAsString()).contains("not activated");
+
+                    mockMvc.perform(get("/api/license/status").header("If-None-Match", etag))
+                            .andExpect(status().isNotModified())
+                            .andExpect(content().bytes(new byte[0]));
+
+                    context.getBean(LicenseManager.class).activate(activationCode);
+
+                    MvcResult changed = mockMvc.perform(get("/api/license/status").header("If-None-Match", etag))
+                            .andExpect(status().isOk())
+                            .andReturn();
+                    assertThat(changed.getResponse().getHeader("ETag")).isNotEqualTo(etag);
+                    assertThat(changed.getResponse().getContentAsString()).contains("\"phase\":\"WARNING\"")
+                            .contains("\"status\":\"valid\"");
+                });
+    }
+
+    @Test
+    void shouldRequireTokenForUsageExport() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        String activationCode = buildActivationCode(keyPair.getPrivate(), OffsetDateTime.now().plusDays(90), "base");
+
+        WebApplicationContextRunner runner = new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, LicenseAutoConfiguration.class))
+                .withPropertyValues(
+                        "license.enabled=true",
+                        "license.public-key=" + toPemPublicKey(keyPair),
+                        "license.storage-path=" + tempDir.resolve("usage-license.dat"),
+                        "license.validate-on-startup=false",
+                        "license.enable-scheduled-check=false",
+                        "license.enable-interceptor=false",
+                        "license.metering-enabled=true",
+                        "license.metering-secret=vendor-secret"
+                );
+
+        runner.run(context -> {
+            MockMvc mockMvc = MockMvcBuilders.standaloneSetup(context.getBean(LicenseController.class)).build();
+            mockMvc.perform(get("/api/license/usage/export"))
+                    .andExpect(status().isForbidden());
+        });
+
+        runner.withPropertyValues("license.metering-export-token=export-token").run(context -> {
+            context.getBean(LicenseManager.class).activate(activationCode);
+            context.getBean(LicenseManager.class).checkModule("base");
+            MockMvc mockMvc = MockMvcBuilders.standaloneSetup(context.getBean(LicenseController.class)).build();
+
+            mockMvc.perform(get("/api/license/usage/export"))
+                    .andExpect(status().isUnauthorized());
+            mockMvc.perform(get("/api/license/usage/export").header("Authorization", "Bearer wrong-token"))
+                    .andExpect(status().isUnauthorized());
+            MvcResult exported = mockMvc.perform(get("/api/license/usage/export")
+                            .param("to", Instant.now().plusSeconds(60).toString())
+                            .header("Authorization", "Bearer export-token"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String report = new ObjectMapper().readTree(exported.getResponse().getContentAsString()).path("data").asText();
+            assertThat(new UsageReportSigner("vendor-secret").verify(report).modules()).containsEntry("base", 1L);
+        });
+    }
+
+    @Test
+    void shouldThrottleActivationBeforeReadingTheBody() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        Path storagePath = tempDir.resolve("throttle-license.dat");
+
+        new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, JacksonAutoConfiguration.class,
+                        HttpMessageConvertersAutoConfiguration.class, WebMvcAutoConfiguration.class,
+                        LicenseAutoConfiguration.class))
+                .withPropertyValues(
+                        "license.enabled=true",
+                        "license.public-key=" + toPemPublicKey(keyPair),
+                        "license.storage-path=" + storagePath,
+                        "license.validate-on-startup=false",
+                        "license.enable-scheduled-check=false",
+                        "license.enable-interceptor=false",
+                        "license.activate-rate-limit=1",
+                        "license.activate-rate-burst=2"
+                )
+                .run(context -> {
+                    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+                    for (int i = 0; i < 2; i++) {
+                        mockMvc.perform(post("/api/license/activate").with(remoteAddr("10.0.0.7"))
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"activationCode\":\"bogus\"}"))
+                                .andExpect(status().isOk())
+                                .andExpect(content().string(containsString("\"code\":-1")));
+                    }
+
+                    // a malformed body would be a 400 if it were bound, the throttled request never gets that far
+                    mockMvc.perform(post("/api/license/activate").with(remoteAddr("10.0.0.7"))
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{not json"))
+                            .andExpect(status().isTooManyRequests())
+                            .andExpect(header().string("Retry-After", "60"))
+                            .andExpect(content().string(containsString("too many activation attempts")));
+
+                    mockMvc.perform(post("/api/license/activate").with(remoteAddr("10.0.0.8"))
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"activationCode\":\"bogus\"}"))
+                            .andExpect(status().isOk());
+                });
+    }
+
+    private static RequestPostProcessor remoteAddr(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldAuthorizeDownstreamRequestsFromEdgeToken() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        String activationCode = buildActivationCode(keyPair.getPrivate(), OffsetDateTime.now().plusDays(90), "base,analytics.*");
+        Path storagePath = tempDir.resolve("token-license.dat");
+
+        new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, LicenseAutoConfiguration.class))
+                .withPropertyValues(
+                        "license.enabled=true",
+                        "license.public-key=" + toPemPublicKey(keyPair),
+                        "license.storage-path=" + storagePath,
+                        "license.validate-on-startup=false",
+                        "license.enable-scheduled-check=false",
+                        "license.enable-api=false",
+                        "license.token-secret=mesh-secret-0123456789abcdef0123456789",
+                        "license.token-modules=base,analytics.report,billing",
+                        "license.token-verify-enabled=true",
+                        "license.route-modules[/reports/**]=analytics.report",
+                        "license.route-modules[/billing/**]=billing"
+                )
+                .run(context -> {
+                    context.getBean(LicenseManager.class).activate(activationCode);
+                    String token = context.getBean(LicenseTokenIssuer.class).currentToken();
+                    LicenseTokenFilter filter = ((FilterRegistrationBean<LicenseTokenFilter>)
+                            context.getBean("licenseTokenFilterRegistration")).getFilter();
+
+                    MockHttpServletResponse missing = new MockHttpServletResponse();
+                    filter.doFilter(new MockHttpServletRequest("GET", "/reports/daily"), missing, new MockFilterChain());
+                    assertThat(missing.getStatus()).isEqualTo(403);
+                    assertThat(missing.getContentAsString()).contains("license token missing");
+
+                    MockHttpServletRequest report = new MockHttpServletRequest("GET", "/reports/daily");
+                    report.addHeader("X-License-Token", token);
+                    MockHttpServletResponse passed = new MockHttpServletResponse();
+                    filter.doFilter(report, passed, new MockFilterChain());
+                    assertThat(passed.getStatus()).isEqualTo(200);
+                    assertThat(report.getAttribute(LicenseTokenFilter.TOKEN_ATTRIBUTE)).isNotNull();
+
+                    for (String uri : new String[]{"/billing/invoices", "/billing;x=1/invoices", "/%62illing/invoices"}) {
+                        MockHttpServletRequest billing = new MockHttpServletRequest("GET", uri);
+                        billing.addHeader("X-License-Token", token);
+                        MockHttpServletResponse denied = new MockHttpServletResponse();
+                        filter.doFilter(billing, denied, new MockFilterChain());
+                        assertThat(denied.getStatus()).as(uri).isEqualTo(403);
+                        assertThat(denied.getContentAsString()).contains("unauthorized module: billing");
+                    }
                 });
     }
 
@@ -115,10 +442,56 @@ class LicenseAutoConfigurationIntegrationTest {
 
     static class ProtectedService {
 
+        private int scheduledRuns;
+        private int reactiveCalls;
+
         @RequireLicense(module = "advanced")
         public String protectedCall() {
             return "ok";
         }
+
+        @RequireLicense(module = "advanced")
+        @Scheduled(cron = Scheduled.CRON_DISABLED)
+        public void scheduledRun() {
+            scheduledRuns++;
+        }
+
+        public int getScheduledRuns() {
+            return scheduledRuns;
+        }
+
+        @RequireLicense(module = "advanced")
+        @Scheduled(cron = Scheduled.CRON_DISABLED)
+        public int scheduledCount() {
+            return scheduledRuns;
+        }
+
+        @RequireLicense(module = "advanced")
+        @Scheduled(cron = Scheduled.CRON_DISABLED)
+        public void scheduledFailure() {
+            throw new LicenseException("rejected by the job");
+        }
+
+        @RequireLicense(module = "advanced")
+        public CompletableFuture<String> asyncCall() {
+            return CompletableFuture.supplyAsync(() -> "ok");
+        }
+
+        @RequireLicense(module = "advanced")
+        public Mono<String> monoCall() {
+            reactiveCalls++;
+            return Mono.just("ok");
+        }
+
+        @RequireLicense
+        public Flux<String> fluxCall() {
+            reactiveCalls++;
+            return Flux.just("a", "b");
+        }
+
+        public int getReactiveCalls() {
+            return reactiveCalls;
+        }
     }
 
     private static KeyPair generateRsaKeyPair() throws Exception {
@@ -0,0 +1,103 @@
+package io.github.ebingbo.ilicense.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActivationRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void shouldAllowBurstThenRefillOneTokenPerInterval() {
+        ActivationRateLimiter limiter = new ActivationRateLimiter(60, 3, 100);
+        long now = 1_000 * SECOND;
+
+        assertThat(limiter.tryAcquire("10.0.0.1", now)).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1", now)).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1", now)).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1", now)).isEqualTo(SECOND);
+
+        assertThat(limiter.tryAcquire("10.0.0.1", now + SECOND / 2)).isEqualTo(SECOND / 2);
+        assertThat(limiter.tryAcquire("10.0.0.1", now + SECOND)).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1", now + SECOND)).isEqualTo(SECOND);
+
+        // a full refill restores the burst, not more
+        long idle = now + 10 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("10.0.0.1", idle)).isZero();
+        }
+        assertThat(limiter.tryAcquire("10.0.0.1", idle)).isPositive();
+    }
+
+    @Test
+    void shouldLockOutOneClientWithoutAffectingOthers() {
+        ActivationRateLimiter limiter = new ActivationRateLimiter(6, 1, 100);
+        long now = 1_000 * SECOND;
+
+        assertThat(limiter.tryAcquire("attacker", now)).isZero();
+        for (int i = 0; i < 1_000; i++) {
+            // rejected attempts do not consume tokens, so hammering neither extends nor shortens the lockout
+            assertThat(limiter.tryAcquire("attacker", now + i)).isEqualTo(10 * SECOND - i);
+        }
+        assertThat(limiter.tryAcquire("10.0.0.2", now)).isZero();
+        assertThat(limiter.tryAcquire("attacker", now + 10 * SECOND)).isZero();
+    }
+
+    @Test
+    void shouldEvictRefilledClientsWhenTableIsFull() {
+        ActivationRateLimiter limiter = new ActivationRateLimiter(60, 1, 2);
+        long now = 1_000 * SECOND;
+
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now);
+        assertThat(limiter.size()).isEqualTo(2);
+
+        assertThat(limiter.tryAcquire("c", now + 2 * SECOND)).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldShareOneBucketBeyondTheCapUntilTheSweepFreesSlots() {
+        ActivationRateLimiter limiter = new ActivationRateLimiter(1, 1, 2);
+        long now = 1_000 * SECOND;
+
+        assertThat(limiter.tryAcquire("a", now)).isZero();
+        assertThat(limiter.tryAcquire("b", now)).isZero();
+        // the table is full of clients still inside their interval: newcomers share the overflow bucket
+        assertThat(limiter.tryAcquire("c", now + 1)).isZero();
+        assertThat(limiter.tryAcquire("d", now + 2)).isPositive();
+        assertThat(limiter.tryAcquire(null, now + 3)).isPositive();
+        assertThat(limiter.size()).isEqualTo(2);
+
+        // one refill period later the sweep drops a and b and newcomers get their own bucket again
+        assertThat(limiter.tryAcquire("e", now + 60 * SECOND)).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void interceptorShouldBucketByTheResolvedKey() throws Exception {
+        ActivationRateLimitInterceptor interceptor = new ActivationRateLimitInterceptor(
+                new ActivationRateLimiter(1, 1, 100), request -> request.getHeader("X-Client"));
+
+        // both requests arrive from the same proxy address
+        assertThat(interceptor.preHandle(request("tenant-a"), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(request("tenant-b"), new MockHttpServletResponse(), null)).isTrue();
+
+        MockHttpServletResponse throttled = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request("tenant-a"), throttled, null)).isFalse();
+        assertThat(throttled.getStatus()).isEqualTo(429);
+        assertThat(throttled.getHeader("Retry-After")).isNotBlank();
+    }
+
+    private static MockHttpServletRequest request(String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/license/activate");
+        request.setRemoteAddr("10.0.0.254");
+        request.addHeader("X-Client", client);
+        return request;
+    }
+}